@@ -0,0 +1,273 @@
+package com.saqib.fxengine.benchmarks;
+
+import com.saqib.fxengine.BookType;
+import com.saqib.fxengine.Constants;
+import com.saqib.fxengine.CurrencyPair;
+import com.saqib.fxengine.EngineConfig;
+import com.saqib.fxengine.OrderBook;
+import com.saqib.fxengine.TopOfBook;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single book operations on a pre-built book of {@code depth} levels a side with {@code ordersPerLevel} orders each.
+ * <p>
+ * Every benchmark leaves the book as it found it, so the shape holds for the whole run: a fill is followed by putting
+ * an order back, a cancel by re-adding the order at the tail of its level. Those restoring steps are part of each
+ * figure - compare against {@link #addPassive} for the cost of a plain add. Cancels walk every level of both sides in
+ * turn. Passive prices follow {@link PassivePrices#distribution}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookOperationsBenchmark {
+    private static final long MID = 123450;
+    private static final int RESTING_QUANTITY = 1_000;
+    private static final int SWEEP_LEVELS = 5;
+    private static final long USER_ID = 1;
+
+    @Param({"SORTED_MAP", "PRICE_LADDER"})
+    public BookType bookType;
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+
+    @Param({"1", "10"})
+    public int ordersPerLevel;
+
+    private OrderBook book;
+    private final TopOfBook topOfBook = new TopOfBook(5);
+    // Order ids per level in queue order, as rings: level L's queue starts at ids[L * ordersPerLevel + heads[L]].
+    // Levels 0 to depth - 1 are bids from the best outwards, then the asks likewise
+    private long[] ids;
+    private int[] heads;
+    private int levelCursor;
+    private long nextOrderId = 1;
+    private long modifies;
+
+    public enum PriceDistribution {
+        TOUCH,    // Within the best three levels
+        UNIFORM,  // Any existing level
+        WIDE      // Beyond the deepest level, so each add creates a level and its cancel removes it
+    }
+
+    @State(Scope.Thread)
+    public static class PassivePrices {
+        private static final int COUNT = 1024;
+
+        @Param({"TOUCH", "UNIFORM", "WIDE"})
+        public PriceDistribution distribution;
+
+        private final long[] distances = new long[COUNT];  // Ticks behind mid, applied to either side
+        private int next;
+
+        @Setup
+        public void setUp(OrderBookOperationsBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < COUNT; i++) {
+                switch (distribution) {
+                    case TOUCH:
+                        distances[i] = 1 + random.nextInt(Math.min(3, benchmark.depth));
+                        break;
+                    case UNIFORM:
+                        distances[i] = 1 + random.nextInt(benchmark.depth);
+                        break;
+                    case WIDE:
+                    default:
+                        distances[i] = benchmark.depth + 1 + random.nextInt(benchmark.depth);
+                        break;
+                }
+            }
+        }
+
+        long nextDistance() {
+            return distances[next++ & (COUNT - 1)];
+        }
+    }
+
+    // The order modifyPrice moves back and forth, kept out of the other benchmarks' queues
+    @State(Scope.Thread)
+    public static class Mover {
+        private static final long ORDER_ID = Long.MAX_VALUE;
+        private long moves;
+
+        @Setup
+        public void setUp(OrderBookOperationsBenchmark benchmark) {
+            benchmark.book.addOrder(ORDER_ID, Constants.BUY, benchmark.price(benchmark.depth / 2), RESTING_QUANTITY,
+                USER_ID, 0);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        int levels = 2 * depth;
+        EngineConfig config = new EngineConfig()
+            .orderStoreCapacity(levels * ordersPerLevel + 1024)
+            .orderIndexCapacity(levels * ordersPerLevel + 1024);
+        book = new OrderBook(CurrencyPair.EUR_USD, bookType, config);
+        ids = new long[levels * ordersPerLevel];
+        heads = new int[levels];
+        for (int level = 0; level < levels; level++) {
+            for (int i = 0; i < ordersPerLevel; i++) {
+                long orderId = nextOrderId++;
+                ids[level * ordersPerLevel + i] = orderId;
+                book.addOrder(orderId, side(level), price(level), RESTING_QUANTITY, USER_ID, 0);
+            }
+        }
+    }
+
+    // Adds a non-crossing order, then cancels it from the tail of its level
+    @Benchmark
+    public boolean addPassive(PassivePrices prices) {
+        long orderId = nextOrderId++;
+        long distance = prices.nextDistance();
+        byte side = (orderId & 1) == 0 ? Constants.BUY : Constants.SELL;
+        book.addOrder(orderId, side, side == Constants.BUY ? MID - distance : MID + distance, 1, USER_ID, 0);
+        return book.cancelOrder(orderId);
+    }
+
+    // Fills the order at the head of the best level exactly, then rests a replacement at the tail of that level
+    @Benchmark
+    public boolean addAggressive() {
+        boolean buy = (nextOrderId & 1) == 0;
+        long bestAsk = MID + 1;
+        long bestBid = MID - 1;
+        book.addOrder(nextOrderId++, buy ? Constants.BUY : Constants.SELL, buy ? bestAsk : bestBid, RESTING_QUANTITY,
+            USER_ID, 0);
+        return book.addOrder(nextOrderId++, buy ? Constants.SELL : Constants.BUY, buy ? bestAsk : bestBid,
+            RESTING_QUANTITY, USER_ID, 0);
+    }
+
+    // Takes out the best SWEEP_LEVELS ask levels in one order, then rests replacements for everything it filled
+    @Benchmark
+    public boolean sweepLevels() {
+        int levels = Math.min(SWEEP_LEVELS, depth);
+        book.addOrder(nextOrderId++, Constants.BUY, MID + levels, levels * ordersPerLevel * RESTING_QUANTITY, USER_ID,
+            0);
+        boolean added = true;
+        for (int level = 0; level < levels; level++) {
+            for (int i = 0; i < ordersPerLevel; i++) {
+                added &= book.addOrder(nextOrderId++, Constants.SELL, MID + 1 + level, RESTING_QUANTITY, USER_ID, 0);
+            }
+        }
+        return added;
+    }
+
+    // Takes the whole best ask level and a remainder beyond it that expires - compare with limitTakeThenCancel
+    @Benchmark
+    public boolean iocTake() {
+        book.addOrder(nextOrderId++, Constants.BUY, MID + 1, ordersPerLevel * RESTING_QUANTITY + RESTING_QUANTITY,
+            USER_ID, 0, OrderType.LIMIT, TimeInForce.IOC);
+        return restoreBestAsk();
+    }
+
+    // The same take as a GTC order, whose remainder rests and is then cancelled, as a client without IOC would
+    @Benchmark
+    public boolean limitTakeThenCancel() {
+        long orderId = nextOrderId++;
+        book.addOrder(orderId, Constants.BUY, MID + 1, ordersPerLevel * RESTING_QUANTITY + RESTING_QUANTITY, USER_ID,
+            0);
+        book.cancelOrder(orderId);
+        return restoreBestAsk();
+    }
+
+    // Asks for one more than the best ask level holds, so the order expires without touching the book
+    @Benchmark
+    public boolean fokKilled() {
+        return book.addOrder(nextOrderId++, Constants.BUY, MID + 1, ordersPerLevel * RESTING_QUANTITY + 1, USER_ID, 0,
+            OrderType.LIMIT, TimeInForce.FOK);
+    }
+
+    @Benchmark
+    public boolean cancelHead() {
+        int level = nextLevel();
+        long orderId = ids[level * ordersPerLevel + heads[level]];
+        heads[level] = (heads[level] + 1) % ordersPerLevel;  // Re-added at the tail, the ring just rotates
+        return cancelAndReAdd(level, orderId);
+    }
+
+    @Benchmark
+    public boolean cancelMiddle() {
+        int level = nextLevel();
+        int base = level * ordersPerLevel;
+        int position = ordersPerLevel / 2;
+        long orderId = ids[base + (heads[level] + position) % ordersPerLevel];
+        for (int i = position; i < ordersPerLevel - 1; i++) {  // Close the gap; the order goes back in last
+            ids[base + (heads[level] + i) % ordersPerLevel] = ids[base + (heads[level] + i + 1) % ordersPerLevel];
+        }
+        ids[base + (heads[level] + ordersPerLevel - 1) % ordersPerLevel] = orderId;
+        return cancelAndReAdd(level, orderId);
+    }
+
+    @Benchmark
+    public boolean cancelTail() {
+        int level = nextLevel();
+        long orderId = ids[level * ordersPerLevel + (heads[level] + ordersPerLevel - 1) % ordersPerLevel];
+        return cancelAndReAdd(level, orderId);
+    }
+
+    // Same price, so the order keeps its place in the queue
+    @Benchmark
+    public boolean modifyQuantity() {
+        int level = nextLevel();
+        long orderId = ids[level * ordersPerLevel + heads[level]];
+        return book.modifyOrder(orderId, price(level), RESTING_QUANTITY - (int) (modifies++ & 1));
+    }
+
+    // Moves one order between two neighbouring bid levels - each move leaves one queue and joins the back of another
+    @Benchmark
+    public boolean modifyPrice(Mover mover) {
+        int level = depth / 2 + (int) (++mover.moves & 1);
+        return book.modifyOrder(Mover.ORDER_ID, price(level), RESTING_QUANTITY);
+    }
+
+    @Benchmark
+    public TopOfBook readTopOfBook() {
+        return book.readTopOfBook(topOfBook);
+    }
+
+    private boolean restoreBestAsk() {
+        boolean added = true;
+        for (int i = 0; i < ordersPerLevel; i++) {
+            added &= book.addOrder(nextOrderId++, Constants.SELL, MID + 1, RESTING_QUANTITY, USER_ID, 0);
+        }
+        return added;
+    }
+
+    private boolean cancelAndReAdd(int level, long orderId) {
+        book.cancelOrder(orderId);
+        return book.addOrder(orderId, side(level), price(level), RESTING_QUANTITY, USER_ID, 0);
+    }
+
+    private int nextLevel() {
+        int level = levelCursor;
+        levelCursor = level + 1 == 2 * depth ? 0 : level + 1;
+        return level;
+    }
+
+    private byte side(int level) {
+        return level < depth ? Constants.BUY : Constants.SELL;
+    }
+
+    private long price(int level) {
+        return level < depth ? MID - 1 - level : MID + 1 + (level - depth);
+    }
+}
@@ -0,0 +1,155 @@
+package com.saqib.fxengine.benchmarks;
+
+import com.saqib.fxengine.Constants;
+import com.saqib.fxengine.codec.CommandBatchDecoder;
+import com.saqib.fxengine.codec.CommandBatchEncoder;
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.NewOrderDecoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * New-order encode and decode: the flyweight codec against the ByteBuffer code it replaced, which allocated a direct
+ * buffer per submit and moved the shared ByteBuffer's position to decode. {@link #commandBatchDecode} reports the
+ * per-order cost of walking a CommandBatch the way the matching thread does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderCodecBenchmark {
+    private static final int LEGACY_MESSAGE_SIZE = 29;
+    private static final int BATCH_SIZE = 64;
+
+    private final UnsafeBuffer legacyMessage = new UnsafeBuffer(ByteBuffer.allocateDirect(64));
+    private final UnsafeBuffer codecMessage = new UnsafeBuffer(ByteBuffer.allocateDirect(64));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final NewOrderEncoder newOrderEncoder = new NewOrderEncoder();
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final NewOrderDecoder newOrderDecoder = new NewOrderDecoder();
+    private final UnsafeBuffer batchMessage = new UnsafeBuffer(ByteBuffer.allocateDirect(
+        CommandBatchEncoder.encodedLength() + BATCH_SIZE * NewOrderEncoder.encodedLength()));
+    private final CommandBatchDecoder commandBatchDecoder = new CommandBatchDecoder();
+    private long price = 123450;
+
+    @Setup
+    public void setUp() {
+        legacyEncode(legacyMessage, 123450);
+        codecEncode(123450);
+        new CommandBatchEncoder().wrapAndApplyHeader(batchMessage, 0, headerEncoder).count(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            newOrderEncoder.wrapAndApplyHeader(batchMessage,
+                CommandBatchEncoder.encodedLength() + i * NewOrderEncoder.encodedLength(), headerEncoder)
+                .price(123450 + i)
+                .userId(1)
+                .symbol(0)
+                .quantity(100)
+                .side(Constants.BUY)
+                .orderType(OrderType.LIMIT)
+                .timeInForce(TimeInForce.GTC)
+                .clientOrderId(i);
+        }
+    }
+
+    @Benchmark
+    public DirectBuffer legacyEncode() {
+        UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(LEGACY_MESSAGE_SIZE));
+        legacyEncode(buffer, price++);
+        return buffer;
+    }
+
+    @Benchmark
+    public DirectBuffer codecEncode() {
+        codecEncode(price++);
+        return codecMessage;
+    }
+
+    @Benchmark
+    public void legacyDecode(Blackhole blackhole) {
+        blackhole.consume(legacyMessage.getInt(0));
+        ByteBuffer byteBuffer = legacyMessage.byteBuffer();
+        byteBuffer.position(4);
+        blackhole.consume(byteBuffer.getInt());
+        blackhole.consume(byteBuffer.get());
+        blackhole.consume(byteBuffer.getLong());
+        blackhole.consume(byteBuffer.getInt());
+        blackhole.consume(byteBuffer.getLong());
+    }
+
+    @Benchmark
+    public void codecDecode(Blackhole blackhole) {
+        headerDecoder.wrap(codecMessage, 0);
+        blackhole.consume(headerDecoder.templateId());
+        newOrderDecoder.wrap(codecMessage, MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength(), headerDecoder.version());
+        blackhole.consume(newOrderDecoder.symbol());
+        blackhole.consume(newOrderDecoder.side());
+        blackhole.consume(newOrderDecoder.price());
+        blackhole.consume(newOrderDecoder.quantity());
+        blackhole.consume(newOrderDecoder.userId());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void commandBatchDecode(Blackhole blackhole) {
+        headerDecoder.wrap(batchMessage, 0);
+        int count = commandBatchDecoder.wrap(batchMessage, MessageHeaderDecoder.ENCODED_LENGTH,
+            headerDecoder.blockLength(), headerDecoder.version()).count();
+        int position = MessageHeaderDecoder.ENCODED_LENGTH + headerDecoder.blockLength();
+        for (int i = 0; i < count; i++) {
+            headerDecoder.wrap(batchMessage, position);
+            blackhole.consume(headerDecoder.templateId());
+            newOrderDecoder.wrap(batchMessage, position + MessageHeaderDecoder.ENCODED_LENGTH,
+                headerDecoder.blockLength(), headerDecoder.version());
+            blackhole.consume(newOrderDecoder.symbol());
+            blackhole.consume(newOrderDecoder.side());
+            blackhole.consume(newOrderDecoder.price());
+            blackhole.consume(newOrderDecoder.quantity());
+            blackhole.consume(newOrderDecoder.userId());
+            position += MessageHeaderDecoder.ENCODED_LENGTH + headerDecoder.blockLength();
+        }
+    }
+
+    // The pre-codec wire layout: msgType(4) + ordinal(4) + side(1) + price(8) + qty(4) + userId(8)
+    private static void legacyEncode(UnsafeBuffer buffer, long price) {
+        int offset = 0;
+        buffer.putInt(offset, 1); offset += 4;
+        buffer.putInt(offset, 0); offset += 4;
+        buffer.putByte(offset, Constants.BUY); offset += 1;
+        buffer.putLong(offset, price); offset += 8;
+        buffer.putInt(offset, 100); offset += 4;
+        buffer.putLong(offset, 1);
+    }
+
+    private void codecEncode(long price) {
+        newOrderEncoder.wrapAndApplyHeader(codecMessage, 0, headerEncoder)
+            .price(price)
+            .userId(1)
+            .symbol(0)
+            .quantity(100)
+            .side(Constants.BUY)
+            .orderType(OrderType.LIMIT)
+            .timeInForce(TimeInForce.GTC)
+            .clientOrderId(price);
+    }
+}
@@ -0,0 +1,95 @@
+package com.saqib.fxengine.benchmarks;
+
+import com.saqib.fxengine.Constants;
+import com.saqib.fxengine.CurrencyPair;
+import com.saqib.fxengine.ExecutionListener;
+import com.saqib.fxengine.Order;
+import com.saqib.fxengine.OrderBook;
+import com.saqib.fxengine.RiskConfig;
+import com.saqib.fxengine.RiskEngine;
+import com.saqib.fxengine.RiskLimits;
+import com.saqib.fxengine.codec.RejectReason;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the pre-trade risk check the matching thread runs before each new order and amendment - the latency it adds
+ * to every command. Sampled rather than averaged, so JMH reports the p99 and p99.9 as well as the mean.
+ * <p>
+ * {@code users} users trade in turn, half under their own limits and half under the defaults, each with resting
+ * orders and a position so every limit is evaluated in full. Nothing is ever rejected.
+ * </p>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RiskEngineBenchmark {
+    private static final long MID = 110_000;
+
+    @Param({"10", "1000", "100000"})
+    public int users;
+
+    private RiskEngine risk;
+    private final Order resting = new Order();
+    private long[] restingIds;
+    private OrderBook book;
+    private int nextUser;
+    private long nowNs;
+
+    @Setup
+    public void setUp() {
+        RiskLimits defaults = new RiskLimits().maxOrderQuantity(10_000_000).maxOpenNotional(1_000_000_000)
+            .maxOrdersPerSecond(1_000_000);
+        RiskConfig config = new RiskConfig(defaults);
+        for (int user = 0; user < users; user += 2) {
+            config.user(user, new RiskLimits().maxOrderQuantity(20_000_000).maxOrdersPerSecond(1_000_000));
+        }
+        risk = new RiskEngine(config, ExecutionListener.NO_OP);
+        book = new OrderBook(CurrencyPair.EUR_USD);
+        book.setExecutionListener(risk);
+        restingIds = new long[users];
+        long orderId = 1;
+        for (int user = 0; user < users; user++) {
+            restingIds[user] = orderId;
+            book.addOrder(orderId++, Constants.BUY, MID - 1 - user % 50, 1_000, user, 0);
+        }
+        for (int user = 0; user < users; user++) {  // Fills against the bids, so positions move
+            book.addOrder(orderId++, Constants.SELL, MID - 50, 10, user, 0);
+        }
+    }
+
+    @Benchmark
+    public RejectReason checkNewOrder() {
+        int user = nextUser();
+        return risk.checkNewOrder(user, CurrencyPair.EUR_USD, (user & 1) == 0 ? Constants.BUY : Constants.SELL, MID,
+            1_000, nowNs += 1_000);
+    }
+
+    // Includes the resting order lookup the shard makes first
+    @Benchmark
+    public RejectReason checkModify() {
+        int user = nextUser();
+        book.getOrder(restingIds[user], resting);
+        return risk.checkModify(resting, MID - 2, 2_000, nowNs += 1_000);
+    }
+
+    private int nextUser() {
+        int user = nextUser;
+        nextUser = user + 1 == users ? 0 : user + 1;
+        return user;
+    }
+}
@@ -1,184 +1,383 @@
 package com.saqib.fxengine;
 
+import com.saqib.fxengine.codec.CancelOrderEncoder;
+import com.saqib.fxengine.codec.CommandBatchEncoder;
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.ModifyOrderEncoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
 import io.aeron.Aeron;
+import io.aeron.Counter;
 import io.aeron.Publication;
-import io.aeron.Subscription;
 import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.BufferClaim;
+import net.openhft.affinity.Affinity;
+import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
-import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
 
-import java.nio.ByteBuffer;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AeronMessaging {
+    private static final String MARKET_DATA_CHANNEL = "aeron:ipc?alias=market-data";
+    private static final String EXECUTION_REPORT_CHANNEL = "aeron:ipc?alias=execution-reports";
+    
+    private final MediaDriver driver;
     private final Aeron aeron;
-    private final Publication inputPublication;
-    private final Subscription inputSubscription;
+    private final Publication[] inputPublications;  // One per shard
+    private final LocalIngress[] localIngresses;  // One per shard if localIngress, else null
+    private final SymbolRegistry symbols;
+    private final int[] shardBySymbol;  // CurrencyPair id -> shard
     private final Publication outputPublication;
-    private final ExecutorService matchingEnginePool;
-    private final ExecutorService marketDataPublisherPool;
-    private final OrderBookManager orderBookManager;
-    private final AtomicCounter processedOrders;
-    
-    public AeronMessaging(OrderBookManager orderBookManager, AtomicCounter processedOrders) {
-        this.orderBookManager = orderBookManager;
-        this.processedOrders = processedOrders;
+    private final Publication executionReportPublication;  // Shared by all shards
+    private final int executionReportStreamId;
+    private final int marketDataStreamId;
+    private final MatchingShard[] shards;
+    private final List<AgentRunner> runners = new ArrayList<>();  // In start order, which is also the order to stop
+    private final boolean latencyTracking;  // Stamps each message with its encode time for the shards to time
+    private final Counter submitBackPressure;  // Spins waiting on a full input stream, across all submitting threads
+    private final EngineLog log;  // Shared by the shards, written out by the background thread
+    private final ThreadLocal<ClientEncoder> clientEncoders = ThreadLocal.withInitial(ClientEncoder::new);
+    
+    public AeronMessaging(EngineConfig config) {
+        this.latencyTracking = config.latencyTracking();
         
-        MediaDriver driver = MediaDriver.launchEmbedded();
+        driver = config.aeronDir() == null ? MediaDriver.launchEmbedded() : MediaDriver.launchEmbedded(
+            new MediaDriver.Context().aeronDirectoryName(config.aeronDir()).dirDeleteOnStart(true));
         Aeron.Context context = new Aeron.Context()
             .aeronDirectoryName(driver.aeronDirectoryName());
         aeron = Aeron.connect(context);
+        submitBackPressure = aeron.addCounter(EngineCounters.BACK_PRESSURE_TYPE_ID, "client submit back pressure spins");
+        log = new EngineLog(config.logBufferSize(), aeron.addCounter(EngineCounters.DROPPED_TYPE_ID,
+            "log records dropped"));
         
         String inputChannel = "aeron:ipc";
-        String outputChannel = "aeron:ipc?alias=market-data";
-        int streamId = 1001;
-        
-        inputPublication = aeron.addPublication(inputChannel, streamId);
-        inputSubscription = aeron.addSubscription(inputChannel, streamId);
-        outputPublication = aeron.addPublication(outputChannel, streamId + 1);
+        int shardCount = config.shards();
+        checkStreamId("marketDataStreamId", config.marketDataStreamId(), config);
+        checkStreamId("executionReportStreamId", config.executionReportStreamId(), config);
+        if (config.marketDataStreamId() == config.executionReportStreamId()) {
+            throw new IllegalArgumentException("marketDataStreamId and executionReportStreamId must differ");
+        }
         
-        ThreadFactory threadFactory = new ThreadFactory() {
-            @Override
-            public Thread newThread(Runnable r) {
-                Thread t = new Thread(r);
-                t.setPriority(Thread.MAX_PRIORITY);
-                t.setDaemon(true);
-                return t;
+        marketDataStreamId = config.marketDataStreamId();
+        outputPublication = aeron.addPublication(MARKET_DATA_CHANNEL, marketDataStreamId);
+        executionReportStreamId = config.executionReportStreamId();
+        executionReportPublication = aeron.addPublication(EXECUTION_REPORT_CHANNEL, executionReportStreamId);
+        RiskConfig riskConfig = config.riskLimitsFile() == null ? RiskConfig.UNLIMITED :
+            RiskConfig.load(Paths.get(config.riskLimitsFile()));
+        inputPublications = new Publication[shardCount];
+        localIngresses = config.localIngress() ? new LocalIngress[shardCount] : null;
+        shards = new MatchingShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            int streamId = config.inputStreamId() + i;
+            inputPublications[i] = aeron.addPublication(inputChannel, streamId);
+            if (localIngresses != null) {
+                localIngresses[i] = new LocalIngress(config.localIngressBufferSize());
             }
-        };
+            shards[i] = new MatchingShard(i, aeron, aeron.addSubscription(inputChannel, streamId),
+                localIngresses == null ? null : localIngresses[i], outputPublication, executionReportPublication,
+                config, riskConfig, log);
+        }
         
-        matchingEnginePool = Executors.newSingleThreadExecutor(threadFactory);
-        marketDataPublisherPool = Executors.newFixedThreadPool(2, threadFactory);
+        symbols = config.symbols();
+        shardBySymbol = new int[symbols.idLimit()];
+        for (CurrencyPair symbol : symbols.symbols()) {
+            shardBySymbol[symbol.id()] = config.shard(symbol);
+        }
         
-        startProcessingThreads();
+        startAgents(config);
     }
     
-    private void startProcessingThreads() {
-        matchingEnginePool.submit(() -> {
-            while (true) {
-                processMessages();
-                Thread.onSpinWait();
+    private RiskLimitsWatcher newRiskLimitsWatcher(Path file) {
+        try {
+            return new RiskLimitsWatcher(file, this::riskConfig);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to watch risk limits " + file, e);
+        }
+    }
+    
+    private LogWriter newLogWriter(EngineConfig config) {
+        return new LogWriter(log, config.logDir() == null ? null : Paths.get(config.logDir()), config.logFileSize(),
+            config.logFileCount());
+    }
+    
+    private static void checkStreamId(String name, int streamId, EngineConfig config) {
+        if (streamId >= config.inputStreamId() && streamId < config.inputStreamId() + config.shards()) {
+            throw new IllegalArgumentException(name + " " + streamId +
+                " overlaps the shard input streams starting at " + config.inputStreamId());
+        }
+    }
+    
+    // Shards, then their snapshotters, then one background thread for the log writer and any other housekeeping
+    private void startAgents(EngineConfig config) {
+        for (MatchingShard shard : shards) {
+            shard.recover();  // Before any agent starts, so each shard's id sequence resumes past its recovered orders
+        }
+        for (MatchingShard shard : shards) {
+            startAgent(shard.roleName(), shard, config.matchingIdleStrategy(), Thread.MAX_PRIORITY, config);
+        }
+        for (MatchingShard shard : shards) {
+            Snapshotter snapshotter = shard.snapshotter();
+            if (snapshotter != null) {
+                startAgent(snapshotter.roleName(), snapshotter, config.snapshotIdleStrategy(), Thread.NORM_PRIORITY,
+                    config);
             }
+        }
+        List<Agent> background = new ArrayList<>();
+        background.add(newLogWriter(config));
+        if (latencyTracking && config.latencyReportSeconds() > 0) {
+            LatencyRecorder[] recorders = new LatencyRecorder[shards.length];
+            for (int i = 0; i < shards.length; i++) {
+                recorders[i] = shards[i].latency();
+            }
+            background.add(new LatencyReporter(recorders, config.latencyReportSeconds()));
+        }
+        if (config.riskLimitsFile() != null) {
+            background.add(newRiskLimitsWatcher(Paths.get(config.riskLimitsFile())));
+        }
+        startAgent("background", background.size() == 1 ? background.get(0) : new CompositeAgent(background),
+            config.backgroundIdleStrategy(), Thread.NORM_PRIORITY, config);
+    }
+    
+    // On a daemon thread of its own, named for the agent, with its duty cycles counted and pinned if so configured
+    private void startAgent(String name, Agent agent, IdleStrategyType idleStrategy, int priority,
+                            EngineConfig config) {
+        int cpu = config.cpuAffinity(name);
+        AgentRunner runner = new AgentRunner(idleStrategy.newIdleStrategy(), error -> {
+            System.err.println("Error on " + name + ": " + error);
+            error.printStackTrace();
+        }, aeron.addCounter(DutyCycleAgent.ERRORS_TYPE_ID, name + " errors"), new DutyCycleAgent(agent, name, aeron));
+        AgentRunner.startOnThread(runner, task -> {
+            Thread thread = new Thread(() -> {
+                if (cpu >= 0) {
+                    Affinity.setAffinity(cpu);
+                }
+                task.run();
+            }, name);
+            thread.setPriority(priority);
+            thread.setDaemon(true);
+            return thread;
         });
-        
-        marketDataPublisherPool.submit(this::publishMarketData);
+        runners.add(runner);
     }
     
-    private void processMessages() {
-        inputSubscription.poll((buffer, offset, length, header) -> {
-            int msgTypeId = buffer.getInt(offset);
-            switch (msgTypeId) {
-                case Constants.NEW_ORDER:
-                    processNewOrder(buffer, offset + 4, length - 4);
-                    break;
-                case Constants.CANCEL_ORDER:
-                    processCancelOrder(buffer, offset + 4, length - 4);
-                    break;
-                case Constants.MODIFY_ORDER:
-                    processModifyOrder(buffer, offset + 4, length - 4);
-                    break;
-                default:
-                    System.err.println("Unknown message type: " + msgTypeId);
-                    break;
-            }
-        }, 10);
+    /**
+     * Stops every agent, then Aeron. Each agent finishes its duty cycle and closes on its own thread - a shard forces
+     * and unmaps its journal - before the next is stopped. Commands still queued in the input streams are dropped.
+     */
+    public void close() {
+        for (AgentRunner runner : runners) {
+            CloseHelper.close(runner);
+        }
+        CloseHelper.closeAll(aeron, driver);
     }
     
-    private void processNewOrder(DirectBuffer buffer, int offset, int length) {
-        ByteBuffer byteBuffer = ((UnsafeBuffer) buffer).byteBuffer();
-        byteBuffer.position(offset);
-        
-        CurrencyPair symbol = CurrencyPair.values()[byteBuffer.getInt()];
-        byte side = byteBuffer.get();
-        long price = byteBuffer.getLong();
-        int quantity = byteBuffer.getInt();
-        long userId = byteBuffer.getLong();
-        
-        Order order = new Order(
-            processedOrders.nextOrderId(),
-            symbol,
-            side,
-            price,
-            quantity,
-            userId,
-            System.nanoTime()
-        );
-        
-        OrderBook orderBook = orderBookManager.getOrCreateOrderBook(symbol);
-        orderBook.addOrder(order);
-        
-        processedOrders.increment();
+    OrderStore getOrderStore(int shard) {
+        return shards[shard].orderBookManager().getOrderStore();
     }
     
-    private void processCancelOrder(DirectBuffer buffer, int offset, int length) {
-        ByteBuffer byteBuffer = ((UnsafeBuffer) buffer).byteBuffer();
-        byteBuffer.position(offset);
-        
-        CurrencyPair symbol = CurrencyPair.values()[byteBuffer.getInt()];
-        long orderId = byteBuffer.getLong();
-        
-        OrderBook orderBook = orderBookManager.getOrCreateOrderBook(symbol);
-        orderBook.cancelOrder(orderId);
+    // Where the engine's counters can be read from, e.g. by EngineStat
+    public String aeronDirectoryName() {
+        return driver.aeronDirectoryName();
     }
     
-    private void processModifyOrder(DirectBuffer buffer, int offset, int length) {
-        ByteBuffer byteBuffer = ((UnsafeBuffer) buffer).byteBuffer();
-        byteBuffer.position(offset);
-        
-        CurrencyPair symbol = CurrencyPair.values()[byteBuffer.getInt()];
-        long orderId = byteBuffer.getLong();
-        long newPrice = byteBuffer.getLong();
-        int newQuantity = byteBuffer.getInt();
-        
-        OrderBook orderBook = orderBookManager.getOrCreateOrderBook(symbol);
-        orderBook.modifyOrder(orderId, newPrice, newQuantity);
-    }
-    
-    private void publishMarketData() {
-        UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
-        while (true) {
-            for (OrderBook book : orderBookManager.getAllOrderBooks()) {
-                MarketDataSnapshot snapshot = book.createMarketDataSnapshot();
-                int size = serializeSnapshot(buffer, snapshot);
-                while (outputPublication.offer(buffer, 0, size) < 0) {
-                    Thread.onSpinWait();
-                }
+    public SymbolRegistry symbols() {
+        return symbols;
+    }
+    
+    int getShardCount() {
+        return shards.length;
+    }
+    
+    // Takes effect on every shard from its next check, without pausing matching
+    public void riskConfig(RiskConfig riskConfig) {
+        for (MatchingShard shard : shards) {
+            shard.risk().config(riskConfig);
+        }
+    }
+    
+    // New orders applied since startup, replayed ones included, summed from each shard's own counter
+    long ordersApplied() {
+        long ordersApplied = 0;
+        for (MatchingShard shard : shards) {
+            ordersApplied += shard.ordersApplied();
+        }
+        return ordersApplied;
+    }
+    
+    // Everything recorded for the stage since startup, merged across shards - empty unless latencyTracking is on
+    public LatencyHistogram latencySnapshot(LatencyStage stage) {
+        LatencyHistogram snapshot = new LatencyHistogram();
+        for (MatchingShard shard : shards) {
+            if (shard.latency() != null) {
+                snapshot.add(shard.latency().histogram(stage));
             }
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return;
+        }
+        return snapshot;
+    }
+    
+    public void submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId) {
+        submitOrder(symbol, side, price, quantity, userId, 0, OrderType.LIMIT, TimeInForce.GTC);
+    }
+    
+    public void submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId, long clientOrderId) {
+        submitOrder(symbol, side, price, quantity, userId, clientOrderId, OrderType.LIMIT, TimeInForce.GTC);
+    }
+    
+    // The engine's id for the order comes back in its NEW report, which echoes clientOrderId
+    public void submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId, long clientOrderId,
+                            OrderType orderType, TimeInForce timeInForce) {
+        ClientEncoder encoder = clientEncoders.get();
+        claim(shardBySymbol[symbol.id()], NewOrderEncoder.encodedLength(), encoder);
+        encoder.newOrder.wrapAndApplyHeader(encoder.buffer, encoder.offset, encoder.header)
+            .price(price)
+            .userId(userId)
+            .symbol(symbol.id())
+            .quantity(quantity)
+            .side(side)
+            .orderType(orderType)
+            .timeInForce(timeInForce)
+            .clientOrderId(clientOrderId);
+        commit(encoder);
+    }
+    
+    public void cancelOrder(CurrencyPair symbol, long orderId) {
+        ClientEncoder encoder = clientEncoders.get();
+        claim(shardBySymbol[symbol.id()], CancelOrderEncoder.encodedLength(), encoder);
+        encoder.cancelOrder.wrapAndApplyHeader(encoder.buffer, encoder.offset, encoder.header)
+            .orderId(orderId)
+            .symbol(symbol.id());
+        commit(encoder);
+    }
+    
+    public void modifyOrder(CurrencyPair symbol, long orderId, long newPrice, int newQuantity) {
+        ClientEncoder encoder = clientEncoders.get();
+        claim(shardBySymbol[symbol.id()], ModifyOrderEncoder.encodedLength(), encoder);
+        encoder.modifyOrder.wrapAndApplyHeader(encoder.buffer, encoder.offset, encoder.header)
+            .orderId(orderId)
+            .newPrice(newPrice)
+            .symbol(symbol.id())
+            .newQuantity(newQuantity);
+        commit(encoder);
+    }
+    
+    // Each adapter subscribes separately, so any number of clients can follow the reports
+    public ExecutionReportAdapter newExecutionReportAdapter(ExecutionReportHandler handler) {
+        return new ExecutionReportAdapter(aeron.addSubscription(EXECUTION_REPORT_CHANNEL, executionReportStreamId),
+            handler);
+    }
+    
+    public MarketDataAdapter newMarketDataAdapter(MarketDataHandler handler) {
+        return new MarketDataAdapter(aeron.addSubscription(MARKET_DATA_CHANNEL, marketDataStreamId), handler,
+            symbols);
+    }
+    
+    public OrderBatch newBatch() {
+        return new OrderBatch(shardBySymbol, shards.length);
+    }
+    
+    /**
+     * Submits every command in the batch and clears it. Each shard's commands go out as CommandBatch messages packed
+     * up to the publication's max payload, or the local ingress's max message, so a burst costs a handful of claims
+     * and poll fragments rather than one per order.
+     */
+    public void submitBatch(OrderBatch batch) {
+        ClientEncoder encoder = clientEncoders.get();
+        for (int shard = 0; shard < batch.shardCount(); shard++) {
+            if (batch.count(shard) > 0) {
+                submitBatch(shard, batch.buffer(shard), batch.length(shard), encoder);
             }
         }
+        batch.clear();
     }
     
-    private int serializeSnapshot(UnsafeBuffer buffer, MarketDataSnapshot snapshot) {
-        int offset = 0;
-        buffer.putInt(offset, snapshot.getSymbol().ordinal()); offset += 4;
-        buffer.putLong(offset, snapshot.getTimestamp()); offset += 8;
-        return offset; // Stub - expand later
+    // Splits only on command boundaries - a command never straddles two messages
+    private void submitBatch(int shard, DirectBuffer commands, int length, ClientEncoder encoder) {
+        int maxLength = localIngresses == null ? inputPublications[shard].maxPayloadLength() :
+            localIngresses[shard].maxMessageLength();
+        int maxCommandBytes = maxLength - CommandBatchEncoder.encodedLength();
+        int position = 0;
+        while (position < length) {
+            int end = position;
+            int count = 0;
+            while (end < length) {
+                int commandLength = MessageHeaderDecoder.ENCODED_LENGTH +
+                    encoder.headerDecoder.wrap(commands, end).blockLength();
+                if (count > 0 && end + commandLength - position > maxCommandBytes) {
+                    break;
+                }
+                end += commandLength;
+                count++;
+            }
+            int chunkLength = end - position;
+            claim(shard, CommandBatchEncoder.encodedLength() + chunkLength, encoder);
+            encoder.commandBatch.wrapAndApplyHeader(encoder.buffer, encoder.offset, encoder.header).count(count);
+            encoder.buffer.putBytes(encoder.offset + CommandBatchEncoder.encodedLength(), commands, position,
+                chunkLength);
+            commit(encoder);
+            position = end;
+        }
     }
     
-    public long submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId) {
-        long orderId = processedOrders.nextOrderId();
-        int messageSize = 29; // Fixed: msgType(4) + ordinal(4) + side(1) + price(8) + qty(4) + userId(8)
-        
-        UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(messageSize));
-        int offset = 0;
-        
-        buffer.putInt(offset, Constants.NEW_ORDER); offset += 4;
-        buffer.putInt(offset, symbol.ordinal()); offset += 4;
-        buffer.putByte(offset, side); offset += 1;
-        buffer.putLong(offset, price); offset += 8;
-        buffer.putInt(offset, quantity); offset += 4;
-        buffer.putLong(offset, userId); offset += 8;
-        
-        while (inputPublication.offer(buffer, 0, messageSize) < 0) {
+    // Claims space in the shard's input stream, or its local ingress, so the message is encoded straight into it - no
+    // copy. Leaves the encoder pointing at the space
+    private void claim(int shard, int length, ClientEncoder encoder) {
+        if (localIngresses != null) {
+            LocalIngress ingress = localIngresses[shard];
+            int offset;
+            while ((offset = ingress.tryClaim(length)) < 0) {
+                submitBackPressure.increment();
+                Thread.onSpinWait();
+            }
+            ingress.sentNs(offset, latencyTracking ? System.nanoTime() : 0);
+            encoder.ingress = ingress;
+            encoder.buffer = ingress.buffer();
+            encoder.offset = offset;
+            return;
+        }
+        Publication inputPublication = inputPublications[shard];
+        BufferClaim claim = encoder.claim;
+        while (inputPublication.tryClaim(length, claim) < 0) {
+            submitBackPressure.increment();
             Thread.onSpinWait();
         }
-        return orderId;
+        if (latencyTracking) {
+            claim.reservedValue(System.nanoTime());
+        }
+        encoder.ingress = null;
+        encoder.buffer = claim.buffer();
+        encoder.offset = claim.offset();
+    }
+    
+    private static void commit(ClientEncoder encoder) {
+        if (encoder.ingress != null) {
+            encoder.ingress.commit(encoder.offset);
+        } else {
+            encoder.claim.commit();
+        }
+    }
+    
+    // Per submitting thread, so encoding needs no locking and allocates nothing after the first call
+    private static final class ClientEncoder {
+        final BufferClaim claim = new BufferClaim();
+        final MessageHeaderEncoder header = new MessageHeaderEncoder();
+        final NewOrderEncoder newOrder = new NewOrderEncoder();
+        final CancelOrderEncoder cancelOrder = new CancelOrderEncoder();
+        final ModifyOrderEncoder modifyOrder = new ModifyOrderEncoder();
+        final CommandBatchEncoder commandBatch = new CommandBatchEncoder();
+        final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+        LocalIngress ingress;  // Of the current claim, null if it is in an Aeron publication
+        MutableDirectBuffer buffer;
+        int offset;
     }
-}
\ No newline at end of file
+}
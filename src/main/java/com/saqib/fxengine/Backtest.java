@@ -0,0 +1,440 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.CancelOrderDecoder;
+import com.saqib.fxengine.codec.CancelOrderEncoder;
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.ModifyOrderDecoder;
+import com.saqib.fxengine.codec.ModifyOrderEncoder;
+import com.saqib.fxengine.codec.NewOrderDecoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.RejectReason;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays recorded order flow straight into order books - no messaging, risk checks or reports - to try engine and
+ * strategy changes against real flow. The input is a journal, as the engine records with {@code journalDir} set, or a
+ * CSV file converted into one by {@link #convertCsv}.
+ * <p>
+ * Each symbol replays on a fork-join task of its own, with its own book, reading the memory-mapped journal and skipping
+ * other symbols' commands. Journalled commands carry the order id and timestamp they were matched with, so a run is
+ * deterministic: the same flow gives the same trades and final books whatever the parallelism or machine. Each
+ * symbol's {@link SymbolResult} hashes its trades and final book for comparing engine versions, and with an output
+ * directory both are also written out as CSV. Commands were journalled only once they had passed risk, so none is
+ * checked again.
+ * </p>
+ */
+public class Backtest {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String CSV_HEADER = "timestamp,type,orderId,symbol,side,price,quantity,userId,clientOrderId," +
+        "orderType,timeInForce";
+
+    private final EngineConfig config;
+    private final List<Path> journals;  // One per recorded shard
+    private final Path outputDir;  // Null to skip writing trades and books
+
+    /**
+     * @param journalDir a journal, or the {@code journalDir} of a multi-shard engine holding one per shard
+     * @param outputDir where each symbol's trades and final book are written, or null for results only
+     */
+    public Backtest(EngineConfig config, Path journalDir, Path outputDir) {
+        this.config = config;
+        this.journals = journals(journalDir);
+        this.outputDir = outputDir;
+    }
+
+    private static List<Path> journals(Path journalDir) {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            List<Path> shards = files.filter(Files::isDirectory)
+                .filter(path -> path.getFileName().toString().startsWith("shard-"))
+                .sorted()
+                .collect(Collectors.toList());
+            return shards.isEmpty() ? List.of(journalDir) : shards;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list journal " + journalDir, e);
+        }
+    }
+
+    // One task per configured symbol, results in symbol order
+    public List<SymbolResult> run(int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<SymbolResult>> tasks = new ArrayList<>();
+            for (CurrencyPair symbol : config.symbols().symbols()) {
+                tasks.add(pool.submit(() -> replay(symbol)));
+            }
+            List<SymbolResult> results = new ArrayList<>();
+            for (ForkJoinTask<SymbolResult> task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private SymbolResult replay(CurrencyPair symbol) {
+        try (SymbolReplay replay = new SymbolReplay(symbol, config, outputDir)) {
+            long start = System.nanoTime();
+            for (Path journal : journals) {
+                try (JournalReader reader = new JournalReader(journal, 1)) {
+                    reader.replay(replay);
+                }
+            }
+            return replay.finish(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Writes the orders in a CSV file as a journal, one command per line:
+     * <pre>
+     * timestamp,type,orderId,symbol,side,price,quantity,userId,clientOrderId,orderType,timeInForce
+     * 1000,NEW,1,EUR_USD,BUY,110000,100,7,1,LIMIT,GTC
+     * 2000,MODIFY,1,EUR_USD,,110001,50,,,,
+     * 3000,CANCEL,1,EUR_USD,,,,,,,
+     * </pre>
+     * Prices are scaled by the symbol's price scale. A NEW line's orderId is the id to match it with, and orderType and
+     * timeInForce default to a GTC limit order. Blank lines, lines starting with {@code #} and the header are skipped.
+     * @return the number of commands written
+     */
+    public static long convertCsv(Path csv, Path journalDir, EngineConfig config) {
+        ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(128);
+        MessageHeaderEncoder header = new MessageHeaderEncoder();
+        NewOrderEncoder newOrder = new NewOrderEncoder();
+        CancelOrderEncoder cancelOrder = new CancelOrderEncoder();
+        ModifyOrderEncoder modifyOrder = new ModifyOrderEncoder();
+        long commands = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(csv);
+             Journal journal = Journal.open(journalDir, config.journalSegmentSize(), JournalForcePolicy.NONE, 0)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#") || line.startsWith(CSV_HEADER)) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length < 4) {
+                    throw new IllegalArgumentException(csv + " line " + lineNumber + ": expected " + CSV_HEADER);
+                }
+                long timestamp = Long.parseLong(fields[0].trim());
+                long orderId = Long.parseLong(fields[2].trim());
+                CurrencyPair symbol = config.symbols().get(fields[3].trim());
+                int length;
+                switch (fields[1].trim()) {
+                    case "NEW":
+                        newOrder.wrapAndApplyHeader(buffer, 0, header)
+                            .price(Long.parseLong(fields[5].trim()))
+                            .userId(Long.parseLong(fields[7].trim()))
+                            .symbol(symbol.id())
+                            .quantity(Integer.parseInt(fields[6].trim()))
+                            .side("BUY".equals(fields[4].trim()) ? Constants.BUY : Constants.SELL)
+                            .orderType(OrderType.valueOf(field(fields, 9, "LIMIT")))
+                            .timeInForce(TimeInForce.valueOf(field(fields, 10, "GTC")))
+                            .clientOrderId(Long.parseLong(field(fields, 8, "0")));
+                        length = NewOrderEncoder.encodedLength();
+                        break;
+                    case "CANCEL":
+                        cancelOrder.wrapAndApplyHeader(buffer, 0, header)
+                            .orderId(orderId)
+                            .symbol(symbol.id());
+                        length = CancelOrderEncoder.encodedLength();
+                        orderId = 0;  // Journalled only for new orders
+                        break;
+                    case "MODIFY":
+                        modifyOrder.wrapAndApplyHeader(buffer, 0, header)
+                            .orderId(orderId)
+                            .newPrice(Long.parseLong(fields[5].trim()))
+                            .symbol(symbol.id())
+                            .newQuantity(Integer.parseInt(fields[6].trim()));
+                        length = ModifyOrderEncoder.encodedLength();
+                        orderId = 0;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(csv + " line " + lineNumber + ": unknown type " + fields[1]);
+                }
+                journal.append(timestamp, orderId, buffer, 0, length);
+                commands++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to convert " + csv, e);
+        }
+        return commands;
+    }
+
+    private static String field(String[] fields, int index, String defaultValue) {
+        return index < fields.length && !fields[index].isBlank() ? fields[index].trim() : defaultValue;
+    }
+
+    /**
+     * Backtests a journal directory, or a CSV file converted to a journal first, with the engine config's symbols and
+     * book types. Usage: {@code Backtest <journalDir|orders.csv> [outputDir] [parallelism]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: Backtest <journalDir|orders.csv> [outputDir] [parallelism]");
+            return;
+        }
+        EngineConfig config = EngineConfig.load();
+        Path input = Path.of(args[0]);
+        if (!Files.isDirectory(input)) {
+            Path journalDir = Files.createTempDirectory("fxengine-backtest");
+            long converted = convertCsv(input, journalDir, config);
+            System.out.printf("Converted %,d commands from %s%n", converted, input);
+            input = journalDir;
+        }
+        Path outputDir = args.length > 1 ? Files.createDirectories(Path.of(args[1])) : null;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        List<SymbolResult> results = new Backtest(config, input, outputDir).run(parallelism);
+        long elapsedNs = System.nanoTime() - start;
+        long commands = 0;
+        System.out.printf("%-10s %12s %12s %16s %10s %8s %18s %18s %14s%n", "symbol", "commands", "trades", "volume",
+            "resting", "rejected", "trade hash", "book hash", "commands/sec");
+        for (SymbolResult result : results) {
+            System.out.printf("%-10s %,12d %,12d %,16d %,10d %,8d %018x %018x %,14.0f%n", result.symbol(),
+                result.commands(), result.trades(), result.volume(), result.restingOrders(), result.rejected(),
+                result.tradeHash(), result.bookHash(), result.commands() * 1e9 / Math.max(1, result.elapsedNs()));
+            commands += result.commands();
+        }
+        System.out.printf("%,d commands in %,d ms on %d threads%n", commands,
+            TimeUnit.NANOSECONDS.toMillis(elapsedNs), parallelism);
+    }
+
+    /**
+     * What one symbol's replay produced. The hashes cover every field of every trade, in order, and of every resting
+     * order in priority order, so two runs match only if they matched identically.
+     */
+    public static final class SymbolResult {
+        private final CurrencyPair symbol;
+        private final long commands;
+        private final long trades;
+        private final long volume;
+        private final long rejected;
+        private final int restingOrders;
+        private final long tradeHash;
+        private final long bookHash;
+        private final long elapsedNs;
+
+        SymbolResult(CurrencyPair symbol, long commands, long trades, long volume, long rejected, int restingOrders,
+                     long tradeHash, long bookHash, long elapsedNs) {
+            this.symbol = symbol;
+            this.commands = commands;
+            this.trades = trades;
+            this.volume = volume;
+            this.rejected = rejected;
+            this.restingOrders = restingOrders;
+            this.tradeHash = tradeHash;
+            this.bookHash = bookHash;
+            this.elapsedNs = elapsedNs;
+        }
+
+        public CurrencyPair symbol() {
+            return symbol;
+        }
+
+        // Commands for the symbol applied
+        public long commands() {
+            return commands;
+        }
+
+        public long trades() {
+            return trades;
+        }
+
+        // Base currency quantity traded
+        public long volume() {
+            return volume;
+        }
+
+        // Commands the book refused, e.g. a cancel of an order already filled
+        public long rejected() {
+            return rejected;
+        }
+
+        public int restingOrders() {
+            return restingOrders;
+        }
+
+        public long tradeHash() {
+            return tradeHash;
+        }
+
+        public long bookHash() {
+            return bookHash;
+        }
+
+        // Replay time on the symbol's task, reading the journal included
+        public long elapsedNs() {
+            return elapsedNs;
+        }
+    }
+
+    // One symbol's book, fed the symbol's commands; everything else in the journal is skipped on its header
+    private static final class SymbolReplay implements JournalHandler, ExecutionListener, AutoCloseable {
+        private final CurrencyPair symbol;
+        private final OrderBook book;
+        private final CommandApplier commandApplier;
+        private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+        private final NewOrderDecoder newOrderDecoder = new NewOrderDecoder();
+        private final CancelOrderDecoder cancelOrderDecoder = new CancelOrderDecoder();
+        private final ModifyOrderDecoder modifyOrderDecoder = new ModifyOrderDecoder();
+        private final BufferedWriter trades;  // Null without an output directory
+        private final Path bookFile;
+        private final StringBuilder line = new StringBuilder(128);
+        private long commands;
+        private long tradeCount;
+        private long volume;
+        private long rejected;
+        private long tradeHash = FNV_OFFSET;
+
+        SymbolReplay(CurrencyPair symbol, EngineConfig config, Path outputDir) {
+            this.symbol = symbol;
+            OrderBookManager orderBookManager = new OrderBookManager(config, this, symbol::equals);
+            this.book = orderBookManager.orderBook(symbol);
+            this.commandApplier = new CommandApplier(orderBookManager, null, new OrderIdSequence(0));
+            try {
+                this.trades = outputDir == null ? null : Files.newBufferedWriter(outputDir.resolve("trades-" + symbol +
+                    ".csv"));
+                if (trades != null) {
+                    trades.write("timestamp,takerOrderId,makerOrderId,price,quantity,buyUserId,sellUserId\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write trades for " + symbol, e);
+            }
+            this.bookFile = outputDir == null ? null : outputDir.resolve("book-" + symbol + ".csv");
+        }
+
+        @Override
+        public void onCommand(long seqNo, long timestamp, long orderId, DirectBuffer buffer, int offset, int length) {
+            headerDecoder.wrap(buffer, offset);
+            int blockOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;
+            int blockLength = headerDecoder.blockLength();
+            int version = headerDecoder.version();
+            int commandSymbol;
+            switch (headerDecoder.templateId()) {
+                case NewOrderDecoder.TEMPLATE_ID:
+                    commandSymbol = newOrderDecoder.wrap(buffer, blockOffset, blockLength, version).symbol();
+                    break;
+                case CancelOrderDecoder.TEMPLATE_ID:
+                    commandSymbol = cancelOrderDecoder.wrap(buffer, blockOffset, blockLength, version).symbol();
+                    break;
+                case ModifyOrderDecoder.TEMPLATE_ID:
+                    commandSymbol = modifyOrderDecoder.wrap(buffer, blockOffset, blockLength, version).symbol();
+                    break;
+                default:
+                    return;
+            }
+            if (commandSymbol == symbol.id()) {
+                commands++;
+                commandApplier.apply(buffer, offset, orderId, timestamp);
+            }
+        }
+
+        @Override
+        public void onTrade(Trade trade, Order taker, Order maker) {
+            tradeCount++;
+            volume += trade.quantity();
+            tradeHash = hash(tradeHash, trade.timestamp());
+            tradeHash = hash(tradeHash, trade.takerOrderId());
+            tradeHash = hash(tradeHash, trade.makerOrderId());
+            tradeHash = hash(tradeHash, trade.price());
+            tradeHash = hash(tradeHash, trade.quantity());
+            tradeHash = hash(tradeHash, trade.buySideUserId());
+            tradeHash = hash(tradeHash, trade.sellSideUserId());
+            if (trades != null) {
+                line.setLength(0);
+                line.append(trade.timestamp()).append(',').append(trade.takerOrderId()).append(',')
+                    .append(trade.makerOrderId()).append(',').append(trade.price()).append(',')
+                    .append(trade.quantity()).append(',').append(trade.buySideUserId()).append(',')
+                    .append(trade.sellSideUserId()).append('\n');
+                write(trades, line);
+            }
+        }
+
+        @Override
+        public void onRejected(long orderId, long clientOrderId, long userId, CurrencyPair symbol, byte side,
+                               long price, int quantity, RejectReason reason) {
+            rejected++;
+        }
+
+        // Hashes, and writes if asked, the final book, best price first on each side
+        SymbolResult finish(long elapsedNs) {
+            long[] bookHash = { FNV_OFFSET };
+            try (BufferedWriter orders = bookFile == null ? null : Files.newBufferedWriter(bookFile)) {
+                if (orders != null) {
+                    orders.write("side,orderId,clientOrderId,price,remainingQuantity,originalQuantity,userId," +
+                        "timestamp\n");
+                }
+                for (byte side : new byte[] { Constants.BUY, Constants.SELL }) {
+                    book.forEachOrder(side, order -> {
+                        long hash = hash(bookHash[0], order.side());
+                        hash = hash(hash, order.orderId());
+                        hash = hash(hash, order.clientOrderId());
+                        hash = hash(hash, order.price());
+                        hash = hash(hash, order.remainingQuantity());
+                        hash = hash(hash, order.originalQuantity());
+                        hash = hash(hash, order.userId());
+                        bookHash[0] = hash(hash, order.timestamp());
+                        if (orders != null) {
+                            line.setLength(0);
+                            line.append(order.side() == Constants.BUY ? "BUY" : "SELL").append(',')
+                                .append(order.orderId()).append(',').append(order.clientOrderId()).append(',')
+                                .append(order.price()).append(',').append(order.remainingQuantity()).append(',')
+                                .append(order.originalQuantity()).append(',').append(order.userId()).append(',')
+                                .append(order.timestamp()).append('\n');
+                            write(orders, line);
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write book " + bookFile, e);
+            }
+            return new SymbolResult(symbol, commands, tradeCount, volume, rejected, book.restingOrderCount(), tradeHash,
+                bookHash[0], elapsedNs);
+        }
+
+        private static void write(BufferedWriter writer, CharSequence text) {
+            try {
+                writer.append(text);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write backtest output", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (trades != null) {
+                try {
+                    trades.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to write trades for " + symbol, e);
+                }
+            }
+        }
+    }
+
+    // FNV-1a over whole longs - stable across JVMs and runs, unlike Object.hashCode
+    private static long hash(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
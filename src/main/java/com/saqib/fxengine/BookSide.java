@@ -0,0 +1,31 @@
+package com.saqib.fxengine;
+
+/**
+ * One side (bids or asks) of an {@link OrderBook}: the price levels ordered best first.
+ * <p>
+ * Levels handed out by {@link #getOrCreate(long)} are owned by the side; once a level has been emptied the book calls
+ * {@link #remove(PriceLevel)} so the side can drop or recycle it.
+ * </p>
+ */
+interface BookSide {
+    /** @return true if the side can hold a level at this price - never one of zero or below */
+    boolean accepts(long price);
+
+    /** @return the non-empty level at this price, or null */
+    PriceLevel get(long price);
+
+    PriceLevel getOrCreate(long price);
+
+    /** @return the best (highest bid / lowest ask) level, or null if the side is empty */
+    PriceLevel best();
+
+    /** @return the next level behind the given one in priority order, or null */
+    PriceLevel next(PriceLevel level);
+
+    void remove(PriceLevel level);
+
+    boolean isEmpty();
+
+    /** @return the number of non-empty levels */
+    int size();
+}
@@ -0,0 +1,7 @@
+package com.saqib.fxengine;
+
+// Price level storage used by an OrderBook - selected per CurrencyPair in EngineConfig
+public enum BookType {
+    SORTED_MAP,   // TreeMap keyed by price - any price, O(log n) per level operation
+    PRICE_LADDER  // Array of levels indexed by tick - O(1) for prices clustered around mid
+}
@@ -0,0 +1,187 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.CancelOrderEncoder;
+import com.saqib.fxengine.codec.CommandBatchEncoder;
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.ModifyOrderEncoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+import io.aeron.Publication;
+import io.aeron.cluster.client.AeronCluster;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submits orders to a replicated engine of {@link ClusterNode}s and receives its execution reports - the clustered
+ * counterpart of {@link AeronMessaging}'s client methods. Commands go to whichever member leads; after a failover the
+ * client follows the new leader, holding submissions back until it has.
+ * <p>
+ * Reports arrive on the handler from {@link #poll()}, which must be called regularly, even when idle, to keep the
+ * session alive. Not thread-safe: submit and poll from one thread.
+ * </p>
+ */
+public class ClusterClient implements AutoCloseable {
+    private static final long KEEP_ALIVE_INTERVAL_NS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MediaDriver driver;
+    private final AeronCluster cluster;
+    private final SymbolRegistry symbols;
+    private final String marketDataChannel;
+    private final int marketDataStreamId;
+    private final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(4096);
+    private final MessageHeaderEncoder header = new MessageHeaderEncoder();
+    private final NewOrderEncoder newOrder = new NewOrderEncoder();
+    private final CancelOrderEncoder cancelOrder = new CancelOrderEncoder();
+    private final ModifyOrderEncoder modifyOrder = new ModifyOrderEncoder();
+    private final CommandBatchEncoder commandBatch = new CommandBatchEncoder();
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private long lastKeepAliveNs = System.nanoTime();
+
+    public ClusterClient(EngineConfig config, ExecutionReportHandler handler) {
+        this.symbols = config.symbols();
+        this.marketDataChannel = config.clusterMarketDataChannel();
+        this.marketDataStreamId = config.marketDataStreamId();
+        this.driver = MediaDriver.launchEmbedded(new MediaDriver.Context()
+            .threadingMode(ThreadingMode.SHARED)
+            .dirDeleteOnShutdown(true));
+        ExecutionReportAdapter reports = new ExecutionReportAdapter(null, handler);  // Decodes egress, polls nothing
+        try {
+            this.cluster = AeronCluster.connect(new AeronCluster.Context()
+                .aeronDirectoryName(driver.aeronDirectoryName())
+                .egressListener((clusterSessionId, timestamp, message, offset, length, messageHeader) ->
+                    reports.onFragment(message, offset, length, messageHeader))
+                .egressChannel(config.clusterEgressChannel())
+                .ingressChannel("aeron:udp")
+                .ingressEndpoints(ClusterNode.ingressEndpoints(config)));
+        } catch (RuntimeException e) {
+            CloseHelper.quietClose(driver);
+            throw e;
+        }
+    }
+
+    public SymbolRegistry symbols() {
+        return symbols;
+    }
+
+    public void submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId) {
+        submitOrder(symbol, side, price, quantity, userId, 0, OrderType.LIMIT, TimeInForce.GTC);
+    }
+
+    public void submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId, long clientOrderId) {
+        submitOrder(symbol, side, price, quantity, userId, clientOrderId, OrderType.LIMIT, TimeInForce.GTC);
+    }
+
+    // The engine's id for the order comes back in its NEW report, which echoes clientOrderId
+    public void submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId, long clientOrderId,
+                            OrderType orderType, TimeInForce timeInForce) {
+        newOrder.wrapAndApplyHeader(buffer, 0, header)
+            .price(price)
+            .userId(userId)
+            .symbol(symbol.id())
+            .quantity(quantity)
+            .side(side)
+            .orderType(orderType)
+            .timeInForce(timeInForce)
+            .clientOrderId(clientOrderId);
+        offer(buffer, 0, NewOrderEncoder.encodedLength());
+    }
+
+    public void cancelOrder(CurrencyPair symbol, long orderId) {
+        cancelOrder.wrapAndApplyHeader(buffer, 0, header)
+            .orderId(orderId)
+            .symbol(symbol.id());
+        offer(buffer, 0, CancelOrderEncoder.encodedLength());
+    }
+
+    public void modifyOrder(CurrencyPair symbol, long orderId, long newPrice, int newQuantity) {
+        modifyOrder.wrapAndApplyHeader(buffer, 0, header)
+            .orderId(orderId)
+            .newPrice(newPrice)
+            .symbol(symbol.id())
+            .newQuantity(newQuantity);
+        offer(buffer, 0, ModifyOrderEncoder.encodedLength());
+    }
+
+    // The cluster runs every symbol in one service, so a batch has a single stream to fill
+    public OrderBatch newBatch() {
+        return new OrderBatch(new int[symbols.idLimit()], 1);
+    }
+
+    /**
+     * Submits every command in the batch and clears it. Commands go out as CommandBatch messages packed up to the
+     * ingress max payload, each appended to the cluster log, and replicated, as one entry.
+     */
+    public void submitBatch(OrderBatch batch) {
+        if (batch.count(0) > 0) {
+            submitBatch(batch.buffer(0), batch.length(0));
+        }
+        batch.clear();
+    }
+
+    // Splits only on command boundaries - a command never straddles two messages
+    private void submitBatch(DirectBuffer commands, int length) {
+        int maxCommandBytes = cluster.ingressPublication().maxPayloadLength() - AeronCluster.SESSION_HEADER_LENGTH -
+            CommandBatchEncoder.encodedLength();
+        int position = 0;
+        while (position < length) {
+            int end = position;
+            int count = 0;
+            while (end < length) {
+                int commandLength = MessageHeaderDecoder.ENCODED_LENGTH + headerDecoder.wrap(commands, end).blockLength();
+                if (count > 0 && end + commandLength - position > maxCommandBytes) {
+                    break;
+                }
+                end += commandLength;
+                count++;
+            }
+            int chunkLength = end - position;
+            commandBatch.wrapAndApplyHeader(buffer, 0, header).count(count);
+            buffer.putBytes(CommandBatchEncoder.encodedLength(), commands, position, chunkLength);
+            offer(buffer, 0, CommandBatchEncoder.encodedLength() + chunkLength);
+            position = end;
+        }
+    }
+
+    // Retries until the leader takes it, polling egress meanwhile - that's how a failover reaches the client
+    private void offer(DirectBuffer message, int offset, int length) {
+        long result;
+        while ((result = cluster.offer(message, offset, length)) < 0) {
+            if (result == Publication.CLOSED || result == Publication.MAX_POSITION_EXCEEDED) {
+                throw new IllegalStateException("Cluster session unusable: " + result);
+            }
+            if (cluster.pollEgress() == 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Delivers waiting execution reports to the handler and keeps the session alive.
+     * @return the number of egress fragments read - 0 means nothing was waiting
+     */
+    public int poll() {
+        long nowNs = System.nanoTime();
+        if (nowNs - lastKeepAliveNs >= KEEP_ALIVE_INTERVAL_NS && cluster.sendKeepAlive()) {
+            lastKeepAliveNs = nowNs;
+        }
+        return cluster.pollEgress();
+    }
+
+    // Market data comes from the leader, on clusterMarketDataChannel; sequence numbers jump at each new leader
+    public MarketDataAdapter newMarketDataAdapter(MarketDataHandler handler) {
+        return new MarketDataAdapter(cluster.context().aeron().addSubscription(marketDataChannel, marketDataStreamId),
+            handler, symbols);
+    }
+
+    @Override
+    public void close() {
+        CloseHelper.closeAll(cluster, driver);
+    }
+}
@@ -0,0 +1,213 @@
+package com.saqib.fxengine;
+
+import io.aeron.CommonContext;
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchiveThreadingMode;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.cluster.ClusterControl;
+import io.aeron.cluster.ClusteredMediaDriver;
+import io.aeron.cluster.ConsensusModule;
+import io.aeron.cluster.service.ClusteredServiceContainer;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.NoOpLock;
+import org.agrona.concurrent.ShutdownSignalBarrier;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One member of a replicated engine: a media driver, archive and consensus module, and the container running the
+ * {@link MatchingService}. Run three, one per host in {@code clusterHosts}, and the engine carries on through the loss
+ * of any one of them.
+ * <p>
+ * The leader appends client commands to a log that the followers replicate and every member's service applies, so
+ * each holds the same books. If the leader stops heartbeating for {@link #LEADER_HEARTBEAT_TIMEOUT_MS} the others
+ * elect a new one, whose books are already current; clients reconnect to it on their own. The consensus module appends
+ * whatever ingress has arrived in one go, and a {@link ClusterClient} batch is a single log message, so replication
+ * costs a log write per burst rather than per order. A member that restarts loads the latest cluster snapshot and
+ * catches up on the log from the others.
+ * </p>
+ */
+public class ClusterNode implements AutoCloseable {
+    static final long LEADER_HEARTBEAT_TIMEOUT_MS = 500;
+    private static final long LEADER_HEARTBEAT_INTERVAL_MS = 50;
+    private static final int PORTS_PER_MEMBER = 10;
+    private static final int INGRESS_PORT = 0;
+    private static final int CONSENSUS_PORT = 1;
+    private static final int LOG_PORT = 2;
+    private static final int CATCHUP_PORT = 3;
+    private static final int ARCHIVE_CONTROL_PORT = 4;
+    private static final int LOG_CONTROL_PORT = 5;
+
+    private final int memberId;
+    private final MatchingService service;
+    private final ClusteredMediaDriver driver;
+    private final ClusteredServiceContainer container;
+
+    private ClusterNode(int memberId, MatchingService service, ClusteredMediaDriver driver,
+                        ClusteredServiceContainer container) {
+        this.memberId = memberId;
+        this.service = service;
+        this.driver = driver;
+        this.container = container;
+    }
+
+    /**
+     * Starts the member {@code clusterMemberId} of {@code clusterHosts}, keeping its log, snapshots and archive under
+     * {@code clusterDir}. Returns once it is running; it joins the cluster, or waits for enough members to form one,
+     * in the background.
+     */
+    public static ClusterNode launch(EngineConfig config) {
+        List<String> hosts = config.clusterHosts();
+        int memberId = config.clusterMemberId();
+        if (memberId >= hosts.size() || config.clusterDir() == null) {
+            throw new IllegalArgumentException("A cluster node needs clusterDir and its clusterMemberId " + memberId +
+                " among clusterHosts " + hosts);
+        }
+        String host = hosts.get(memberId);
+        File clusterDir = new File(config.clusterDir());
+        String aeronDir = (config.aeronDir() == null ? CommonContext.getAeronDirectoryName() : config.aeronDir()) +
+            "-cluster-" + memberId;  // Members may share a host
+        ErrorHandler errorHandler = error -> {
+            System.err.println("Error on cluster member " + memberId + ": " + error);
+            error.printStackTrace();
+        };
+        RiskConfig riskConfig = config.riskLimitsFile() == null ? RiskConfig.UNLIMITED :
+            RiskConfig.load(Paths.get(config.riskLimitsFile()));
+        MatchingService service = new MatchingService(config, riskConfig);
+
+        MediaDriver.Context driverContext = new MediaDriver.Context()
+            .aeronDirectoryName(aeronDir)
+            .threadingMode(ThreadingMode.SHARED)
+            .termBufferSparseFile(true)
+            .dirDeleteOnStart(true)
+            .dirDeleteOnShutdown(true)
+            .errorHandler(errorHandler);
+        Archive.Context archiveContext = new Archive.Context()
+            .aeronDirectoryName(aeronDir)
+            .archiveDir(new File(clusterDir, "archive"))
+            .controlChannel(udpChannel(host, port(config, memberId, ARCHIVE_CONTROL_PORT)))
+            .localControlChannel("aeron:ipc?term-length=64k")
+            .replicationChannel("aeron:udp?endpoint=" + host + ":0")
+            .recordingEventsEnabled(false)
+            .threadingMode(ArchiveThreadingMode.SHARED)
+            .errorHandler(errorHandler);
+        AeronArchive.Context archiveClientContext = new AeronArchive.Context()
+            .lock(NoOpLock.INSTANCE)
+            .controlRequestChannel(archiveContext.localControlChannel())
+            .controlRequestStreamId(archiveContext.localControlStreamId())
+            .controlResponseChannel(archiveContext.localControlChannel())
+            .aeronDirectoryName(aeronDir);
+        ConsensusModule.Context consensusContext = new ConsensusModule.Context()
+            .clusterMemberId(memberId)
+            .clusterMembers(clusterMembers(config))
+            .clusterDir(new File(clusterDir, "consensus"))
+            .ingressChannel("aeron:udp")
+            .logChannel("aeron:udp?control-mode=manual|control=" + host + ":" +
+                port(config, memberId, LOG_CONTROL_PORT))
+            .replicationChannel("aeron:udp?endpoint=" + host + ":0")
+            .leaderHeartbeatTimeoutNs(TimeUnit.MILLISECONDS.toNanos(LEADER_HEARTBEAT_TIMEOUT_MS))
+            .leaderHeartbeatIntervalNs(TimeUnit.MILLISECONDS.toNanos(LEADER_HEARTBEAT_INTERVAL_MS))
+            .archiveContext(archiveClientContext.clone())
+            .errorHandler(errorHandler);
+        ClusteredServiceContainer.Context containerContext = new ClusteredServiceContainer.Context()
+            .aeronDirectoryName(aeronDir)
+            .archiveContext(archiveClientContext.clone())
+            .clusterDir(new File(clusterDir, "consensus"))
+            .clusteredService(service)
+            .errorHandler(errorHandler);
+
+        ClusteredMediaDriver driver = ClusteredMediaDriver.launch(driverContext, archiveContext, consensusContext);
+        try {
+            return new ClusterNode(memberId, service, driver, ClusteredServiceContainer.launch(containerContext));
+        } catch (RuntimeException e) {
+            CloseHelper.quietClose(driver);
+            throw e;
+        }
+    }
+
+    // id,ingress,consensus,log,catchup,archive control per member, | separated - the layout ConsensusModule expects
+    static String clusterMembers(EngineConfig config) {
+        StringBuilder members = new StringBuilder();
+        List<String> hosts = config.clusterHosts();
+        for (int id = 0; id < hosts.size(); id++) {
+            String host = hosts.get(id);
+            if (id > 0) {
+                members.append('|');
+            }
+            members.append(id)
+                .append(',').append(host).append(':').append(port(config, id, INGRESS_PORT))
+                .append(',').append(host).append(':').append(port(config, id, CONSENSUS_PORT))
+                .append(',').append(host).append(':').append(port(config, id, LOG_PORT))
+                .append(',').append(host).append(':').append(port(config, id, CATCHUP_PORT))
+                .append(',').append(host).append(':').append(port(config, id, ARCHIVE_CONTROL_PORT));
+        }
+        return members.toString();
+    }
+
+    // id=host:port of each member's ingress, comma separated, for AeronCluster clients
+    static String ingressEndpoints(EngineConfig config) {
+        StringBuilder endpoints = new StringBuilder();
+        List<String> hosts = config.clusterHosts();
+        for (int id = 0; id < hosts.size(); id++) {
+            if (id > 0) {
+                endpoints.append(',');
+            }
+            endpoints.append(id).append('=').append(hosts.get(id)).append(':').append(port(config, id, INGRESS_PORT));
+        }
+        return endpoints.toString();
+    }
+
+    private static int port(EngineConfig config, int memberId, int offset) {
+        return config.clusterPortBase() + memberId * PORTS_PER_MEMBER + offset;
+    }
+
+    private static String udpChannel(String host, int port) {
+        return "aeron:udp?endpoint=" + host + ":" + port;
+    }
+
+    public int memberId() {
+        return memberId;
+    }
+
+    // Whether this member leads the cluster at the moment - it changes with every election
+    public boolean isLeader() {
+        return service.isLeader();
+    }
+
+    MatchingService service() {
+        return service;
+    }
+
+    /**
+     * Asks the cluster for a snapshot, which every member takes at the same log position. Restarting members then
+     * load it rather than the whole log.
+     * @return false if the request couldn't be made, e.g. another is still in progress
+     */
+    boolean requestSnapshot() {
+        return ClusterControl.ToggleState.SNAPSHOT.toggle(ClusterControl.findControlToggle(
+            container.context().aeron().countersReader(), driver.consensusModule().context().clusterId()));
+    }
+
+    /**
+     * Stops the member; the rest of the cluster carries on without it, electing a new leader if it led. Its service's
+     * books can still be read afterwards.
+     */
+    @Override
+    public void close() {
+        CloseHelper.closeAll(container, driver);
+    }
+
+    // Runs the member named by the engine config until the process is signalled to stop
+    public static void main(String[] args) {
+        try (ClusterNode node = launch(EngineConfig.load())) {
+            System.out.printf("Cluster member %d running%n", node.memberId());
+            new ShutdownSignalBarrier().await();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.CancelOrderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.ModifyOrderDecoder;
+import com.saqib.fxengine.codec.NewOrderDecoder;
+import com.saqib.fxengine.codec.RejectReason;
+import org.agrona.DirectBuffer;
+
+/**
+ * Applies decoded commands to a set of books. The matching shard applies live and journalled commands through one of
+ * these; the snapshotter keeps a replica of the shard's books current through another, fed from the journal.
+ */
+class CommandApplier implements JournalHandler {
+    private final OrderBookManager orderBookManager;
+    private final ExecutionReportPublisher executionReports;  // Null for a replica, which reports nothing
+    private final OrderIdSequence orderIds;
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final NewOrderDecoder newOrderDecoder = new NewOrderDecoder();
+    private final CancelOrderDecoder cancelOrderDecoder = new CancelOrderDecoder();
+    private final ModifyOrderDecoder modifyOrderDecoder = new ModifyOrderDecoder();
+    private EngineCounters counters;  // Null for a replica
+
+    CommandApplier(OrderBookManager orderBookManager, ExecutionReportPublisher executionReports,
+                   OrderIdSequence orderIds) {
+        this.orderBookManager = orderBookManager;
+        this.executionReports = executionReports;
+        this.orderIds = orderIds;
+    }
+
+    void counters(EngineCounters counters) {
+        this.counters = counters;
+    }
+
+    // Replays a journalled command, moving the order id sequence past it
+    @Override
+    public void onCommand(long seqNo, long timestamp, long orderId, DirectBuffer buffer, int offset, int length) {
+        apply(buffer, offset, orderId, timestamp);
+        if (orderId != 0) {
+            orderIds.advancePast(orderId);
+        }
+    }
+
+    // The message at offset has been checked already; orderId is the one assigned to a new order, 0 otherwise
+    void apply(DirectBuffer buffer, int offset, long orderId, long timestamp) {
+        headerDecoder.wrap(buffer, offset);
+        int blockLength = headerDecoder.blockLength();
+        int version = headerDecoder.version();
+        int blockOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;
+        switch (headerDecoder.templateId()) {
+            case NewOrderDecoder.TEMPLATE_ID:
+                applyNewOrder(newOrderDecoder.wrap(buffer, blockOffset, blockLength, version), orderId, timestamp);
+                break;
+            case CancelOrderDecoder.TEMPLATE_ID:
+                applyCancelOrder(cancelOrderDecoder.wrap(buffer, blockOffset, blockLength, version));
+                break;
+            case ModifyOrderDecoder.TEMPLATE_ID:
+                applyModifyOrder(modifyOrderDecoder.wrap(buffer, blockOffset, blockLength, version), timestamp);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void applyNewOrder(NewOrderDecoder newOrder, long orderId, long timestamp) {
+        OrderBook orderBook = orderBookManager.orderBook(newOrder.symbol());
+        if (orderBook == null) {
+            if (executionReports != null) {
+                executionReports.rejected(orderId, newOrder.clientOrderId(), newOrder.userId(), newOrder.symbol(),
+                    newOrder.side(), newOrder.price(), RejectReason.UNKNOWN_SYMBOL);
+            }
+            return;
+        }
+        orderBook.addOrder(orderId, newOrder.side(), newOrder.price(), newOrder.quantity(), newOrder.userId(), timestamp,
+            newOrder.orderType(), newOrder.timeInForce(), newOrder.clientOrderId());
+        if (counters != null) {
+            counters.orderApplied();
+        }
+    }
+
+    private void applyCancelOrder(CancelOrderDecoder cancelOrder) {
+        OrderBook orderBook = orderBookManager.orderBook(cancelOrder.symbol());
+        if (orderBook == null) {
+            if (executionReports != null) {
+                executionReports.rejected(cancelOrder.orderId(), 0, 0, cancelOrder.symbol(), (byte) 0, 0,
+                    RejectReason.UNKNOWN_SYMBOL);
+            }
+            return;
+        }
+        orderBook.cancelOrder(cancelOrder.orderId());
+    }
+
+    private void applyModifyOrder(ModifyOrderDecoder modifyOrder, long timestamp) {
+        OrderBook orderBook = orderBookManager.orderBook(modifyOrder.symbol());
+        if (orderBook == null) {
+            if (executionReports != null) {
+                executionReports.rejected(modifyOrder.orderId(), 0, 0, modifyOrder.symbol(), (byte) 0,
+                    modifyOrder.newPrice(), RejectReason.UNKNOWN_SYMBOL);
+            }
+            return;
+        }
+        orderBook.modifyOrder(modifyOrder.orderId(), modifyOrder.newPrice(), modifyOrder.newQuantity(), timestamp);
+    }
+}
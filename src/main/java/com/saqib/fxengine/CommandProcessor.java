@@ -0,0 +1,212 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.CancelOrderDecoder;
+import com.saqib.fxengine.codec.CancelOrderEncoder;
+import com.saqib.fxengine.codec.CommandBatchDecoder;
+import com.saqib.fxengine.codec.CommandBatchEncoder;
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.ModifyOrderDecoder;
+import com.saqib.fxengine.codec.ModifyOrderEncoder;
+import com.saqib.fxengine.codec.NewOrderDecoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.RejectReason;
+import org.agrona.DirectBuffer;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Takes an inbound message - one command or a CommandBatch of them - through framing checks, order id assignment,
+ * pre-trade risk and on to the books. Shared by the matching shard, which journals each command that passes risk, and
+ * the clustered service, whose log already holds it.
+ */
+class CommandProcessor {
+    private final OrderBookManager orderBookManager;
+    private final RiskEngine risk;
+    private final ExecutionReportPublisher executionReports;
+    private final OrderIdSequence orderIds;
+    private final CommandApplier commandApplier;
+    private final LongSupplier clock;  // Stamps each command
+    private final LatencyRecorder latency;  // Null unless latencyTracking
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final CommandBatchDecoder commandBatchDecoder = new CommandBatchDecoder();
+    private final NewOrderDecoder newOrderDecoder = new NewOrderDecoder();
+    private final ModifyOrderDecoder modifyOrderDecoder = new ModifyOrderDecoder();
+    private final Order amended = new Order();
+    private Journal journal;  // Null when journalling is off
+    private EngineCounters counters;  // Null without an Aeron client to hold them
+    private EngineLog log;  // Null until set, when bad input goes unlogged
+    private long sentNs;  // Client encode time of the message being processed, 0 if not stamped
+
+    CommandProcessor(OrderBookManager orderBookManager, RiskEngine risk, ExecutionReportPublisher executionReports,
+                     OrderIdSequence orderIds, CommandApplier commandApplier, LongSupplier clock,
+                     LatencyRecorder latency) {
+        this.orderBookManager = orderBookManager;
+        this.risk = risk;
+        this.executionReports = executionReports;
+        this.orderIds = orderIds;
+        this.commandApplier = commandApplier;
+        this.clock = clock;
+        this.latency = latency;
+    }
+
+    // Accepted commands are appended here, with their order id and timestamp, before they are applied
+    void journal(Journal journal) {
+        this.journal = journal;
+    }
+
+    void counters(EngineCounters counters) {
+        this.counters = counters;
+    }
+
+    void log(EngineLog log) {
+        this.log = log;
+    }
+
+    void onMessage(DirectBuffer buffer, int offset, int length, long sentNs) {
+        this.sentNs = sentNs;
+        int blockLength = checkHeader(buffer, offset, length);
+        if (blockLength < 0) {
+            return;
+        }
+        if (headerDecoder.templateId() == CommandBatchDecoder.TEMPLATE_ID) {
+            processBatch(buffer, offset, length, blockLength);
+        } else {
+            processCommand(buffer, offset, blockLength);
+        }
+    }
+
+    // Commands are laid out back to back after the batch block; a bad one ends the batch since the rest can't be framed
+    private void processBatch(DirectBuffer buffer, int offset, int length, int blockLength) {
+        int blockOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;
+        int count = commandBatchDecoder.wrap(buffer, blockOffset, blockLength, headerDecoder.version()).count();
+        int limit = offset + length;
+        int position = blockOffset + blockLength;
+        for (int i = 0; i < count; i++) {
+            int commandBlockLength = checkHeader(buffer, position, limit - position);
+            if (commandBlockLength < 0) {
+                return;
+            }
+            if (headerDecoder.templateId() == CommandBatchDecoder.TEMPLATE_ID) {
+                if (log != null) {
+                    log.log(LogEvent.NESTED_BATCH_DROPPED, i, count);
+                }
+                return;
+            }
+            processCommand(buffer, position, commandBlockLength);
+            position += MessageHeaderDecoder.ENCODED_LENGTH + commandBlockLength;
+        }
+    }
+
+    // Wraps the header and returns the block length, or -1 if the message can't be trusted. A block shorter than its
+    // template's would have the decoder read fields from whatever follows it
+    private int checkHeader(DirectBuffer buffer, int offset, int length) {
+        if (length < MessageHeaderDecoder.ENCODED_LENGTH) {
+            if (log != null) {
+                log.log(LogEvent.TRUNCATED_MESSAGE, length);
+            }
+            return -1;
+        }
+        headerDecoder.wrap(buffer, offset);
+        int blockLength = headerDecoder.blockLength();
+        if (headerDecoder.schemaId() != MessageHeaderEncoder.SCHEMA_ID ||
+            length < MessageHeaderDecoder.ENCODED_LENGTH + blockLength ||
+            blockLength < minBlockLength(headerDecoder.templateId())) {
+            if (log != null) {
+                log.log(LogEvent.MALFORMED_MESSAGE, headerDecoder.schemaId(), headerDecoder.templateId());
+            }
+            return -1;
+        }
+        return blockLength;
+    }
+
+    // 0 for a template this version doesn't know, which processCommand reports as such
+    private static int minBlockLength(int templateId) {
+        switch (templateId) {
+            case NewOrderDecoder.TEMPLATE_ID:
+                return NewOrderEncoder.BLOCK_LENGTH;
+            case CancelOrderDecoder.TEMPLATE_ID:
+                return CancelOrderEncoder.BLOCK_LENGTH;
+            case ModifyOrderDecoder.TEMPLATE_ID:
+                return ModifyOrderEncoder.BLOCK_LENGTH;
+            case CommandBatchDecoder.TEMPLATE_ID:
+                return CommandBatchEncoder.BLOCK_LENGTH;
+            default:
+                return 0;
+        }
+    }
+
+    // Expects headerDecoder to be wrapped at offset. The order id and timestamp are fixed here and journalled ahead of
+    // matching, so replay reproduces the books exactly. Risk runs first: a rejected command is never journalled
+    private void processCommand(DirectBuffer buffer, int offset, int blockLength) {
+        int templateId = headerDecoder.templateId();
+        if (templateId != NewOrderDecoder.TEMPLATE_ID && templateId != CancelOrderDecoder.TEMPLATE_ID &&
+            templateId != ModifyOrderDecoder.TEMPLATE_ID) {
+            if (log != null) {
+                log.log(LogEvent.UNKNOWN_MESSAGE_TYPE, templateId);
+            }
+            return;
+        }
+        if (counters != null) {
+            counters.commandReceived(templateId);
+        }
+        long timestamp = clock.getAsLong();
+        if (latency != null) {
+            executionReports.commandStarted(timestamp);
+        }
+        if (!passesRisk(buffer, offset, blockLength, timestamp)) {
+            return;
+        }
+        // Only once risk passes: a rejected order is never journalled, so an id it took would be handed out again
+        // after recovery
+        long orderId = templateId == NewOrderDecoder.TEMPLATE_ID ? orderIds.next() : 0;
+        if (journal != null) {
+            journal.append(timestamp, orderId, buffer, offset, MessageHeaderDecoder.ENCODED_LENGTH + blockLength);
+        }
+        commandApplier.apply(buffer, offset, orderId, timestamp);
+        if (latency == null) {
+            return;
+        }
+        long appliedNs = System.nanoTime();
+        latency.record(LatencyStage.MATCH, appliedNs - timestamp);
+        if (sentNs != 0) {
+            latency.record(LatencyStage.END_TO_END, appliedNs - sentNs);
+        }
+    }
+
+    // Checks new orders and amendments, reporting a rejection; cancels, and anything the book will reject anyway, pass.
+    // A rejected new order has no engine id, so its report carries order id 0 and the client's clientOrderId
+    private boolean passesRisk(DirectBuffer buffer, int offset, int blockLength, long timestamp) {
+        int version = headerDecoder.version();
+        int blockOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;
+        RejectReason reason = RejectReason.NONE;
+        if (headerDecoder.templateId() == NewOrderDecoder.TEMPLATE_ID) {
+            NewOrderDecoder newOrder = newOrderDecoder.wrap(buffer, blockOffset, blockLength, version);
+            OrderBook book = orderBookManager.orderBook(newOrder.symbol());
+            long price = newOrder.price();
+            if (book != null && newOrder.orderType() == OrderType.MARKET) {
+                price = book.marketOrderPrice(newOrder.side());  // As matched
+            }
+            if (book != null && price != OrderBook.NO_PRICE) {
+                reason = risk.checkNewOrder(newOrder.userId(), book.getSymbol(), newOrder.side(), price,
+                    newOrder.quantity(), timestamp);
+            }
+            if (reason != RejectReason.NONE) {
+                executionReports.rejected(0, newOrder.clientOrderId(), newOrder.userId(), newOrder.symbol(),
+                    newOrder.side(), newOrder.price(), reason);
+            }
+        } else if (headerDecoder.templateId() == ModifyOrderDecoder.TEMPLATE_ID) {
+            ModifyOrderDecoder modifyOrder = modifyOrderDecoder.wrap(buffer, blockOffset, blockLength, version);
+            OrderBook book = orderBookManager.orderBook(modifyOrder.symbol());
+            if (book != null && book.getOrder(modifyOrder.orderId(), amended)) {
+                reason = risk.checkModify(amended, modifyOrder.newPrice(), modifyOrder.newQuantity(), timestamp);
+            }
+            if (reason != RejectReason.NONE) {
+                executionReports.rejected(modifyOrder.orderId(), amended.clientOrderId(), amended.userId(),
+                    modifyOrder.symbol(), amended.side(), modifyOrder.newPrice(), reason);
+            }
+        }
+        return reason == RejectReason.NONE;
+    }
+}
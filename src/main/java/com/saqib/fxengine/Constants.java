@@ -1,10 +1,8 @@
 package com.saqib.fxengine;
 
+// Message types live in the wire schema - see com.saqib.fxengine.codec
 public class Constants {
-    public static final int NEW_ORDER = 1;
-    public static final int CANCEL_ORDER = 2;
-    public static final int MODIFY_ORDER = 3;
-    
     public static final byte BUY = 0;
     public static final byte SELL = 1;
-}
\ No newline at end of file
+    public static final long PRICE_SCALE = 100_000;  // x10^5: the default CurrencyPair price scale, and risk amounts
+}
@@ -0,0 +1,7 @@
+package com.saqib.fxengine;
+
+// Every currency a configured CurrencyPair may be made of - ordinal() indexes per-currency risk state, so keep the list
+// short: adding one is a release, adding a pair of existing currencies is only config
+public enum Currency {
+    EUR, GBP, USD, JPY, CHF, AUD, NZD, CAD, SEK, NOK, DKK, HKD, SGD, CNH, MXN, ZAR, TRY, PLN, HUF, CZK
+}
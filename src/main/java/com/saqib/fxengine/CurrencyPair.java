@@ -1,7 +1,156 @@
 package com.saqib.fxengine;
 
-// FX currency pairs - could switch to int (e.g., 1 = EUR_USD) for minor performance gain
-public enum CurrencyPair {
-    EUR_USD, GBP_USD, USD_JPY
-    // Add more pairs as needed - ordinal() used for serialisation
-}
\ No newline at end of file
+import org.json.JSONObject;
+
+/**
+ * A tradable pair and its reference data, as listed in the engine's {@link SymbolRegistry}. The id is what goes on the
+ * wire and indexes per-symbol arrays; the name, e.g. {@code EUR_USD}, is base and quote currency.
+ * <pre>
+ * { "id": 2, "name": "USD_JPY", "priceScale": 1000, "tickSize": 5, "minQuantity": 1000, "maxQuantity": 50000000,
+ *   "lotSize": 1000 }
+ * </pre>
+ * Prices are quote currency per unit of base x {@code priceScale}, and must be a multiple of {@code tickSize}.
+ * Quantities are in base currency units, from {@code minQuantity} to {@code maxQuantity} in multiples of
+ * {@code lotSize}. Everything but id and name is optional and defaults to a 10^5 scale, tick and lot of 1 and no
+ * quantity limit. A cross, with USD on neither side, also needs {@code quoteUsdRate}: the USD value of one unit of its
+ * quote currency, which the risk engine values open orders with.
+ */
+public final class CurrencyPair {
+    // The pairs the engine lists when no symbols are configured
+    public static final CurrencyPair EUR_USD = new CurrencyPair(0, "EUR_USD", Constants.PRICE_SCALE, 1, 1,
+        Integer.MAX_VALUE, 1);
+    public static final CurrencyPair GBP_USD = new CurrencyPair(1, "GBP_USD", Constants.PRICE_SCALE, 1, 1,
+        Integer.MAX_VALUE, 1);
+    public static final CurrencyPair USD_JPY = new CurrencyPair(2, "USD_JPY", 1_000, 1, 1, Integer.MAX_VALUE, 1);
+
+    private final int id;
+    private final String name;
+    private final Currency base;
+    private final Currency quote;
+    private final long priceScale;
+    private final long tickSize;
+    private final int minQuantity;
+    private final int maxQuantity;
+    private final int lotSize;
+    private final long quoteScale;
+    private final double quoteUsdRate;  // 0 unless a cross
+
+    public CurrencyPair(int id, String name, long priceScale, long tickSize, int minQuantity, int maxQuantity,
+                        int lotSize) {
+        this(id, name, priceScale, tickSize, minQuantity, maxQuantity, lotSize, 0);
+    }
+
+    public CurrencyPair(int id, String name, long priceScale, long tickSize, int minQuantity, int maxQuantity,
+                        int lotSize, double quoteUsdRate) {
+        String[] currencies = name.split("_");
+        if (currencies.length != 2) {
+            throw new IllegalArgumentException("Symbol name must be BASE_QUOTE: " + name);
+        }
+        if (id < 0 || id >= SymbolRegistry.MAX_SYMBOLS) {
+            throw new IllegalArgumentException(name + " id must be from 0 to " + (SymbolRegistry.MAX_SYMBOLS - 1) +
+                ": " + id);
+        }
+        if (priceScale <= 0 || Constants.PRICE_SCALE % priceScale != 0) {
+            throw new IllegalArgumentException(name + " priceScale must divide " + Constants.PRICE_SCALE + ": " +
+                priceScale);
+        }
+        if (tickSize <= 0) {
+            throw new IllegalArgumentException(name + " tickSize must be positive: " + tickSize);
+        }
+        if (minQuantity > maxQuantity) {
+            throw new IllegalArgumentException(name + " minQuantity " + minQuantity + " exceeds maxQuantity " +
+                maxQuantity);
+        }
+        this.id = id;
+        this.name = name;
+        this.base = Currency.valueOf(currencies[0]);
+        this.quote = Currency.valueOf(currencies[1]);
+        this.priceScale = priceScale;
+        this.tickSize = tickSize;
+        this.minQuantity = EngineConfig.positive(name + " minQuantity", minQuantity);
+        this.maxQuantity = maxQuantity;
+        this.lotSize = EngineConfig.positive(name + " lotSize", lotSize);
+        this.quoteScale = Constants.PRICE_SCALE / priceScale;
+        boolean cross = base != Currency.USD && quote != Currency.USD;
+        if (cross && !(quoteUsdRate > 0)) {
+            throw new IllegalArgumentException(name + " is a cross, so needs a positive quoteUsdRate: " + quoteUsdRate);
+        }
+        this.quoteUsdRate = cross ? quoteUsdRate : 0;
+    }
+
+    public static CurrencyPair fromJson(JSONObject json) {
+        return new CurrencyPair(json.getInt("id"), json.getString("name"),
+            json.optLong("priceScale", Constants.PRICE_SCALE), json.optLong("tickSize", 1),
+            json.optInt("minQuantity", 1), json.optInt("maxQuantity", Integer.MAX_VALUE), json.optInt("lotSize", 1),
+            json.optDouble("quoteUsdRate", 0));
+    }
+
+    // Wire id - stable across restarts, since journals and snapshots record it
+    public int id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // Quantities are in the base currency
+    public Currency base() {
+        return base;
+    }
+
+    // Prices are quote currency per unit of base, x priceScale
+    public Currency quote() {
+        return quote;
+    }
+
+    public long priceScale() {
+        return priceScale;
+    }
+
+    public long tickSize() {
+        return tickSize;
+    }
+
+    public int minQuantity() {
+        return minQuantity;
+    }
+
+    public int maxQuantity() {
+        return maxQuantity;
+    }
+
+    public int lotSize() {
+        return lotSize;
+    }
+
+    // Turns quantity x price into quote currency units x PRICE_SCALE, as RiskEngine keeps amounts
+    long quoteScale() {
+        return quoteScale;
+    }
+
+    // USD value of one unit of base at price, x PRICE_SCALE, as RiskEngine keeps open notional. Exact unless a cross,
+    // and linear in quantity, so an order's notional comes off again exactly as it went on however it's filled
+    long usdNotional(long price) {
+        if (base == Currency.USD) {
+            return Constants.PRICE_SCALE;
+        }
+        if (quote == Currency.USD) {
+            return price * quoteScale;
+        }
+        return Math.round(price * quoteScale * quoteUsdRate);
+    }
+
+    public boolean isOnTick(long price) {
+        return price % tickSize == 0;
+    }
+
+    public boolean isValidQuantity(int quantity) {
+        return quantity >= minQuantity && quantity <= maxQuantity && quantity % lotSize == 0;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,76 @@
+package com.saqib.fxengine;
+
+import io.aeron.Aeron;
+import io.aeron.Counter;
+import org.agrona.concurrent.Agent;
+
+/**
+ * Runs an {@link Agent} and counts its duty cycles in Aeron counters, readable from outside the process with
+ * {@code AeronStat}: cycles run, cycles that found work and the longest cycle in nanoseconds. A cycle's length runs
+ * from the start of one to the start of the next, so it includes the idle strategy - a long one on a busy-spinning
+ * thread means the thread was descheduled or paused.
+ */
+class DutyCycleAgent implements Agent {
+    static final int CYCLES_TYPE_ID = 1001;
+    static final int WORK_CYCLES_TYPE_ID = 1002;
+    static final int MAX_CYCLE_NS_TYPE_ID = 1003;
+    static final int ERRORS_TYPE_ID = 1004;  // Counted by the AgentRunner
+
+    private final Agent agent;
+    private final String roleName;
+    private final Counter cyclesCounter;
+    private final Counter workCyclesCounter;
+    private final Counter maxCycleNsCounter;
+    private long cycles;
+    private long workCycles;
+    private long maxCycleNs;
+    private long lastCycleNs;
+
+    DutyCycleAgent(Agent agent, String roleName, Aeron aeron) {
+        this.agent = agent;
+        this.roleName = roleName;
+        this.cyclesCounter = aeron.addCounter(CYCLES_TYPE_ID, roleName + " duty cycles");
+        this.workCyclesCounter = aeron.addCounter(WORK_CYCLES_TYPE_ID, roleName + " work cycles");
+        this.maxCycleNsCounter = aeron.addCounter(MAX_CYCLE_NS_TYPE_ID, roleName + " max cycle ns");
+    }
+
+    @Override
+    public void onStart() {
+        agent.onStart();
+        lastCycleNs = System.nanoTime();
+    }
+
+    // Counters are written with ordered stores, a plain store on x86, so counting costs the loop next to nothing
+    @Override
+    public int doWork() throws Exception {
+        long now = System.nanoTime();
+        long cycleNs = now - lastCycleNs;
+        lastCycleNs = now;
+        if (cycleNs > maxCycleNs) {
+            maxCycleNs = cycleNs;
+            maxCycleNsCounter.setOrdered(cycleNs);
+        }
+        int workCount = agent.doWork();
+        cyclesCounter.setOrdered(++cycles);
+        if (workCount > 0) {
+            workCyclesCounter.setOrdered(++workCycles);
+        }
+        return workCount;
+    }
+
+    @Override
+    public void onClose() {
+        try {
+            agent.onClose();
+        } finally {
+            cyclesCounter.close();
+            workCyclesCounter.close();
+            maxCycleNsCounter.close();
+        }
+    }
+
+    @Override
+    public String roleName() {
+        return roleName;
+    }
+}
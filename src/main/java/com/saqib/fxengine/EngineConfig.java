@@ -0,0 +1,662 @@
+package com.saqib.fxengine;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Engine settings, loaded from the JSON file named by the {@code fxengine.config} system property or defaulted.
+ * <p>
+ * Example:
+ * <pre>
+ * {
+ *   "symbols": [
+ *     { "id": 0, "name": "EUR_USD", "priceScale": 100000, "tickSize": 1 },
+ *     { "id": 2, "name": "USD_JPY", "priceScale": 1000, "tickSize": 5, "minQuantity": 1000, "lotSize": 1000 }
+ *   ],
+ *   "bookType": "SORTED_MAP",
+ *   "bookTypes": { "EUR_USD": "PRICE_LADDER" },
+ *   "ladderInitialLevels": 4096,
+ *   "ladderMaxLevels": 1048576,
+ *   "orderIndexCapacity": 65536,
+ *   "orderStoreCapacity": 1048576,
+ *   "marketOrderBandBps": 50,
+ *   "topOfBookDepth": 5,
+ *   "shards": 2,
+ *   "shardAssignments": { "USD_JPY": 1 },
+ *   "inputStreamId": 1001,
+ *   "marketDataStreamId": 2001,
+ *   "executionReportStreamId": 3001,
+ *   "marketDataConflationMicros": 100,
+ *   "marketDataSnapshotMillis": 1000,
+ *   "fragmentLimit": 10,
+ *   "localIngress": true,
+ *   "localIngressBufferSize": 4194304,
+ *   "journalDir": "/var/lib/fxengine/journal",
+ *   "journalArchiveDir": "/var/lib/fxengine/archive",
+ *   "journalSegmentSize": 67108864,
+ *   "journalForcePolicy": "BATCH",
+ *   "journalForceIntervalMillis": 10,
+ *   "snapshotIntervalSeconds": 60,
+ *   "latencyTracking": true,
+ *   "latencyReportSeconds": 10,
+ *   "riskLimitsFile": "/etc/fxengine/risk-limits.json",
+ *   "matchingIdleStrategy": "BUSY_SPIN",
+ *   "snapshotIdleStrategy": "SLEEPING",
+ *   "backgroundIdleStrategy": "SLEEPING",
+ *   "cpuAffinity": { "matching-0": 2, "matching-1": 3 },
+ *   "aeronDir": "/dev/shm/fxengine",
+ *   "logDir": "/var/log/fxengine",
+ *   "logBufferSize": 1048576,
+ *   "logFileSize": 67108864,
+ *   "logFileCount": 10,
+ *   "clusterHosts": [ "fx1", "fx2", "fx3" ],
+ *   "clusterMemberId": 0,
+ *   "clusterPortBase": 9000,
+ *   "clusterDir": "/var/lib/fxengine/cluster",
+ *   "clusterMarketDataChannel": "aeron:udp?endpoint=fxclient:40500",
+ *   "clusterEgressChannel": "aeron:udp?endpoint=fxclient:0"
+ * }
+ * </pre>
+ * Symbols are listed as in {@link CurrencyPair}; without a list the engine trades EUR_USD, GBP_USD and USD_JPY as ids
+ * 0 to 2. Per-symbol settings are keyed by symbol name. Setters are fluent so tests and benchmarks can build a config in
+ * code.
+ * </p>
+ */
+public class EngineConfig {
+    public static final String CONFIG_PROPERTY = "fxengine.config";
+
+    private SymbolRegistry symbols = SymbolRegistry.DEFAULT;
+    private BookType bookType = BookType.SORTED_MAP;
+    private final Map<String, BookType> bookTypes = new HashMap<>();  // Symbol name -> book type
+    private int ladderInitialLevels = 4096;
+    private int ladderMaxLevels = 1 << 20;
+    private int orderIndexCapacity = 1 << 16;
+    private int orderStoreCapacity = 1 << 20;
+    private int marketOrderBandBps = 50;
+    private int topOfBookDepth = 5;
+    private int shards = 1;
+    private final Map<String, Integer> shardAssignments = new HashMap<>();  // Symbol name -> shard
+    private int inputStreamId = 1001;
+    private int marketDataStreamId = 2001;
+    private int executionReportStreamId = 3001;
+    private int marketDataConflationMicros = 100;
+    private int marketDataSnapshotMillis = 1000;
+    private int fragmentLimit = 10;
+    private boolean localIngress;
+    private int localIngressBufferSize = 1 << 22;
+    private String journalDir;  // Journalling is off unless set
+    private String journalArchiveDir;  // Segments a snapshot has made redundant are deleted unless set
+    private int journalSegmentSize = 64 * 1024 * 1024;
+    private JournalForcePolicy journalForcePolicy = JournalForcePolicy.NONE;
+    private int journalForceIntervalMillis = 10;
+    private int snapshotIntervalSeconds = 60;
+    private boolean latencyTracking;
+    private int latencyReportSeconds = 10;
+    private String riskLimitsFile;  // No pre-trade limits unless set
+    private IdleStrategyType matchingIdleStrategy = IdleStrategyType.BUSY_SPIN;
+    private IdleStrategyType snapshotIdleStrategy = IdleStrategyType.SLEEPING;
+    private IdleStrategyType backgroundIdleStrategy = IdleStrategyType.SLEEPING;
+    private final Map<String, Integer> cpuAffinity = new HashMap<>();  // Agent thread name -> CPU
+    private String aeronDir;  // A fresh directory per run unless set
+    private String logDir;  // Logs to stderr unless set
+    private int logBufferSize = 1 << 20;
+    private int logFileSize = 64 * 1024 * 1024;
+    private int logFileCount = 10;
+    private final List<String> clusterHosts = new ArrayList<>();  // By member id; empty unless clustered
+    private int clusterMemberId;
+    private int clusterPortBase = 9000;
+    private String clusterDir;
+    private String clusterMarketDataChannel = "aeron:udp?endpoint=localhost:40500";
+    private String clusterEgressChannel = "aeron:udp?endpoint=localhost:0";
+
+    public static EngineConfig load() {
+        String path = System.getProperty(CONFIG_PROPERTY);
+        if (path == null) {
+            return new EngineConfig();
+        }
+        try {
+            return fromJson(new JSONObject(Files.readString(Paths.get(path))));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read engine config " + path, e);
+        }
+    }
+
+    public static EngineConfig fromJson(JSONObject json) {
+        EngineConfig config = new EngineConfig();
+        JSONArray symbols = json.optJSONArray("symbols");
+        if (symbols != null) {
+            config.symbols(SymbolRegistry.fromJson(symbols));
+        }
+        config.bookType(BookType.valueOf(json.optString("bookType", config.bookType.name())));
+        JSONObject types = json.optJSONObject("bookTypes");
+        if (types != null) {
+            for (String symbol : types.keySet()) {
+                config.bookType(config.symbols.get(symbol), BookType.valueOf(types.getString(symbol)));
+            }
+        }
+        config.ladderInitialLevels(json.optInt("ladderInitialLevels", config.ladderInitialLevels));
+        config.ladderMaxLevels(json.optInt("ladderMaxLevels", config.ladderMaxLevels));
+        config.orderIndexCapacity(json.optInt("orderIndexCapacity", config.orderIndexCapacity));
+        config.orderStoreCapacity(json.optInt("orderStoreCapacity", config.orderStoreCapacity));
+        config.marketOrderBandBps(json.optInt("marketOrderBandBps", config.marketOrderBandBps));
+        config.topOfBookDepth(json.optInt("topOfBookDepth", config.topOfBookDepth));
+        config.shards(json.optInt("shards", config.shards));
+        JSONObject assignments = json.optJSONObject("shardAssignments");
+        if (assignments != null) {
+            for (String symbol : assignments.keySet()) {
+                config.shard(config.symbols.get(symbol), assignments.getInt(symbol));
+            }
+        }
+        config.inputStreamId(json.optInt("inputStreamId", config.inputStreamId));
+        config.marketDataStreamId(json.optInt("marketDataStreamId", config.marketDataStreamId));
+        config.executionReportStreamId(json.optInt("executionReportStreamId", config.executionReportStreamId));
+        config.marketDataConflationMicros(json.optInt("marketDataConflationMicros", config.marketDataConflationMicros));
+        config.marketDataSnapshotMillis(json.optInt("marketDataSnapshotMillis", config.marketDataSnapshotMillis));
+        config.fragmentLimit(json.optInt("fragmentLimit", config.fragmentLimit));
+        config.localIngress(json.optBoolean("localIngress", config.localIngress));
+        config.localIngressBufferSize(json.optInt("localIngressBufferSize", config.localIngressBufferSize));
+        config.journalDir(json.optString("journalDir", config.journalDir));
+        config.journalArchiveDir(json.optString("journalArchiveDir", config.journalArchiveDir));
+        config.journalSegmentSize(json.optInt("journalSegmentSize", config.journalSegmentSize));
+        config.journalForcePolicy(JournalForcePolicy.valueOf(json.optString("journalForcePolicy", config.journalForcePolicy.name())));
+        config.journalForceIntervalMillis(json.optInt("journalForceIntervalMillis", config.journalForceIntervalMillis));
+        config.snapshotIntervalSeconds(json.optInt("snapshotIntervalSeconds", config.snapshotIntervalSeconds));
+        config.latencyTracking(json.optBoolean("latencyTracking", config.latencyTracking));
+        config.latencyReportSeconds(json.optInt("latencyReportSeconds", config.latencyReportSeconds));
+        config.riskLimitsFile(json.optString("riskLimitsFile", config.riskLimitsFile));
+        config.matchingIdleStrategy(IdleStrategyType.valueOf(json.optString("matchingIdleStrategy", config.matchingIdleStrategy.name())));
+        config.snapshotIdleStrategy(IdleStrategyType.valueOf(json.optString("snapshotIdleStrategy", config.snapshotIdleStrategy.name())));
+        config.backgroundIdleStrategy(IdleStrategyType.valueOf(json.optString("backgroundIdleStrategy", config.backgroundIdleStrategy.name())));
+        JSONObject affinity = json.optJSONObject("cpuAffinity");
+        if (affinity != null) {
+            for (String thread : affinity.keySet()) {
+                config.cpuAffinity(thread, affinity.getInt(thread));
+            }
+        }
+        config.aeronDir(json.optString("aeronDir", config.aeronDir));
+        config.logDir(json.optString("logDir", config.logDir));
+        config.logBufferSize(json.optInt("logBufferSize", config.logBufferSize));
+        config.logFileSize(json.optInt("logFileSize", config.logFileSize));
+        config.logFileCount(json.optInt("logFileCount", config.logFileCount));
+        JSONArray hosts = json.optJSONArray("clusterHosts");
+        if (hosts != null) {
+            List<String> clusterHosts = new ArrayList<>();
+            for (int i = 0; i < hosts.length(); i++) {
+                clusterHosts.add(hosts.getString(i));
+            }
+            config.clusterHosts(clusterHosts);
+        }
+        config.clusterMemberId(json.optInt("clusterMemberId", config.clusterMemberId));
+        config.clusterPortBase(json.optInt("clusterPortBase", config.clusterPortBase));
+        config.clusterDir(json.optString("clusterDir", config.clusterDir));
+        config.clusterMarketDataChannel(json.optString("clusterMarketDataChannel", config.clusterMarketDataChannel));
+        config.clusterEgressChannel(json.optString("clusterEgressChannel", config.clusterEgressChannel));
+        return config;
+    }
+
+    public SymbolRegistry symbols() {
+        return symbols;
+    }
+
+    public EngineConfig symbols(SymbolRegistry symbols) {
+        this.symbols = symbols;
+        return this;
+    }
+
+    public BookType bookType(CurrencyPair symbol) {
+        return bookTypes.getOrDefault(symbol.name(), bookType);
+    }
+
+    public EngineConfig bookType(BookType bookType) {
+        this.bookType = bookType;
+        return this;
+    }
+
+    public EngineConfig bookType(CurrencyPair symbol, BookType bookType) {
+        bookTypes.put(symbol.name(), bookType);
+        return this;
+    }
+
+    public int ladderInitialLevels() {
+        return ladderInitialLevels;
+    }
+
+    public EngineConfig ladderInitialLevels(int ladderInitialLevels) {
+        this.ladderInitialLevels = positive("ladderInitialLevels", ladderInitialLevels);
+        return this;
+    }
+
+    public int ladderMaxLevels() {
+        return ladderMaxLevels;
+    }
+
+    public EngineConfig ladderMaxLevels(int ladderMaxLevels) {
+        this.ladderMaxLevels = positive("ladderMaxLevels", ladderMaxLevels);
+        return this;
+    }
+
+    // Resting orders per book the order id index is pre-sized for
+    public int orderIndexCapacity() {
+        return orderIndexCapacity;
+    }
+
+    public EngineConfig orderIndexCapacity(int orderIndexCapacity) {
+        this.orderIndexCapacity = positive("orderIndexCapacity", orderIndexCapacity);
+        return this;
+    }
+
+    // Off-heap order slots shared by all books on a matching thread - caps resting orders plus the one being matched
+    public int orderStoreCapacity() {
+        return orderStoreCapacity;
+    }
+
+    public EngineConfig orderStoreCapacity(int orderStoreCapacity) {
+        this.orderStoreCapacity = positive("orderStoreCapacity", orderStoreCapacity);
+        return this;
+    }
+
+    // How far past the opposite touch, in basis points of its price, a market order may sweep
+    public int marketOrderBandBps() {
+        return marketOrderBandBps;
+    }
+
+    public EngineConfig marketOrderBandBps(int marketOrderBandBps) {
+        if (marketOrderBandBps < 0) {
+            throw new IllegalArgumentException("marketOrderBandBps must not be negative: " + marketOrderBandBps);
+        }
+        this.marketOrderBandBps = marketOrderBandBps;
+        return this;
+    }
+
+    // Levels a side each book keeps current for OrderBook.readTopOfBook
+    public int topOfBookDepth() {
+        return topOfBookDepth;
+    }
+
+    public EngineConfig topOfBookDepth(int topOfBookDepth) {
+        this.topOfBookDepth = positive("topOfBookDepth", topOfBookDepth);
+        return this;
+    }
+
+    // Matching threads - each owns the books of the symbols assigned to it
+    public int shards() {
+        return shards;
+    }
+
+    public EngineConfig shards(int shards) {
+        this.shards = positive("shards", shards);
+        return this;
+    }
+
+    // Symbols without an explicit assignment are spread round-robin by id
+    public int shard(CurrencyPair symbol) {
+        Integer shard = shardAssignments.get(symbol.name());
+        int assigned = shard != null ? shard : symbol.id() % shards;
+        if (assigned < 0 || assigned >= shards) {
+            throw new IllegalArgumentException(symbol + " is assigned to shard " + assigned + " but only " + shards + " configured");
+        }
+        return assigned;
+    }
+
+    public EngineConfig shard(CurrencyPair symbol, int shard) {
+        shardAssignments.put(symbol.name(), shard);
+        return this;
+    }
+
+    // Shard n consumes inbound orders on inputStreamId + n
+    public int inputStreamId() {
+        return inputStreamId;
+    }
+
+    public EngineConfig inputStreamId(int inputStreamId) {
+        this.inputStreamId = inputStreamId;
+        return this;
+    }
+
+    public int marketDataStreamId() {
+        return marketDataStreamId;
+    }
+
+    public EngineConfig marketDataStreamId(int marketDataStreamId) {
+        this.marketDataStreamId = marketDataStreamId;
+        return this;
+    }
+
+    // Acks, fills, cancels and rejects from every shard
+    public int executionReportStreamId() {
+        return executionReportStreamId;
+    }
+
+    public EngineConfig executionReportStreamId(int executionReportStreamId) {
+        this.executionReportStreamId = executionReportStreamId;
+        return this;
+    }
+
+    // Book changes within this window go out as one update per book; 0 publishes after every poll that did work
+    public int marketDataConflationMicros() {
+        return marketDataConflationMicros;
+    }
+
+    public EngineConfig marketDataConflationMicros(int marketDataConflationMicros) {
+        if (marketDataConflationMicros < 0) {
+            throw new IllegalArgumentException("marketDataConflationMicros must not be negative: " + marketDataConflationMicros);
+        }
+        this.marketDataConflationMicros = marketDataConflationMicros;
+        return this;
+    }
+
+    // Full book snapshots for late joiners and gap recovery
+    public int marketDataSnapshotMillis() {
+        return marketDataSnapshotMillis;
+    }
+
+    public EngineConfig marketDataSnapshotMillis(int marketDataSnapshotMillis) {
+        this.marketDataSnapshotMillis = positive("marketDataSnapshotMillis", marketDataSnapshotMillis);
+        return this;
+    }
+
+    // Fragments a matching thread takes per poll before checking its timers - a batch message counts as one
+    public int fragmentLimit() {
+        return fragmentLimit;
+    }
+
+    public EngineConfig fragmentLimit(int fragmentLimit) {
+        this.fragmentLimit = positive("fragmentLimit", fragmentLimit);
+        return this;
+    }
+
+    // Whether commands submitted in-process go through a ring buffer per shard instead of the Aeron input streams
+    public boolean localIngress() {
+        return localIngress;
+    }
+
+    public EngineConfig localIngress(boolean localIngress) {
+        this.localIngress = localIngress;
+        return this;
+    }
+
+    // Bytes of commands each shard's local ingress holds before submitting threads wait
+    public int localIngressBufferSize() {
+        return localIngressBufferSize;
+    }
+
+    public EngineConfig localIngressBufferSize(int localIngressBufferSize) {
+        if (Integer.bitCount(localIngressBufferSize) != 1 || localIngressBufferSize < 1024) {
+            throw new IllegalArgumentException("localIngressBufferSize must be a power of two of at least 1024: " +
+                localIngressBufferSize);
+        }
+        this.localIngressBufferSize = localIngressBufferSize;
+        return this;
+    }
+
+    // Shard n journals to journalDir/shard-n and replays it on startup; null disables journalling
+    public String journalDir() {
+        return journalDir;
+    }
+
+    public EngineConfig journalDir(String journalDir) {
+        this.journalDir = journalDir;
+        return this;
+    }
+
+    // Shard n moves segments older than both its kept snapshots to journalArchiveDir/shard-n; null deletes them
+    public String journalArchiveDir() {
+        return journalArchiveDir;
+    }
+
+    public EngineConfig journalArchiveDir(String journalArchiveDir) {
+        this.journalArchiveDir = journalArchiveDir;
+        return this;
+    }
+
+    public int journalSegmentSize() {
+        return journalSegmentSize;
+    }
+
+    public EngineConfig journalSegmentSize(int journalSegmentSize) {
+        this.journalSegmentSize = positive("journalSegmentSize", journalSegmentSize);
+        return this;
+    }
+
+    public JournalForcePolicy journalForcePolicy() {
+        return journalForcePolicy;
+    }
+
+    public EngineConfig journalForcePolicy(JournalForcePolicy journalForcePolicy) {
+        this.journalForcePolicy = journalForcePolicy;
+        return this;
+    }
+
+    // Used by JournalForcePolicy.INTERVAL
+    public int journalForceIntervalMillis() {
+        return journalForceIntervalMillis;
+    }
+
+    public EngineConfig journalForceIntervalMillis(int journalForceIntervalMillis) {
+        this.journalForceIntervalMillis = positive("journalForceIntervalMillis", journalForceIntervalMillis);
+        return this;
+    }
+
+    // How often each shard's books are snapshotted next to its journal, so startup replays only the tail; 0 disables
+    public int snapshotIntervalSeconds() {
+        return snapshotIntervalSeconds;
+    }
+
+    public EngineConfig snapshotIntervalSeconds(int snapshotIntervalSeconds) {
+        if (snapshotIntervalSeconds < 0) {
+            throw new IllegalArgumentException("snapshotIntervalSeconds must not be negative: " + snapshotIntervalSeconds);
+        }
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+        return this;
+    }
+
+    // Times every command through each LatencyStage; off by default, when it costs a branch per command
+    public boolean latencyTracking() {
+        return latencyTracking;
+    }
+
+    public EngineConfig latencyTracking(boolean latencyTracking) {
+        this.latencyTracking = latencyTracking;
+        return this;
+    }
+
+    // How often latencyTracking logs each stage's percentiles over the interval; 0 leaves it to latencySnapshot
+    public int latencyReportSeconds() {
+        return latencyReportSeconds;
+    }
+
+    public EngineConfig latencyReportSeconds(int latencyReportSeconds) {
+        if (latencyReportSeconds < 0) {
+            throw new IllegalArgumentException("latencyReportSeconds must not be negative: " + latencyReportSeconds);
+        }
+        this.latencyReportSeconds = latencyReportSeconds;
+        return this;
+    }
+
+    // Per-user pre-trade limits, see RiskConfig - reloaded whenever the file changes; null leaves every user unlimited
+    public String riskLimitsFile() {
+        return riskLimitsFile;
+    }
+
+    public EngineConfig riskLimitsFile(String riskLimitsFile) {
+        this.riskLimitsFile = riskLimitsFile;
+        return this;
+    }
+
+    // Each shard's matching thread - BUSY_SPIN keeps a core hot, anything else adds wake-up latency
+    public IdleStrategyType matchingIdleStrategy() {
+        return matchingIdleStrategy;
+    }
+
+    public EngineConfig matchingIdleStrategy(IdleStrategyType matchingIdleStrategy) {
+        this.matchingIdleStrategy = matchingIdleStrategy;
+        return this;
+    }
+
+    // Each shard's snapshotter, which tails the journal
+    public IdleStrategyType snapshotIdleStrategy() {
+        return snapshotIdleStrategy;
+    }
+
+    public EngineConfig snapshotIdleStrategy(IdleStrategyType snapshotIdleStrategy) {
+        this.snapshotIdleStrategy = snapshotIdleStrategy;
+        return this;
+    }
+
+    // The thread shared by the latency reporter and risk limits watcher
+    public IdleStrategyType backgroundIdleStrategy() {
+        return backgroundIdleStrategy;
+    }
+
+    public EngineConfig backgroundIdleStrategy(IdleStrategyType backgroundIdleStrategy) {
+        this.backgroundIdleStrategy = backgroundIdleStrategy;
+        return this;
+    }
+
+    // CPU the named agent thread is pinned to (matching-N, snapshotter-N or background), or -1 to leave it to the OS
+    public int cpuAffinity(String thread) {
+        return cpuAffinity.getOrDefault(thread, -1);
+    }
+
+    public EngineConfig cpuAffinity(String thread, int cpu) {
+        if (cpu < 0) {
+            throw new IllegalArgumentException("cpuAffinity for " + thread + " must not be negative: " + cpu);
+        }
+        cpuAffinity.put(thread, cpu);
+        return this;
+    }
+
+    // The embedded media driver's directory, whose CnC file EngineStat reads the engine's counters from
+    public String aeronDir() {
+        return aeronDir;
+    }
+
+    public EngineConfig aeronDir(String aeronDir) {
+        this.aeronDir = aeronDir;
+        return this;
+    }
+
+    // Where the LogWriter keeps engine.log and its rolled predecessors
+    public String logDir() {
+        return logDir;
+    }
+
+    public EngineConfig logDir(String logDir) {
+        this.logDir = logDir;
+        return this;
+    }
+
+    // Bytes of log records the matching threads can get ahead of the writer by before records are dropped
+    public int logBufferSize() {
+        return logBufferSize;
+    }
+
+    public EngineConfig logBufferSize(int logBufferSize) {
+        if (Integer.bitCount(logBufferSize) != 1 || logBufferSize < 1024) {
+            throw new IllegalArgumentException("logBufferSize must be a power of two of at least 1024: " +
+                logBufferSize);
+        }
+        this.logBufferSize = logBufferSize;
+        return this;
+    }
+
+    // Bytes engine.log grows to before it rolls over
+    public int logFileSize() {
+        return logFileSize;
+    }
+
+    public EngineConfig logFileSize(int logFileSize) {
+        this.logFileSize = positive("logFileSize", logFileSize);
+        return this;
+    }
+
+    // Log files kept, the current one included
+    public int logFileCount() {
+        return logFileCount;
+    }
+
+    public EngineConfig logFileCount(int logFileCount) {
+        this.logFileCount = positive("logFileCount", logFileCount);
+        return this;
+    }
+
+    // Hosts of the ClusterNode members, member id n on the nth - what ClusterClient connects to
+    public List<String> clusterHosts() {
+        return clusterHosts;
+    }
+
+    public EngineConfig clusterHosts(List<String> clusterHosts) {
+        this.clusterHosts.clear();
+        this.clusterHosts.addAll(clusterHosts);
+        return this;
+    }
+
+    // The member a ClusterNode runs as
+    public int clusterMemberId() {
+        return clusterMemberId;
+    }
+
+    public EngineConfig clusterMemberId(int clusterMemberId) {
+        if (clusterMemberId < 0) {
+            throw new IllegalArgumentException("clusterMemberId must not be negative: " + clusterMemberId);
+        }
+        this.clusterMemberId = clusterMemberId;
+        return this;
+    }
+
+    // Member n listens on clusterPortBase + 10n up to + 10n + 5, so members can share a host
+    public int clusterPortBase() {
+        return clusterPortBase;
+    }
+
+    public EngineConfig clusterPortBase(int clusterPortBase) {
+        this.clusterPortBase = positive("clusterPortBase", clusterPortBase);
+        return this;
+    }
+
+    // A member's cluster log, snapshots and archive; required to run a ClusterNode
+    public String clusterDir() {
+        return clusterDir;
+    }
+
+    public EngineConfig clusterDir(String clusterDir) {
+        this.clusterDir = clusterDir;
+        return this;
+    }
+
+    // Where the cluster leader publishes market data, and ClusterClient subscribes
+    public String clusterMarketDataChannel() {
+        return clusterMarketDataChannel;
+    }
+
+    public EngineConfig clusterMarketDataChannel(String clusterMarketDataChannel) {
+        this.clusterMarketDataChannel = clusterMarketDataChannel;
+        return this;
+    }
+
+    // Where a ClusterClient receives execution reports from the leader
+    public String clusterEgressChannel() {
+        return clusterEgressChannel;
+    }
+
+    public EngineConfig clusterEgressChannel(String clusterEgressChannel) {
+        this.clusterEgressChannel = clusterEgressChannel;
+        return this;
+    }
+
+    static int positive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,110 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.CancelOrderDecoder;
+import com.saqib.fxengine.codec.ExecType;
+import com.saqib.fxengine.codec.ModifyOrderDecoder;
+import com.saqib.fxengine.codec.NewOrderDecoder;
+import io.aeron.Aeron;
+import io.aeron.Counter;
+import org.agrona.CloseHelper;
+
+/**
+ * One matching thread's statistics as Aeron counters, which live in the media driver's CnC file, so {@link EngineStat}
+ * or {@code AeronStat} can read them from another process while the engine runs: commands received by type, new orders
+ * applied, reports published by exec type, report back pressure and drops, market data drops, and each book's resting
+ * orders and price levels.
+ * <p>
+ * Only the owning thread writes, with ordered stores - a plain store on x86, with no lock or fence on the matching
+ * path. Book gauges are refreshed when market data is published rather than per command.
+ * </p>
+ */
+class EngineCounters implements AutoCloseable {
+    static final int COMMANDS_TYPE_ID = 1005;
+    static final int REPORTS_TYPE_ID = 1006;
+    static final int BACK_PRESSURE_TYPE_ID = 1007;
+    static final int DROPPED_TYPE_ID = 1008;
+    static final int RESTING_ORDERS_TYPE_ID = 1009;
+    static final int PRICE_LEVELS_TYPE_ID = 1010;
+    static final int ORDERS_APPLIED_TYPE_ID = 1011;
+
+    private final Counter[] commands = new Counter[ModifyOrderDecoder.TEMPLATE_ID + 1];  // By template id
+    private final Counter[] reports = new Counter[ExecType.NULL_VAL.ordinal()];  // By exec type ordinal
+    private final Counter ordersApplied;
+    private final Counter reportBackPressure;
+    private final Counter reportsDropped;
+    private final Counter marketDataDropped;
+    private final Counter[] restingOrders;  // By symbol id, null for symbols on other threads
+    private final Counter[] bidLevels;
+    private final Counter[] askLevels;
+
+    EngineCounters(Aeron aeron, String roleName, Iterable<OrderBook> books, SymbolRegistry symbols) {
+        commands[NewOrderDecoder.TEMPLATE_ID] = aeron.addCounter(COMMANDS_TYPE_ID, roleName + " new orders in");
+        commands[CancelOrderDecoder.TEMPLATE_ID] = aeron.addCounter(COMMANDS_TYPE_ID, roleName + " cancels in");
+        commands[ModifyOrderDecoder.TEMPLATE_ID] = aeron.addCounter(COMMANDS_TYPE_ID, roleName + " amends in");
+        this.ordersApplied = aeron.addCounter(ORDERS_APPLIED_TYPE_ID, roleName + " new orders applied");
+        for (int i = 0; i < reports.length; i++) {
+            reports[i] = aeron.addCounter(REPORTS_TYPE_ID, roleName + " " + ExecType.values()[i] + " reports out");
+        }
+        this.reportBackPressure = aeron.addCounter(BACK_PRESSURE_TYPE_ID, roleName + " report back pressure spins");
+        this.reportsDropped = aeron.addCounter(DROPPED_TYPE_ID, roleName + " reports dropped");
+        this.marketDataDropped = aeron.addCounter(DROPPED_TYPE_ID, roleName + " market data dropped");
+        this.restingOrders = new Counter[symbols.idLimit()];
+        this.bidLevels = new Counter[symbols.idLimit()];
+        this.askLevels = new Counter[symbols.idLimit()];
+        for (OrderBook book : books) {
+            CurrencyPair symbol = book.getSymbol();
+            restingOrders[symbol.id()] = aeron.addCounter(RESTING_ORDERS_TYPE_ID, symbol + " resting orders");
+            bidLevels[symbol.id()] = aeron.addCounter(PRICE_LEVELS_TYPE_ID, symbol + " bid levels");
+            askLevels[symbol.id()] = aeron.addCounter(PRICE_LEVELS_TYPE_ID, symbol + " ask levels");
+        }
+    }
+
+    // Every command that frames correctly, whether or not risk then rejects it
+    void commandReceived(int templateId) {
+        commands[templateId].incrementOrdered();
+    }
+
+    // Replayed ones included, so after a restart it counts from the snapshot the thread recovered from
+    void orderApplied() {
+        ordersApplied.incrementOrdered();
+    }
+
+    long ordersApplied() {
+        return ordersApplied.get();
+    }
+
+    void reportPublished(ExecType execType) {
+        reports[execType.ordinal()].incrementOrdered();
+    }
+
+    void reportBackPressured() {
+        reportBackPressure.incrementOrdered();
+    }
+
+    void reportDropped() {
+        reportsDropped.incrementOrdered();
+    }
+
+    void marketDataDropped() {
+        marketDataDropped.incrementOrdered();
+    }
+
+    void updateBooks(Iterable<OrderBook> books) {
+        for (OrderBook book : books) {
+            int symbol = book.getSymbol().id();
+            restingOrders[symbol].setOrdered(book.restingOrderCount());
+            bidLevels[symbol].setOrdered(book.levelCount(Constants.BUY));
+            askLevels[symbol].setOrdered(book.levelCount(Constants.SELL));
+        }
+    }
+
+    @Override
+    public void close() {
+        CloseHelper.closeAll(commands);
+        CloseHelper.closeAll(reports);
+        CloseHelper.closeAll(ordersApplied, reportBackPressure, reportsDropped, marketDataDropped);
+        CloseHelper.closeAll(restingOrders);
+        CloseHelper.closeAll(bidLevels);
+        CloseHelper.closeAll(askLevels);
+    }
+}
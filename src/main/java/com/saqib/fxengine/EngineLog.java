@@ -0,0 +1,71 @@
+package com.saqib.fxengine;
+
+import org.agrona.BufferUtil;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.OffsetEpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.MessageHandler;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import org.agrona.concurrent.status.AtomicCounter;
+
+/**
+ * The engine's log, written from the matching threads without allocating, locking or blocking. Each record is a fixed
+ * layout - wall clock time in epoch nanoseconds, then up to {@link #MAX_ARGS} long arguments - claimed in an Agrona
+ * {@link ManyToOneRingBuffer} and written in place, with the {@link LogEvent} as its message type. A {@link LogWriter}
+ * on a background thread formats and writes them out.
+ * <p>
+ * A call costs a CAS on the ring buffer's tail and a few stores. When the buffer is full the record is dropped and the
+ * drop counted rather than waiting on the writer, so a burst of bad input can't stall matching.
+ * </p>
+ */
+class EngineLog {
+    static final int MAX_ARGS = 3;
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int ARGS_OFFSET = TIMESTAMP_OFFSET + Long.BYTES;
+    static final int RECORD_LENGTH = ARGS_OFFSET + MAX_ARGS * Long.BYTES;
+
+    private final ManyToOneRingBuffer ringBuffer;
+    private final AtomicBuffer buffer;
+    private final EpochNanoClock clock = new OffsetEpochNanoClock();  // nanoTime plus an offset, so no Instant per call
+    private final AtomicCounter dropped;
+
+    // bufferSize must be a power of two; the dropped counter is shared by every thread that logs
+    EngineLog(int bufferSize, AtomicCounter dropped) {
+        this.ringBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(BufferUtil.allocateDirectAligned(
+            bufferSize + RingBufferDescriptor.TRAILER_LENGTH, 64)));
+        this.buffer = ringBuffer.buffer();
+        this.dropped = dropped;
+    }
+
+    void log(LogEvent event, long arg) {
+        log(event, arg, 0, 0);
+    }
+
+    void log(LogEvent event, long arg0, long arg1) {
+        log(event, arg0, arg1, 0);
+    }
+
+    void log(LogEvent event, long arg0, long arg1, long arg2) {
+        int index = ringBuffer.tryClaim(event.typeId(), RECORD_LENGTH);
+        if (index < 0) {
+            dropped.increment();
+            return;
+        }
+        buffer.putLong(index + TIMESTAMP_OFFSET, clock.nanoTime());
+        buffer.putLong(index + ARGS_OFFSET, arg0);
+        buffer.putLong(index + ARGS_OFFSET + Long.BYTES, arg1);
+        buffer.putLong(index + ARGS_OFFSET + 2 * Long.BYTES, arg2);
+        ringBuffer.commit(index);
+    }
+
+    // For the writer: hands up to limit records, oldest first, to the handler and frees their space
+    int read(MessageHandler handler, int limit) {
+        return ringBuffer.read(handler, limit);
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+}
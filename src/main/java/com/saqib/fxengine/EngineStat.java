@@ -0,0 +1,61 @@
+package com.saqib.fxengine;
+
+import io.aeron.CncFileDescriptor;
+import io.aeron.CommonContext;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.status.CountersReader;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Prints the engine's counters live from another process, the way {@code AeronStat} prints the media driver's: it maps
+ * the driver's CnC file read-only and reads the values the engine threads store there, so watching costs the engine
+ * nothing. Each line shows a counter's value and its change since the last print.
+ * <p>
+ * Usage: {@code EngineStat [aeronDir] [intervalMillis]}. The directory defaults to {@code aeronDir} in the engine
+ * config, which must then be set - otherwise each run gets a fresh directory, printed at startup.
+ * </p>
+ */
+public class EngineStat {
+    private static final long DRIVER_TIMEOUT_MS = 10_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        String aeronDir = args.length > 0 ? args[0] : EngineConfig.load().aeronDir();
+        long intervalMillis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        if (aeronDir == null) {
+            aeronDir = CommonContext.getAeronDirectoryName();
+        }
+        File directory = new File(aeronDir);
+        MappedByteBuffer cncByteBuffer = IoUtil.mapExistingFile(new File(directory, CncFileDescriptor.CNC_FILE),
+            "cnc");
+        DirectBuffer cncMetaData = CncFileDescriptor.createMetaDataBuffer(cncByteBuffer);
+        CncFileDescriptor.checkVersion(cncMetaData.getInt(CncFileDescriptor.cncVersionOffset(0)));
+        CountersReader counters = new CountersReader(
+            CncFileDescriptor.createCountersMetaDataBuffer(cncByteBuffer, cncMetaData),
+            CncFileDescriptor.createCountersValuesBuffer(cncByteBuffer, cncMetaData));
+        long[] lastValues = new long[counters.maxCounterId() + 1];
+
+        while (true) {
+            boolean running = CommonContext.isDriverActive(directory, DRIVER_TIMEOUT_MS, message -> { });
+            System.out.printf("%n%s - %s%s%n", LocalTime.now().truncatedTo(ChronoUnit.SECONDS), aeronDir,
+                running ? "" : " (engine not running)");
+            counters.forEach((counterId, typeId, keyBuffer, label) -> {
+                if (isEngineCounter(typeId)) {
+                    long value = counters.getCounterValue(counterId);
+                    System.out.printf("%,20d %+,14d  %s%n", value, value - lastValues[counterId], label);
+                    lastValues[counterId] = value;
+                }
+            });
+            Thread.sleep(intervalMillis);
+        }
+    }
+
+    // The engine's own counters, as opposed to the media driver's
+    static boolean isEngineCounter(int typeId) {
+        return typeId >= DutyCycleAgent.CYCLES_TYPE_ID && typeId <= EngineCounters.ORDERS_APPLIED_TYPE_ID;
+    }
+}
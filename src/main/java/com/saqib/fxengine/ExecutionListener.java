@@ -0,0 +1,32 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.RejectReason;
+
+/**
+ * Receives order lifecycle events from an {@link OrderBook} on the matching thread. The {@link Order} and {@link Trade}
+ * flyweights are only valid during the call - an order's slot may be freed straight after.
+ */
+public interface ExecutionListener {
+    ExecutionListener NO_OP = new ExecutionListener() { };
+    
+    // Accepted, before any matching - leaves is the full quantity
+    default void onNew(Order order) { }
+    
+    // Taker and maker remaining quantities already reflect this fill
+    default void onTrade(Trade trade, Order taker, Order maker) { }
+    
+    default void onCancelled(Order order) { }
+    
+    // IOC, FOK or market order's unfilled quantity discarded on arrival - it never rested
+    default void onExpired(Order order) { }
+    
+    // About to be amended by a valid modify - the order still shows its old price and quantity
+    default void onAmending(Order order) { }
+    
+    // Price or quantity amended - a price change re-enters matching, so fills may follow
+    default void onReplaced(Order order) { }
+    
+    // clientOrderId is 0 for a rejected cancel or an amendment of an unknown order
+    default void onRejected(long orderId, long clientOrderId, long userId, CurrencyPair symbol, byte side, long price,
+                            int quantity, RejectReason reason) { }
+}
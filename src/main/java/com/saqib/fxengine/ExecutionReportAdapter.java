@@ -0,0 +1,51 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.ExecutionReportDecoder;
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+
+/**
+ * Client side of the execution report stream. Poll it from whichever thread should receive the callbacks; each
+ * adapter has its own subscription, so every adapter sees every report. Not thread-safe.
+ */
+public class ExecutionReportAdapter implements FragmentHandler, AutoCloseable {
+    private final Subscription subscription;
+    private final ExecutionReportHandler handler;
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final ExecutionReportDecoder reportDecoder = new ExecutionReportDecoder();
+
+    ExecutionReportAdapter(Subscription subscription, ExecutionReportHandler handler) {
+        this.subscription = subscription;
+        this.handler = handler;
+    }
+
+    // Returns the number of fragments read - 0 means nothing was waiting
+    public int poll(int fragmentLimit) {
+        return subscription.poll(this, fragmentLimit);
+    }
+
+    @Override
+    public void onFragment(DirectBuffer buffer, int offset, int length, Header header) {
+        if (length < MessageHeaderDecoder.ENCODED_LENGTH) {
+            return;
+        }
+        headerDecoder.wrap(buffer, offset);
+        int blockLength = headerDecoder.blockLength();
+        if (headerDecoder.schemaId() != MessageHeaderEncoder.SCHEMA_ID ||
+            headerDecoder.templateId() != ExecutionReportDecoder.TEMPLATE_ID ||
+            length < MessageHeaderDecoder.ENCODED_LENGTH + blockLength) {
+            return;
+        }
+        handler.onExecutionReport(reportDecoder.wrap(buffer, offset + MessageHeaderDecoder.ENCODED_LENGTH,
+            blockLength, headerDecoder.version()));
+    }
+
+    @Override
+    public void close() {
+        subscription.close();
+    }
+}
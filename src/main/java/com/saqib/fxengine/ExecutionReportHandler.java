@@ -0,0 +1,9 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.ExecutionReportDecoder;
+
+// Receives decoded execution reports - the decoder is only valid during the call
+@FunctionalInterface
+public interface ExecutionReportHandler {
+    void onExecutionReport(ExecutionReportDecoder report);
+}
@@ -0,0 +1,181 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.ExecType;
+import com.saqib.fxengine.codec.ExecutionReportEncoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.RejectReason;
+import io.aeron.Publication;
+import io.aeron.logbuffer.BufferClaim;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Encodes book events straight into the execution report stream from the matching thread - one claim per report, no
+ * queue in between. A fill produces a report for each side.
+ * <p>
+ * Reports can't be conflated, so back pressure is waited out; with no subscriber connected they are dropped rather
+ * than stalling matching. A clustered service has no stream of its own, so it gives a {@link Sink} instead, and each
+ * report is encoded into a scratch buffer and handed over.
+ * </p>
+ */
+class ExecutionReportPublisher implements ExecutionListener {
+    private final Publication publication;  // Null when reports go to a sink
+    private final Sink sink;
+    private final BufferClaim claim = new BufferClaim();
+    private final MessageHeaderEncoder header = new MessageHeaderEncoder();
+    private final ExecutionReportEncoder report = new ExecutionReportEncoder();
+    private final LatencyRecorder latency;  // Null unless latencyTracking
+    private EngineCounters counters;  // Null without an Aeron client to hold them
+    private boolean enabled = true;
+    private long commandNs;  // When the command being applied was received
+
+    ExecutionReportPublisher(Publication publication, LatencyRecorder latency) {
+        this.publication = publication;
+        this.sink = null;
+        this.latency = latency;
+    }
+
+    ExecutionReportPublisher(Sink sink) {
+        this.publication = null;
+        this.sink = sink;
+        this.latency = null;
+        int length = DataHeaderFlyweight.HEADER_LENGTH + ExecutionReportEncoder.encodedLength();
+        claim.wrap(new UnsafeBuffer(new byte[length]), 0, length);  // Encoded into in place of a publication claim
+    }
+
+    // Takes each encoded report, on the thread that produced it
+    @FunctionalInterface
+    interface Sink {
+        void send(DirectBuffer buffer, int offset, int length);
+    }
+
+    void counters(EngineCounters counters) {
+        this.counters = counters;
+    }
+
+    // Turned off while recovery replays the journal, so clients aren't sent the same reports twice
+    void enabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Only called with latencyTracking on
+    void commandStarted(long commandNs) {
+        this.commandNs = commandNs;
+    }
+
+    @Override
+    public void onNew(Order order) {
+        publish(order, ExecType.NEW, 0, order.price(), 0, System.nanoTime());
+    }
+
+    @Override
+    public void onTrade(Trade trade, Order taker, Order maker) {
+        publish(taker, fillType(taker), maker.orderId(), trade.price(), trade.quantity(), trade.timestamp());
+        publish(maker, fillType(maker), taker.orderId(), trade.price(), trade.quantity(), trade.timestamp());
+    }
+
+    @Override
+    public void onCancelled(Order order) {
+        publish(order, ExecType.CANCELED, 0, order.price(), 0, System.nanoTime());
+    }
+
+    @Override
+    public void onExpired(Order order) {
+        publish(order, ExecType.EXPIRED, 0, order.price(), 0, System.nanoTime());
+    }
+
+    @Override
+    public void onReplaced(Order order) {
+        publish(order, ExecType.REPLACED, 0, order.price(), 0, System.nanoTime());
+    }
+
+    @Override
+    public void onRejected(long orderId, long clientOrderId, long userId, CurrencyPair symbol, byte side, long price,
+                           int quantity, RejectReason reason) {
+        rejected(orderId, clientOrderId, userId, symbol.id(), side, price, reason);
+    }
+
+    // Also used by the shard for commands that never reach a book, e.g. an unknown symbol
+    void rejected(long orderId, long clientOrderId, long userId, int symbol, byte side, long price,
+                  RejectReason reason) {
+        if (claim()) {
+            report.wrapAndApplyHeader(claim.buffer(), claim.offset(), header)
+                .orderId(orderId)
+                .clientOrderId(clientOrderId)
+                .contraOrderId(0)
+                .userId(userId)
+                .price(price)
+                .timestamp(System.nanoTime())
+                .symbol(symbol)
+                .lastQuantity(0)
+                .leavesQuantity(0)
+                .execType(ExecType.REJECTED)
+                .side(side)
+                .rejectReason(reason);
+            commit(ExecType.REJECTED);
+        }
+    }
+
+    private static ExecType fillType(Order order) {
+        return order.remainingQuantity() == 0 ? ExecType.FILL : ExecType.PARTIAL_FILL;
+    }
+
+    private void publish(Order order, ExecType execType, long contraOrderId, long price, int lastQuantity,
+                         long timestamp) {
+        if (claim()) {
+            report.wrapAndApplyHeader(claim.buffer(), claim.offset(), header)
+                .orderId(order.orderId())
+                .clientOrderId(order.clientOrderId())
+                .contraOrderId(contraOrderId)
+                .userId(order.userId())
+                .price(price)
+                .timestamp(timestamp)
+                .symbol(order.symbol().id())
+                .lastQuantity(lastQuantity)
+                .leavesQuantity(execType == ExecType.CANCELED || execType == ExecType.EXPIRED ? 0 :
+                    order.remainingQuantity())
+                .execType(execType)
+                .side(order.side())
+                .rejectReason(RejectReason.NONE);
+            commit(execType);
+        }
+    }
+
+    private void commit(ExecType execType) {
+        if (counters != null) {
+            counters.reportPublished(execType);
+        }
+        if (sink != null) {
+            sink.send(claim.buffer(), claim.offset(), ExecutionReportEncoder.encodedLength());
+            return;
+        }
+        claim.commit();
+        if (latency != null) {
+            latency.record(LatencyStage.REPORT, System.nanoTime() - commandNs);
+        }
+    }
+
+    private boolean claim() {
+        if (!enabled) {
+            return false;
+        } else if (sink != null) {
+            return true;
+        }
+        long result;
+        while ((result = publication.tryClaim(ExecutionReportEncoder.encodedLength(), claim)) < 0) {
+            if (result == Publication.NOT_CONNECTED || result == Publication.CLOSED ||
+                result == Publication.MAX_POSITION_EXCEEDED) {
+                if (counters != null) {
+                    counters.reportDropped();
+                }
+                return false;
+            }
+            if (counters != null) {
+                counters.reportBackPressured();
+            }
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package com.saqib.fxengine;
+
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.SleepingIdleStrategy;
+import org.agrona.concurrent.YieldingIdleStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+// What an engine thread does when a duty cycle finds no work - trades wake-up latency against CPU burnt while idle
+public enum IdleStrategyType {
+    BUSY_SPIN,  // Spins on a hint, owning a core; lowest latency
+    YIELDING,   // Yields the core to other runnable threads between cycles
+    BACKOFF,    // Spins, then yields, then parks for up to a millisecond as idle cycles build up
+    SLEEPING;   // Parks a millisecond after every idle cycle; for hosts shared with other work
+
+    private static final long SLEEP_NS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    IdleStrategy newIdleStrategy() {
+        switch (this) {
+            case BUSY_SPIN:
+                return new BusySpinIdleStrategy();
+            case YIELDING:
+                return new YieldingIdleStrategy();
+            case BACKOFF:
+                return new BackoffIdleStrategy(100, 10, TimeUnit.MICROSECONDS.toNanos(1), SLEEP_NS);
+            case SLEEPING:
+            default:
+                return new SleepingIdleStrategy(SLEEP_NS);
+        }
+    }
+}
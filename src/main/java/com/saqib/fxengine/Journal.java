@@ -0,0 +1,253 @@
+package com.saqib.fxengine;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped log of the commands one matching shard applied, in the order it applied them. Appending
+ * is a copy into the mapped segment, so journalling costs no system call unless the force policy asks for one.
+ * <p>
+ * Segments are preallocated files of {@code segmentSize} bytes named by the sequence number of their first record.
+ * Each record is 8-byte aligned:
+ * <pre>
+ *   0  length     int32  header plus command, written last - 0 means not yet written, -1 that the segment ends here
+ *   4  reserved   int32
+ *   8  seqNo      int64  per shard, from 1
+ *  16  timestamp  int64  System.nanoTime() the shard applied the command with
+ *  24  orderId    int64  id assigned to a new order, 0 for other commands
+ *  32  command    bytes  the message as received, header included
+ * </pre>
+ * Writing the length last means a reader - or recovery after a crash - never sees a half-written record. Single writer.
+ * </p>
+ */
+class Journal implements AutoCloseable {
+    static final int RECORD_HEADER_LENGTH = 32;
+    static final int RECORD_ALIGNMENT = 8;
+    static final int LENGTH_OFFSET = 0;
+    static final int SEQ_NO_OFFSET = 8;
+    static final int TIMESTAMP_OFFSET = 16;
+    static final int ORDER_ID_OFFSET = 24;
+    static final int END_OF_SEGMENT = -1;
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final JournalForcePolicy forcePolicy;
+    private final long forceIntervalNs;
+    private final UnsafeBuffer segment = new UnsafeBuffer(new byte[0]);
+    private MappedByteBuffer mappedSegment;
+    private int position;
+    private int forcedPosition;
+    private long lastSeqNo;
+    private long nextForceNs;
+
+    private Journal(Path directory, int segmentSize, JournalForcePolicy forcePolicy, long forceIntervalNs) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forcePolicy = forcePolicy;
+        this.forceIntervalNs = forceIntervalNs;
+    }
+
+    /**
+     * Opens the journal in {@code directory} for appending after its last complete record, creating it if empty.
+     * Anything after that record - a write torn by a crash - is zeroed.
+     */
+    static Journal open(Path directory, int segmentSize, JournalForcePolicy forcePolicy, long forceIntervalNs) {
+        if (segmentSize % RECORD_ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Journal segment size must be a multiple of " + RECORD_ALIGNMENT);
+        }
+        Journal journal = new Journal(directory, segmentSize, forcePolicy, forceIntervalNs);
+        try {
+            Files.createDirectories(directory);
+            long lastSegment = lastSegment(directory);
+            if (lastSegment == 0) {
+                journal.map(1);
+            } else {
+                journal.map(lastSegment);
+                journal.lastSeqNo = lastSegment - 1;
+                journal.seekEnd();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open journal " + directory, e);
+        }
+        return journal;
+    }
+
+    // Appends one command and returns its sequence number
+    long append(long timestamp, long orderId, DirectBuffer buffer, int offset, int length) {
+        int recordLength = RECORD_HEADER_LENGTH + length;
+        int alignedLength = BitUtil.align(recordLength, RECORD_ALIGNMENT);
+        if (alignedLength > segmentSize) {
+            throw new IllegalArgumentException("Command of " + length + " bytes exceeds the journal segment size");
+        }
+        if (position + alignedLength > segmentSize) {
+            roll();
+        }
+        long seqNo = ++lastSeqNo;
+        segment.putLong(position + SEQ_NO_OFFSET, seqNo);
+        segment.putLong(position + TIMESTAMP_OFFSET, timestamp);
+        segment.putLong(position + ORDER_ID_OFFSET, orderId);
+        segment.putBytes(position + RECORD_HEADER_LENGTH, buffer, offset, length);
+        segment.putIntOrdered(position + LENGTH_OFFSET, recordLength);
+        position += alignedLength;
+        if (forcePolicy == JournalForcePolicy.COMMAND) {
+            force();
+        }
+        return seqNo;
+    }
+
+    // Called once per duty cycle; forces appended records if the policy says it's time
+    void commit(long nowNs) {
+        if (position == forcedPosition) {
+            return;
+        }
+        switch (forcePolicy) {
+            case BATCH:
+                force();
+                break;
+            case INTERVAL:
+                if (nowNs >= nextForceNs) {
+                    force();
+                    nextForceNs = nowNs + forceIntervalNs;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    long lastSeqNo() {
+        return lastSeqNo;
+    }
+
+    @Override
+    public void close() {
+        if (forcePolicy != JournalForcePolicy.NONE) {
+            force();
+        }
+        IoUtil.unmap(mappedSegment);
+    }
+
+    private void force() {
+        mappedSegment.force(forcedPosition, position - forcedPosition);
+        forcedPosition = position;
+    }
+
+    private void roll() {
+        if (position < segmentSize) {
+            segment.putIntOrdered(position + LENGTH_OFFSET, END_OF_SEGMENT);
+            position += RECORD_ALIGNMENT;
+        }
+        if (forcePolicy != JournalForcePolicy.NONE) {
+            force();
+        }
+        IoUtil.unmap(mappedSegment);
+        try {
+            map(lastSeqNo + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to roll journal " + directory, e);
+        }
+    }
+
+    private void map(long firstSeqNo) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(directory, firstSeqNo),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mappedSegment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.wrap(mappedSegment);
+        position = 0;
+        forcedPosition = 0;
+    }
+
+    private void seekEnd() throws IOException {
+        int length;
+        while (position < segmentSize && (length = segment.getInt(position + LENGTH_OFFSET)) != 0) {
+            if (length == END_OF_SEGMENT) {
+                position = segmentSize;
+                roll();
+                return;
+            }
+            lastSeqNo = segment.getLong(position + SEQ_NO_OFFSET);
+            position += BitUtil.align(length, RECORD_ALIGNMENT);
+        }
+        if (position < segmentSize) {
+            segment.setMemory(position, segmentSize - position, (byte) 0);
+        }
+        forcedPosition = position;
+    }
+
+    static Path segmentFile(Path directory, long firstSeqNo) {
+        return directory.resolve(String.format("%020d%s", firstSeqNo, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Deletes every segment holding only records before {@code fromSeqNo}, or moves it to {@code archive} if that is
+     * not null. The segment holding {@code fromSeqNo}, and all after it, are kept, so a reader can still start there.
+     * @return the number of segments retired
+     */
+    static int retire(Path directory, long fromSeqNo, Path archive) {
+        try {
+            List<Long> segments = segments(directory);
+            int keep = segments.size() - 1;  // Index of the segment holding fromSeqNo; the ones before end before it
+            while (keep > 0 && segments.get(keep) > fromSeqNo) {
+                keep--;
+            }
+            if (keep > 0 && archive != null) {
+                Files.createDirectories(archive);
+            }
+            for (int i = 0; i < keep; i++) {
+                Path segment = segmentFile(directory, segments.get(i));
+                if (archive == null) {
+                    Files.delete(segment);
+                } else {
+                    Files.move(segment, archive.resolve(segment.getFileName()));
+                }
+            }
+            return Math.max(keep, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to retire journal segments in " + directory, e);
+        }
+    }
+
+    // First sequence numbers of the segments in directory, oldest first
+    static List<Long> segments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                }
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    // First sequence number of the newest segment, or 0 if there are none
+    static long lastSegment(Path directory) throws IOException {
+        long last = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    last = Math.max(last, Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                }
+            }
+        }
+        return last;
+    }
+}
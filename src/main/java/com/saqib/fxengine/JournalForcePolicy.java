@@ -0,0 +1,11 @@
+package com.saqib.fxengine;
+
+// When journal writes are forced from the page cache to disk. Unforced writes survive a process crash but not the host.
+// Reports are not held back for the force, so only COMMAND guarantees an acked command survives a host crash; under
+// BATCH and INTERVAL a command's NEW and fill reports can go out before it is on disk
+public enum JournalForcePolicy {
+    NONE,      // Leave write-back to the OS
+    BATCH,     // Once per poll that journalled anything, after its commands are applied and reported
+    INTERVAL,  // At most every journalForceIntervalMillis
+    COMMAND    // After every command, before it is matched; slowest, for when no acked command may be lost
+}
@@ -0,0 +1,9 @@
+package com.saqib.fxengine;
+
+import org.agrona.DirectBuffer;
+
+// Receives journal records in sequence - the command is a complete message, header included, valid only during the call
+@FunctionalInterface
+public interface JournalHandler {
+    void onCommand(long seqNo, long timestamp, long orderId, DirectBuffer buffer, int offset, int length);
+}
@@ -0,0 +1,130 @@
+package com.saqib.fxengine;
+
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads a {@link Journal} in sequence, from a given sequence number onwards. Safe to use while the journal is being
+ * appended to: {@link #poll} returns what is complete so far and picks up from there on the next call.
+ */
+class JournalReader implements AutoCloseable {
+    private final Path directory;
+    private final long fromSeqNo;
+    private final UnsafeBuffer segment = new UnsafeBuffer(new byte[0]);
+    private MappedByteBuffer mappedSegment;
+    private int position;
+    private long lastSeqNo;
+
+    // Records before fromSeqNo are skipped - replay from 1 to rebuild from scratch
+    JournalReader(Path directory, long fromSeqNo) {
+        this.directory = directory;
+        this.fromSeqNo = fromSeqNo;
+        this.lastSeqNo = firstSegmentFor(directory, fromSeqNo) - 1;
+    }
+
+    /**
+     * Hands over up to {@code limit} complete records.
+     * @return the number handed over - 0 once the reader has caught up with the writer
+     */
+    int poll(JournalHandler handler, int limit) {
+        int count = 0;
+        while (count < limit) {
+            if (mappedSegment == null && !map(lastSeqNo + 1)) {
+                break;
+            }
+            int length = position < segment.capacity() ? segment.getIntVolatile(position + Journal.LENGTH_OFFSET) : Journal.END_OF_SEGMENT;
+            if (length == 0) {
+                break;
+            }
+            if (length == Journal.END_OF_SEGMENT) {
+                IoUtil.unmap(mappedSegment);
+                mappedSegment = null;
+                continue;
+            }
+            long seqNo = segment.getLong(position + Journal.SEQ_NO_OFFSET);
+            if (seqNo >= fromSeqNo) {
+                handler.onCommand(seqNo,
+                    segment.getLong(position + Journal.TIMESTAMP_OFFSET),
+                    segment.getLong(position + Journal.ORDER_ID_OFFSET),
+                    segment, position + Journal.RECORD_HEADER_LENGTH, length - Journal.RECORD_HEADER_LENGTH);
+                count++;
+            }
+            lastSeqNo = seqNo;
+            position += BitUtil.align(length, Journal.RECORD_ALIGNMENT);
+        }
+        return count;
+    }
+
+    // Reads until caught up and returns the number of records handed over
+    long replay(JournalHandler handler) {
+        long total = 0;
+        int read;
+        while ((read = poll(handler, Integer.MAX_VALUE)) > 0) {
+            total += read;
+        }
+        return total;
+    }
+
+    // Sequence number of the last record read or skipped
+    long lastSeqNo() {
+        return lastSeqNo;
+    }
+
+    @Override
+    public void close() {
+        if (mappedSegment != null) {
+            IoUtil.unmap(mappedSegment);
+            mappedSegment = null;
+        }
+    }
+
+    private boolean map(long firstSeqNo) {
+        Path file = Journal.segmentFile(directory, firstSeqNo);
+        if (!Files.exists(file)) {
+            return false;  // Not rolled over to yet
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mappedSegment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map journal segment " + file, e);
+        }
+        segment.wrap(mappedSegment);
+        position = 0;
+        return true;
+    }
+
+    // First sequence number of the segment holding fromSeqNo - segments are named by their first record. Throws if it
+    // has been retired, rather than replaying from a later segment with a gap
+    private static long firstSegmentFor(Path directory, long fromSeqNo) {
+        long first = 1;
+        if (!Files.isDirectory(directory)) {
+            return first;
+        }
+        List<Long> segments;
+        try {
+            segments = Journal.segments(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list journal " + directory, e);
+        }
+        if (!segments.isEmpty() && segments.get(0) > fromSeqNo) {
+            throw new IllegalStateException("Journal " + directory + " starts at " + segments.get(0) +
+                ", after " + fromSeqNo);
+        }
+        for (long segmentSeqNo : segments) {
+            if (segmentSeqNo <= fromSeqNo) {
+                first = segmentSeqNo;
+            }
+        }
+        return first;
+    }
+}
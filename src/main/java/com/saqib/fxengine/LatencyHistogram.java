@@ -0,0 +1,120 @@
+package com.saqib.fxengine;
+
+import org.agrona.BufferUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram: 64 linear sub-buckets per power of two, so any recorded
+ * value is reported to within 1.6%, from 1 ns up to {@link #MAX_VALUE} (about 18 minutes). Larger values count as
+ * {@code MAX_VALUE}.
+ * <p>
+ * Counts live in a fixed off-heap array, so recording is a bucket increment - no allocation, no locking. One thread
+ * records; any thread may read, seeing each count as of some recent moment. Interval views are built by subtracting
+ * an earlier copy from a later one.
+ * </p>
+ */
+public class LatencyHistogram {
+    public static final long MAX_VALUE = (1L << 40) - 1;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;  // Per power of two above 2 * SUB_BUCKETS
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final UnsafeBuffer counts = new UnsafeBuffer(BufferUtil.allocateDirectAligned(BUCKETS * Long.BYTES, 64));
+
+    // Single writer
+    public void record(long valueNs) {
+        int offset = index(Math.max(0, Math.min(valueNs, MAX_VALUE))) * Long.BYTES;
+        counts.putLongOrdered(offset, counts.getLong(offset) + 1);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += count(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile 0 to 100, e.g. 99.9
+     * @return the value at or below which {@code percentile} of recorded values fall, rounded up to the top of its
+     * bucket - 0 if nothing was recorded
+     */
+    public long valueAtPercentile(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100.0) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += count(i);
+            if (seen >= target) {
+                return highestValue(i);
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    // Top of the highest non-empty bucket, or 0 if empty
+    public long maxValue() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (count(i) != 0) {
+                return highestValue(i);
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        counts.setMemory(0, BUCKETS * Long.BYTES, (byte) 0);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.putLongOrdered(i * Long.BYTES, count(i) + other.count(i));
+        }
+    }
+
+    // Leaves what was recorded between other being copied and this one - other must be an earlier copy
+    public void subtract(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.putLongOrdered(i * Long.BYTES, count(i) - other.count(i));
+        }
+    }
+
+    public void copyFrom(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.putLongOrdered(i * Long.BYTES, other.count(i));
+        }
+    }
+
+    // Count, p50, p99, p99.9 and max in microseconds, for logs
+    public String summary() {
+        return String.format("count=%,d p50=%.2fus p99=%.2fus p99.9=%.2fus max=%.2fus", count(),
+            valueAtPercentile(50) / 1000.0, valueAtPercentile(99) / 1000.0, valueAtPercentile(99.9) / 1000.0,
+            maxValue() / 1000.0);
+    }
+
+    private long count(int index) {
+        return counts.getLongVolatile(index * Long.BYTES);
+    }
+
+    // Values below 2 * SUB_BUCKETS are exact; above, each power of two is split into SUB_BUCKETS linear buckets
+    private static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    private static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
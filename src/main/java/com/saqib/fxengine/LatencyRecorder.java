@@ -0,0 +1,23 @@
+package com.saqib.fxengine;
+
+/**
+ * One histogram per {@link LatencyStage}, recorded by a single matching thread. Shards only hold one when
+ * latencyTracking is on; otherwise the field is null and timing costs a branch.
+ */
+class LatencyRecorder {
+    private final LatencyHistogram[] histograms = new LatencyHistogram[LatencyStage.values().length];
+
+    LatencyRecorder() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    void record(LatencyStage stage, long valueNs) {
+        histograms[stage.ordinal()].record(valueNs);
+    }
+
+    LatencyHistogram histogram(LatencyStage stage) {
+        return histograms[stage.ordinal()];
+    }
+}
@@ -0,0 +1,55 @@
+package com.saqib.fxengine;
+
+import org.agrona.concurrent.Agent;
+
+import java.util.concurrent.TimeUnit;
+
+// Logs each stage's latency over the last interval, merged across shards, from a background agent
+class LatencyReporter implements Agent {
+    private final LatencyRecorder[] recorders;
+    private final long intervalNs;
+    private final LatencyHistogram[] baselines = new LatencyHistogram[LatencyStage.values().length];  // As of last log
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LatencyHistogram interval = new LatencyHistogram();
+    private long nextReportNs;
+
+    LatencyReporter(LatencyRecorder[] recorders, int intervalSeconds) {
+        this.recorders = recorders;
+        this.intervalNs = TimeUnit.SECONDS.toNanos(intervalSeconds);
+        for (int i = 0; i < baselines.length; i++) {
+            baselines[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public String roleName() {
+        return "latency-reporter";
+    }
+
+    @Override
+    public void onStart() {
+        nextReportNs = System.nanoTime() + intervalNs;
+    }
+
+    @Override
+    public int doWork() {
+        long now = System.nanoTime();
+        if (now < nextReportNs) {
+            return 0;
+        }
+        nextReportNs = now + intervalNs;
+        for (LatencyStage stage : LatencyStage.values()) {
+            total.reset();
+            for (LatencyRecorder recorder : recorders) {
+                total.add(recorder.histogram(stage));
+            }
+            interval.copyFrom(total);
+            interval.subtract(baselines[stage.ordinal()]);
+            baselines[stage.ordinal()].copyFrom(total);
+            if (interval.count() > 0) {
+                System.out.printf("Latency %-10s %s%n", stage, interval.summary());
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,9 @@
+package com.saqib.fxengine;
+
+// Stages a command is timed across when latencyTracking is on - all in System.nanoTime() nanoseconds
+public enum LatencyStage {
+    INGRESS,    // Client encode to the matching thread receiving the message
+    MATCH,      // Matching thread receiving a command to having applied it, reports included
+    REPORT,     // Matching thread receiving a command to each of its execution reports being published
+    END_TO_END  // Client encode to the command having been applied
+}
@@ -0,0 +1,7 @@
+package com.saqib.fxengine;
+
+// Receives price levels walked or drained from an OrderBook - quantity 0 means the level no longer exists
+@FunctionalInterface
+public interface LevelHandler {
+    void onLevel(byte side, long price, int quantity, int orderCount);
+}
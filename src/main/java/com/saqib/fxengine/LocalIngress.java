@@ -0,0 +1,79 @@
+package com.saqib.fxengine;
+
+import org.agrona.BufferUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.MessageHandler;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+
+/**
+ * A shard's in-process input: an Agrona {@link ManyToOneRingBuffer} that submitting threads in the engine's JVM encode
+ * commands straight into, and the shard's matching thread drains alongside its Aeron subscription. It skips the
+ * publication, the log buffer and the subscription's image, so a command costs a CAS on the tail to claim and an
+ * ordered store to commit.
+ * <p>
+ * Each message is the client's encode time, as the Aeron frame's reserved value would carry it, then the same SBE
+ * command or CommandBatch the input stream takes - the matching thread treats both the same.
+ * </p>
+ */
+class LocalIngress {
+    private static final int MESSAGE_TYPE_ID = 1;
+    private static final int SENT_NS_OFFSET = 0;
+    private static final int MESSAGE_OFFSET = SENT_NS_OFFSET + Long.BYTES;
+
+    private final ManyToOneRingBuffer ringBuffer;
+    private final AtomicBuffer buffer;
+    private final MessageHandler recordHandler = this::onRecord;  // Bound once rather than per poll
+    private MessageConsumer consumer;
+
+    // bufferSize must be a power of two
+    LocalIngress(int bufferSize) {
+        this.ringBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(BufferUtil.allocateDirectAligned(
+            bufferSize + RingBufferDescriptor.TRAILER_LENGTH, 64)));
+        this.buffer = ringBuffer.buffer();
+    }
+
+    // Where a claimed message is encoded
+    AtomicBuffer buffer() {
+        return buffer;
+    }
+
+    int maxMessageLength() {
+        return ringBuffer.maxMsgLength() - MESSAGE_OFFSET;
+    }
+
+    // Claims length bytes and returns the offset in buffer() to encode the message at, or -1 if the buffer is full
+    int tryClaim(int length) {
+        int index = ringBuffer.tryClaim(MESSAGE_TYPE_ID, MESSAGE_OFFSET + length);
+        return index < 0 ? -1 : index + MESSAGE_OFFSET;
+    }
+
+    // 0 when the message isn't stamped
+    void sentNs(int offset, long sentNs) {
+        buffer.putLong(offset - MESSAGE_OFFSET + SENT_NS_OFFSET, sentNs);
+    }
+
+    // Makes the message visible to the matching thread
+    void commit(int offset) {
+        ringBuffer.commit(offset - MESSAGE_OFFSET);
+    }
+
+    // On the matching thread: up to limit messages, oldest first
+    int poll(MessageConsumer consumer, int limit) {
+        this.consumer = consumer;
+        return ringBuffer.read(recordHandler, limit);
+    }
+
+    private void onRecord(int typeId, MutableDirectBuffer buffer, int index, int length) {
+        consumer.onMessage(buffer, index + MESSAGE_OFFSET, length - MESSAGE_OFFSET,
+            buffer.getLong(index + SENT_NS_OFFSET));
+    }
+
+    @FunctionalInterface
+    interface MessageConsumer {
+        void onMessage(DirectBuffer buffer, int offset, int length, long sentNs);
+    }
+}
@@ -0,0 +1,40 @@
+package com.saqib.fxengine;
+
+// What an EngineLog record reports. Its message is formatted with the record's arguments, one %d each, by the LogWriter
+enum LogEvent {
+    TRUNCATED_MESSAGE("Truncated message: %d bytes"),
+    MALFORMED_MESSAGE("Malformed message: schema %d, template %d"),
+    UNKNOWN_MESSAGE_TYPE("Unknown message type: %d"),
+    NESTED_BATCH_DROPPED("Nested batch dropped at command %d of %d"),
+    MARKET_DATA_TOO_LARGE("Market data message of %d bytes exceeds %d");
+
+    private static final LogEvent[] VALUES = values();
+
+    private final String message;
+    private final int argCount;
+
+    LogEvent(String message) {
+        this.message = message;
+        this.argCount = message.split("%d", -1).length - 1;
+        if (argCount > EngineLog.MAX_ARGS) {
+            throw new IllegalStateException(name() + " has more than " + EngineLog.MAX_ARGS + " arguments");
+        }
+    }
+
+    String message() {
+        return message;
+    }
+
+    int argCount() {
+        return argCount;
+    }
+
+    // The ring buffer's message type id, which must be positive
+    int typeId() {
+        return ordinal() + 1;
+    }
+
+    static LogEvent fromTypeId(int typeId) {
+        return VALUES[typeId - 1];
+    }
+}
@@ -0,0 +1,154 @@
+package com.saqib.fxengine;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.ringbuffer.MessageHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats {@link EngineLog} records on a background agent and writes them, one line each, to {@code engine.log} in the
+ * log directory, or to stderr without one. The file rolls over to {@code engine.log.1}, and older files up one number,
+ * once it reaches the size limit; only the newest {@code fileCount} are kept. Records dropped on a full buffer are
+ * reported as a count.
+ */
+class LogWriter implements Agent {
+    static final String FILE_NAME = "engine.log";
+    private static final int READ_LIMIT = 256;  // Records per duty cycle
+
+    private final EngineLog log;
+    private final Path directory;  // Null for stderr
+    private final long fileSize;
+    private final int fileCount;
+    private final MessageHandler recordHandler = this::onRecord;  // Bound once rather than per read
+    private final Object[] args = new Object[EngineLog.MAX_ARGS];
+    private final StringBuilder line = new StringBuilder(256);
+    private Writer writer;
+    private long written;  // Bytes in the current file
+    private long reportedDrops;
+
+    LogWriter(EngineLog log, Path directory, long fileSize, int fileCount) {
+        this.log = log;
+        this.directory = directory;
+        this.fileSize = fileSize;
+        this.fileCount = fileCount;
+    }
+
+    @Override
+    public String roleName() {
+        return "log-writer";
+    }
+
+    @Override
+    public void onStart() {
+        open();
+    }
+
+    @Override
+    public int doWork() throws IOException {
+        int workCount = log.read(recordHandler, READ_LIMIT);
+        long dropped = log.dropped();
+        if (dropped != reportedDrops) {
+            line.setLength(0);
+            appendTimestamp(System.currentTimeMillis() * 1_000_000L);
+            line.append(" LOG_DROPPED ").append(dropped - reportedDrops)
+                .append(" log records dropped on a full buffer");
+            writeLine();
+            reportedDrops = dropped;
+            workCount++;
+        }
+        if (workCount > 0) {
+            writer.flush();
+        }
+        return workCount;
+    }
+
+    // Whatever the engine logged before stopping is written out before the file closes
+    @Override
+    public void onClose() {
+        try {
+            while (doWork() > 0) {
+                // Drained
+            }
+            if (directory == null) {
+                writer.flush();
+            } else {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write log in " + directory, e);
+        }
+    }
+
+    private void onRecord(int typeId, MutableDirectBuffer buffer, int index, int length) {
+        LogEvent event = LogEvent.fromTypeId(typeId);
+        for (int i = 0; i < event.argCount(); i++) {
+            args[i] = buffer.getLong(index + EngineLog.ARGS_OFFSET + i * Long.BYTES);
+        }
+        line.setLength(0);
+        appendTimestamp(buffer.getLong(index + EngineLog.TIMESTAMP_OFFSET));
+        line.append(' ').append(event).append(' ').append(String.format(event.message(), args));
+        try {
+            writeLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write log in " + directory, e);
+        }
+    }
+
+    private void appendTimestamp(long epochNs) {
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochSecond(0, epochNs), line);
+    }
+
+    private void writeLine() throws IOException {
+        line.append(System.lineSeparator());
+        if (directory != null && written > 0 && written + line.length() > fileSize) {
+            roll();
+        }
+        writer.append(line);
+        written += line.length();  // Formatted lines are ASCII, a byte a char
+    }
+
+    private void roll() throws IOException {
+        writer.close();
+        Files.deleteIfExists(file(fileCount - 1));
+        for (int i = fileCount - 2; i >= 0; i--) {
+            if (Files.exists(file(i))) {
+                Files.move(file(i), file(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        open();
+    }
+
+    // Appends to any file left by the last run, counting it toward the limit
+    private void open() {
+        if (directory == null) {
+            writer = new BufferedWriter(new OutputStreamWriter(System.err, StandardCharsets.US_ASCII));
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path file = file(0);
+            written = Files.exists(file) ? Files.size(file) : 0;
+            writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open log in " + directory, e);
+        }
+    }
+
+    // engine.log, then engine.log.1 and up for older files
+    private Path file(int generation) {
+        return directory.resolve(generation == 0 ? FILE_NAME : FILE_NAME + "." + generation);
+    }
+}
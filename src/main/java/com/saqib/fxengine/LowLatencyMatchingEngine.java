@@ -1,13 +1,17 @@
 package com.saqib.fxengine;
 
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+
 import java.util.concurrent.TimeUnit;
 
 /**
  * A high-performance FX trading engine that coordinates order books and messaging for ultra-low-latency order processing.
  * <p>
  * This singleton class integrates {@link OrderBookManager} for matching orders and {@link AeronMessaging} for high-speed
- * trade communication. Designed to process over 1 million orders per second with sub-microsecond latency, it leverages
- * Aeron for messaging and ScyllaDB for persistence (pending implementation).
+ * trade communication. Currency pairs are sharded across one or more single-writer matching threads, each with its own
+ * Aeron input stream and books. Designed to process over 1 million orders per second with sub-microsecond latency, it
+ * leverages Aeron for messaging and ScyllaDB for persistence (pending implementation).
  * </p>
  * @author Saqib
  * @version 0.0.1-SNAPSHOT
@@ -15,14 +19,19 @@ import java.util.concurrent.TimeUnit;
 public class LowLatencyMatchingEngine {
     private static final LowLatencyMatchingEngine INSTANCE = new LowLatencyMatchingEngine();
     
-    private final OrderBookManager orderBookManager;
     private final AeronMessaging aeronMessaging;
     private final AtomicCounter counter;
     
     private LowLatencyMatchingEngine() {
-        counter = new AtomicCounter();  // Tracks processed orders
-        orderBookManager = new OrderBookManager();  // Manages order books per currency pair
-        aeronMessaging = new AeronMessaging(orderBookManager, counter);  // Handles trade messaging
+        aeronMessaging = new AeronMessaging(EngineConfig.load());  // Matching shards and their messaging
+        counter = new AtomicCounter(aeronMessaging::ordersApplied);  // Tracks processed orders across shards
+        Runtime.getRuntime().addShutdownHook(new Thread(aeronMessaging::close, "engine-shutdown"));
+        for (int shard = 0; shard < aeronMessaging.getShardCount(); shard++) {
+            OrderStore orderStore = aeronMessaging.getOrderStore(shard);
+            System.out.printf("Shard %d order store: %,d slots x %d bytes = %.1f MB off-heap%n", shard,
+                orderStore.capacity(), OrderStore.RECORD_LENGTH, orderStore.memoryBytes() / (1024.0 * 1024.0));
+        }
+        System.out.println("Engine counters in " + aeronMessaging.aeronDirectoryName());
     }
     
     /**
@@ -37,17 +46,142 @@ public class LowLatencyMatchingEngine {
      * Submits an order to the engine for processing and matching.
      * <p>
      * Delegates to {@link AeronMessaging#submitOrder} to publish the order via Aeron, which then interacts with the
-     * appropriate {@link OrderBook} for matching. Returns a unique order ID.
+     * appropriate {@link OrderBook} for matching. The engine assigns the order its ID on the matching thread and reports
+     * it in the order's NEW execution report.
      * </p>
      * @param symbol the currency pair (e.g., EUR_USD)
      * @param side the order side (Constants.BUY or Constants.SELL)
-     * @param price the order price in pips (scaled by 10^5, e.g., 1.23450 = 123450)
+     * @param price the order price scaled by the pair's priceScale (10^5 by default, e.g., 1.23450 = 123450)
      * @param quantity the order volume in lots
      * @param userId the submitting user’s ID
-     * @return the generated order ID
      */
-    public long submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId) {
-        return aeronMessaging.submitOrder(symbol, side, price, quantity, userId);
+    public void submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId) {
+        aeronMessaging.submitOrder(symbol, side, price, quantity, userId);
+    }
+    
+    /**
+     * Submits an order tagged with the client's own ID for it, which every execution report on the order echoes - the
+     * way to match the NEW report, and the engine's order ID, to the request. The engine doesn't check it for
+     * uniqueness.
+     */
+    public void submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId, long clientOrderId) {
+        aeronMessaging.submitOrder(symbol, side, price, quantity, userId, clientOrderId);
+    }
+    
+    /**
+     * Submits an order with an explicit type and time in force. An IOC order matches what it can on arrival and the
+     * rest expires; a FOK order fills in full or expires untouched. A MARKET order ignores {@code price} and may trade
+     * up to {@code marketOrderBandBps} through the opposite touch; it is IOC unless FOK is asked for, and is rejected
+     * if the opposite side is empty.
+     */
+    public void submitOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId, long clientOrderId,
+                            OrderType orderType, TimeInForce timeInForce) {
+        aeronMessaging.submitOrder(symbol, side, price, quantity, userId, clientOrderId, orderType, timeInForce);
+    }
+    
+    /**
+     * Cancels a resting order.
+     * @param symbol the currency pair the order rests in
+     * @param orderId the engine order ID
+     */
+    public void cancelOrder(CurrencyPair symbol, long orderId) {
+        aeronMessaging.cancelOrder(symbol, orderId);
+    }
+    
+    /**
+     * Amends a resting order. A price change loses time priority; a quantity change at the same price keeps it, and a
+     * quantity of zero cancels the order.
+     * @param symbol the currency pair the order rests in
+     * @param orderId the engine order ID
+     * @param newPrice the new price scaled by the pair's priceScale
+     * @param newQuantity the new open quantity in lots
+     */
+    public void modifyOrder(CurrencyPair symbol, long orderId, long newPrice, int newQuantity) {
+        aeronMessaging.modifyOrder(symbol, orderId, newPrice, newQuantity);
+    }
+    
+    /**
+     * Subscribes to execution reports - acks, fills, cancels, replaces and rejects for every order in the engine.
+     * <p>
+     * Reports are published by the matching threads as they happen; nothing is delivered until the returned adapter
+     * is polled. A fill produces one report for each side, with the other side's order ID as the contra order ID.
+     * </p>
+     * @param handler receives each decoded report on the polling thread
+     * @return an adapter to poll, and close when done
+     */
+    public ExecutionReportAdapter newExecutionReportAdapter(ExecutionReportHandler handler) {
+        return aeronMessaging.newExecutionReportAdapter(handler);
+    }
+    
+    /**
+     * Subscribes to the L2 market data feed for every symbol.
+     * <p>
+     * Each book publishes sequenced updates carrying only the price levels that changed, conflated over the configured
+     * window, plus a full snapshot at the configured interval. The adapter starts delivering a symbol's updates from
+     * its first snapshot and resyncs at the next snapshot after any gap.
+     * </p>
+     * @param handler receives snapshots and in-sequence updates on the polling thread
+     * @return an adapter to poll, and close when done
+     */
+    public MarketDataAdapter newMarketDataAdapter(MarketDataHandler handler) {
+        return aeronMessaging.newMarketDataAdapter(handler);
+    }
+    
+    /**
+     * Creates an empty batch for {@link #submitBatch}. Batches are reusable but not thread-safe, so keep one per
+     * submitting thread.
+     * @return a new, empty {@link OrderBatch}
+     */
+    public OrderBatch newBatch() {
+        return aeronMessaging.newBatch();
+    }
+    
+    /**
+     * Submits every command in the batch, packed into as few Aeron messages as will hold them, and clears the batch.
+     * <p>
+     * Each matching thread works through a whole batch message in one pass, so bursts cost far fewer claims and polls
+     * than the same orders sent one at a time. Commands for the same symbol are processed in the order they were added.
+     * </p>
+     * @param batch the commands to submit
+     */
+    public void submitBatch(OrderBatch batch) {
+        aeronMessaging.submitBatch(batch);
+    }
+    
+    /**
+     * Latency of one stage of command processing since startup, across all shards.
+     * <p>
+     * Only recorded with {@code latencyTracking} on in the engine config, which also logs every stage's percentiles
+     * each {@code latencyReportSeconds}. Take two snapshots and {@link LatencyHistogram#subtract} the earlier one for
+     * the latency over the interval between them.
+     * </p>
+     * @param stage the stage to report
+     * @return a copy of the stage's histogram, empty if tracking is off
+     */
+    public LatencyHistogram latencySnapshot(LatencyStage stage) {
+        return aeronMessaging.latencySnapshot(stage);
+    }
+    
+    /**
+     * Replaces every user's pre-trade risk limits.
+     * <p>
+     * The matching threads pick the new limits up from their next check without pausing, and positions and open
+     * orders carry over. The {@code riskLimitsFile} in the engine config, if set, is reloaded the same way whenever it
+     * changes.
+     * </p>
+     * @param riskConfig the new limits, not to be modified afterwards
+     */
+    public void updateRiskLimits(RiskConfig riskConfig) {
+        aeronMessaging.riskConfig(riskConfig);
+    }
+    
+    /**
+     * Stops the engine: each matching thread finishes its current duty cycle and closes its journal, then the
+     * snapshotters and background threads stop and Aeron closes. Runs on JVM shutdown if not called before; the engine
+     * can't be used afterwards.
+     */
+    public void close() {
+        aeronMessaging.close();
     }
     
     /**
@@ -62,19 +196,24 @@ public class LowLatencyMatchingEngine {
      */
     public void warmUp(int warmUpCount, CurrencyPair symbol, long userId) {
         System.out.println("Warming up JVM...");
+        counter.reset();
         for (int i = 0; i < warmUpCount; i++) {
             byte side = (i % 2 == 0) ? Constants.BUY : Constants.SELL;  // Alternates buy/sell
             long price = 123450 + (i % 20 - 10);  // Price ±0.0010 around 1.23450
             submitOrder(symbol, side, price, 100, userId);
         }
-        try {
-            counter.getProcessingLatch().await(1, TimeUnit.SECONDS);  // Waits for orders to clear
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();  // Restores interrupt status
-        }
+        counter.awaitProcessed(warmUpCount, 1, TimeUnit.SECONDS);  // Waits for orders to clear
         counter.reset();  // Clears counter for test run
     }
     
+    /**
+     * The symbols the engine was configured with, to look pairs up by name or wire id.
+     * @return the engine's {@link SymbolRegistry}
+     */
+    public SymbolRegistry symbols() {
+        return aeronMessaging.symbols();
+    }
+    
     /**
      * Provides access to the engine’s order counter for performance metrics.
      * @return the {@link AtomicCounter} tracking processed orders
@@ -85,6 +224,6 @@ public class LowLatencyMatchingEngine {
     
     public static void main(String[] args) {
         LowLatencyMatchingEngine engine = getInstance();
-        engine.warmUp(10_000, CurrencyPair.EUR_USD, 1);  // Basic warmup for demo
+        engine.warmUp(10_000, engine.symbols().get("EUR_USD"), 1);  // Basic warmup for demo
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.BookSnapshotDecoder;
+import com.saqib.fxengine.codec.BookUpdateDecoder;
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import io.aeron.FragmentAssembler;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Client side of the L2 feed, keeping each symbol in sequence. A symbol's updates are withheld until its first
+ * snapshot arrives; after that each update must carry the next sequence number. On a gap the symbol goes back to
+ * waiting for a snapshot, so the handler never applies an update to a book it is missing changes for.
+ * <p>
+ * Poll it from whichever thread should receive the callbacks. Not thread-safe.
+ * </p>
+ */
+public class MarketDataAdapter implements FragmentHandler, AutoCloseable {
+    private static final long UNSYNCED = -1;
+    
+    private final Subscription subscription;
+    private final MarketDataHandler handler;
+    private final FragmentHandler assembler = new FragmentAssembler(this);  // Snapshots of deep books span fragments
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final BookUpdateDecoder updateDecoder = new BookUpdateDecoder();
+    private final BookSnapshotDecoder snapshotDecoder = new BookSnapshotDecoder();
+    private final SymbolRegistry symbols;
+    private final long[] seqNos;  // Last applied per symbol id
+    
+    MarketDataAdapter(Subscription subscription, MarketDataHandler handler, SymbolRegistry symbols) {
+        this.subscription = subscription;
+        this.handler = handler;
+        this.symbols = symbols;
+        this.seqNos = new long[symbols.idLimit()];
+        Arrays.fill(seqNos, UNSYNCED);
+    }
+    
+    // Returns the number of fragments read - 0 means nothing was waiting
+    public int poll(int fragmentLimit) {
+        return subscription.poll(assembler, fragmentLimit);
+    }
+    
+    public boolean isSynced(CurrencyPair symbol) {
+        return seqNos[symbol.id()] != UNSYNCED;
+    }
+    
+    @Override
+    public void onFragment(DirectBuffer buffer, int offset, int length, Header header) {
+        if (length < MessageHeaderDecoder.ENCODED_LENGTH) {
+            return;
+        }
+        headerDecoder.wrap(buffer, offset);
+        int blockLength = headerDecoder.blockLength();
+        int blockOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;
+        if (headerDecoder.schemaId() != MessageHeaderEncoder.SCHEMA_ID ||
+            length < MessageHeaderDecoder.ENCODED_LENGTH + blockLength) {
+            return;
+        }
+        switch (headerDecoder.templateId()) {
+            case BookSnapshotDecoder.TEMPLATE_ID:
+                onSnapshot(snapshotDecoder.wrap(buffer, blockOffset, blockLength, headerDecoder.version()));
+                break;
+            case BookUpdateDecoder.TEMPLATE_ID:
+                onUpdate(updateDecoder.wrap(buffer, blockOffset, blockLength, headerDecoder.version()));
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private void onSnapshot(BookSnapshotDecoder snapshot) {
+        CurrencyPair symbol = symbols.get(snapshot.symbol());
+        if (symbol == null) return;
+        long seqNo = snapshot.seqNo();
+        long lastSeqNo = seqNos[symbol.id()];
+        if (lastSeqNo != UNSYNCED && seqNo <= lastSeqNo) return;  // Nothing we haven't already applied
+        seqNos[symbol.id()] = seqNo;
+        handler.onBookSnapshot(snapshot);
+    }
+    
+    private void onUpdate(BookUpdateDecoder update) {
+        CurrencyPair symbol = symbols.get(update.symbol());
+        if (symbol == null) return;
+        long seqNo = update.seqNo();
+        long lastSeqNo = seqNos[symbol.id()];
+        if (lastSeqNo == UNSYNCED || seqNo <= lastSeqNo) return;
+        if (seqNo != lastSeqNo + 1) {
+            seqNos[symbol.id()] = UNSYNCED;
+            handler.onGap(symbol, lastSeqNo + 1, seqNo);
+            return;
+        }
+        seqNos[symbol.id()] = seqNo;
+        handler.onBookUpdate(update);
+    }
+    
+    @Override
+    public void close() {
+        subscription.close();
+    }
+}
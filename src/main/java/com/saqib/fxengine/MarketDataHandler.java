@@ -0,0 +1,17 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.BookSnapshotDecoder;
+import com.saqib.fxengine.codec.BookUpdateDecoder;
+
+/**
+ * Receives the L2 feed from a {@link MarketDataAdapter}, in sequence. A snapshot replaces the whole book for its
+ * symbol; each update then applies on top of it. Decoders are only valid during the call.
+ */
+public interface MarketDataHandler {
+    void onBookSnapshot(BookSnapshotDecoder snapshot);
+    
+    void onBookUpdate(BookUpdateDecoder update);
+    
+    // Updates were lost - the symbol's book is stale until the next snapshot, and updates are withheld until then
+    default void onGap(CurrencyPair symbol, long expectedSeqNo, long receivedSeqNo) { }
+}
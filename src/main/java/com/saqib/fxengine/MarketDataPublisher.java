@@ -0,0 +1,130 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.BookSnapshotEncoder;
+import com.saqib.fxengine.codec.BookUpdateEncoder;
+import com.saqib.fxengine.codec.LevelAction;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import io.aeron.Publication;
+import org.agrona.ExpandableDirectByteBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Turns a shard's book changes into the L2 feed: a sequenced BookUpdate per book carrying only the levels that changed,
+ * plus a periodic BookSnapshot for resync.
+ * <p>
+ * Market data is conflatable, so a back-pressured message is dropped rather than stalling matching. The sequence number
+ * still advances, so subscribers see the gap and wait for the next snapshot.
+ * </p>
+ */
+class MarketDataPublisher {
+    private final Publication publication;
+    private final ExpandableDirectByteBuffer buffer = new ExpandableDirectByteBuffer(4096);
+    private final MessageHeaderEncoder header = new MessageHeaderEncoder();
+    private final BookUpdateEncoder update = new BookUpdateEncoder();
+    private final BookSnapshotEncoder snapshot = new BookSnapshotEncoder();
+    private final long[] seqNos;  // Last BookUpdate per symbol id
+    private final LevelHandler updateEntry = this::onUpdateEntry;  // Bound once rather than per book
+    private final LevelHandler snapshotEntry = this::onSnapshotEntry;
+    private EngineCounters counters;  // Null without an Aeron client to hold them
+    private EngineLog log;  // Null until set
+    private int entries;
+
+    MarketDataPublisher(Publication publication, SymbolRegistry symbols) {
+        this.publication = publication;
+        this.seqNos = new long[symbols.idLimit()];
+    }
+
+    void counters(EngineCounters counters) {
+        this.counters = counters;
+    }
+
+    void log(EngineLog log) {
+        this.log = log;
+    }
+
+    // One update per book changed since the last - idle books cost nothing
+    void publishUpdates(Iterable<OrderBook> books) {
+        for (OrderBook book : books) {
+            if (book.hasLevelChanges()) {
+                publishUpdate(book);
+            }
+        }
+    }
+
+    void publishSnapshots(Iterable<OrderBook> books) {
+        for (OrderBook book : books) {
+            publishSnapshot(book);
+        }
+    }
+
+    // Moves every symbol's sequence on to seqNo, so a feed taken over from another publisher carries on past its own
+    void resequence(long seqNo) {
+        Arrays.fill(seqNos, seqNo);
+    }
+
+    void publishUpdate(OrderBook book) {
+        int symbol = book.getSymbol().id();
+        update.wrapAndApplyHeader(buffer, 0, header);
+        entries = 0;
+        book.drainLevelChanges(updateEntry);
+        if (entries == 0) {
+            return;  // Nothing changed since the last update
+        }
+        update.seqNo(++seqNos[symbol])
+            .timestamp(System.nanoTime())
+            .symbol(symbol)
+            .count(entries);
+        offer(BookUpdateEncoder.encodedLength(entries));
+    }
+
+    // Flushes pending changes first so the snapshot's sequence number covers everything in it
+    void publishSnapshot(OrderBook book) {
+        if (book.hasLevelChanges()) {
+            publishUpdate(book);
+        }
+        int symbol = book.getSymbol().id();
+        snapshot.wrapAndApplyHeader(buffer, 0, header);
+        entries = 0;
+        book.forEachLevel(Constants.BUY, snapshotEntry);
+        book.forEachLevel(Constants.SELL, snapshotEntry);
+        snapshot.seqNo(seqNos[symbol])
+            .timestamp(System.nanoTime())
+            .symbol(symbol)
+            .count(entries);
+        offer(BookSnapshotEncoder.encodedLength(entries));
+    }
+
+    // Messages over one MTU are fragmented by Aeron; only a book too deep for a single message is refused
+    private void offer(int length) {
+        boolean sent;
+        if (length > publication.maxMessageLength()) {
+            if (log != null) {
+                log.log(LogEvent.MARKET_DATA_TOO_LARGE, length, publication.maxMessageLength());
+            }
+            sent = false;
+        } else {
+            sent = publication.offer(buffer, 0, length) >= 0;
+        }
+        if (!sent && counters != null) {
+            counters.marketDataDropped();
+        }
+    }
+
+    private void onUpdateEntry(byte side, long price, int quantity, int orderCount) {
+        update.entry(entries++)
+            .price(price)
+            .quantity(quantity)
+            .orderCount(orderCount)
+            .side(side)
+            .action(quantity == 0 ? LevelAction.DELETE : LevelAction.SET);
+    }
+
+    private void onSnapshotEntry(byte side, long price, int quantity, int orderCount) {
+        snapshot.entry(entries++)
+            .price(price)
+            .quantity(quantity)
+            .orderCount(orderCount)
+            .side(side);
+    }
+}
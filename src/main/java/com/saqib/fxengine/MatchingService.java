@@ -0,0 +1,254 @@
+package com.saqib.fxengine;
+
+import io.aeron.ExclusivePublication;
+import io.aeron.Image;
+import io.aeron.Publication;
+import io.aeron.cluster.codecs.CloseReason;
+import io.aeron.cluster.service.ClientSession;
+import io.aeron.cluster.service.Cluster;
+import io.aeron.cluster.service.ClusteredService;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.IdleStrategy;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The matching engine as an Aeron Cluster service. Every member applies the same sequenced log of client commands to
+ * books of its own, so a follower's books are already current when it takes over as leader - there is nothing to
+ * replay.
+ * <p>
+ * Matching must come out the same on every member, so nothing that decides it is local: orders are stamped, and risk
+ * rate limits run, on the cluster's log timestamp; order ids come from a sequence the books' snapshot carries; and
+ * risk limits are read once at startup. Execution reports go back through the client sessions, which only the leader
+ * actually sends on, and only the leader publishes market data. One service runs every symbol's book on the cluster's
+ * service thread, so {@code shards} doesn't apply.
+ * </p>
+ */
+class MatchingService implements ClusteredService {
+    private static final LevelHandler DISCARD = (side, price, quantity, orderCount) -> { };
+
+    private final EngineConfig config;
+    private final OrderBookManager orderBookManager;
+    private final RiskEngine risk;
+    private final ExecutionReportPublisher executionReports;
+    private final OrderIdSequence orderIds = new OrderIdSequence(0);
+    private final CommandApplier commandApplier;
+    private final CommandProcessor commandProcessor;
+    private final ShardSnapshot snapshot = new ShardSnapshot();
+    private final Consumer<ClientSession> sendReport = this::sendReport;  // Bound once rather than per report
+    private final long conflationNs;
+    private final long snapshotIntervalNs;
+    private Cluster cluster;
+    private MarketDataPublisher marketData;
+    private volatile EngineCounters counters;  // Read by processedOrders from other threads
+    private AgentRunner logWriter;
+    private long clusterTimeNs;  // Of the log message being applied
+    private DirectBuffer report;  // The report being sent to each session
+    private int reportOffset;
+    private int reportLength;
+    private volatile boolean leader;
+    private long leadershipTermId;
+    private long sequencedTermId = -1;  // Term the market data sequence was last moved on for
+    private boolean marketDataPending;
+    private long nextUpdateNs;
+    private long nextSnapshotNs;
+    private ExpandableArrayBuffer loading;  // The snapshot being loaded, only while starting
+    private int loadedLength;
+
+    MatchingService(EngineConfig config, RiskConfig riskConfig) {
+        this.config = config;
+        this.executionReports = new ExecutionReportPublisher(this::onReport);
+        this.risk = new RiskEngine(riskConfig, executionReports);
+        this.orderBookManager = new OrderBookManager(config, risk);
+        this.commandApplier = new CommandApplier(orderBookManager, executionReports, orderIds);
+        this.commandProcessor = new CommandProcessor(orderBookManager, risk, executionReports, orderIds,
+            commandApplier, () -> clusterTimeNs, null);
+        this.conflationNs = TimeUnit.MICROSECONDS.toNanos(config.marketDataConflationMicros());
+        this.snapshotIntervalNs = TimeUnit.MILLISECONDS.toNanos(config.marketDataSnapshotMillis());
+    }
+
+    OrderBookManager orderBookManager() {
+        return orderBookManager;
+    }
+
+    RiskEngine risk() {
+        return risk;
+    }
+
+    // New orders applied on this member, replayed ones included, from its engine counter
+    long processedOrders() {
+        EngineCounters counters = this.counters;
+        return counters == null ? 0 : counters.ordersApplied();
+    }
+
+    boolean isLeader() {
+        return leader;
+    }
+
+    @Override
+    public void onStart(Cluster cluster, Image snapshotImage) {
+        this.cluster = cluster;
+        if (snapshotImage != null) {
+            loadSnapshot(snapshotImage);
+        }
+        Publication publication = cluster.aeron().addPublication(config.clusterMarketDataChannel(),
+            config.marketDataStreamId());
+        this.marketData = new MarketDataPublisher(publication, config.symbols());
+        this.counters = new EngineCounters(cluster.aeron(), "cluster-service", orderBookManager.getAllOrderBooks(),
+            config.symbols());
+        executionReports.counters(counters);
+        marketData.counters(counters);
+        commandProcessor.counters(counters);
+        commandApplier.counters(counters);
+        EngineLog log = new EngineLog(config.logBufferSize(), cluster.aeron().addCounter(
+            EngineCounters.DROPPED_TYPE_ID, "cluster-service log records dropped"));
+        marketData.log(log);
+        commandProcessor.log(log);
+        logWriter = new AgentRunner(config.backgroundIdleStrategy().newIdleStrategy(), cluster.context().errorHandler(),
+            null, new LogWriter(log, config.logDir() == null ? null : Paths.get(config.logDir()),
+            config.logFileSize(), config.logFileCount()));
+        AgentRunner.startOnThread(logWriter);
+    }
+
+    // The snapshot arrives in chunks, reassembled before any of it is restored
+    private void loadSnapshot(Image snapshotImage) {
+        loading = new ExpandableArrayBuffer(64 * 1024);
+        loadedLength = 0;
+        FragmentHandler chunk = this::onSnapshotChunk;
+        IdleStrategy idleStrategy = cluster.idleStrategy();
+        while (!snapshotImage.isEndOfStream()) {
+            if (snapshotImage.isClosed()) {
+                throw new IllegalStateException("Snapshot image closed after " + loadedLength + " bytes");
+            }
+            idleStrategy.idle(snapshotImage.poll(chunk, 10));
+        }
+        ShardSnapshot.load(loading, loadedLength, orderBookManager, risk, orderIds, "cluster snapshot");
+        loading = null;
+    }
+
+    private void onSnapshotChunk(DirectBuffer buffer, int offset, int length, Header header) {
+        loading.putBytes(loadedLength, buffer, offset, length);
+        loadedLength += length;
+    }
+
+    // Chunked to the publication's max payload, so the archive records it without fragmenting
+    @Override
+    public void onTakeSnapshot(ExclusivePublication snapshotPublication) {
+        int length = snapshot.encode(0, orderIds.lastOrderId(), orderBookManager.getAllOrderBooks(), risk);
+        int chunkLength = snapshotPublication.maxPayloadLength();
+        IdleStrategy idleStrategy = cluster.idleStrategy();
+        for (int position = 0; position < length; position += chunkLength) {
+            long result;
+            while ((result = snapshotPublication.offer(snapshot.buffer(), position,
+                Math.min(chunkLength, length - position))) < 0) {
+                if (result == Publication.CLOSED || result == Publication.MAX_POSITION_EXCEEDED) {
+                    throw new IllegalStateException("Snapshot publication failed: " + result);
+                }
+                idleStrategy.idle();
+            }
+        }
+    }
+
+    @Override
+    public void onSessionOpen(ClientSession session, long timestamp) {
+    }
+
+    @Override
+    public void onSessionClose(ClientSession session, long timestamp, CloseReason closeReason) {
+    }
+
+    @Override
+    public void onSessionMessage(ClientSession session, long timestamp, DirectBuffer buffer, int offset, int length,
+                                 Header header) {
+        clusterTimeNs = cluster.timeUnit().toNanos(timestamp);
+        commandProcessor.onMessage(buffer, offset, length, 0);
+        marketDataPending = true;
+    }
+
+    @Override
+    public void onTimerEvent(long correlationId, long timestamp) {
+    }
+
+    @Override
+    public void onRoleChange(Cluster.Role newRole) {
+        leader = newRole == Cluster.Role.LEADER;
+    }
+
+    @Override
+    public void onNewLeadershipTermEvent(long leadershipTermId, long logPosition, long timestamp,
+                                         long termBaseLogPosition, int leaderMemberId, int logSessionId,
+                                         TimeUnit timeUnit, int appVersion) {
+        this.leadershipTermId = leadershipTermId;
+    }
+
+    @Override
+    public void onTerminate(Cluster cluster) {
+        CloseHelper.close(logWriter);
+        counters.close();
+    }
+
+    /**
+     * Publishes market data on the leader, as a matching shard does. A new leader starts each symbol's sequence at
+     * the term id x 2^40, past anything the last leader sent, and snapshots at once so subscribers resync on it.
+     * Followers just clear their books' level changes. Either way the book counters are refreshed.
+     */
+    @Override
+    public int doBackgroundWork(long nowNs) {
+        if (!leader) {
+            for (OrderBook book : orderBookManager.getAllOrderBooks()) {
+                book.drainLevelChanges(DISCARD);
+            }
+            if (marketDataPending) {
+                marketDataPending = false;
+                counters.updateBooks(orderBookManager.getAllOrderBooks());
+            }
+            return 0;
+        }
+        int workCount = 0;
+        if (sequencedTermId != leadershipTermId) {
+            sequencedTermId = leadershipTermId;
+            marketData.resequence(leadershipTermId << 40);
+            nextSnapshotNs = nowNs;
+        }
+        if (marketDataPending && nowNs >= nextUpdateNs) {
+            marketDataPending = false;
+            marketData.publishUpdates(orderBookManager.getAllOrderBooks());
+            counters.updateBooks(orderBookManager.getAllOrderBooks());
+            nextUpdateNs = nowNs + conflationNs;
+            workCount++;
+        }
+        if (nowNs >= nextSnapshotNs) {
+            marketData.publishSnapshots(orderBookManager.getAllOrderBooks());
+            nextSnapshotNs = nowNs + snapshotIntervalNs;
+            workCount++;
+        }
+        return workCount;
+    }
+
+    // Every connected client sees every report, as with the single-process report stream
+    private void onReport(DirectBuffer buffer, int offset, int length) {
+        report = buffer;
+        reportOffset = offset;
+        reportLength = length;
+        cluster.forEachClientSession(sendReport);
+    }
+
+    // Back pressure is waited out; a session that has gone is skipped. A follower's offers are no-ops that succeed
+    private void sendReport(ClientSession session) {
+        long result;
+        while ((result = session.offer(report, reportOffset, reportLength)) < 0) {
+            if (result == Publication.NOT_CONNECTED || result == Publication.CLOSED ||
+                result == Publication.MAX_POSITION_EXCEEDED) {
+                return;
+            }
+            cluster.idleStrategy().idle();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.saqib.fxengine;
+
+import io.aeron.Aeron;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.Agent;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One matching thread: polls its own input stream, and its {@link LocalIngress} if there is one, and is the only
+ * thread that ever touches its books, so they use plain single-writer data structures. Execution reports and market
+ * data for its books are published from the same duty cycle, run by an {@link org.agrona.concurrent.AgentRunner} with
+ * the configured idle strategy.
+ */
+class MatchingShard implements Agent {
+    private final int shardId;
+    private final Subscription inputSubscription;
+    private final LocalIngress localIngress;  // Null unless localIngress
+    private final LocalIngress.MessageConsumer localHandler = this::onMessage;
+    private final OrderBookManager orderBookManager;
+    private final ExecutionReportPublisher executionReports;
+    private final RiskEngine risk;
+    private final OrderIdSequence orderIds;
+    private final FragmentHandler fragmentHandler = this::onFragment;  // Bound once rather than per poll
+    private final CommandApplier commandApplier;
+    private final CommandProcessor commandProcessor;
+    private final int fragmentLimit;
+    private final MarketDataPublisher marketData;
+    private final long conflationNs;
+    private final long snapshotIntervalNs;
+    private final EngineConfig config;
+    private final Path journalDirectory;
+    private final Snapshotter snapshotter;  // Null when journalling or snapshots are off
+    private final LatencyRecorder latency;  // Null unless latencyTracking
+    private final EngineCounters counters;
+    private Journal journal;  // Null when journalling is off
+    private boolean marketDataPending;  // Commands processed since the last update flush
+    private boolean localFirst;  // Which input is polled first this cycle
+    private long nextUpdateNs;
+    private long nextSnapshotNs;
+    
+    MatchingShard(int shardId, Aeron aeron, Subscription inputSubscription, LocalIngress localIngress,
+                  Publication outputPublication, Publication executionReportPublication, EngineConfig config,
+                  RiskConfig riskConfig, EngineLog log) {
+        this.shardId = shardId;
+        this.inputSubscription = inputSubscription;
+        this.localIngress = localIngress;
+        this.marketData = new MarketDataPublisher(outputPublication, config.symbols());
+        this.latency = config.latencyTracking() ? new LatencyRecorder() : null;
+        this.executionReports = new ExecutionReportPublisher(executionReportPublication, latency);
+        this.risk = new RiskEngine(riskConfig, executionReports);
+        this.orderBookManager = new OrderBookManager(config, risk, shardId);
+        this.orderIds = new OrderIdSequence(shardId);
+        this.commandApplier = new CommandApplier(orderBookManager, executionReports, orderIds);
+        this.commandProcessor = new CommandProcessor(orderBookManager, risk, executionReports, orderIds, commandApplier,
+            System::nanoTime, latency);
+        this.counters = new EngineCounters(aeron, roleName(), orderBookManager.getAllOrderBooks(), config.symbols());
+        executionReports.counters(counters);
+        marketData.counters(counters);
+        commandProcessor.counters(counters);
+        commandApplier.counters(counters);
+        marketData.log(log);
+        commandProcessor.log(log);
+        this.fragmentLimit = config.fragmentLimit();
+        this.config = config;
+        this.journalDirectory = config.journalDir() == null ? null : Paths.get(config.journalDir(), "shard-" + shardId);
+        this.snapshotter = journalDirectory == null || config.snapshotIntervalSeconds() == 0 ? null :
+            new Snapshotter(shardId, journalDirectory, config);
+        this.conflationNs = TimeUnit.MICROSECONDS.toNanos(config.marketDataConflationMicros());
+        this.snapshotIntervalNs = TimeUnit.MILLISECONDS.toNanos(config.marketDataSnapshotMillis());
+    }
+    
+    int shardId() {
+        return shardId;
+    }
+    
+    OrderBookManager orderBookManager() {
+        return orderBookManager;
+    }
+    
+    LatencyRecorder latency() {
+        return latency;
+    }
+    
+    RiskEngine risk() {
+        return risk;
+    }
+    
+    // New orders applied on this shard, replayed ones included - safe to read from any thread
+    long ordersApplied() {
+        return counters.ordersApplied();
+    }
+    
+    // Runs on its own background thread, if not null, once the shard has recovered
+    Snapshotter snapshotter() {
+        return snapshotter;
+    }
+    
+    /**
+     * Rebuilds the books from the latest snapshot and the journal after it, then opens the journal for appending. Must
+     * run before the shard's agent starts; replayed commands produce no execution reports.
+     */
+    void recover() {
+        if (journalDirectory == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        executionReports.enabled(false);
+        long snapshotSeqNo = ShardSnapshot.loadLatest(journalDirectory, orderBookManager, risk, orderIds);
+        long replayed;
+        try (JournalReader reader = new JournalReader(journalDirectory, snapshotSeqNo + 1)) {
+            replayed = reader.replay(commandApplier);
+        }
+        executionReports.enabled(true);
+        journal = Journal.open(journalDirectory, config.journalSegmentSize(), config.journalForcePolicy(),
+            TimeUnit.MILLISECONDS.toNanos(config.journalForceIntervalMillis()));
+        commandProcessor.journal(journal);
+        System.out.printf("Shard %d recovered from snapshot %,d and %,d journalled commands in %,d ms%n", shardId,
+            snapshotSeqNo, replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+    
+    @Override
+    public String roleName() {
+        return "matching-" + shardId;
+    }
+    
+    // Returns the fragments taken plus any market data published, so the idle strategy only idles a cycle with neither
+    @Override
+    public int doWork() {
+        int workCount = processMessages();
+        if (workCount > 0) {
+            marketDataPending = true;
+        }
+        long now = System.nanoTime();
+        if (journal != null) {
+            journal.commit(now);
+        }
+        if (marketDataPending && now >= nextUpdateNs) {  // Changes since the last flush are conflated
+            marketDataPending = false;
+            marketData.publishUpdates(orderBookManager.getAllOrderBooks());
+            counters.updateBooks(orderBookManager.getAllOrderBooks());
+            nextUpdateNs = now + conflationNs;
+            workCount++;
+        }
+        if (now >= nextSnapshotNs) {
+            marketData.publishSnapshots(orderBookManager.getAllOrderBooks());
+            nextSnapshotNs = now + snapshotIntervalNs;
+            workCount++;
+        }
+        return workCount;
+    }
+    
+    // On the shard's thread once it has stopped polling - the journal is forced, unless the policy is NONE, and unmapped
+    @Override
+    public void onClose() {
+        if (journal != null) {
+            journal.close();
+        }
+        counters.close();
+    }
+    
+    // Each input takes up to fragmentLimit messages a cycle, and they take turns going first, so a burst on one can
+    // delay the other by at most a cycle
+    private int processMessages() {
+        if (localIngress == null) {
+            return inputSubscription.poll(fragmentHandler, fragmentLimit);
+        }
+        localFirst = !localFirst;
+        if (localFirst) {
+            return localIngress.poll(localHandler, fragmentLimit) + inputSubscription.poll(fragmentHandler, fragmentLimit);
+        }
+        return inputSubscription.poll(fragmentHandler, fragmentLimit) + localIngress.poll(localHandler, fragmentLimit);
+    }
+    
+    private void onFragment(DirectBuffer buffer, int offset, int length, Header header) {
+        onMessage(buffer, offset, length, latency == null ? 0 : header.reservedValue());
+    }
+    
+    private void onMessage(DirectBuffer buffer, int offset, int length, long sentNs) {
+        if (latency != null && sentNs != 0) {
+            latency.record(LatencyStage.INGRESS, System.nanoTime() - sentNs);
+        }
+        commandProcessor.onMessage(buffer, offset, length, sentNs);
+    }
+}
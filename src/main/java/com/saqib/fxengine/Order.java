@@ -1,28 +1,69 @@
 package com.saqib.fxengine;
 
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+
+/**
+ * Flyweight view of one order held in an {@link OrderStore} slot. Wrap it over a slot to read the order; it owns no
+ * state of its own, so a single instance can be reused for any number of orders.
+ */
 public class Order {
-    private long p1, p2, p3, p4, p5, p6, p7, p8;
-    public final long orderId;
-    private long p9, p10, p11, p12, p13, p14, p15, p16;
-    public final CurrencyPair symbol; // Enum - int opt possible
-    public final byte side;
-    public final long price; // Pips (x10^5)
-    public final int originalQuantity;
-    private long p17, p18, p19, p20, p21, p22, p23, p24;
-    public final long userId;
-    public final long timestamp;
-    private long p25, p26, p27, p28, p29, p30, p31, p32;
-    public volatile int remainingQuantity;
-    private long p33, p34, p35, p36, p37, p38, p39, p40;
-    
-    public Order(long orderId, CurrencyPair symbol, byte side, long price, int quantity, long userId, long timestamp) {
-        this.orderId = orderId;
-        this.symbol = symbol;
-        this.side = side;
-        this.price = price;
-        this.originalQuantity = quantity;
-        this.remainingQuantity = quantity;
-        this.userId = userId;
-        this.timestamp = timestamp;
-    }
-}
\ No newline at end of file
+    private OrderStore store;
+    private int slot = OrderStore.NULL_SLOT;
+    
+    public Order wrap(OrderStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+        return this;
+    }
+    
+    public int slot() {
+        return slot;
+    }
+    
+    public long orderId() {
+        return store.orderId(slot);
+    }
+    
+    // As the client sent it, 0 if it sent none
+    public long clientOrderId() {
+        return store.clientOrderId(slot);
+    }
+    
+    public CurrencyPair symbol() {
+        return store.symbol(slot);
+    }
+    
+    public byte side() {
+        return store.side(slot);
+    }
+    
+    public long price() { // x the symbol's priceScale
+        return store.price(slot);
+    }
+    
+    public int originalQuantity() {
+        return store.originalQuantity(slot);
+    }
+    
+    public int remainingQuantity() {
+        return store.remainingQuantity(slot);
+    }
+    
+    public long userId() {
+        return store.userId(slot);
+    }
+    
+    public long timestamp() {
+        return store.timestamp(slot);
+    }
+    
+    public OrderType orderType() {
+        return store.orderType(slot);
+    }
+    
+    // Only GTC orders ever rest
+    public TimeInForce timeInForce() {
+        return store.timeInForce(slot);
+    }
+}
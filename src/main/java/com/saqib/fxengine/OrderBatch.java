@@ -0,0 +1,126 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.CancelOrderEncoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.ModifyOrderEncoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+
+/**
+ * A burst of commands to submit together with {@link AeronMessaging#submitBatch(OrderBatch)}. Commands are encoded
+ * up front into one staging buffer per shard, so submission is a copy into as few claims as will hold them.
+ * <p>
+ * Commands for the same symbol keep their order. Reusable after submission and not thread-safe - keep one per
+ * submitting thread.
+ * </p>
+ */
+public class OrderBatch {
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final int[] shardBySymbol;
+    private final ExpandableDirectByteBuffer[] buffers;  // One per shard
+    private final int[] lengths;
+    private final int[] counts;
+    private final MessageHeaderEncoder header = new MessageHeaderEncoder();
+    private final NewOrderEncoder newOrder = new NewOrderEncoder();
+    private final CancelOrderEncoder cancelOrder = new CancelOrderEncoder();
+    private final ModifyOrderEncoder modifyOrder = new ModifyOrderEncoder();
+    private int size;
+
+    OrderBatch(int[] shardBySymbol, int shardCount) {
+        this.shardBySymbol = shardBySymbol;
+        this.buffers = new ExpandableDirectByteBuffer[shardCount];
+        this.lengths = new int[shardCount];
+        this.counts = new int[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            buffers[i] = new ExpandableDirectByteBuffer(INITIAL_CAPACITY);
+        }
+    }
+
+    public OrderBatch newOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId) {
+        return newOrder(symbol, side, price, quantity, userId, 0, OrderType.LIMIT, TimeInForce.GTC);
+    }
+
+    public OrderBatch newOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId,
+                               long clientOrderId) {
+        return newOrder(symbol, side, price, quantity, userId, clientOrderId, OrderType.LIMIT, TimeInForce.GTC);
+    }
+
+    public OrderBatch newOrder(CurrencyPair symbol, byte side, long price, int quantity, long userId,
+                               long clientOrderId, OrderType orderType, TimeInForce timeInForce) {
+        int shard = shardBySymbol[symbol.id()];
+        newOrder.wrapAndApplyHeader(buffers[shard], lengths[shard], header)
+            .price(price)
+            .userId(userId)
+            .symbol(symbol.id())
+            .quantity(quantity)
+            .side(side)
+            .orderType(orderType)
+            .timeInForce(timeInForce)
+            .clientOrderId(clientOrderId);
+        added(shard, NewOrderEncoder.encodedLength());
+        return this;
+    }
+
+    public OrderBatch cancel(CurrencyPair symbol, long orderId) {
+        int shard = shardBySymbol[symbol.id()];
+        cancelOrder.wrapAndApplyHeader(buffers[shard], lengths[shard], header)
+            .orderId(orderId)
+            .symbol(symbol.id());
+        added(shard, CancelOrderEncoder.encodedLength());
+        return this;
+    }
+
+    public OrderBatch modify(CurrencyPair symbol, long orderId, long newPrice, int newQuantity) {
+        int shard = shardBySymbol[symbol.id()];
+        modifyOrder.wrapAndApplyHeader(buffers[shard], lengths[shard], header)
+            .orderId(orderId)
+            .newPrice(newPrice)
+            .symbol(symbol.id())
+            .newQuantity(newQuantity);
+        added(shard, ModifyOrderEncoder.encodedLength());
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = 0;
+            counts[i] = 0;
+        }
+        size = 0;
+    }
+
+    private void added(int shard, int length) {
+        lengths[shard] += length;
+        counts[shard]++;
+        size++;
+    }
+
+    int shardCount() {
+        return buffers.length;
+    }
+
+    DirectBuffer buffer(int shard) {
+        return buffers[shard];
+    }
+
+    // Encoded bytes staged for the shard - whole messages, each with its own header
+    int length(int shard) {
+        return lengths[shard];
+    }
+
+    int count(int shard) {
+        return counts[shard];
+    }
+}
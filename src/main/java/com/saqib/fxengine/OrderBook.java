@@ -1,146 +1,437 @@
 package com.saqib.fxengine;
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.NavigableMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ConcurrentSkipListMap;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.RejectReason;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.agrona.BufferUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.Arrays;
 
 public class OrderBook {
+    public static final long NO_PRICE = Long.MIN_VALUE;
+    
     private final CurrencyPair symbol;
-    private final NavigableMap<Long, PriceLevel> buyLevels = new ConcurrentSkipListMap<>(Collections.reverseOrder());
-    private final NavigableMap<Long, PriceLevel> sellLevels = new ConcurrentSkipListMap<>();
-    private final ConcurrentHashMap<Long, Order> ordersById = new ConcurrentHashMap<>();
-    private final ConcurrentLinkedQueue<Trade> tradeQueue = new ConcurrentLinkedQueue<>();
+    private final BookSide buyLevels;
+    private final BookSide sellLevels;
+    private final OrderStore orderStore;
+    private final OrderIndex ordersById;  // Resting orders only
+    private final int marketOrderBandBps;
+    private final Trade trade = new Trade();  // Reused for every fill
+    private final Order order = new Order();  // Flyweights handed to the listener
+    private final Order resting = new Order();
+    private final TopOfBook top;  // Kept current on every level change, so reading it never walks the book
+    private ExecutionListener executionListener = ExecutionListener.NO_OP;
+    private long[] changedPrices = new long[64];  // Levels changed since the last drainLevelChanges, oldest first
+    private byte[] changedSides = new byte[64];
+    private int changedCount;
     
     public OrderBook(CurrencyPair symbol) {
+        this(symbol, BookType.SORTED_MAP, new EngineConfig());
+    }
+    
+    public OrderBook(CurrencyPair symbol, BookType bookType, EngineConfig config) {
+        this(symbol, bookType, config, new OrderStore(config.orderStoreCapacity(), config.symbols()));
+    }
+    
+    public OrderBook(CurrencyPair symbol, BookType bookType, EngineConfig config, OrderStore orderStore) {
         this.symbol = symbol;
+        this.orderStore = orderStore;
+        this.buyLevels = newBookSide(Constants.BUY, symbol, bookType, config, orderStore);
+        this.sellLevels = newBookSide(Constants.SELL, symbol, bookType, config, orderStore);
+        this.ordersById = new OrderIndex(config.orderIndexCapacity());
+        this.marketOrderBandBps = config.marketOrderBandBps();
+        this.top = new TopOfBook(config.topOfBookDepth());
+        this.top.symbol(symbol);
+        this.trade.wrap(new UnsafeBuffer(BufferUtil.allocateDirectAligned(Trade.LENGTH, Trade.LENGTH)), 0);
     }
     
-    public void addOrder(Order order) {
-        ordersById.put(order.orderId, order);
-        boolean fullyMatched = matchOrder(order);
-        if (!fullyMatched && order.remainingQuantity > 0) {
-            NavigableMap<Long, PriceLevel> levels = (order.side == Constants.BUY) ? buyLevels : sellLevels;
-            PriceLevel level = levels.computeIfAbsent(order.price, k -> new PriceLevel(order.price));
-            level.addOrder(order);
+    private static BookSide newBookSide(byte side, CurrencyPair symbol, BookType bookType, EngineConfig config,
+                                        OrderStore orderStore) {
+        switch (bookType) {
+            case PRICE_LADDER:
+                return new PriceLadderBookSide(side, symbol.tickSize(), config.ladderInitialLevels(),
+                    config.ladderMaxLevels(), orderStore);
+            case SORTED_MAP:
+            default:
+                return new SortedMapBookSide(side, orderStore);
         }
     }
     
-    private boolean matchOrder(Order incomingOrder) {
-        NavigableMap<Long, PriceLevel> opposingLevels = 
-            (incomingOrder.side == Constants.BUY) ? sellLevels : buyLevels;
+    public CurrencyPair getSymbol() {
+        return symbol;
+    }
+    
+    public void setExecutionListener(ExecutionListener executionListener) {
+        this.executionListener = executionListener;
+    }
+    
+    /**
+     * Matches an incoming GTC limit order and rests any remainder.
+     * @return false if the order was rejected - off tick, a quantity the symbol doesn't allow, beyond the ladder's
+     * reach, or the order store is full
+     */
+    public boolean addOrder(long orderId, byte side, long price, int quantity, long userId, long timestamp) {
+        return addOrder(orderId, side, price, quantity, userId, timestamp, OrderType.LIMIT, TimeInForce.GTC, 0, false);
+    }
+    
+    /**
+     * Matches an incoming order. Only a GTC limit order rests; an IOC remainder expires, a FOK order that the book
+     * can't fill in full expires before matching, and a market order is an IOC (or FOK) limit order at
+     * {@link #marketOrderPrice}. Nothing that expires ever touches the price levels.
+     * @return false if the order was rejected
+     */
+    public boolean addOrder(long orderId, byte side, long price, int quantity, long userId, long timestamp,
+                            OrderType orderType, TimeInForce timeInForce) {
+        return addOrder(orderId, side, price, quantity, userId, timestamp, orderType, timeInForce, 0, false);
+    }
+    
+    // As above, carrying the client's own id for the order through to every report on it
+    public boolean addOrder(long orderId, byte side, long price, int quantity, long userId, long timestamp,
+                            OrderType orderType, TimeInForce timeInForce, long clientOrderId) {
+        return addOrder(orderId, side, price, quantity, userId, timestamp, orderType, timeInForce, clientOrderId, false);
+    }
+    
+    private boolean addOrder(long orderId, byte side, long price, int quantity, long userId, long timestamp,
+                             OrderType orderType, TimeInForce timeInForce, long clientOrderId, boolean replace) {
+        BookSide levels = (side == Constants.BUY) ? buyLevels : sellLevels;
+        if (orderType == OrderType.MARKET) {
+            price = marketOrderPrice(side);
+            timeInForce = timeInForce == TimeInForce.GTC ? TimeInForce.IOC : timeInForce;
+        }
+        RejectReason reason = RejectReason.NONE;
+        int slot = OrderStore.NULL_SLOT;
+        if (orderType == OrderType.NULL_VAL || timeInForce == TimeInForce.NULL_VAL) {
+            reason = RejectReason.INVALID_ORDER_TYPE;
+        } else if (!symbol.isValidQuantity(quantity)) {
+            reason = RejectReason.INVALID_QUANTITY;
+        } else if (price == NO_PRICE) {
+            reason = RejectReason.NO_LIQUIDITY;
+        } else if (price <= 0 || timeInForce == TimeInForce.GTC && !levels.accepts(price) ||
+            orderType == OrderType.LIMIT && !symbol.isOnTick(price)) {  // A market order's band needn't be on tick
+            reason = RejectReason.INVALID_PRICE;
+        } else if ((slot = orderStore.allocate()) == OrderStore.NULL_SLOT) {
+            reason = RejectReason.BOOK_FULL;
+        }
+        if (reason != RejectReason.NONE) {
+            executionListener.onRejected(orderId, clientOrderId, userId, symbol, side, price, quantity, reason);
+            return false;
+        }
+        orderStore.init(slot, orderId, symbol, side, price, quantity, userId, timestamp, orderType, timeInForce,
+            clientOrderId);
+        if (replace) {
+            executionListener.onReplaced(order.wrap(orderStore, slot));
+        } else {
+            executionListener.onNew(order.wrap(orderStore, slot));
+        }
         
-        if (opposingLevels.isEmpty()) return false;
+        if (timeInForce == TimeInForce.FOK && !canFill(side, price, quantity)) {
+            expire(slot);
+        } else if (matchOrder(slot)) {
+            orderStore.free(slot);
+        } else if (timeInForce == TimeInForce.GTC) {
+            PriceLevel level = levels.getOrCreate(price);
+            level.addOrder(slot);
+            levelChanged(side, level);
+            topChanged(side, level);
+            ordersById.put(orderId, slot);
+        } else {
+            expire(slot);
+        }
+        return true;
+    }
+    
+    private void expire(int slot) {
+        executionListener.onExpired(order.wrap(orderStore, slot));
+        orderStore.free(slot);
+    }
+    
+    // Whether the opposite side holds the quantity at prices the order accepts - read only, the book isn't touched
+    private boolean canFill(byte side, long price, int quantity) {
+        BookSide opposingLevels = (side == Constants.BUY) ? sellLevels : buyLevels;
+        long available = 0;
+        for (PriceLevel level = opposingLevels.best(); level != null; level = opposingLevels.next(level)) {
+            if (side == Constants.BUY ? level.getPrice() > price : level.getPrice() < price) {
+                break;
+            }
+            available += level.getTotalQuantity();
+            if (available >= quantity) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * The limit a market order on this side is given: the opposite touch moved {@code marketOrderBandBps} further
+     * away, so a market order can sweep that far and no further.
+     * @return the protected price, or {@link #NO_PRICE} if the opposite side is empty
+     */
+    public long marketOrderPrice(byte side) {
+        long touch = (side == Constants.BUY) ? top.bestAsk() : top.bestBid();
+        if (touch == NO_PRICE) {
+            return NO_PRICE;
+        }
+        long band = touch * marketOrderBandBps / 10_000;
+        return side == Constants.BUY ? touch + band : Math.max(1, touch - band);
+    }
+    
+    private boolean matchOrder(int incomingSlot) {
+        byte side = orderStore.side(incomingSlot);
+        long price = orderStore.price(incomingSlot);
+        byte opposingSide = (side == Constants.BUY) ? Constants.SELL : Constants.BUY;
+        BookSide opposingLevels = (side == Constants.BUY) ? sellLevels : buyLevels;
+        int remainingQuantity = orderStore.remainingQuantity(incomingSlot);
         
-        boolean isMatch = true;
-        while (isMatch && incomingOrder.remainingQuantity > 0) {
-            isMatch = false;
-            Map.Entry<Long, PriceLevel> bestEntry = opposingLevels.firstEntry();
-            if (bestEntry == null) break;
+        while (remainingQuantity > 0) {
+            PriceLevel bestLevel = opposingLevels.best();
+            if (bestLevel == null) break;
             
-            PriceLevel bestLevel = bestEntry.getValue();
-            long bestPrice = bestEntry.getKey();
+            long bestPrice = bestLevel.getPrice();
+            if ((side == Constants.BUY && price < bestPrice) ||
+                (side == Constants.SELL && price > bestPrice)) break;
+            levelChanged(opposingSide, bestLevel);
             
-            if ((incomingOrder.side == Constants.BUY && incomingOrder.price >= bestPrice) ||
-                (incomingOrder.side == Constants.SELL && incomingOrder.price <= bestPrice)) {
-                isMatch = true;
-                while (!bestLevel.isEmpty() && incomingOrder.remainingQuantity > 0) {
-                    Order restingOrder = bestLevel.getFirstOrder();
-                    if (restingOrder == null) break;
-                    
-                    int matchQuantity = Math.min(incomingOrder.remainingQuantity, restingOrder.remainingQuantity);
-                    incomingOrder.remainingQuantity -= matchQuantity;
-                    restingOrder.remainingQuantity -= matchQuantity;
-                    
-                    Trade trade = new Trade(
-                        incomingOrder.orderId,
-                        restingOrder.orderId,
-                        incomingOrder.side == Constants.BUY ? restingOrder.userId : incomingOrder.userId,
-                        incomingOrder.side == Constants.BUY ? incomingOrder.userId : restingOrder.userId,
-                        symbol,
-                        bestPrice,
-                        matchQuantity,
-                        System.nanoTime()
-                    );
-                    tradeQueue.offer(trade);
-                    
-                    if (restingOrder.remainingQuantity == 0) {
-                        bestLevel.removeOrder(restingOrder.orderId);
-                        ordersById.remove(restingOrder.orderId);
-                    }
-                    if (bestLevel.isEmpty()) {
-                        opposingLevels.remove(bestPrice);
-                        break;
-                    }
+            while (!bestLevel.isEmpty() && remainingQuantity > 0) {
+                int restingSlot = bestLevel.getFirstOrderSlot();
+                int restingQuantity = orderStore.remainingQuantity(restingSlot);
+                
+                int matchQuantity = Math.min(remainingQuantity, restingQuantity);
+                remainingQuantity -= matchQuantity;
+                orderStore.remainingQuantity(incomingSlot, remainingQuantity);
+                bestLevel.updateQuantity(restingSlot, restingQuantity - matchQuantity);
+                
+                long restingUserId = orderStore.userId(restingSlot);
+                long incomingUserId = orderStore.userId(incomingSlot);
+                trade.set(
+                    orderStore.orderId(incomingSlot),
+                    orderStore.orderId(restingSlot),
+                    side == Constants.BUY ? restingUserId : incomingUserId,
+                    side == Constants.BUY ? incomingUserId : restingUserId,
+                    symbol,
+                    bestPrice,
+                    matchQuantity,
+                    orderStore.timestamp(incomingSlot)  // The command's, so a replay stamps its trades the same
+                );
+                executionListener.onTrade(trade, order.wrap(orderStore, incomingSlot), resting.wrap(orderStore, restingSlot));
+                
+                if (matchQuantity == restingQuantity) {
+                    bestLevel.removeOrder(restingSlot);
+                    ordersById.remove(orderStore.orderId(restingSlot));
+                    orderStore.free(restingSlot);
                 }
             }
+            if (bestLevel.isEmpty()) {
+                opposingLevels.remove(bestLevel);
+            }
+            topChanged(opposingSide, bestLevel);
         }
-        return incomingOrder.remainingQuantity == 0;
+        return remainingQuantity == 0;
     }
     
-    public void cancelOrder(long orderId) {
-        Order order = ordersById.remove(orderId);
-        if (order != null) {
-            NavigableMap<Long, PriceLevel> levels = (order.side == Constants.BUY) ? buyLevels : sellLevels;
-            PriceLevel level = levels.get(order.price);
-            if (level != null) {
-                level.removeOrder(orderId);
-                if (level.isEmpty()) {
-                    levels.remove(order.price);
-                }
+    // Returns false, reporting a rejection, if the order isn't resting
+    public boolean cancelOrder(long orderId) {
+        int slot = ordersById.remove(orderId);
+        if (slot == OrderStore.NULL_SLOT) {
+            executionListener.onRejected(orderId, 0, 0, symbol, (byte) 0, 0, 0, RejectReason.UNKNOWN_ORDER);
+            return false;
+        }
+        removeResting(slot);
+        executionListener.onCancelled(order.wrap(orderStore, slot));
+        orderStore.free(slot);
+        return true;
+    }
+    
+    // Takes an order off its level; the caller has already dropped it from the index and frees the slot
+    private void removeResting(int slot) {
+        byte side = orderStore.side(slot);
+        BookSide levels = (side == Constants.BUY) ? buyLevels : sellLevels;
+        PriceLevel level = levels.get(orderStore.price(slot));
+        if (level != null) {
+            level.removeOrder(slot);
+            levelChanged(side, level);
+            if (level.isEmpty()) {
+                levels.remove(level);
             }
+            topChanged(side, level);
         }
     }
     
-    public void modifyOrder(long orderId, long newPrice, int newQuantity) {
-        Order existingOrder = ordersById.get(orderId);
-        if (existingOrder != null) {
-            if (existingOrder.price != newPrice) {
-                cancelOrder(orderId);
-                Order newOrder = new Order(
-                    existingOrder.orderId,
-                    existingOrder.symbol,
-                    existingOrder.side,
-                    newPrice,
-                    newQuantity,
-                    existingOrder.userId,
-                    System.nanoTime()
-                );
-                addOrder(newOrder);
-            } else {
-                if (newQuantity > existingOrder.remainingQuantity) {
-                    existingOrder.remainingQuantity = newQuantity;
-                } else {
-                    existingOrder.remainingQuantity = newQuantity;
-                    if (newQuantity == 0) {
-                        cancelOrder(orderId);
-                    }
-                }
+    /**
+     * A price change loses time priority and re-enters matching under the same id; a quantity change at the same
+     * price keeps priority, and a quantity of zero cancels.
+     * @return false if rejected - the order isn't resting, or the new price is invalid, which leaves it untouched
+     */
+    public boolean modifyOrder(long orderId, long newPrice, int newQuantity) {
+        return modifyOrder(orderId, newPrice, newQuantity, System.nanoTime());
+    }
+    
+    // As above, stamping a re-priced order with the given time - replay passes the journalled one
+    public boolean modifyOrder(long orderId, long newPrice, int newQuantity, long timestamp) {
+        int slot = ordersById.get(orderId);
+        if (slot == OrderStore.NULL_SLOT) {
+            executionListener.onRejected(orderId, 0, 0, symbol, (byte) 0, newPrice, newQuantity,
+                RejectReason.UNKNOWN_ORDER);
+            return false;
+        }
+        byte side = orderStore.side(slot);
+        long userId = orderStore.userId(slot);
+        long clientOrderId = orderStore.clientOrderId(slot);
+        BookSide levels = (side == Constants.BUY) ? buyLevels : sellLevels;
+        if (newQuantity == 0) {
+            return cancelOrder(orderId);
+        } else if (!symbol.isValidQuantity(newQuantity) || newPrice <= 0 || !levels.accepts(newPrice) ||
+            !symbol.isOnTick(newPrice)) {
+            executionListener.onRejected(orderId, clientOrderId, userId, symbol, side, newPrice, newQuantity,
+                !symbol.isValidQuantity(newQuantity) ? RejectReason.INVALID_QUANTITY : RejectReason.INVALID_PRICE);
+            return false;
+        }
+        executionListener.onAmending(order.wrap(orderStore, slot));
+        if (orderStore.price(slot) != newPrice) {
+            ordersById.remove(orderId);
+            removeResting(slot);
+            orderStore.free(slot);
+            return addOrder(orderId, side, newPrice, newQuantity, userId, timestamp, OrderType.LIMIT, TimeInForce.GTC,
+                clientOrderId, true);
+        }
+        PriceLevel level = levels.get(newPrice);
+        level.updateQuantity(slot, newQuantity);
+        levelChanged(side, level);
+        topChanged(side, level);
+        executionListener.onReplaced(order.wrap(orderStore, slot));
+        return true;
+    }
+    
+    // Reads a resting order into the given flyweight; returns false if the id isn't resting
+    public boolean getOrder(long orderId, Order order) {
+        int slot = ordersById.get(orderId);
+        if (slot == OrderStore.NULL_SLOT) return false;
+        order.wrap(orderStore, slot);
+        return true;
+    }
+    
+    private void levelChanged(byte side, PriceLevel level) {
+        if (!level.markChanged()) return;
+        if (changedCount == changedPrices.length) {
+            changedPrices = Arrays.copyOf(changedPrices, changedCount * 2);
+            changedSides = Arrays.copyOf(changedSides, changedCount * 2);
+        }
+        changedPrices[changedCount] = level.getPrice();
+        changedSides[changedCount] = side;
+        changedCount++;
+    }
+    
+    // Call once the level's change is complete, after an emptied level has been removed from its side
+    private void topChanged(byte side, PriceLevel level) {
+        if (top.update(side, level.getPrice(), level.isEmpty() ? 0 : level.getTotalQuantity(), level.getOrderCount())) {
+            BookSide levels = (side == Constants.BUY) ? buyLevels : sellLevels;
+            PriceLevel next = top.levelCount(side) == 0 ? levels.best() : levels.next(levels.get(top.lastPrice(side)));
+            if (next != null) {
+                top.append(side, next.getPrice(), next.getTotalQuantity(), next.getOrderCount());
             }
         }
     }
     
-    public MarketDataSnapshot createMarketDataSnapshot() {
-        MarketDataSnapshot snapshot = new MarketDataSnapshot(symbol);
-        int levelsToInclude = 5;
-        
-        int buyLevelCount = 0;
-        for (Map.Entry<Long, PriceLevel> entry : buyLevels.entrySet()) {
-            if (buyLevelCount >= levelsToInclude) break;
-            PriceLevel level = entry.getValue();
-            snapshot.addBuyLevel(level.getPrice(), level.getTotalQuantity(), level.getOrderCount());
-            buyLevelCount++;
+    // Highest bid, or NO_PRICE if there are none - O(1)
+    public long bestBid() {
+        return top.bestBid();
+    }
+    
+    // Lowest offer, or NO_PRICE if there are none - O(1)
+    public long bestAsk() {
+        return top.bestAsk();
+    }
+    
+    /**
+     * Copies the best levels of each side, up to the lesser of its depth and the configured {@code topOfBookDepth},
+     * into a flyweight the caller reuses. Costs the same however deep the book is, and allocates nothing.
+     * @return the flyweight passed in
+     */
+    public TopOfBook readTopOfBook(TopOfBook into) {
+        into.copyFrom(top);
+        return into;
+    }
+    
+    public boolean hasLevelChanges() {
+        return changedCount > 0;
+    }
+    
+    /**
+     * Hands over each level changed since the previous drain, once, with its current state - however many times it
+     * changed in between. A quantity of 0 means the level is gone.
+     * @return the number of levels handed over
+     */
+    public int drainLevelChanges(LevelHandler handler) {
+        int count = 0;
+        for (int i = 0; i < changedCount; i++) {
+            byte side = changedSides[i];
+            long price = changedPrices[i];
+            PriceLevel level = (side == Constants.BUY ? buyLevels : sellLevels).get(price);
+            if (level == null) {
+                handler.onLevel(side, price, 0, 0);
+                count++;
+            } else if (level.isChanged()) {
+                handler.onLevel(side, price, level.getTotalQuantity(), level.getOrderCount());
+                level.clearChanged();
+                count++;
+            } // Otherwise already handed over under an earlier entry - the level was replaced or recycled in between
         }
-        
-        int sellLevelCount = 0;
-        for (Map.Entry<Long, PriceLevel> entry : sellLevels.entrySet()) {
-            if (sellLevelCount >= levelsToInclude) break;
-            PriceLevel level = entry.getValue();
-            snapshot.addSellLevel(level.getPrice(), level.getTotalQuantity(), level.getOrderCount());
-            sellLevelCount++;
+        changedCount = 0;
+        return count;
+    }
+    
+    // Walks one side from the best price outwards
+    public int forEachLevel(byte side, LevelHandler handler) {
+        BookSide levels = (side == Constants.BUY) ? buyLevels : sellLevels;
+        int count = 0;
+        for (PriceLevel level = levels.best(); level != null; level = levels.next(level)) {
+            handler.onLevel(side, level.getPrice(), level.getTotalQuantity(), level.getOrderCount());
+            count++;
+        }
+        return count;
+    }
+    
+    // Walks one side's resting orders from the best price outwards, in time priority within each level
+    public int forEachOrder(byte side, OrderHandler handler) {
+        BookSide levels = (side == Constants.BUY) ? buyLevels : sellLevels;
+        int count = 0;
+        for (PriceLevel level = levels.best(); level != null; level = levels.next(level)) {
+            for (int slot = level.getFirstOrderSlot(); slot != OrderStore.NULL_SLOT; slot = orderStore.next(slot)) {
+                handler.onOrder(resting.wrap(orderStore, slot));
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public int restingOrderCount() {
+        return ordersById.size();
+    }
+    
+    // Price levels on the side that hold orders
+    public int levelCount(byte side) {
+        return (side == Constants.BUY ? buyLevels : sellLevels).size();
+    }
+    
+    /**
+     * Rests an order as it stood when the book was snapshotted, without matching or reporting it. Orders restored in
+     * {@link #forEachOrder} order rebuild each level's queue as it was.
+     * @return false if the order store is full or the price is beyond the book's reach
+     */
+    boolean restoreOrder(long orderId, byte side, long price, int originalQuantity, int remainingQuantity, long userId,
+                         long timestamp, long clientOrderId) {
+        BookSide levels = (side == Constants.BUY) ? buyLevels : sellLevels;
+        int slot;
+        if (!levels.accepts(price) || (slot = orderStore.allocate()) == OrderStore.NULL_SLOT) {
+            return false;
         }
-        return snapshot;
+        orderStore.init(slot, orderId, symbol, side, price, originalQuantity, userId, timestamp, OrderType.LIMIT,
+            TimeInForce.GTC, clientOrderId);
+        orderStore.remainingQuantity(slot, remainingQuantity);
+        PriceLevel level = levels.getOrCreate(price);
+        level.addOrder(slot);
+        topChanged(side, level);
+        ordersById.put(orderId, slot);
+        return true;
     }
-}
\ No newline at end of file
+}
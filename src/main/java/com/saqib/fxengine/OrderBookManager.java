@@ -1,15 +1,66 @@
 package com.saqib.fxengine;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
 
+/**
+ * Books for the symbols of one matching shard - confined to that shard's thread, so nothing here is thread-safe. Every
+ * book is created up front and found by symbol id with an array read, so a command never hashes or allocates to reach
+ * its book.
+ */
 public class OrderBookManager {
-    private final ConcurrentHashMap<CurrencyPair, OrderBook> orderBooks = new ConcurrentHashMap<>();
+    private final OrderBook[] booksById;  // Symbol id -> book, null for ids this shard doesn't trade
+    private final List<OrderBook> orderBooks = new ArrayList<>();
+    private final OrderStore orderStore;
     
-    public OrderBook getOrCreateOrderBook(CurrencyPair symbol) {
-        return orderBooks.computeIfAbsent(symbol, OrderBook::new);
+    public OrderBookManager() {
+        this(new EngineConfig());
+    }
+    
+    public OrderBookManager(EngineConfig config) {
+        this(config, ExecutionListener.NO_OP);
+    }
+    
+    // Books for every configured symbol
+    public OrderBookManager(EngineConfig config, ExecutionListener executionListener) {
+        this(config, executionListener, -1);
+    }
+    
+    // Books for the symbols assigned to the shard, or for all of them if shardId is -1
+    public OrderBookManager(EngineConfig config, ExecutionListener executionListener, int shardId) {
+        this(config, executionListener, symbol -> shardId == -1 || config.shard(symbol) == shardId);
+    }
+    
+    // Books for the symbols the filter accepts, e.g. the one symbol a backtest task replays
+    OrderBookManager(EngineConfig config, ExecutionListener executionListener, Predicate<CurrencyPair> filter) {
+        SymbolRegistry symbols = config.symbols();
+        this.orderStore = new OrderStore(config.orderStoreCapacity(), symbols);
+        this.booksById = new OrderBook[symbols.idLimit()];
+        for (CurrencyPair symbol : symbols.symbols()) {
+            if (filter.test(symbol)) {
+                OrderBook orderBook = new OrderBook(symbol, config.bookType(symbol), config, orderStore);
+                orderBook.setExecutionListener(executionListener);
+                booksById[symbol.id()] = orderBook;
+                orderBooks.add(orderBook);
+            }
+        }
+    }
+    
+    // Null if the id isn't a symbol of this shard - wire ids are unchecked until they get here
+    public OrderBook orderBook(int symbolId) {
+        return symbolId >= 0 && symbolId < booksById.length ? booksById[symbolId] : null;
+    }
+    
+    public OrderBook orderBook(CurrencyPair symbol) {
+        return orderBook(symbol.id());
+    }
+    
+    public OrderStore getOrderStore() {
+        return orderStore;
     }
     
     public Iterable<OrderBook> getAllOrderBooks() {
-        return orderBooks.values();
+        return orderBooks;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,7 @@
+package com.saqib.fxengine;
+
+// Receives resting orders walked from an OrderBook - the flyweight is reused, so read it during the call
+@FunctionalInterface
+public interface OrderHandler {
+    void onOrder(Order order);
+}
@@ -0,0 +1,36 @@
+package com.saqib.fxengine;
+
+/**
+ * Order ids for one shard, handed out on its matching thread with no shared counter. The shard id sits in the top
+ * bits and a per-shard sequence below, so ids are unique across shards without coordination. Clients learn an order's
+ * id from its NEW ack and find that ack through the clientOrderId they sent.
+ */
+class OrderIdSequence {
+    static final int SHARD_SHIFT = 48;  // 2^48 orders per shard
+
+    private final long base;  // The shard's id with a sequence of 0
+    private long lastOrderId;
+
+    OrderIdSequence(int shardId) {
+        this.base = (long) shardId << SHARD_SHIFT;
+        this.lastOrderId = base;
+    }
+
+    long next() {
+        return ++lastOrderId;
+    }
+
+    // Recovery moves the sequence past every id already handed out
+    void advancePast(long orderId) {
+        lastOrderId = Math.max(lastOrderId, orderId);
+    }
+
+    // Highest order id handed out so far, 0 if none
+    long lastOrderId() {
+        return lastOrderId == base ? 0 : lastOrderId;
+    }
+
+    static int shard(long orderId) {
+        return (int) (orderId >>> SHARD_SHIFT);
+    }
+}
@@ -0,0 +1,126 @@
+package com.saqib.fxengine;
+
+import org.agrona.BitUtil;
+
+import java.util.Arrays;
+
+/**
+ * Single-writer map from order id to the {@link OrderStore} slot of a resting order, replacing
+ * {@code ConcurrentHashMap<Long, Order>}.
+ * <p>
+ * Open addressing with linear probing over parallel primitive arrays: no key boxing and no entry nodes, so
+ * put, get and remove allocate nothing once the table is sized. Removal shifts the rest of the probe chain back
+ * instead of leaving tombstones, so lookups never slow down under cancel churn. The table is sized up front from
+ * {@link EngineConfig#orderIndexCapacity()} and only doubles if that estimate is exceeded.
+ * </p>
+ */
+class OrderIndex {
+    private long[] keys;
+    private int[] values; // NULL_SLOT marks a free table entry
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    OrderIndex(int expectedOrders) {
+        allocate(BitUtil.findNextPositivePowerOfTwo(expectedOrders * 2)); // Load factor of 0.5 keeps probe chains short
+    }
+
+    // Returns the order's slot, or NULL_SLOT if the id isn't resting
+    int get(long orderId) {
+        int[] values = this.values;
+        int index = hash(orderId) & mask;
+        int value;
+        while ((value = values[index]) != OrderStore.NULL_SLOT) {
+            if (keys[index] == orderId) return value;
+            index = (index + 1) & mask;
+        }
+        return OrderStore.NULL_SLOT;
+    }
+
+    void put(long orderId, int slot) {
+        int index = hash(orderId) & mask;
+        while (values[index] != OrderStore.NULL_SLOT) {
+            if (keys[index] == orderId) {
+                values[index] = slot;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = orderId;
+        values[index] = slot;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+    }
+
+    int remove(long orderId) {
+        int index = hash(orderId) & mask;
+        int value;
+        while ((value = values[index]) != OrderStore.NULL_SLOT) {
+            if (keys[index] == orderId) {
+                values[index] = OrderStore.NULL_SLOT;
+                size--;
+                compactChain(index);
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return OrderStore.NULL_SLOT;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return values.length;
+    }
+
+    // Backward-shift deletion: pull later members of the probe chain into the hole if their home slot allows it
+    private void compactChain(int deleteIndex) {
+        int index = deleteIndex;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == OrderStore.NULL_SLOT) return;
+            int home = hash(keys[index]) & mask;
+            if ((index < home && (home <= deleteIndex || deleteIndex <= index)) ||
+                (home <= deleteIndex && deleteIndex <= index)) {
+                keys[deleteIndex] = keys[index];
+                values[deleteIndex] = values[index];
+                values[index] = OrderStore.NULL_SLOT;
+                deleteIndex = index;
+            }
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            int value = oldValues[i];
+            if (value != OrderStore.NULL_SLOT) {
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != OrderStore.NULL_SLOT) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, OrderStore.NULL_SLOT);
+        mask = capacity - 1;
+        resizeThreshold = capacity / 2;
+    }
+
+    // Scramble before masking so strided id sequences don't pile up on a few home slots
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
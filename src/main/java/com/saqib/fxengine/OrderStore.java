@@ -0,0 +1,188 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Preallocated off-heap slab holding every live order as a fixed 64-byte record addressed by slot number.
+ * <p>
+ * Slots are recycled through a free list threaded through the records' next links, so once the store is created
+ * accepting, matching and cancelling orders allocates nothing and the heap never sees a resting order. {@link Order}
+ * is a flyweight view over a slot; the book itself works with slot numbers directly. Single writer - the matching
+ * thread that owns the books sharing the store.
+ * </p>
+ * Record layout (one cache line):
+ * <pre>
+ *   0  orderId            long
+ *   8  price              long
+ *  16  userId             long
+ *  24  timestamp          long
+ *  32  originalQuantity   int
+ *  36  remainingQuantity  int
+ *  40  prev slot          int   (FIFO link within the price level)
+ *  44  next slot          int   (FIFO link, or free list link once released)
+ *  48  symbol             int   (CurrencyPair id)
+ *  52  side               byte
+ *  53  orderType          byte  (OrderType value)
+ *  54  timeInForce        byte  (TimeInForce value)
+ *  55  reserved
+ *  56  clientOrderId      long
+ * </pre>
+ */
+public class OrderStore {
+    public static final int NULL_SLOT = -1;
+    public static final int RECORD_LENGTH = BitUtil.CACHE_LINE_LENGTH;
+    public static final int MAX_CAPACITY = Integer.MAX_VALUE / RECORD_LENGTH;
+
+    private static final int ORDER_ID_OFFSET = 0;
+    private static final int PRICE_OFFSET = 8;
+    private static final int USER_ID_OFFSET = 16;
+    private static final int TIMESTAMP_OFFSET = 24;
+    private static final int ORIGINAL_QUANTITY_OFFSET = 32;
+    private static final int REMAINING_QUANTITY_OFFSET = 36;
+    private static final int PREV_OFFSET = 40;
+    private static final int NEXT_OFFSET = 44;
+    private static final int SYMBOL_OFFSET = 48;
+    private static final int SIDE_OFFSET = 52;
+    private static final int ORDER_TYPE_OFFSET = 53;
+    private static final int TIME_IN_FORCE_OFFSET = 54;
+    private static final int CLIENT_ORDER_ID_OFFSET = 56;
+
+    private final UnsafeBuffer buffer;
+    private final SymbolRegistry symbols;
+    private final int capacity;
+    private int freeHead = NULL_SLOT;
+    private int highWaterMark; // Slots at or above this have never been handed out
+    private int size;
+
+    public OrderStore(int capacity, SymbolRegistry symbols) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Order store capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.capacity = capacity;
+        this.symbols = symbols;
+        this.buffer = new UnsafeBuffer(BufferUtil.allocateDirectAligned(capacity * RECORD_LENGTH, RECORD_LENGTH));
+    }
+
+    // Returns a free slot, or NULL_SLOT if every slot is in use
+    public int allocate() {
+        int slot = freeHead;
+        if (slot != NULL_SLOT) {
+            freeHead = next(slot);
+        } else if (highWaterMark < capacity) {
+            slot = highWaterMark++;
+        } else {
+            return NULL_SLOT;
+        }
+        size++;
+        return slot;
+    }
+
+    public void free(int slot) {
+        next(slot, freeHead);
+        freeHead = slot;
+        size--;
+    }
+
+    void init(int slot, long orderId, CurrencyPair symbol, byte side, long price, int quantity, long userId, long timestamp) {
+        init(slot, orderId, symbol, side, price, quantity, userId, timestamp, OrderType.LIMIT, TimeInForce.GTC, 0);
+    }
+
+    void init(int slot, long orderId, CurrencyPair symbol, byte side, long price, int quantity, long userId, long timestamp,
+              OrderType orderType, TimeInForce timeInForce, long clientOrderId) {
+        int offset = slot * RECORD_LENGTH;
+        buffer.putLong(offset + ORDER_ID_OFFSET, orderId);
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        buffer.putLong(offset + USER_ID_OFFSET, userId);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putInt(offset + ORIGINAL_QUANTITY_OFFSET, quantity);
+        buffer.putInt(offset + REMAINING_QUANTITY_OFFSET, quantity);
+        buffer.putInt(offset + PREV_OFFSET, NULL_SLOT);
+        buffer.putInt(offset + NEXT_OFFSET, NULL_SLOT);
+        buffer.putInt(offset + SYMBOL_OFFSET, symbol.id());
+        buffer.putByte(offset + SIDE_OFFSET, side);
+        buffer.putByte(offset + ORDER_TYPE_OFFSET, orderType.value());
+        buffer.putByte(offset + TIME_IN_FORCE_OFFSET, timeInForce.value());
+        buffer.putLong(offset + CLIENT_ORDER_ID_OFFSET, clientOrderId);
+    }
+
+    public long orderId(int slot) {
+        return buffer.getLong(slot * RECORD_LENGTH + ORDER_ID_OFFSET);
+    }
+
+    public long price(int slot) {
+        return buffer.getLong(slot * RECORD_LENGTH + PRICE_OFFSET);
+    }
+
+    public long userId(int slot) {
+        return buffer.getLong(slot * RECORD_LENGTH + USER_ID_OFFSET);
+    }
+
+    public long timestamp(int slot) {
+        return buffer.getLong(slot * RECORD_LENGTH + TIMESTAMP_OFFSET);
+    }
+
+    public int originalQuantity(int slot) {
+        return buffer.getInt(slot * RECORD_LENGTH + ORIGINAL_QUANTITY_OFFSET);
+    }
+
+    public int remainingQuantity(int slot) {
+        return buffer.getInt(slot * RECORD_LENGTH + REMAINING_QUANTITY_OFFSET);
+    }
+
+    void remainingQuantity(int slot, int remainingQuantity) {
+        buffer.putInt(slot * RECORD_LENGTH + REMAINING_QUANTITY_OFFSET, remainingQuantity);
+    }
+
+    public CurrencyPair symbol(int slot) {
+        return symbols.get(buffer.getInt(slot * RECORD_LENGTH + SYMBOL_OFFSET));
+    }
+
+    public byte side(int slot) {
+        return buffer.getByte(slot * RECORD_LENGTH + SIDE_OFFSET);
+    }
+
+    public OrderType orderType(int slot) {
+        return OrderType.get(buffer.getByte(slot * RECORD_LENGTH + ORDER_TYPE_OFFSET));
+    }
+
+    public TimeInForce timeInForce(int slot) {
+        return TimeInForce.get(buffer.getByte(slot * RECORD_LENGTH + TIME_IN_FORCE_OFFSET));
+    }
+
+    public long clientOrderId(int slot) {
+        return buffer.getLong(slot * RECORD_LENGTH + CLIENT_ORDER_ID_OFFSET);
+    }
+
+    int prev(int slot) {
+        return buffer.getInt(slot * RECORD_LENGTH + PREV_OFFSET);
+    }
+
+    void prev(int slot, int prev) {
+        buffer.putInt(slot * RECORD_LENGTH + PREV_OFFSET, prev);
+    }
+
+    int next(int slot) {
+        return buffer.getInt(slot * RECORD_LENGTH + NEXT_OFFSET);
+    }
+
+    void next(int slot, int next) {
+        buffer.putInt(slot * RECORD_LENGTH + NEXT_OFFSET, next);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Slots currently holding an order
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return (long) capacity * RECORD_LENGTH;
+    }
+}
@@ -0,0 +1,6 @@
+package com.saqib.fxengine;
+
+// Receives one user's net position in one currency - the amount is x PRICE_SCALE, currency a Currency ordinal
+interface PositionHandler {
+    void onPosition(long userId, int currency, long scaledPosition);
+}
@@ -0,0 +1,135 @@
+package com.saqib.fxengine;
+
+import org.agrona.BitUtil;
+
+/**
+ * Book side backed by a price ladder: levels sit in a power-of-two ring indexed by tick ({@code price / tickSize}), so
+ * insert, lookup and best-price access are array reads with no boxing or node allocation.
+ * <p>
+ * The ring is addressed modulo its length, which means the window recentres itself as the market drifts - only the
+ * occupied range [lowTick, highTick] has to fit. The ring doubles (up to {@code maxLevels}) when it no longer does.
+ * Level objects are created the first time a slot is used and recycled afterwards.
+ * </p>
+ */
+class PriceLadderBookSide implements BookSide {
+    private final boolean bids;
+    private final long tickSize;
+    private final int maxLevels;
+    private final OrderStore store;
+    private PriceLevel[] ladder;
+    private int mask;
+    private long lowTick;  // Lowest occupied tick, valid while levelCount > 0
+    private long highTick; // Highest occupied tick
+    private int levelCount;
+
+    PriceLadderBookSide(byte side, long tickSize, int initialLevels, int maxLevels, OrderStore store) {
+        this.bids = side == Constants.BUY;
+        this.tickSize = tickSize;
+        this.maxLevels = maxLevels;
+        this.store = store;
+        this.ladder = new PriceLevel[BitUtil.findNextPositivePowerOfTwo(initialLevels)];
+        this.mask = ladder.length - 1;
+    }
+
+    @Override
+    public boolean accepts(long price) {
+        if (price <= 0 || price % tickSize != 0) return false;
+        if (levelCount == 0) return true;
+        long tick = price / tickSize;
+        return Math.max(highTick, tick) - Math.min(lowTick, tick) < maxLevels;
+    }
+
+    @Override
+    public PriceLevel get(long price) {
+        long tick = price / tickSize;
+        if (levelCount == 0 || tick < lowTick || tick > highTick) return null;
+        PriceLevel level = ladder[(int) tick & mask];
+        return (level != null && level.getPrice() == price && !level.isEmpty()) ? level : null;
+    }
+
+    @Override
+    public PriceLevel getOrCreate(long price) {
+        long tick = price / tickSize;
+        if (levelCount == 0) {
+            lowTick = tick;
+            highTick = tick;
+        } else if (tick < lowTick || tick > highTick) {
+            long low = Math.min(lowTick, tick);
+            long high = Math.max(highTick, tick);
+            if (high - low >= ladder.length) {
+                resize(high - low + 1);
+            }
+            lowTick = low;
+            highTick = high;
+        }
+
+        int index = (int) tick & mask;
+        PriceLevel level = ladder[index];
+        if (level == null) {
+            level = new PriceLevel(price, store);
+            ladder[index] = level;
+            levelCount++;
+        } else if (level.isEmpty()) {
+            level.reset(price); // Slot may last have been used on a different lap of the ring
+            levelCount++;
+        }
+        return level;
+    }
+
+    @Override
+    public PriceLevel best() {
+        if (levelCount == 0) return null;
+        return ladder[(int) (bids ? highTick : lowTick) & mask];
+    }
+
+    @Override
+    public PriceLevel next(PriceLevel level) {
+        long tick = level.getPrice() / tickSize;
+        if (bids) {
+            for (long t = tick - 1; t >= lowTick; t--) {
+                if (isOccupied(t)) return ladder[(int) t & mask];
+            }
+        } else {
+            for (long t = tick + 1; t <= highTick; t++) {
+                if (isOccupied(t)) return ladder[(int) t & mask];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void remove(PriceLevel level) {
+        if (--levelCount == 0) return;
+        long tick = level.getPrice() / tickSize;
+        if (tick == lowTick) {
+            do { lowTick++; } while (!isOccupied(lowTick));
+        } else if (tick == highTick) {
+            do { highTick--; } while (!isOccupied(highTick));
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return levelCount == 0;
+    }
+
+    @Override
+    public int size() {
+        return levelCount;
+    }
+
+    private boolean isOccupied(long tick) {
+        PriceLevel level = ladder[(int) tick & mask];
+        return level != null && !level.isEmpty();
+    }
+
+    private void resize(long span) {
+        PriceLevel[] resized = new PriceLevel[BitUtil.findNextPositivePowerOfTwo((int) span)];
+        int resizedMask = resized.length - 1;
+        for (long t = lowTick; t <= highTick; t++) {
+            resized[(int) t & resizedMask] = ladder[(int) t & mask];
+        }
+        ladder = resized;
+        mask = resizedMask;
+    }
+}
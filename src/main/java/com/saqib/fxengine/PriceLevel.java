@@ -1,43 +1,75 @@
 package com.saqib.fxengine;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-
+/**
+ * Orders resting at one price in time priority.
+ * <p>
+ * The FIFO is intrusive: each order's {@link OrderStore} record carries its own prev/next slot links, so appending,
+ * cancelling from any position and removing a filled head are all O(1) without a per-order map entry or queue node.
+ * </p>
+ */
 public class PriceLevel {
     private long p1, p2, p3, p4, p5, p6, p7, p8;
-    private final long price; // Pips (x10^5)
+    private long price; // x the symbol's priceScale
     private long p9, p10, p11, p12, p13, p14, p15, p16;
-    private final ConcurrentLinkedQueue<Order> orders = new ConcurrentLinkedQueue<>();
-    private final Map<Long, Order> orderMap = new ConcurrentHashMap<>();
+    private final OrderStore store;
+    private int headSlot = OrderStore.NULL_SLOT;
+    private int tailSlot = OrderStore.NULL_SLOT;
     private long p17, p18, p19, p20, p21, p22, p23, p24;
-    private volatile int totalQuantity = 0;
+    private int totalQuantity = 0;
+    private int orderCount = 0;
+    private boolean changed;  // Already queued for the next market data update
     private long p25, p26, p27, p28, p29, p30, p31, p32;
     
-    public PriceLevel(long price) {
+    public PriceLevel(long price, OrderStore store) {
         this.price = price;
+        this.store = store;
     }
     
-    public void addOrder(Order order) {
-        orders.add(order);
-        orderMap.put(order.orderId, order);
-        totalQuantity += order.remainingQuantity;
+    public void addOrder(int slot) {
+        store.prev(slot, tailSlot);
+        store.next(slot, OrderStore.NULL_SLOT);
+        if (tailSlot == OrderStore.NULL_SLOT) {
+            headSlot = slot;
+        } else {
+            store.next(tailSlot, slot);
+        }
+        tailSlot = slot;
+        orderCount++;
+        totalQuantity += store.remainingQuantity(slot);
     }
     
-    public void removeOrder(long orderId) {
-        Order order = orderMap.remove(orderId);
-        if (order != null) {
-            orders.remove(order);
-            totalQuantity -= order.remainingQuantity;
+    public void removeOrder(int slot) {
+        int prev = store.prev(slot);
+        int next = store.next(slot);
+        if (prev == OrderStore.NULL_SLOT && headSlot != slot) return; // Not resting here
+        if (prev == OrderStore.NULL_SLOT) {
+            headSlot = next;
+        } else {
+            store.next(prev, next);
         }
+        if (next == OrderStore.NULL_SLOT) {
+            tailSlot = prev;
+        } else {
+            store.prev(next, prev);
+        }
+        store.prev(slot, OrderStore.NULL_SLOT);
+        store.next(slot, OrderStore.NULL_SLOT);
+        orderCount--;
+        totalQuantity -= store.remainingQuantity(slot);
     }
     
-    public Order getFirstOrder() {
-        return orders.peek();
+    // Changes a resting order's open quantity in place (fills and same-price amends), keeping the level total in step
+    public void updateQuantity(int slot, int remainingQuantity) {
+        totalQuantity += remainingQuantity - store.remainingQuantity(slot);
+        store.remainingQuantity(slot, remainingQuantity);
+    }
+    
+    public int getFirstOrderSlot() {
+        return headSlot;
     }
     
     public boolean isEmpty() {
-        return orders.isEmpty();
+        return headSlot == OrderStore.NULL_SLOT;
     }
     
     public int getTotalQuantity() {
@@ -45,10 +77,33 @@ public class PriceLevel {
     }
     
     public int getOrderCount() {
-        return orders.size();
+        return orderCount;
     }
     
     public long getPrice() {
         return price;
     }
-}
\ No newline at end of file
+    
+    // Re-keys an empty level so a price ladder can recycle it
+    void reset(long price) {
+        this.price = price;
+        this.totalQuantity = 0;
+        this.orderCount = 0;
+        this.changed = false;
+    }
+    
+    // Returns true the first time the level changes after being published, so it is queued once per update
+    boolean markChanged() {
+        if (changed) return false;
+        changed = true;
+        return true;
+    }
+    
+    boolean isChanged() {
+        return changed;
+    }
+    
+    void clearChanged() {
+        changed = false;
+    }
+}
@@ -0,0 +1,73 @@
+package com.saqib.fxengine;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-trade limits for every user: a default set plus per-user overrides, read from the file named by
+ * {@link EngineConfig#riskLimitsFile()}:
+ * <pre>
+ * {
+ *   "default": { "maxOrderQuantity": 10000000, "maxOrdersPerSecond": 1000 },
+ *   "users": {
+ *     "42": { "maxOrderQuantity": 50000000, "maxPosition": { "USD": 100000000 } }
+ *   }
+ * }
+ * </pre>
+ * An override replaces the default set outright. Immutable once built, so the matching threads read it without
+ * locking while a reload builds its successor.
+ */
+public class RiskConfig {
+    public static final RiskConfig UNLIMITED = new RiskConfig(new RiskLimits());
+
+    private final RiskLimits defaults;
+    private final OrderIndex userIndex = new OrderIndex(16);  // User id -> index into userLimits
+    private final List<RiskLimits> userLimits = new ArrayList<>();
+
+    public RiskConfig(RiskLimits defaults) {
+        this.defaults = defaults;
+    }
+
+    public static RiskConfig load(Path path) {
+        try {
+            return fromJson(new JSONObject(Files.readString(path)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read risk limits " + path, e);
+        }
+    }
+
+    public static RiskConfig fromJson(JSONObject json) {
+        JSONObject defaults = json.optJSONObject("default");
+        RiskConfig config = new RiskConfig(defaults == null ? new RiskLimits() : RiskLimits.fromJson(defaults));
+        JSONObject users = json.optJSONObject("users");
+        if (users != null) {
+            for (String userId : users.keySet()) {
+                config.user(Long.parseLong(userId), RiskLimits.fromJson(users.getJSONObject(userId)));
+            }
+        }
+        return config;
+    }
+
+    // Only while building, before the config is handed to the engine
+    public RiskConfig user(long userId, RiskLimits limits) {
+        int index = userIndex.get(userId);
+        if (index == OrderStore.NULL_SLOT) {
+            userIndex.put(userId, userLimits.size());
+            userLimits.add(limits);
+        } else {
+            userLimits.set(index, limits);
+        }
+        return this;
+    }
+
+    public RiskLimits limits(long userId) {
+        int index = userIndex.get(userId);
+        return index == OrderStore.NULL_SLOT ? defaults : userLimits.get(index);
+    }
+}
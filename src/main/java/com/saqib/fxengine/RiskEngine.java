@@ -0,0 +1,299 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.RejectReason;
+import org.agrona.BitUtil;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-trade risk checks for the books of one matching thread, and the per-user state they run against.
+ * <p>
+ * The shard checks each new order and amendment before journalling or matching it: order size, open notional, net
+ * position per currency should every live order fill, and order rate, against the user's {@link RiskLimits}. Each
+ * user's state is one stripe of a primitive array, found through an {@link OrderIndex} keyed by user id, so a check
+ * touches the user's order rate, open notional and the pair's two currencies - a few cache lines - and allocates
+ * nothing once the user is known.
+ * </p>
+ * <p>
+ * The engine also sits in front of the shard's execution listener, so exposure and positions follow every accepted
+ * order, fill, amendment, cancel and expiry incrementally - journal replay included, since a rejected command is never
+ * journalled. Amounts are kept in currency units x {@link Constants#PRICE_SCALE}, which makes quantity x price exact
+ * for every pair's price scale.
+ * Positions persist in shard snapshots; order rates start afresh on restart. A currency traded on several shards is
+ * limited on each separately.
+ * </p>
+ * <p>
+ * Limits are swapped in whole through {@link #config(RiskConfig)} from any thread and take effect from the next
+ * check, without pausing matching.
+ * </p>
+ */
+public class RiskEngine implements ExecutionListener {
+    private static final int CURRENCIES = Currency.values().length;
+    private static final long BURST_NS = TimeUnit.SECONDS.toNanos(1);
+    // Per-user stripe of state, in longs. Amounts are x PRICE_SCALE
+    private static final int NEXT_ORDER_NS = 0;  // Earliest time the next order conforms to the rate limit, GCRA style
+    private static final int OPEN_NOTIONAL = 1;  // USD value of the user's live orders at their limit prices
+    private static final int CURRENCY_BASE = 2;  // Then per currency:
+    private static final int POSITION = 0;  // From fills
+    private static final int LONG_EXPOSURE = 1;  // What live orders would add to the position if they filled in full
+    private static final int SHORT_EXPOSURE = 2;  // What they would take off, as a positive amount
+    private static final int CURRENCY_STRIDE = 3;
+    private static final int STRIDE = BitUtil.findNextPositivePowerOfTwo(CURRENCY_BASE + CURRENCY_STRIDE * CURRENCIES);
+
+    private final ExecutionListener next;
+    private final OrderIndex users;  // User id -> stripe number
+    private volatile RiskConfig config;
+    private RiskConfig resolvedConfig;  // The config userLimits was filled from
+    private RiskLimits[] userLimits;  // Per stripe, looked up from the config on first use
+    private long[] userIds;
+    private long[] state;
+    private int userCount;
+
+    public RiskEngine(RiskConfig config, ExecutionListener next) {
+        this(config, next, 1024);
+    }
+
+    public RiskEngine(RiskConfig config, ExecutionListener next, int expectedUsers) {
+        this.config = config;
+        this.next = next;
+        this.users = new OrderIndex(expectedUsers);
+        this.userLimits = new RiskLimits[expectedUsers];
+        this.userIds = new long[expectedUsers];
+        this.state = new long[expectedUsers * STRIDE];
+    }
+
+    public RiskConfig config() {
+        return config;
+    }
+
+    // Safe from any thread
+    public void config(RiskConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Checks a new order as if it rested in full. Orders the book would reject anyway, e.g. a quantity of zero, are
+     * left to the book.
+     * @return the reason to reject it, or NONE
+     */
+    public RejectReason checkNewOrder(long userId, CurrencyPair symbol, byte side, long price, int quantity,
+                                     long nowNs) {
+        int user = user(userId);
+        RiskLimits limits = limits(user);
+        if (!conformsToRate(user, limits, nowNs)) {
+            return RejectReason.ORDER_RATE_LIMIT;
+        }
+        return checkExposure(user, limits, symbol, side, price, quantity);
+    }
+
+    /**
+     * Checks an amendment of a resting order as if the order were replaced by one at the new price and quantity. A
+     * quantity of zero cancels, which is always allowed.
+     * @return the reason to reject it, or NONE
+     */
+    public RejectReason checkModify(Order order, long newPrice, int newQuantity, long nowNs) {
+        if (newQuantity <= 0) {
+            return RejectReason.NONE;
+        }
+        int user = user(order.userId());
+        RiskLimits limits = limits(user);
+        if (!conformsToRate(user, limits, nowNs)) {
+            return RejectReason.ORDER_RATE_LIMIT;
+        }
+        expose(user, order.symbol(), order.side(), order.price(), -order.remainingQuantity());
+        RejectReason reason = checkExposure(user, limits, order.symbol(), order.side(), newPrice, newQuantity);
+        expose(user, order.symbol(), order.side(), order.price(), order.remainingQuantity());
+        return reason;
+    }
+
+    private RejectReason checkExposure(int user, RiskLimits limits, CurrencyPair symbol, byte side, long price,
+                                       int quantity) {
+        if (quantity <= 0) {
+            return RejectReason.NONE;
+        }
+        if (quantity > limits.maxOrderQuantity()) {
+            return RejectReason.ORDER_SIZE_LIMIT;
+        }
+        long[] state = this.state;
+        int stripe = user * STRIDE;
+        if (state[stripe + OPEN_NOTIONAL] + quantity * symbol.usdNotional(price) > limits.scaledMaxOpenNotional()) {
+            return RejectReason.OPEN_NOTIONAL_LIMIT;
+        }
+        int base = currency(stripe, symbol.base());
+        int quote = currency(stripe, symbol.quote());
+        long baseAmount = quantity * Constants.PRICE_SCALE;
+        long quoteAmount = quantity * price * symbol.quoteScale();
+        boolean withinLimits = side == Constants.BUY ?
+            state[base + POSITION] + state[base + LONG_EXPOSURE] + baseAmount <=
+                limits.scaledMaxPosition(symbol.base()) &&
+            state[quote + SHORT_EXPOSURE] + quoteAmount - state[quote + POSITION] <=
+                limits.scaledMaxPosition(symbol.quote()) :
+            state[base + SHORT_EXPOSURE] + baseAmount - state[base + POSITION] <=
+                limits.scaledMaxPosition(symbol.base()) &&
+            state[quote + POSITION] + state[quote + LONG_EXPOSURE] + quoteAmount <=
+                limits.scaledMaxPosition(symbol.quote());
+        return withinLimits ? RejectReason.NONE : RejectReason.POSITION_LIMIT;
+    }
+
+    // Allows up to a second's worth of orders in a burst, then the sustained rate; a rejected order isn't counted
+    private boolean conformsToRate(int user, RiskLimits limits, long nowNs) {
+        long intervalNs = limits.orderIntervalNs();
+        if (intervalNs == 0) {
+            return true;
+        }
+        int index = user * STRIDE + NEXT_ORDER_NS;
+        long next = Math.max(state[index], nowNs);
+        if (next - nowNs > BURST_NS - intervalNs) {
+            return false;
+        }
+        state[index] = next + intervalNs;
+        return true;
+    }
+
+    // A new config is picked up here, dropping every user's cached limits
+    private RiskLimits limits(int user) {
+        RiskConfig config = this.config;
+        if (config != resolvedConfig) {
+            Arrays.fill(userLimits, null);
+            resolvedConfig = config;
+        }
+        RiskLimits limits = userLimits[user];
+        if (limits == null) {
+            limits = config.limits(userIds[user]);
+            userLimits[user] = limits;
+        }
+        return limits;
+    }
+
+    @Override
+    public void onNew(Order order) {
+        expose(order, order.remainingQuantity());
+        next.onNew(order);
+    }
+
+    @Override
+    public void onTrade(Trade trade, Order taker, Order maker) {
+        expose(taker, -trade.quantity());
+        expose(maker, -trade.quantity());
+        long baseAmount = trade.quantity() * Constants.PRICE_SCALE;
+        long quoteAmount = trade.quantity() * trade.price() * trade.symbol().quoteScale();
+        int buyer = user(trade.buySideUserId()) * STRIDE;
+        int seller = user(trade.sellSideUserId()) * STRIDE;
+        Currency base = trade.symbol().base();
+        Currency quote = trade.symbol().quote();
+        state[currency(buyer, base) + POSITION] += baseAmount;
+        state[currency(buyer, quote) + POSITION] -= quoteAmount;
+        state[currency(seller, base) + POSITION] -= baseAmount;
+        state[currency(seller, quote) + POSITION] += quoteAmount;
+        next.onTrade(trade, taker, maker);
+    }
+
+    @Override
+    public void onCancelled(Order order) {
+        expose(order, -order.remainingQuantity());
+        next.onCancelled(order);
+    }
+
+    @Override
+    public void onExpired(Order order) {
+        expose(order, -order.remainingQuantity());
+        next.onExpired(order);
+    }
+
+    @Override
+    public void onAmending(Order order) {
+        expose(order, -order.remainingQuantity());
+        next.onAmending(order);
+    }
+
+    @Override
+    public void onReplaced(Order order) {
+        expose(order, order.remainingQuantity());
+        next.onReplaced(order);
+    }
+
+    @Override
+    public void onRejected(long orderId, long clientOrderId, long userId, CurrencyPair symbol, byte side, long price,
+                           int quantity, RejectReason reason) {
+        next.onRejected(orderId, clientOrderId, userId, symbol, side, price, quantity, reason);
+    }
+
+    // Counts an order restored from a snapshot, which rests without any events
+    void restored(Order order) {
+        expose(order, order.remainingQuantity());
+    }
+
+    // Net position in units of the currency, rounded towards zero - read on the matching thread only
+    public long position(long userId, Currency currency) {
+        int user = users.get(userId);
+        return user == OrderStore.NULL_SLOT ? 0 : state[currency(user * STRIDE, currency) + POSITION] /
+            Constants.PRICE_SCALE;
+    }
+
+    // In USD, rounded towards zero - read on the matching thread only
+    public long openNotional(long userId) {
+        int user = users.get(userId);
+        return user == OrderStore.NULL_SLOT ? 0 : state[user * STRIDE + OPEN_NOTIONAL] / Constants.PRICE_SCALE;
+    }
+
+    // Users with a non-zero position in any currency, for snapshots
+    void forEachPosition(PositionHandler handler) {
+        for (int user = 0; user < userCount; user++) {
+            for (Currency currency : Currency.values()) {
+                long position = state[currency(user * STRIDE, currency) + POSITION];
+                if (position != 0) {
+                    handler.onPosition(userIds[user], currency.ordinal(), position);
+                }
+            }
+        }
+    }
+
+    void restorePosition(long userId, int currency, long scaledPosition) {
+        state[user(userId) * STRIDE + CURRENCY_BASE + currency * CURRENCY_STRIDE + POSITION] = scaledPosition;
+    }
+
+    private void expose(Order order, int quantity) {
+        expose(user(order.userId()), order.symbol(), order.side(), order.price(), quantity);
+    }
+
+    // Adds a live order's quantity at its limit price to the user's exposure - negative to take it off again
+    private void expose(int user, CurrencyPair symbol, byte side, long price, int quantity) {
+        int stripe = user * STRIDE;
+        state[stripe + OPEN_NOTIONAL] += quantity * symbol.usdNotional(price);
+        int base = currency(stripe, symbol.base());
+        int quote = currency(stripe, symbol.quote());
+        long baseAmount = quantity * Constants.PRICE_SCALE;
+        long quoteAmount = quantity * price * symbol.quoteScale();
+        if (side == Constants.BUY) {
+            state[base + LONG_EXPOSURE] += baseAmount;
+            state[quote + SHORT_EXPOSURE] += quoteAmount;
+        } else {
+            state[base + SHORT_EXPOSURE] += baseAmount;
+            state[quote + LONG_EXPOSURE] += quoteAmount;
+        }
+    }
+
+    private static int currency(int stripe, Currency currency) {
+        return stripe + CURRENCY_BASE + currency.ordinal() * CURRENCY_STRIDE;
+    }
+
+    // Stripe number for the user, added on first sight
+    private int user(long userId) {
+        int user = users.get(userId);
+        if (user != OrderStore.NULL_SLOT) {
+            return user;
+        }
+        if (userCount == userIds.length) {
+            int capacity = userCount * 2;
+            userIds = Arrays.copyOf(userIds, capacity);
+            userLimits = Arrays.copyOf(userLimits, capacity);
+            state = Arrays.copyOf(state, capacity * STRIDE);
+        }
+        user = userCount++;
+        userIds[user] = userId;
+        state[user * STRIDE + NEXT_ORDER_NS] = Long.MIN_VALUE;
+        users.put(userId, user);
+        return user;
+    }
+}
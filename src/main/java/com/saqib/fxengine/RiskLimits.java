@@ -0,0 +1,113 @@
+package com.saqib.fxengine;
+
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One user's pre-trade limits. Everything defaults to unlimited. Setters are fluent like {@link EngineConfig}'s; once
+ * a set is handed to the engine inside a {@link RiskConfig} it must not be changed again.
+ * <pre>
+ * {
+ *   "maxOrderQuantity": 10000000,
+ *   "maxOpenNotional": 50000000,
+ *   "maxPosition": { "EUR": 20000000, "USD": 25000000, "JPY": 3000000000 },
+ *   "maxOrdersPerSecond": 500
+ * }
+ * </pre>
+ * Quantities are in base currency units, open notional in USD and positions in units of each currency.
+ */
+public class RiskLimits {
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private long maxOrderQuantity = UNLIMITED;
+    private long maxOpenNotional = UNLIMITED;  // x PRICE_SCALE, as RiskEngine keeps it
+    private final long[] maxPositions = new long[Currency.values().length];  // x PRICE_SCALE, as RiskEngine keeps them
+    private int maxOrdersPerSecond;  // 0 for unlimited
+    private long orderIntervalNs;
+
+    public RiskLimits() {
+        Arrays.fill(maxPositions, UNLIMITED);
+    }
+
+    public static RiskLimits fromJson(JSONObject json) {
+        RiskLimits limits = new RiskLimits();
+        limits.maxOrderQuantity(json.optLong("maxOrderQuantity", limits.maxOrderQuantity));
+        limits.maxOpenNotional(json.optLong("maxOpenNotional", limits.maxOpenNotional()));
+        JSONObject positions = json.optJSONObject("maxPosition");
+        if (positions != null) {
+            for (String currency : positions.keySet()) {
+                limits.maxPosition(Currency.valueOf(currency), positions.getLong(currency));
+            }
+        }
+        limits.maxOrdersPerSecond(json.optInt("maxOrdersPerSecond", limits.maxOrdersPerSecond));
+        return limits;
+    }
+
+    // Largest quantity a single new order or amendment may carry
+    public long maxOrderQuantity() {
+        return maxOrderQuantity;
+    }
+
+    public RiskLimits maxOrderQuantity(long maxOrderQuantity) {
+        this.maxOrderQuantity = notNegative("maxOrderQuantity", maxOrderQuantity);
+        return this;
+    }
+
+    // Cap on the USD value of all the user's live orders together, across every pair, at their limit prices
+    public long maxOpenNotional() {
+        return maxOpenNotional == UNLIMITED ? UNLIMITED : maxOpenNotional / Constants.PRICE_SCALE;
+    }
+
+    public RiskLimits maxOpenNotional(long maxOpenNotional) {
+        notNegative("maxOpenNotional", maxOpenNotional);
+        this.maxOpenNotional = maxOpenNotional > UNLIMITED / Constants.PRICE_SCALE ? UNLIMITED :
+            maxOpenNotional * Constants.PRICE_SCALE;
+        return this;
+    }
+
+    // Cap on the net position either way, should every live order fill - in units of the currency
+    public long maxPosition(Currency currency) {
+        long scaled = maxPositions[currency.ordinal()];
+        return scaled == UNLIMITED ? UNLIMITED : scaled / Constants.PRICE_SCALE;
+    }
+
+    public RiskLimits maxPosition(Currency currency, long maxPosition) {
+        notNegative("maxPosition", maxPosition);
+        maxPositions[currency.ordinal()] = maxPosition > UNLIMITED / Constants.PRICE_SCALE ? UNLIMITED :
+            maxPosition * Constants.PRICE_SCALE;
+        return this;
+    }
+
+    public int maxOrdersPerSecond() {
+        return maxOrdersPerSecond;
+    }
+
+    // New orders and amendments; cancels are never limited. Up to a second's worth may arrive in one burst
+    public RiskLimits maxOrdersPerSecond(int maxOrdersPerSecond) {
+        this.maxOrdersPerSecond = (int) notNegative("maxOrdersPerSecond", maxOrdersPerSecond);
+        this.orderIntervalNs = maxOrdersPerSecond == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / maxOrdersPerSecond;
+        return this;
+    }
+
+    long scaledMaxOpenNotional() {
+        return maxOpenNotional;
+    }
+
+    long scaledMaxPosition(Currency currency) {
+        return maxPositions[currency.ordinal()];
+    }
+
+    // Spacing between orders at the sustained rate, 0 if unlimited
+    long orderIntervalNs() {
+        return orderIntervalNs;
+    }
+
+    private static long notNegative(String name, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,53 @@
+package com.saqib.fxengine;
+
+import org.agrona.concurrent.Agent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Reloads the risk limits file from a background agent whenever its modification time changes. Replace the file by
+// renaming a complete one into place - one that fails to parse leaves the current limits in force until the next change
+class RiskLimitsWatcher implements Agent {
+    private static final long POLL_NS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path file;
+    private final Consumer<RiskConfig> target;
+    private FileTime loaded;
+    private long nextPollNs;
+
+    RiskLimitsWatcher(Path file, Consumer<RiskConfig> target) throws IOException {
+        this.file = file;
+        this.target = target;
+        this.loaded = Files.getLastModifiedTime(file);
+    }
+
+    @Override
+    public String roleName() {
+        return "risk-limits-watcher";
+    }
+
+    @Override
+    public int doWork() {
+        long now = System.nanoTime();
+        if (now < nextPollNs) {
+            return 0;
+        }
+        nextPollNs = now + POLL_NS;
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (modified.equals(loaded)) {
+                return 0;
+            }
+            loaded = modified;
+            target.accept(RiskConfig.load(file));
+            System.out.println("Reloaded risk limits from " + file);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Keeping the current risk limits, unable to reload " + file + ": " + e);
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,295 @@
+package com.saqib.fxengine;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Complete state of one shard's books as of a journal sequence number, so recovery replays only the journal after it.
+ * <p>
+ * Snapshots sit next to the journal segments, named by that sequence number. Little-endian:
+ * <pre>
+ *   0  magic        int32
+ *   4  version      int32
+ *   8  seqNo        int64  last journal record included
+ *  16  lastOrderId  int64  highest order id the shard handed out, resting or not, 0 if none
+ *  24  bookCount    int32
+ *  28  checksum     int32  CRC-32 of the whole snapshot but this field
+ * then per book: symbol int32, orderCount int32, then that many orders of
+ *   0  orderId  int64,  8  price  int64,  16  userId  int64,  24  timestamp  int64,
+ *  32  originalQuantity  int32,  36  remainingQuantity  int32,  40  side  byte,  41  reserved,
+ *  48  clientOrderId  int64
+ * then positionCount int32, reserved int32, then that many risk positions of
+ *   0  userId  int64,  8  position  int64  (x PRICE_SCALE),  16  currency  int32,  20  reserved
+ * </pre>
+ * Orders are written best price first and in time priority within a level, so restoring them in file order rebuilds
+ * every queue. A snapshot is written under a temporary name and renamed once forced, so a crash mid-write never leaves
+ * a partial one to load. One that is damaged later fails its checksum, and recovery falls back to the one before.
+ * </p>
+ */
+class ShardSnapshot {
+    static final String SUFFIX = ".snapshot";
+    private static final int MAGIC = 0x53535846;  // "FXSS"
+    private static final int VERSION = 1;
+    private static final int RETAINED = 2;  // So an unreadable newest snapshot leaves one to fall back to
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SEQ_NO_OFFSET = 8;
+    private static final int LAST_ORDER_ID_OFFSET = 16;
+    private static final int BOOK_COUNT_OFFSET = 24;
+    private static final int CHECKSUM_OFFSET = 28;
+    private static final int HEADER_LENGTH = 32;
+    private static final int SYMBOL_OFFSET = 0;
+    private static final int ORDER_COUNT_OFFSET = 4;
+    private static final int BOOK_HEADER_LENGTH = 8;
+    private static final int ORDER_ID_OFFSET = 0;
+    private static final int PRICE_OFFSET = 8;
+    private static final int USER_ID_OFFSET = 16;
+    private static final int TIMESTAMP_OFFSET = 24;
+    private static final int ORIGINAL_QUANTITY_OFFSET = 32;
+    private static final int REMAINING_QUANTITY_OFFSET = 36;
+    private static final int SIDE_OFFSET = 40;
+    private static final int CLIENT_ORDER_ID_OFFSET = 48;
+    private static final int ORDER_LENGTH = 56;
+    private static final int POSITION_COUNT_OFFSET = 0;
+    private static final int POSITIONS_HEADER_LENGTH = 8;
+    private static final int POSITION_USER_ID_OFFSET = 0;
+    private static final int POSITION_OFFSET = 8;
+    private static final int CURRENCY_OFFSET = 16;
+    private static final int POSITION_LENGTH = 24;
+
+    private final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(64 * 1024);  // Grows to the largest snapshot
+    private final OrderHandler orderEntry = this::onOrder;
+    private final PositionHandler positionEntry = this::onPosition;
+    private int position;
+
+    /**
+     * Writes a snapshot of the books and risk positions, which must reflect every journal record up to and including
+     * {@code seqNo}, and deletes all but the newest {@value #RETAINED}.
+     * @return the snapshot file
+     */
+    Path write(Path directory, long seqNo, long lastOrderId, Iterable<OrderBook> books, RiskEngine risk) {
+        int length = encode(seqNo, lastOrderId, books, risk);
+        Path file = file(directory, seqNo);
+        Path partial = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.byteArray(), 0, length);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            List<Long> seqNos = list(directory);
+            for (int i = 0; i < seqNos.size() - RETAINED; i++) {
+                Files.deleteIfExists(file(directory, seqNos.get(i)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write snapshot " + file, e);
+        }
+        return file;
+    }
+
+    /**
+     * Encodes a snapshot into {@link #buffer()} without writing it anywhere - the clustered service hands it to the
+     * cluster's own snapshot instead.
+     * @return its length
+     */
+    int encode(long seqNo, long lastOrderId, Iterable<OrderBook> books, RiskEngine risk) {
+        position = HEADER_LENGTH;
+        int bookCount = 0;
+        for (OrderBook book : books) {
+            int bookOffset = position;
+            position += BOOK_HEADER_LENGTH;
+            int orderCount = book.forEachOrder(Constants.BUY, orderEntry) + book.forEachOrder(Constants.SELL, orderEntry);
+            buffer.putInt(bookOffset + SYMBOL_OFFSET, book.getSymbol().id());
+            buffer.putInt(bookOffset + ORDER_COUNT_OFFSET, orderCount);
+            bookCount++;
+        }
+        int positionsOffset = position;
+        position += POSITIONS_HEADER_LENGTH;
+        risk.forEachPosition(positionEntry);
+        buffer.putInt(positionsOffset + POSITION_COUNT_OFFSET, (position - positionsOffset - POSITIONS_HEADER_LENGTH) /
+            POSITION_LENGTH);
+        buffer.putInt(positionsOffset + POSITION_COUNT_OFFSET + 4, 0);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putLong(SEQ_NO_OFFSET, seqNo);
+        buffer.putLong(LAST_ORDER_ID_OFFSET, lastOrderId);
+        buffer.putInt(BOOK_COUNT_OFFSET, bookCount);
+        buffer.putInt(CHECKSUM_OFFSET, checksum(buffer, position));
+        return position;
+    }
+
+    // The last snapshot encoded
+    DirectBuffer buffer() {
+        return buffer;
+    }
+
+    private void onOrder(Order order) {
+        buffer.putLong(position + ORDER_ID_OFFSET, order.orderId());
+        buffer.putLong(position + PRICE_OFFSET, order.price());
+        buffer.putLong(position + USER_ID_OFFSET, order.userId());
+        buffer.putLong(position + TIMESTAMP_OFFSET, order.timestamp());
+        buffer.putInt(position + ORIGINAL_QUANTITY_OFFSET, order.originalQuantity());
+        buffer.putInt(position + REMAINING_QUANTITY_OFFSET, order.remainingQuantity());
+        buffer.putByte(position + SIDE_OFFSET, order.side());
+        buffer.setMemory(position + SIDE_OFFSET + 1, CLIENT_ORDER_ID_OFFSET - SIDE_OFFSET - 1, (byte) 0);
+        buffer.putLong(position + CLIENT_ORDER_ID_OFFSET, order.clientOrderId());
+        position += ORDER_LENGTH;
+    }
+
+    private void onPosition(long userId, int currency, long scaledPosition) {
+        buffer.putLong(position + POSITION_USER_ID_OFFSET, userId);
+        buffer.putLong(position + POSITION_OFFSET, scaledPosition);
+        buffer.putInt(position + CURRENCY_OFFSET, currency);
+        buffer.putInt(position + CURRENCY_OFFSET + 4, 0);
+        position += POSITION_LENGTH;
+    }
+
+    /**
+     * Restores the newest readable snapshot in {@code directory} into empty books and the risk engine they report to,
+     * and moves the order id sequence past it. A snapshot that fails its checksum is skipped for the one before, whose
+     * journal tail is still there to replay.
+     * @return the sequence number of the last journal record it includes - replay from the one after - or 0 if there
+     * is no snapshot
+     */
+    static long loadLatest(Path directory, OrderBookManager books, RiskEngine risk, OrderIdSequence orderIds) {
+        List<Long> seqNos = list(directory);
+        for (int i = seqNos.size() - 1; i >= 0; i--) {
+            Path file = file(directory, seqNos.get(i));
+            UnsafeBuffer snapshot;
+            try {
+                snapshot = new UnsafeBuffer(Files.readAllBytes(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read snapshot " + file, e);
+            }
+            if (isReadable(snapshot, snapshot.capacity())) {
+                return load(snapshot, snapshot.capacity(), books, risk, orderIds, file.toString());
+            }
+            System.err.println("Snapshot " + file + " is unreadable, falling back to the one before");
+        }
+        if (!seqNos.isEmpty()) {
+            throw new IllegalStateException("No readable snapshot in " + directory);
+        }
+        return 0;
+    }
+
+    /**
+     * Restores the first {@code length} bytes of {@code snapshot}, as {@link #loadLatest} does a file's; {@code source}
+     * names it in errors. Nothing is restored from one that isn't {@link #isReadable}.
+     * @return the sequence number it was encoded with
+     */
+    static long load(DirectBuffer snapshot, int length, OrderBookManager books, RiskEngine risk,
+                     OrderIdSequence orderIds, String source) {
+        if (!isReadable(snapshot, length)) {
+            throw new IllegalStateException("Not a version " + VERSION + " snapshot, or damaged: " + source);
+        }
+        int offset = HEADER_LENGTH;
+        int bookCount = snapshot.getInt(BOOK_COUNT_OFFSET);
+        for (int b = 0; b < bookCount; b++) {
+            int symbolId = snapshot.getInt(offset + SYMBOL_OFFSET);
+            OrderBook book = books.orderBook(symbolId);
+            if (book == null) {
+                throw new IllegalStateException("Snapshot " + source + " has a book for symbol id " + symbolId +
+                    ", which isn't configured on this shard");
+            }
+            int orderCount = snapshot.getInt(offset + ORDER_COUNT_OFFSET);
+            offset += BOOK_HEADER_LENGTH;
+            for (int i = 0; i < orderCount; i++, offset += ORDER_LENGTH) {
+                if (!book.restoreOrder(
+                    snapshot.getLong(offset + ORDER_ID_OFFSET),
+                    snapshot.getByte(offset + SIDE_OFFSET),
+                    snapshot.getLong(offset + PRICE_OFFSET),
+                    snapshot.getInt(offset + ORIGINAL_QUANTITY_OFFSET),
+                    snapshot.getInt(offset + REMAINING_QUANTITY_OFFSET),
+                    snapshot.getLong(offset + USER_ID_OFFSET),
+                    snapshot.getLong(offset + TIMESTAMP_OFFSET),
+                    snapshot.getLong(offset + CLIENT_ORDER_ID_OFFSET))) {
+                    throw new IllegalStateException("Snapshot " + source + " doesn't fit the configured books: order " +
+                        snapshot.getLong(offset + ORDER_ID_OFFSET));
+                }
+            }
+            book.forEachOrder(Constants.BUY, risk::restored);
+            book.forEachOrder(Constants.SELL, risk::restored);
+        }
+        int positionCount = snapshot.getInt(offset + POSITION_COUNT_OFFSET);
+        offset += POSITIONS_HEADER_LENGTH;
+        for (int i = 0; i < positionCount; i++, offset += POSITION_LENGTH) {
+            risk.restorePosition(snapshot.getLong(offset + POSITION_USER_ID_OFFSET),
+                snapshot.getInt(offset + CURRENCY_OFFSET), snapshot.getLong(offset + POSITION_OFFSET));
+        }
+        orderIds.advancePast(snapshot.getLong(LAST_ORDER_ID_OFFSET));
+        return snapshot.getLong(SEQ_NO_OFFSET);
+    }
+
+    // A version this build reads, whose checksum matches
+    static boolean isReadable(DirectBuffer snapshot, int length) {
+        return length >= HEADER_LENGTH && length <= snapshot.capacity() &&
+            snapshot.getInt(MAGIC_OFFSET) == MAGIC && snapshot.getInt(VERSION_OFFSET) == VERSION &&
+            snapshot.getInt(CHECKSUM_OFFSET) == checksum(snapshot, length);
+    }
+
+    // CRC-32 of the first length bytes, skipping the checksum field
+    private static int checksum(DirectBuffer snapshot, int length) {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        update(crc, snapshot, 0, CHECKSUM_OFFSET, chunk);
+        update(crc, snapshot, HEADER_LENGTH, length - HEADER_LENGTH, chunk);
+        return (int) crc.getValue();
+    }
+
+    private static void update(CRC32 crc, DirectBuffer buffer, int offset, int length, byte[] chunk) {
+        for (int end = offset + length; offset < end; offset += chunk.length) {
+            int count = Math.min(chunk.length, end - offset);
+            buffer.getBytes(offset, chunk, 0, count);
+            crc.update(chunk, 0, count);
+        }
+    }
+
+    // Sequence number of the oldest snapshot kept, the furthest back recovery can start, or 0 if there are none
+    static long oldestSeqNo(Path directory) {
+        List<Long> seqNos = list(directory);
+        return seqNos.isEmpty() ? 0 : seqNos.get(0);
+    }
+
+    static Path file(Path directory, long seqNo) {
+        return directory.resolve(String.format("%020d%s", seqNo, SUFFIX));
+    }
+
+    // Sequence numbers of the snapshots in directory, oldest first
+    private static List<Long> list(Path directory) {
+        List<Long> seqNos = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return seqNos;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    seqNos.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list snapshots in " + directory, e);
+        }
+        seqNos.sort(null);
+        return seqNos;
+    }
+}
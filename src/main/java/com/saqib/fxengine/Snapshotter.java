@@ -0,0 +1,84 @@
+package com.saqib.fxengine;
+
+import org.agrona.concurrent.Agent;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshots one shard's books in the background without ever pausing its matching thread.
+ * <p>
+ * The snapshotter keeps its own replica of the books, rebuilt from the latest snapshot and kept current by tailing the
+ * shard's journal. Between two journal records the replica is exactly the shard's books as of that sequence number, so
+ * it is written out from there while the shard carries on. The replica costs a second order store per shard. Journal
+ * segments that end before the oldest snapshot kept are then deleted, or archived if {@code journalArchiveDir} is set.
+ * </p>
+ */
+class Snapshotter implements Agent {
+    private static final int POLL_LIMIT = 1024;
+
+    private final int shardId;
+    private final Path directory;
+    private final Path archive;  // Null to delete retired journal segments
+    private final long intervalNs;
+    private final OrderBookManager books;
+    private final RiskEngine risk;  // Tracks positions only - the replica never checks an order
+    private final OrderIdSequence orderIds;
+    private final CommandApplier applier;
+    private final ShardSnapshot snapshot = new ShardSnapshot();
+    private JournalReader reader;
+    private long snapshotSeqNo;
+    private long nextSnapshotNs;
+
+    Snapshotter(int shardId, Path directory, EngineConfig config) {
+        this.shardId = shardId;
+        this.directory = directory;
+        this.archive = config.journalArchiveDir() == null ? null :
+            Paths.get(config.journalArchiveDir(), "shard-" + shardId);
+        this.intervalNs = TimeUnit.SECONDS.toNanos(config.snapshotIntervalSeconds());
+        this.risk = new RiskEngine(RiskConfig.UNLIMITED, ExecutionListener.NO_OP);
+        this.books = new OrderBookManager(config, risk, shardId);
+        this.orderIds = new OrderIdSequence(shardId);
+        this.applier = new CommandApplier(books, null, orderIds);
+    }
+
+    @Override
+    public String roleName() {
+        return "snapshotter-" + shardId;
+    }
+
+    @Override
+    public void onStart() {
+        snapshotSeqNo = ShardSnapshot.loadLatest(directory, books, risk, orderIds);
+        nextSnapshotNs = System.nanoTime() + intervalNs;
+        reader = new JournalReader(directory, snapshotSeqNo + 1);
+    }
+
+    @Override
+    public int doWork() {
+        int read = reader.poll(applier, POLL_LIMIT);
+        long now = System.nanoTime();
+        if (now >= nextSnapshotNs) {
+            if (reader.lastSeqNo() > snapshotSeqNo) {
+                snapshotSeqNo = reader.lastSeqNo();
+                Path file = snapshot.write(directory, snapshotSeqNo, orderIds.lastOrderId(), books.getAllOrderBooks(),
+                    risk);
+                // Recovery never reads before the oldest snapshot kept, even when it falls back to it
+                int retired = Journal.retire(directory, ShardSnapshot.oldestSeqNo(directory) + 1, archive);
+                System.out.printf("Shard %d snapshotted to %s in %,d us, retiring %d journal segments%n", shardId,
+                    file.getFileName(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - now), retired);
+                read++;
+            }
+            nextSnapshotNs = now + intervalNs;
+        }
+        return read;
+    }
+
+    @Override
+    public void onClose() {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+}
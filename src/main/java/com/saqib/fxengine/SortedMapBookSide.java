@@ -0,0 +1,61 @@
+package com.saqib.fxengine;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+class SortedMapBookSide implements BookSide {
+    private final NavigableMap<Long, PriceLevel> levels;
+    private final Function<Long, PriceLevel> newLevel;  // Created once so computeIfAbsent doesn't capture per call
+
+    SortedMapBookSide(byte side, OrderStore store) {
+        this.levels = (side == Constants.BUY)
+            ? new TreeMap<>(Collections.reverseOrder())
+            : new TreeMap<>();
+        this.newLevel = price -> new PriceLevel(price, store);
+    }
+
+    @Override
+    public boolean accepts(long price) {
+        return price > 0;
+    }
+
+    @Override
+    public PriceLevel get(long price) {
+        return levels.get(price);
+    }
+
+    @Override
+    public PriceLevel getOrCreate(long price) {
+        return levels.computeIfAbsent(price, newLevel);
+    }
+
+    @Override
+    public PriceLevel best() {
+        Map.Entry<Long, PriceLevel> entry = levels.firstEntry();
+        return entry == null ? null : entry.getValue();
+    }
+
+    @Override
+    public PriceLevel next(PriceLevel level) {
+        Map.Entry<Long, PriceLevel> entry = levels.higherEntry(level.getPrice());
+        return entry == null ? null : entry.getValue();
+    }
+
+    @Override
+    public void remove(PriceLevel level) {
+        levels.remove(level.getPrice());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return levels.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return levels.size();
+    }
+}
@@ -0,0 +1,78 @@
+package com.saqib.fxengine;
+
+import org.json.JSONArray;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The pairs the engine trades, from the {@code symbols} list in {@link EngineConfig}, so a pair is added by config
+ * rather than a release. Lookups by wire id are a plain array read; ids needn't be contiguous, but arrays are sized to
+ * the highest, so keep them dense. Immutable, so shared freely between threads.
+ */
+public class SymbolRegistry {
+    public static final int MAX_SYMBOLS = 1 << 16;
+    public static final SymbolRegistry DEFAULT = new SymbolRegistry(
+        List.of(CurrencyPair.EUR_USD, CurrencyPair.GBP_USD, CurrencyPair.USD_JPY));
+
+    private final CurrencyPair[] byId;
+    private final Map<String, CurrencyPair> byName = new HashMap<>();
+    private final List<CurrencyPair> symbols;
+
+    public SymbolRegistry(List<CurrencyPair> symbols) {
+        if (symbols.isEmpty()) {
+            throw new IllegalArgumentException("No symbols configured");
+        }
+        int maxId = 0;
+        for (CurrencyPair symbol : symbols) {
+            maxId = Math.max(maxId, symbol.id());
+        }
+        this.byId = new CurrencyPair[maxId + 1];
+        List<CurrencyPair> ordered = new ArrayList<>(symbols);
+        ordered.sort((a, b) -> Integer.compare(a.id(), b.id()));
+        for (CurrencyPair symbol : ordered) {
+            if (byId[symbol.id()] != null) {
+                throw new IllegalArgumentException(symbol + " and " + byId[symbol.id()] + " share id " + symbol.id());
+            }
+            if (byName.put(symbol.name(), symbol) != null) {
+                throw new IllegalArgumentException(symbol + " is listed twice");
+            }
+            byId[symbol.id()] = symbol;
+        }
+        this.symbols = Collections.unmodifiableList(ordered);
+    }
+
+    public static SymbolRegistry fromJson(JSONArray json) {
+        List<CurrencyPair> symbols = new ArrayList<>();
+        for (int i = 0; i < json.length(); i++) {
+            symbols.add(CurrencyPair.fromJson(json.getJSONObject(i)));
+        }
+        return new SymbolRegistry(symbols);
+    }
+
+    // Null if no symbol has the id - a wire id is unchecked until it gets here
+    public CurrencyPair get(int id) {
+        return id >= 0 && id < byId.length ? byId[id] : null;
+    }
+
+    public CurrencyPair get(String name) {
+        CurrencyPair symbol = byName.get(name);
+        if (symbol == null) {
+            throw new IllegalArgumentException("Unknown symbol " + name);
+        }
+        return symbol;
+    }
+
+    // One more than the highest id, to size arrays indexed by symbol id
+    public int idLimit() {
+        return byId.length;
+    }
+
+    // In id order
+    public List<CurrencyPair> symbols() {
+        return symbols;
+    }
+}
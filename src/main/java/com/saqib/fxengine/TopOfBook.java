@@ -0,0 +1,136 @@
+package com.saqib.fxengine;
+
+/**
+ * The best {@code depth} levels on each side of one book, best first - a reusable flyweight filled by
+ * {@link OrderBook#readTopOfBook(TopOfBook)}, so reading the top of book never allocates.
+ * <p>
+ * Each {@link OrderBook} also keeps one of these up to date as orders rest, fill and cancel, touching only the levels
+ * within its depth. Not thread-safe: read it on the book's thread, or copy it from there.
+ * </p>
+ */
+public final class TopOfBook {
+    private final int depth;
+    private final long[][] prices = new long[2][];  // Indexed by side
+    private final int[][] quantities = new int[2][];
+    private final int[][] orderCounts = new int[2][];
+    private final int[] levelCounts = new int[2];
+    private CurrencyPair symbol;
+
+    public TopOfBook(int depth) {
+        this.depth = EngineConfig.positive("depth", depth);
+        for (int side = 0; side < 2; side++) {
+            prices[side] = new long[depth];
+            quantities[side] = new int[depth];
+            orderCounts[side] = new int[depth];
+        }
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public CurrencyPair symbol() {
+        return symbol;
+    }
+
+    // Levels held on the side - fewer than depth only if the side has fewer
+    public int levelCount(byte side) {
+        return levelCounts[side];
+    }
+
+    // Level 0 is the touch
+    public long price(byte side, int level) {
+        return prices[side][level];
+    }
+
+    public int quantity(byte side, int level) {
+        return quantities[side][level];
+    }
+
+    public int orderCount(byte side, int level) {
+        return orderCounts[side][level];
+    }
+
+    // Highest bid, or OrderBook.NO_PRICE if there are none
+    public long bestBid() {
+        return levelCounts[Constants.BUY] == 0 ? OrderBook.NO_PRICE : prices[Constants.BUY][0];
+    }
+
+    // Lowest offer, or OrderBook.NO_PRICE if there are none
+    public long bestAsk() {
+        return levelCounts[Constants.SELL] == 0 ? OrderBook.NO_PRICE : prices[Constants.SELL][0];
+    }
+
+    void copyFrom(TopOfBook source) {
+        symbol = source.symbol;
+        for (int side = 0; side < 2; side++) {
+            int count = Math.min(depth, source.levelCounts[side]);
+            System.arraycopy(source.prices[side], 0, prices[side], 0, count);
+            System.arraycopy(source.quantities[side], 0, quantities[side], 0, count);
+            System.arraycopy(source.orderCounts[side], 0, orderCounts[side], 0, count);
+            levelCounts[side] = count;
+        }
+    }
+
+    void symbol(CurrencyPair symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Applies a level's new state, quantity 0 meaning it's gone. A level ranked below a full top is ignored, and one
+     * entering a full top pushes the last out.
+     * @return true if a level dropped out and the next one down has to be {@link #append appended}
+     */
+    boolean update(byte side, long price, int quantity, int orderCount) {
+        long[] sidePrices = prices[side];
+        int count = levelCounts[side];
+        int index = 0;
+        while (index < count && isBetter(side, sidePrices[index], price)) {
+            index++;
+        }
+        if (index < count && sidePrices[index] == price) {
+            if (quantity > 0) {
+                quantities[side][index] = quantity;
+                orderCounts[side][index] = orderCount;
+                return false;
+            }
+            shift(side, index + 1, index, count - index - 1);
+            levelCounts[side] = count - 1;
+            return count == depth;  // Full before, so levels may sit below it
+        }
+        if (quantity == 0 || index == depth) {
+            return false;  // Gone, or ranked below the top
+        }
+        shift(side, index, index + 1, Math.min(count, depth - 1) - index);
+        set(side, index, price, quantity, orderCount);
+        levelCounts[side] = Math.min(count + 1, depth);
+        return false;
+    }
+
+    // Adds the level ranked directly below the last one held
+    void append(byte side, long price, int quantity, int orderCount) {
+        set(side, levelCounts[side]++, price, quantity, orderCount);
+    }
+
+    // The price of the last level held, which the next append follows
+    long lastPrice(byte side) {
+        return prices[side][levelCounts[side] - 1];
+    }
+
+    private static boolean isBetter(byte side, long price, long than) {
+        return side == Constants.BUY ? price > than : price < than;
+    }
+
+    private void set(byte side, int index, long price, int quantity, int orderCount) {
+        prices[side][index] = price;
+        quantities[side][index] = quantity;
+        orderCounts[side][index] = orderCount;
+    }
+
+    private void shift(byte side, int from, int to, int length) {
+        if (length <= 0) return;
+        System.arraycopy(prices[side], from, prices[side], to, length);
+        System.arraycopy(quantities[side], from, quantities[side], to, length);
+        System.arraycopy(orderCounts[side], from, orderCounts[side], to, length);
+    }
+}
@@ -1,28 +1,75 @@
 package com.saqib.fxengine;
 
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Flyweight over a fixed 64-byte trade record. The book fills one reusable record per fill and hands it to its
+ * {@link ExecutionListener#onTrade}, so matching allocates nothing per trade.
+ */
 public class Trade {
-    private long p1, p2, p3, p4, p5, p6, p7, p8;
-    public final long takerOrderId;
-    public final long makerOrderId;
-    private long p9, p10, p11, p12, p13, p14, p15, p16;
-    public final long sellSideUserId;
-    public final long buySideUserId;
-    private long p17, p18, p19, p20, p21, p22, p23, p24;
-    public final CurrencyPair symbol;
-    public final long price; // Pips
-    public final int quantity;
-    public final long timestamp;
-    private long p25, p26, p27, p28, p29, p30, p31, p32;
-    
-    public Trade(long takerOrderId, long makerOrderId, long sellSideUserId, long buySideUserId, 
-                 CurrencyPair symbol, long price, int quantity, long timestamp) {
-        this.takerOrderId = takerOrderId;
-        this.makerOrderId = makerOrderId;
-        this.sellSideUserId = sellSideUserId;
-        this.buySideUserId = buySideUserId;
+    public static final int LENGTH = 64;
+    
+    private static final int TAKER_ORDER_ID_OFFSET = 0;
+    private static final int MAKER_ORDER_ID_OFFSET = 8;
+    private static final int SELL_SIDE_USER_ID_OFFSET = 16;
+    private static final int BUY_SIDE_USER_ID_OFFSET = 24;
+    private static final int PRICE_OFFSET = 32;
+    private static final int TIMESTAMP_OFFSET = 40;
+    private static final int QUANTITY_OFFSET = 48;
+    private static final int SYMBOL_OFFSET = 52;
+    
+    private MutableDirectBuffer buffer;
+    private int offset;
+    private CurrencyPair symbol;  // The book's, resolved once rather than looked up from the record
+    
+    public Trade wrap(MutableDirectBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+    
+    void set(long takerOrderId, long makerOrderId, long sellSideUserId, long buySideUserId,
+             CurrencyPair symbol, long price, int quantity, long timestamp) {
+        buffer.putLong(offset + TAKER_ORDER_ID_OFFSET, takerOrderId);
+        buffer.putLong(offset + MAKER_ORDER_ID_OFFSET, makerOrderId);
+        buffer.putLong(offset + SELL_SIDE_USER_ID_OFFSET, sellSideUserId);
+        buffer.putLong(offset + BUY_SIDE_USER_ID_OFFSET, buySideUserId);
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putInt(offset + QUANTITY_OFFSET, quantity);
+        buffer.putInt(offset + SYMBOL_OFFSET, symbol.id());
         this.symbol = symbol;
-        this.price = price;
-        this.quantity = quantity;
-        this.timestamp = timestamp;
     }
-}
\ No newline at end of file
+    
+    public long takerOrderId() {
+        return buffer.getLong(offset + TAKER_ORDER_ID_OFFSET);
+    }
+    
+    public long makerOrderId() {
+        return buffer.getLong(offset + MAKER_ORDER_ID_OFFSET);
+    }
+    
+    public long sellSideUserId() {
+        return buffer.getLong(offset + SELL_SIDE_USER_ID_OFFSET);
+    }
+    
+    public long buySideUserId() {
+        return buffer.getLong(offset + BUY_SIDE_USER_ID_OFFSET);
+    }
+    
+    public CurrencyPair symbol() {
+        return symbol;
+    }
+    
+    public long price() { // x the symbol's priceScale
+        return buffer.getLong(offset + PRICE_OFFSET);
+    }
+    
+    public int quantity() {
+        return buffer.getInt(offset + QUANTITY_OFFSET);
+    }
+    
+    public long timestamp() {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+}
@@ -0,0 +1,69 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.DirectBuffer;
+
+// Reads a BookSnapshot in place - see BookSnapshotEncoder for the layout
+public class BookSnapshotDecoder {
+    public static final int TEMPLATE_ID = BookSnapshotEncoder.TEMPLATE_ID;
+
+    private DirectBuffer buffer;
+    private int offset;
+    private int actingBlockLength;
+    private int actingVersion;
+    private int entryOffset;
+
+    // offset is the start of the block, after the header
+    public BookSnapshotDecoder wrap(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        return this;
+    }
+
+    public int actingBlockLength() {
+        return actingBlockLength;
+    }
+
+    public int actingVersion() {
+        return actingVersion;
+    }
+
+    public long seqNo() {
+        return buffer.getLong(offset + BookSnapshotEncoder.SEQ_NO_OFFSET);
+    }
+
+    public long timestamp() {
+        return buffer.getLong(offset + BookSnapshotEncoder.TIMESTAMP_OFFSET);
+    }
+
+    public int symbol() {
+        return buffer.getInt(offset + BookSnapshotEncoder.SYMBOL_OFFSET);
+    }
+
+    public int count() {
+        return buffer.getInt(offset + BookSnapshotEncoder.COUNT_OFFSET);
+    }
+
+    // Entries start after the sender's block, so a longer block from a newer version is skipped
+    public BookSnapshotDecoder entry(int index) {
+        entryOffset = offset + actingBlockLength + index * BookSnapshotEncoder.ENTRY_LENGTH;
+        return this;
+    }
+
+    public long price() {
+        return buffer.getLong(entryOffset + BookSnapshotEncoder.PRICE_OFFSET);
+    }
+
+    public int quantity() {
+        return buffer.getInt(entryOffset + BookSnapshotEncoder.QUANTITY_OFFSET);
+    }
+
+    public int orderCount() {
+        return buffer.getInt(entryOffset + BookSnapshotEncoder.ORDER_COUNT_OFFSET);
+    }
+
+    public byte side() {
+        return buffer.getByte(entryOffset + BookSnapshotEncoder.SIDE_OFFSET);
+    }
+}
@@ -0,0 +1,103 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Every price level of one book, published periodically so late joiners and subscribers that saw a gap can resync.
+ * Block layout:
+ * <pre>
+ *   0  seqNo      int64  last BookUpdate the snapshot includes - apply updates after it
+ *   8  timestamp  int64  engine System.nanoTime()
+ *  16  symbol     int32  CurrencyPair ordinal
+ *  20  count      int32  entries that follow
+ * </pre>
+ * Followed by {@code count} entries of {@link #ENTRY_LENGTH} bytes:
+ * <pre>
+ *   0  price       int64
+ *   8  quantity    int32
+ *  12  orderCount  int32
+ *  16  side        int8   Constants.BUY / Constants.SELL
+ * </pre>
+ * Bids come best first, then offers best first.
+ */
+public class BookSnapshotEncoder {
+    public static final int TEMPLATE_ID = 7;
+    public static final int BLOCK_LENGTH = 24;
+    public static final int ENTRY_LENGTH = 17;
+
+    static final int SEQ_NO_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int SYMBOL_OFFSET = 16;
+    static final int COUNT_OFFSET = 20;
+
+    static final int PRICE_OFFSET = 0;
+    static final int QUANTITY_OFFSET = 8;
+    static final int ORDER_COUNT_OFFSET = 12;
+    static final int SIDE_OFFSET = 16;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+    private int entryOffset;
+
+    public BookSnapshotEncoder wrapAndApplyHeader(MutableDirectBuffer buffer, int offset, MessageHeaderEncoder header) {
+        header.wrap(buffer, offset)
+            .blockLength(BLOCK_LENGTH)
+            .templateId(TEMPLATE_ID)
+            .schemaId(MessageHeaderEncoder.SCHEMA_ID)
+            .version(MessageHeaderEncoder.SCHEMA_VERSION);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
+        return this;
+    }
+
+    public BookSnapshotEncoder seqNo(long seqNo) {
+        buffer.putLong(offset + SEQ_NO_OFFSET, seqNo);
+        return this;
+    }
+
+    public BookSnapshotEncoder timestamp(long timestamp) {
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        return this;
+    }
+
+    public BookSnapshotEncoder symbol(int symbol) {
+        buffer.putInt(offset + SYMBOL_OFFSET, symbol);
+        return this;
+    }
+
+    public BookSnapshotEncoder count(int count) {
+        buffer.putInt(offset + COUNT_OFFSET, count);
+        return this;
+    }
+
+    // Moves to the entry the setters below write - entries can be written before count is known
+    public BookSnapshotEncoder entry(int index) {
+        entryOffset = offset + BLOCK_LENGTH + index * ENTRY_LENGTH;
+        return this;
+    }
+
+    public BookSnapshotEncoder price(long price) {
+        buffer.putLong(entryOffset + PRICE_OFFSET, price);
+        return this;
+    }
+
+    public BookSnapshotEncoder quantity(int quantity) {
+        buffer.putInt(entryOffset + QUANTITY_OFFSET, quantity);
+        return this;
+    }
+
+    public BookSnapshotEncoder orderCount(int orderCount) {
+        buffer.putInt(entryOffset + ORDER_COUNT_OFFSET, orderCount);
+        return this;
+    }
+
+    public BookSnapshotEncoder side(byte side) {
+        buffer.putByte(entryOffset + SIDE_OFFSET, side);
+        return this;
+    }
+
+    // Header, block and entries
+    public static int encodedLength(int count) {
+        return MessageHeaderEncoder.ENCODED_LENGTH + BLOCK_LENGTH + count * ENTRY_LENGTH;
+    }
+}
@@ -0,0 +1,73 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.DirectBuffer;
+
+// Reads a BookUpdate in place - see BookUpdateEncoder for the layout
+public class BookUpdateDecoder {
+    public static final int TEMPLATE_ID = BookUpdateEncoder.TEMPLATE_ID;
+
+    private DirectBuffer buffer;
+    private int offset;
+    private int actingBlockLength;
+    private int actingVersion;
+    private int entryOffset;
+
+    // offset is the start of the block, after the header
+    public BookUpdateDecoder wrap(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        return this;
+    }
+
+    public int actingBlockLength() {
+        return actingBlockLength;
+    }
+
+    public int actingVersion() {
+        return actingVersion;
+    }
+
+    public long seqNo() {
+        return buffer.getLong(offset + BookUpdateEncoder.SEQ_NO_OFFSET);
+    }
+
+    public long timestamp() {
+        return buffer.getLong(offset + BookUpdateEncoder.TIMESTAMP_OFFSET);
+    }
+
+    public int symbol() {
+        return buffer.getInt(offset + BookUpdateEncoder.SYMBOL_OFFSET);
+    }
+
+    public int count() {
+        return buffer.getInt(offset + BookUpdateEncoder.COUNT_OFFSET);
+    }
+
+    // Entries start after the sender's block, so a longer block from a newer version is skipped
+    public BookUpdateDecoder entry(int index) {
+        entryOffset = offset + actingBlockLength + index * BookUpdateEncoder.ENTRY_LENGTH;
+        return this;
+    }
+
+    public long price() {
+        return buffer.getLong(entryOffset + BookUpdateEncoder.PRICE_OFFSET);
+    }
+
+    public int quantity() {
+        return buffer.getInt(entryOffset + BookUpdateEncoder.QUANTITY_OFFSET);
+    }
+
+    public int orderCount() {
+        return buffer.getInt(entryOffset + BookUpdateEncoder.ORDER_COUNT_OFFSET);
+    }
+
+    public byte side() {
+        return buffer.getByte(entryOffset + BookUpdateEncoder.SIDE_OFFSET);
+    }
+
+    public LevelAction action() {
+        return LevelAction.get(buffer.getByte(entryOffset + BookUpdateEncoder.ACTION_OFFSET));
+    }
+}
@@ -0,0 +1,108 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Changed price levels of one book since its previous update, conflated to their latest state. Block layout:
+ * <pre>
+ *   0  seqNo      int64  per symbol, +1 per BookUpdate - a gap means updates were lost
+ *   8  timestamp  int64  engine System.nanoTime()
+ *  16  symbol     int32  CurrencyPair ordinal
+ *  20  count      int32  entries that follow
+ * </pre>
+ * Followed by {@code count} entries of {@link #ENTRY_LENGTH} bytes:
+ * <pre>
+ *   0  price       int64
+ *   8  quantity    int32  level total after the change, 0 on DELETE
+ *  12  orderCount  int32
+ *  16  side        int8   Constants.BUY / Constants.SELL
+ *  17  action      int8   LevelAction
+ * </pre>
+ */
+public class BookUpdateEncoder {
+    public static final int TEMPLATE_ID = 6;
+    public static final int BLOCK_LENGTH = 24;
+    public static final int ENTRY_LENGTH = 18;
+
+    static final int SEQ_NO_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int SYMBOL_OFFSET = 16;
+    static final int COUNT_OFFSET = 20;
+
+    static final int PRICE_OFFSET = 0;
+    static final int QUANTITY_OFFSET = 8;
+    static final int ORDER_COUNT_OFFSET = 12;
+    static final int SIDE_OFFSET = 16;
+    static final int ACTION_OFFSET = 17;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+    private int entryOffset;
+
+    public BookUpdateEncoder wrapAndApplyHeader(MutableDirectBuffer buffer, int offset, MessageHeaderEncoder header) {
+        header.wrap(buffer, offset)
+            .blockLength(BLOCK_LENGTH)
+            .templateId(TEMPLATE_ID)
+            .schemaId(MessageHeaderEncoder.SCHEMA_ID)
+            .version(MessageHeaderEncoder.SCHEMA_VERSION);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
+        return this;
+    }
+
+    public BookUpdateEncoder seqNo(long seqNo) {
+        buffer.putLong(offset + SEQ_NO_OFFSET, seqNo);
+        return this;
+    }
+
+    public BookUpdateEncoder timestamp(long timestamp) {
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        return this;
+    }
+
+    public BookUpdateEncoder symbol(int symbol) {
+        buffer.putInt(offset + SYMBOL_OFFSET, symbol);
+        return this;
+    }
+
+    public BookUpdateEncoder count(int count) {
+        buffer.putInt(offset + COUNT_OFFSET, count);
+        return this;
+    }
+
+    // Moves to the entry the setters below write - entries can be written before count is known
+    public BookUpdateEncoder entry(int index) {
+        entryOffset = offset + BLOCK_LENGTH + index * ENTRY_LENGTH;
+        return this;
+    }
+
+    public BookUpdateEncoder price(long price) {
+        buffer.putLong(entryOffset + PRICE_OFFSET, price);
+        return this;
+    }
+
+    public BookUpdateEncoder quantity(int quantity) {
+        buffer.putInt(entryOffset + QUANTITY_OFFSET, quantity);
+        return this;
+    }
+
+    public BookUpdateEncoder orderCount(int orderCount) {
+        buffer.putInt(entryOffset + ORDER_COUNT_OFFSET, orderCount);
+        return this;
+    }
+
+    public BookUpdateEncoder side(byte side) {
+        buffer.putByte(entryOffset + SIDE_OFFSET, side);
+        return this;
+    }
+
+    public BookUpdateEncoder action(LevelAction action) {
+        buffer.putByte(entryOffset + ACTION_OFFSET, action.value());
+        return this;
+    }
+
+    // Header, block and entries
+    public static int encodedLength(int count) {
+        return MessageHeaderEncoder.ENCODED_LENGTH + BLOCK_LENGTH + count * ENTRY_LENGTH;
+    }
+}
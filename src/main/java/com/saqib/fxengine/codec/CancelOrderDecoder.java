@@ -0,0 +1,37 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.DirectBuffer;
+
+// Reads a CancelOrder block in place - see CancelOrderEncoder for the layout
+public class CancelOrderDecoder {
+    public static final int TEMPLATE_ID = CancelOrderEncoder.TEMPLATE_ID;
+
+    private DirectBuffer buffer;
+    private int offset;
+    private int actingBlockLength;
+    private int actingVersion;
+
+    public CancelOrderDecoder wrap(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        return this;
+    }
+
+    public int actingBlockLength() {
+        return actingBlockLength;
+    }
+
+    public int actingVersion() {
+        return actingVersion;
+    }
+
+    public long orderId() {
+        return buffer.getLong(offset + CancelOrderEncoder.ORDER_ID_OFFSET);
+    }
+
+    public int symbol() {
+        return buffer.getInt(offset + CancelOrderEncoder.SYMBOL_OFFSET);
+    }
+}
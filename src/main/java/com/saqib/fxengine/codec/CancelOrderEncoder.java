@@ -0,0 +1,46 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Cancel a resting order. Block layout:
+ * <pre>
+ *   0  orderId  int64
+ *   8  symbol   int32  CurrencyPair ordinal
+ * </pre>
+ */
+public class CancelOrderEncoder {
+    public static final int TEMPLATE_ID = 2;
+    public static final int BLOCK_LENGTH = 12;
+
+    static final int ORDER_ID_OFFSET = 0;
+    static final int SYMBOL_OFFSET = 8;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+
+    public CancelOrderEncoder wrapAndApplyHeader(MutableDirectBuffer buffer, int offset, MessageHeaderEncoder header) {
+        header.wrap(buffer, offset)
+            .blockLength(BLOCK_LENGTH)
+            .templateId(TEMPLATE_ID)
+            .schemaId(MessageHeaderEncoder.SCHEMA_ID)
+            .version(MessageHeaderEncoder.SCHEMA_VERSION);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
+        return this;
+    }
+
+    public CancelOrderEncoder orderId(long orderId) {
+        buffer.putLong(offset + ORDER_ID_OFFSET, orderId);
+        return this;
+    }
+
+    public CancelOrderEncoder symbol(int symbol) {
+        buffer.putInt(offset + SYMBOL_OFFSET, symbol);
+        return this;
+    }
+
+    public static int encodedLength() {
+        return MessageHeaderEncoder.ENCODED_LENGTH + BLOCK_LENGTH;
+    }
+}
@@ -0,0 +1,33 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.DirectBuffer;
+
+// Reads a CommandBatch block in place - the commands follow at offset + actingBlockLength
+public class CommandBatchDecoder {
+    public static final int TEMPLATE_ID = CommandBatchEncoder.TEMPLATE_ID;
+
+    private DirectBuffer buffer;
+    private int offset;
+    private int actingBlockLength;
+    private int actingVersion;
+
+    public CommandBatchDecoder wrap(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        return this;
+    }
+
+    public int actingBlockLength() {
+        return actingBlockLength;
+    }
+
+    public int actingVersion() {
+        return actingVersion;
+    }
+
+    public int count() {
+        return buffer.getInt(offset + CommandBatchEncoder.COUNT_OFFSET);
+    }
+}
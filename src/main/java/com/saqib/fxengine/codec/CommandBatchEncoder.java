@@ -0,0 +1,42 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Several commands packed into one message so a burst costs one claim and one poll fragment. Block layout:
+ * <pre>
+ *   0  count  int32  number of commands that follow
+ * </pre>
+ * The block is followed by {@code count} complete NewOrder/CancelOrder/ModifyOrder messages, each with its own header,
+ * back to back. Batches do not nest.
+ */
+public class CommandBatchEncoder {
+    public static final int TEMPLATE_ID = 4;
+    public static final int BLOCK_LENGTH = 4;
+
+    static final int COUNT_OFFSET = 0;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+
+    public CommandBatchEncoder wrapAndApplyHeader(MutableDirectBuffer buffer, int offset, MessageHeaderEncoder header) {
+        header.wrap(buffer, offset)
+            .blockLength(BLOCK_LENGTH)
+            .templateId(TEMPLATE_ID)
+            .schemaId(MessageHeaderEncoder.SCHEMA_ID)
+            .version(MessageHeaderEncoder.SCHEMA_VERSION);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
+        return this;
+    }
+
+    public CommandBatchEncoder count(int count) {
+        buffer.putInt(offset + COUNT_OFFSET, count);
+        return this;
+    }
+
+    // Header plus block - the commands start here
+    public static int encodedLength() {
+        return MessageHeaderEncoder.ENCODED_LENGTH + BLOCK_LENGTH;
+    }
+}
@@ -0,0 +1,30 @@
+package com.saqib.fxengine.codec;
+
+// What an execution report tells the order owner - encoded as its int8 value
+public enum ExecType {
+    NEW((byte) 0),
+    PARTIAL_FILL((byte) 1),
+    FILL((byte) 2),
+    CANCELED((byte) 3),
+    REPLACED((byte) 4),
+    REJECTED((byte) 5),
+    EXPIRED((byte) 6),   // IOC, FOK or market remainder discarded on arrival - leaves is 0
+    NULL_VAL((byte) -1);
+
+    private static final ExecType[] VALUES = values();
+
+    private final byte value;
+
+    ExecType(byte value) {
+        this.value = value;
+    }
+
+    public byte value() {
+        return value;
+    }
+
+    // Unknown values - e.g. from a newer schema - decode as NULL_VAL rather than throwing
+    public static ExecType get(byte value) {
+        return (value >= 0 && value < VALUES.length - 1) ? VALUES[value] : NULL_VAL;
+    }
+}
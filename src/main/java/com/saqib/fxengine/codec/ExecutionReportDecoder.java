@@ -0,0 +1,78 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.DirectBuffer;
+
+// Reads an ExecutionReport block in place - see ExecutionReportEncoder for the layout
+public class ExecutionReportDecoder {
+    public static final int TEMPLATE_ID = ExecutionReportEncoder.TEMPLATE_ID;
+
+    private DirectBuffer buffer;
+    private int offset;
+    private int actingBlockLength;
+    private int actingVersion;
+
+    // offset is the start of the block, after the header
+    public ExecutionReportDecoder wrap(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        return this;
+    }
+
+    public int actingBlockLength() {
+        return actingBlockLength;
+    }
+
+    public int actingVersion() {
+        return actingVersion;
+    }
+
+    public long orderId() {
+        return buffer.getLong(offset + ExecutionReportEncoder.ORDER_ID_OFFSET);
+    }
+
+    public long contraOrderId() {
+        return buffer.getLong(offset + ExecutionReportEncoder.CONTRA_ORDER_ID_OFFSET);
+    }
+
+    public long userId() {
+        return buffer.getLong(offset + ExecutionReportEncoder.USER_ID_OFFSET);
+    }
+
+    public long price() {
+        return buffer.getLong(offset + ExecutionReportEncoder.PRICE_OFFSET);
+    }
+
+    public long timestamp() {
+        return buffer.getLong(offset + ExecutionReportEncoder.TIMESTAMP_OFFSET);
+    }
+
+    public int symbol() {
+        return buffer.getInt(offset + ExecutionReportEncoder.SYMBOL_OFFSET);
+    }
+
+    public int lastQuantity() {
+        return buffer.getInt(offset + ExecutionReportEncoder.LAST_QUANTITY_OFFSET);
+    }
+
+    public int leavesQuantity() {
+        return buffer.getInt(offset + ExecutionReportEncoder.LEAVES_QUANTITY_OFFSET);
+    }
+
+    public ExecType execType() {
+        return ExecType.get(buffer.getByte(offset + ExecutionReportEncoder.EXEC_TYPE_OFFSET));
+    }
+
+    public byte side() {
+        return buffer.getByte(offset + ExecutionReportEncoder.SIDE_OFFSET);
+    }
+
+    public RejectReason rejectReason() {
+        return RejectReason.get(buffer.getByte(offset + ExecutionReportEncoder.REJECT_REASON_OFFSET));
+    }
+
+    public long clientOrderId() {
+        return buffer.getLong(offset + ExecutionReportEncoder.CLIENT_ORDER_ID_OFFSET);
+    }
+}
@@ -0,0 +1,118 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Order ack, fill, cancel, replace or reject, published by the matching thread. Block layout:
+ * <pre>
+ *   0  orderId         int64
+ *   8  contraOrderId   int64  other side of a fill, 0 otherwise
+ *  16  userId          int64  order owner
+ *  24  price           int64  fill price for fills, order price otherwise
+ *  32  timestamp       int64  engine System.nanoTime()
+ *  40  symbol          int32  CurrencyPair ordinal
+ *  44  lastQuantity    int32  filled by this report
+ *  48  leavesQuantity  int32  still open after this report
+ *  52  execType        int8   ExecType
+ *  53  side            int8   Constants.BUY / Constants.SELL
+ *  54  rejectReason    int8   RejectReason
+ *  55  padding         1 byte
+ *  56  clientOrderId   int64  from the order's NewOrder, 0 if none
+ * </pre>
+ */
+public class ExecutionReportEncoder {
+    public static final int TEMPLATE_ID = 5;
+    public static final int BLOCK_LENGTH = 64;
+
+    static final int ORDER_ID_OFFSET = 0;
+    static final int CONTRA_ORDER_ID_OFFSET = 8;
+    static final int USER_ID_OFFSET = 16;
+    static final int PRICE_OFFSET = 24;
+    static final int TIMESTAMP_OFFSET = 32;
+    static final int SYMBOL_OFFSET = 40;
+    static final int LAST_QUANTITY_OFFSET = 44;
+    static final int LEAVES_QUANTITY_OFFSET = 48;
+    static final int EXEC_TYPE_OFFSET = 52;
+    static final int SIDE_OFFSET = 53;
+    static final int REJECT_REASON_OFFSET = 54;
+    static final int CLIENT_ORDER_ID_OFFSET = 56;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+
+    public ExecutionReportEncoder wrapAndApplyHeader(MutableDirectBuffer buffer, int offset, MessageHeaderEncoder header) {
+        header.wrap(buffer, offset)
+            .blockLength(BLOCK_LENGTH)
+            .templateId(TEMPLATE_ID)
+            .schemaId(MessageHeaderEncoder.SCHEMA_ID)
+            .version(MessageHeaderEncoder.SCHEMA_VERSION);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
+        return this;
+    }
+
+    public ExecutionReportEncoder orderId(long orderId) {
+        buffer.putLong(offset + ORDER_ID_OFFSET, orderId);
+        return this;
+    }
+
+    public ExecutionReportEncoder contraOrderId(long contraOrderId) {
+        buffer.putLong(offset + CONTRA_ORDER_ID_OFFSET, contraOrderId);
+        return this;
+    }
+
+    public ExecutionReportEncoder userId(long userId) {
+        buffer.putLong(offset + USER_ID_OFFSET, userId);
+        return this;
+    }
+
+    public ExecutionReportEncoder price(long price) {
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        return this;
+    }
+
+    public ExecutionReportEncoder timestamp(long timestamp) {
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        return this;
+    }
+
+    public ExecutionReportEncoder symbol(int symbol) {
+        buffer.putInt(offset + SYMBOL_OFFSET, symbol);
+        return this;
+    }
+
+    public ExecutionReportEncoder lastQuantity(int lastQuantity) {
+        buffer.putInt(offset + LAST_QUANTITY_OFFSET, lastQuantity);
+        return this;
+    }
+
+    public ExecutionReportEncoder leavesQuantity(int leavesQuantity) {
+        buffer.putInt(offset + LEAVES_QUANTITY_OFFSET, leavesQuantity);
+        return this;
+    }
+
+    public ExecutionReportEncoder execType(ExecType execType) {
+        buffer.putByte(offset + EXEC_TYPE_OFFSET, execType.value());
+        return this;
+    }
+
+    public ExecutionReportEncoder side(byte side) {
+        buffer.putByte(offset + SIDE_OFFSET, side);
+        return this;
+    }
+
+    public ExecutionReportEncoder rejectReason(RejectReason rejectReason) {
+        buffer.putByte(offset + REJECT_REASON_OFFSET, rejectReason.value());
+        return this;
+    }
+
+    public ExecutionReportEncoder clientOrderId(long clientOrderId) {
+        buffer.putLong(offset + CLIENT_ORDER_ID_OFFSET, clientOrderId);
+        return this;
+    }
+
+    // Header plus block
+    public static int encodedLength() {
+        return MessageHeaderEncoder.ENCODED_LENGTH + BLOCK_LENGTH;
+    }
+}
@@ -0,0 +1,24 @@
+package com.saqib.fxengine.codec;
+
+// What a BookUpdate entry does to its price level - encoded as its int8 value
+public enum LevelAction {
+    SET((byte) 0),     // Add the level, or replace its quantity and order count
+    DELETE((byte) 1),  // Level is gone - may name one never seen, if it came and went within one update window
+    NULL_VAL((byte) -1);
+
+    private static final LevelAction[] VALUES = values();
+
+    private final byte value;
+
+    LevelAction(byte value) {
+        this.value = value;
+    }
+
+    public byte value() {
+        return value;
+    }
+
+    public static LevelAction get(byte value) {
+        return (value >= 0 && value < VALUES.length - 1) ? VALUES[value] : NULL_VAL;
+    }
+}
@@ -0,0 +1,33 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.DirectBuffer;
+
+// Reads the header written by MessageHeaderEncoder
+public class MessageHeaderDecoder {
+    public static final int ENCODED_LENGTH = MessageHeaderEncoder.ENCODED_LENGTH;
+
+    private DirectBuffer buffer;
+    private int offset;
+
+    public MessageHeaderDecoder wrap(DirectBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public int blockLength() {
+        return buffer.getShort(offset + MessageHeaderEncoder.BLOCK_LENGTH_OFFSET) & 0xFFFF;
+    }
+
+    public int templateId() {
+        return buffer.getShort(offset + MessageHeaderEncoder.TEMPLATE_ID_OFFSET) & 0xFFFF;
+    }
+
+    public int schemaId() {
+        return buffer.getShort(offset + MessageHeaderEncoder.SCHEMA_ID_OFFSET) & 0xFFFF;
+    }
+
+    public int version() {
+        return buffer.getShort(offset + MessageHeaderEncoder.VERSION_OFFSET) & 0xFFFF;
+    }
+}
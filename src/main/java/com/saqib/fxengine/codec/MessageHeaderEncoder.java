@@ -0,0 +1,54 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Writes the 8-byte header that prefixes every engine message:
+ * <pre>
+ *   0  blockLength  uint16  length of the message's fixed block
+ *   2  templateId   uint16  which message follows
+ *   4  schemaId     uint16  {@link #SCHEMA_ID}
+ *   6  version      uint16  schema version the sender encoded with
+ * </pre>
+ * Receivers decode the block with the sender's blockLength and version, so fields can be appended to a message in a
+ * later schema version without breaking older peers in either direction.
+ */
+public class MessageHeaderEncoder {
+    public static final int ENCODED_LENGTH = 8;
+    public static final int SCHEMA_ID = 1;
+    public static final int SCHEMA_VERSION = 1;
+
+    static final int BLOCK_LENGTH_OFFSET = 0;
+    static final int TEMPLATE_ID_OFFSET = 2;
+    static final int SCHEMA_ID_OFFSET = 4;
+    static final int VERSION_OFFSET = 6;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+
+    public MessageHeaderEncoder wrap(MutableDirectBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public MessageHeaderEncoder blockLength(int blockLength) {
+        buffer.putShort(offset + BLOCK_LENGTH_OFFSET, (short) blockLength);
+        return this;
+    }
+
+    public MessageHeaderEncoder templateId(int templateId) {
+        buffer.putShort(offset + TEMPLATE_ID_OFFSET, (short) templateId);
+        return this;
+    }
+
+    public MessageHeaderEncoder schemaId(int schemaId) {
+        buffer.putShort(offset + SCHEMA_ID_OFFSET, (short) schemaId);
+        return this;
+    }
+
+    public MessageHeaderEncoder version(int version) {
+        buffer.putShort(offset + VERSION_OFFSET, (short) version);
+        return this;
+    }
+}
@@ -0,0 +1,45 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.DirectBuffer;
+
+// Reads a ModifyOrder block in place - see ModifyOrderEncoder for the layout
+public class ModifyOrderDecoder {
+    public static final int TEMPLATE_ID = ModifyOrderEncoder.TEMPLATE_ID;
+
+    private DirectBuffer buffer;
+    private int offset;
+    private int actingBlockLength;
+    private int actingVersion;
+
+    public ModifyOrderDecoder wrap(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        return this;
+    }
+
+    public int actingBlockLength() {
+        return actingBlockLength;
+    }
+
+    public int actingVersion() {
+        return actingVersion;
+    }
+
+    public long orderId() {
+        return buffer.getLong(offset + ModifyOrderEncoder.ORDER_ID_OFFSET);
+    }
+
+    public long newPrice() {
+        return buffer.getLong(offset + ModifyOrderEncoder.NEW_PRICE_OFFSET);
+    }
+
+    public int symbol() {
+        return buffer.getInt(offset + ModifyOrderEncoder.SYMBOL_OFFSET);
+    }
+
+    public int newQuantity() {
+        return buffer.getInt(offset + ModifyOrderEncoder.NEW_QUANTITY_OFFSET);
+    }
+}
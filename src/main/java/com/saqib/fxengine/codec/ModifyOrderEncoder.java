@@ -0,0 +1,60 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Change the price and/or quantity of a resting order. Block layout:
+ * <pre>
+ *   0  orderId      int64
+ *   8  newPrice     int64  x the symbol's priceScale
+ *  16  symbol       int32  CurrencyPair ordinal
+ *  20  newQuantity  int32
+ * </pre>
+ */
+public class ModifyOrderEncoder {
+    public static final int TEMPLATE_ID = 3;
+    public static final int BLOCK_LENGTH = 24;
+
+    static final int ORDER_ID_OFFSET = 0;
+    static final int NEW_PRICE_OFFSET = 8;
+    static final int SYMBOL_OFFSET = 16;
+    static final int NEW_QUANTITY_OFFSET = 20;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+
+    public ModifyOrderEncoder wrapAndApplyHeader(MutableDirectBuffer buffer, int offset, MessageHeaderEncoder header) {
+        header.wrap(buffer, offset)
+            .blockLength(BLOCK_LENGTH)
+            .templateId(TEMPLATE_ID)
+            .schemaId(MessageHeaderEncoder.SCHEMA_ID)
+            .version(MessageHeaderEncoder.SCHEMA_VERSION);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
+        return this;
+    }
+
+    public ModifyOrderEncoder orderId(long orderId) {
+        buffer.putLong(offset + ORDER_ID_OFFSET, orderId);
+        return this;
+    }
+
+    public ModifyOrderEncoder newPrice(long newPrice) {
+        buffer.putLong(offset + NEW_PRICE_OFFSET, newPrice);
+        return this;
+    }
+
+    public ModifyOrderEncoder symbol(int symbol) {
+        buffer.putInt(offset + SYMBOL_OFFSET, symbol);
+        return this;
+    }
+
+    public ModifyOrderEncoder newQuantity(int newQuantity) {
+        buffer.putInt(offset + NEW_QUANTITY_OFFSET, newQuantity);
+        return this;
+    }
+
+    public static int encodedLength() {
+        return MessageHeaderEncoder.ENCODED_LENGTH + BLOCK_LENGTH;
+    }
+}
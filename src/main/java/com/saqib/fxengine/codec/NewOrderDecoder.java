@@ -0,0 +1,62 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.DirectBuffer;
+
+// Reads a NewOrder block in place - see NewOrderEncoder for the layout
+public class NewOrderDecoder {
+    public static final int TEMPLATE_ID = NewOrderEncoder.TEMPLATE_ID;
+
+    private DirectBuffer buffer;
+    private int offset;
+    private int actingBlockLength;
+    private int actingVersion;
+
+    // offset is the start of the block, after the header
+    public NewOrderDecoder wrap(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        return this;
+    }
+
+    public int actingBlockLength() {
+        return actingBlockLength;
+    }
+
+    public int actingVersion() {
+        return actingVersion;
+    }
+
+    public long price() {
+        return buffer.getLong(offset + NewOrderEncoder.PRICE_OFFSET);
+    }
+
+    public long userId() {
+        return buffer.getLong(offset + NewOrderEncoder.USER_ID_OFFSET);
+    }
+
+    public int symbol() {
+        return buffer.getInt(offset + NewOrderEncoder.SYMBOL_OFFSET);
+    }
+
+    public int quantity() {
+        return buffer.getInt(offset + NewOrderEncoder.QUANTITY_OFFSET);
+    }
+
+    public byte side() {
+        return buffer.getByte(offset + NewOrderEncoder.SIDE_OFFSET);
+    }
+
+    public OrderType orderType() {
+        return OrderType.get(buffer.getByte(offset + NewOrderEncoder.ORDER_TYPE_OFFSET));
+    }
+
+    public TimeInForce timeInForce() {
+        return TimeInForce.get(buffer.getByte(offset + NewOrderEncoder.TIME_IN_FORCE_OFFSET));
+    }
+
+    public long clientOrderId() {
+        return buffer.getLong(offset + NewOrderEncoder.CLIENT_ORDER_ID_OFFSET);
+    }
+}
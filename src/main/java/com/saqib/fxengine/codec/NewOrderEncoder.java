@@ -0,0 +1,90 @@
+package com.saqib.fxengine.codec;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * New order. Block layout:
+ * <pre>
+ *   0  price          int64  x the symbol's priceScale, ignored for MARKET
+ *   8  userId         int64
+ *  16  symbol         int32  CurrencyPair ordinal
+ *  20  quantity       int32
+ *  24  side           int8   Constants.BUY / Constants.SELL
+ *  25  orderType      int8   OrderType
+ *  26  timeInForce    int8   TimeInForce
+ *  27  padding        5 bytes
+ *  32  clientOrderId  int64  chosen by the client and echoed in every report on the order
+ * </pre>
+ */
+public class NewOrderEncoder {
+    public static final int TEMPLATE_ID = 1;
+    public static final int BLOCK_LENGTH = 40;
+
+    static final int PRICE_OFFSET = 0;
+    static final int USER_ID_OFFSET = 8;
+    static final int SYMBOL_OFFSET = 16;
+    static final int QUANTITY_OFFSET = 20;
+    static final int SIDE_OFFSET = 24;
+    static final int ORDER_TYPE_OFFSET = 25;
+    static final int TIME_IN_FORCE_OFFSET = 26;
+    static final int CLIENT_ORDER_ID_OFFSET = 32;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+
+    public NewOrderEncoder wrapAndApplyHeader(MutableDirectBuffer buffer, int offset, MessageHeaderEncoder header) {
+        header.wrap(buffer, offset)
+            .blockLength(BLOCK_LENGTH)
+            .templateId(TEMPLATE_ID)
+            .schemaId(MessageHeaderEncoder.SCHEMA_ID)
+            .version(MessageHeaderEncoder.SCHEMA_VERSION);
+        this.buffer = buffer;
+        this.offset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
+        return this;
+    }
+
+    public NewOrderEncoder price(long price) {
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        return this;
+    }
+
+    public NewOrderEncoder userId(long userId) {
+        buffer.putLong(offset + USER_ID_OFFSET, userId);
+        return this;
+    }
+
+    public NewOrderEncoder symbol(int symbol) {
+        buffer.putInt(offset + SYMBOL_OFFSET, symbol);
+        return this;
+    }
+
+    public NewOrderEncoder quantity(int quantity) {
+        buffer.putInt(offset + QUANTITY_OFFSET, quantity);
+        return this;
+    }
+
+    public NewOrderEncoder side(byte side) {
+        buffer.putByte(offset + SIDE_OFFSET, side);
+        return this;
+    }
+
+    public NewOrderEncoder orderType(OrderType orderType) {
+        buffer.putByte(offset + ORDER_TYPE_OFFSET, orderType.value());
+        return this;
+    }
+
+    public NewOrderEncoder timeInForce(TimeInForce timeInForce) {
+        buffer.putByte(offset + TIME_IN_FORCE_OFFSET, timeInForce.value());
+        return this;
+    }
+
+    public NewOrderEncoder clientOrderId(long clientOrderId) {
+        buffer.putLong(offset + CLIENT_ORDER_ID_OFFSET, clientOrderId);
+        return this;
+    }
+
+    // Header plus block
+    public static int encodedLength() {
+        return MessageHeaderEncoder.ENCODED_LENGTH + BLOCK_LENGTH;
+    }
+}
@@ -0,0 +1,24 @@
+package com.saqib.fxengine.codec;
+
+// How a new order is priced - encoded as its int8 value
+public enum OrderType {
+    LIMIT((byte) 0),
+    MARKET((byte) 1),   // No limit price: priced at the touch plus the configured protection band, never rests
+    NULL_VAL((byte) -1);
+
+    private static final OrderType[] VALUES = values();
+
+    private final byte value;
+
+    OrderType(byte value) {
+        this.value = value;
+    }
+
+    public byte value() {
+        return value;
+    }
+
+    public static OrderType get(byte value) {
+        return (value >= 0 && value < VALUES.length - 1) ? VALUES[value] : NULL_VAL;
+    }
+}
@@ -0,0 +1,34 @@
+package com.saqib.fxengine.codec;
+
+// Why a command was rejected - NONE on every report that isn't a rejection
+public enum RejectReason {
+    NONE((byte) 0),
+    UNKNOWN_SYMBOL((byte) 1),
+    INVALID_PRICE((byte) 2),   // Off tick, or beyond the price ladder's reach
+    INVALID_QUANTITY((byte) 3),
+    BOOK_FULL((byte) 4),       // Order store exhausted
+    UNKNOWN_ORDER((byte) 5),   // Cancel or modify for an order that isn't resting
+    ORDER_SIZE_LIMIT((byte) 6),     // Pre-trade risk: quantity above the user's maxOrderQuantity
+    OPEN_NOTIONAL_LIMIT((byte) 7),  // Pre-trade risk: live orders would exceed maxOpenNotional
+    POSITION_LIMIT((byte) 8),       // Pre-trade risk: a full fill could take a currency past maxPosition
+    ORDER_RATE_LIMIT((byte) 9),     // Pre-trade risk: above maxOrdersPerSecond
+    NO_LIQUIDITY((byte) 10),        // Market order with nothing on the other side to price it from
+    INVALID_ORDER_TYPE((byte) 11),  // Unknown order type or time in force, e.g. from a newer schema
+    NULL_VAL((byte) -1);
+
+    private static final RejectReason[] VALUES = values();
+
+    private final byte value;
+
+    RejectReason(byte value) {
+        this.value = value;
+    }
+
+    public byte value() {
+        return value;
+    }
+
+    public static RejectReason get(byte value) {
+        return (value >= 0 && value < VALUES.length - 1) ? VALUES[value] : NULL_VAL;
+    }
+}
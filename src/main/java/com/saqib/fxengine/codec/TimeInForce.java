@@ -0,0 +1,25 @@
+package com.saqib.fxengine.codec;
+
+// How long a new order's unfilled quantity lives - encoded as its int8 value
+public enum TimeInForce {
+    GTC((byte) 0),   // Rests until filled or cancelled
+    IOC((byte) 1),   // Fills what it can on arrival, the remainder expires
+    FOK((byte) 2),   // Fills in full on arrival or expires untouched
+    NULL_VAL((byte) -1);
+
+    private static final TimeInForce[] VALUES = values();
+
+    private final byte value;
+
+    TimeInForce(byte value) {
+        this.value = value;
+    }
+
+    public byte value() {
+        return value;
+    }
+
+    public static TimeInForce get(byte value) {
+        return (value >= 0 && value < VALUES.length - 1) ? VALUES[value] : NULL_VAL;
+    }
+}
@@ -0,0 +1,53 @@
+package com.saqib.fxengine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AtomicCounterTest {
+    private final AtomicLong[] shards = { new AtomicLong(40), new AtomicLong(2) };  // Orders replayed on recovery
+
+    @Test
+    void sumsEveryShardFromWhenItWasCreated() {
+        AtomicCounter counter = new AtomicCounter(this::ordersApplied);
+        assertEquals(0, counter.getProcessedOrders());
+        shards[0].addAndGet(3);
+        shards[1].addAndGet(4);
+        assertEquals(7, counter.getProcessedOrders());
+
+        counter.reset();
+        assertEquals(0, counter.getProcessedOrders());
+        shards[1].incrementAndGet();
+        assertEquals(1, counter.getProcessedOrders());
+    }
+
+    @Test
+    void awaitsOrdersProcessedSinceTheLastReset() throws InterruptedException {
+        AtomicCounter counter = new AtomicCounter(this::ordersApplied);
+        shards[0].addAndGet(5);
+        counter.reset();
+        assertFalse(counter.awaitProcessed(3, 10, TimeUnit.MILLISECONDS));
+
+        Thread shard = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                shards[i % 2].incrementAndGet();
+            }
+        });
+        shard.start();
+        assertTrue(counter.awaitProcessed(3, 10, TimeUnit.SECONDS));
+        shard.join();
+    }
+
+    private long ordersApplied() {
+        long ordersApplied = 0;
+        for (AtomicLong shard : shards) {
+            ordersApplied += shard.get();
+        }
+        return ordersApplied;
+    }
+}
@@ -0,0 +1,128 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.CancelOrderEncoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.agrona.ExpandableArrayBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BacktestTest {
+    private static final CurrencyPair[] SYMBOLS = { CurrencyPair.EUR_USD, CurrencyPair.GBP_USD };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysEachSymbolAsTheBooksMatchedIt() {
+        EngineConfig config = new EngineConfig();
+        Path journalDir = dir.resolve("journal");
+        OrderBook[] books = new OrderBook[SYMBOLS.length];
+        long[] trades = new long[SYMBOLS.length];
+        long[] volumes = new long[SYMBOLS.length];
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            int index = i;
+            books[i] = new OrderBook(SYMBOLS[i]);
+            books[i].setExecutionListener(new ExecutionListener() {
+                @Override
+                public void onTrade(Trade trade, Order taker, Order maker) {
+                    trades[index]++;
+                    volumes[index] += trade.quantity();
+                }
+            });
+        }
+
+        // Interleaved flow for both symbols, journalled as a shard would and applied to the reference books
+        ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(128);
+        MessageHeaderEncoder header = new MessageHeaderEncoder();
+        NewOrderEncoder newOrder = new NewOrderEncoder();
+        CancelOrderEncoder cancelOrder = new CancelOrderEncoder();
+        SplittableRandom random = new SplittableRandom(11);
+        List<Long> orderIds = new ArrayList<>();
+        try (Journal journal = Journal.open(journalDir, 1024 * 1024, JournalForcePolicy.NONE, 0)) {
+            for (long orderId = 1; orderId <= 50_000; orderId++) {
+                int index = random.nextInt(SYMBOLS.length);
+                long timestamp = orderId * 1_000;
+                if (random.nextInt(5) == 0 && !orderIds.isEmpty()) {
+                    long cancelId = orderIds.remove(random.nextInt(orderIds.size()));
+                    int symbol = (int) (cancelId % SYMBOLS.length);  // Ids are chosen so the symbol follows from them
+                    cancelOrder.wrapAndApplyHeader(buffer, 0, header).orderId(cancelId).symbol(SYMBOLS[symbol].id());
+                    journal.append(timestamp, 0, buffer, 0, CancelOrderEncoder.encodedLength());
+                    books[symbol].cancelOrder(cancelId);
+                    continue;
+                }
+                long id = orderId * SYMBOLS.length + index;
+                byte side = random.nextBoolean() ? Constants.BUY : Constants.SELL;
+                long price = 110_000 + random.nextInt(-5, 6);
+                int quantity = 1 + random.nextInt(100);
+                TimeInForce timeInForce = random.nextInt(10) == 0 ? TimeInForce.IOC : TimeInForce.GTC;
+                newOrder.wrapAndApplyHeader(buffer, 0, header)
+                    .price(price)
+                    .userId(1 + index)
+                    .symbol(SYMBOLS[index].id())
+                    .quantity(quantity)
+                    .side(side)
+                    .orderType(OrderType.LIMIT)
+                    .timeInForce(timeInForce)
+                    .clientOrderId(orderId);
+                journal.append(timestamp, id, buffer, 0, NewOrderEncoder.encodedLength());
+                books[index].addOrder(id, side, price, quantity, 1 + index, timestamp, OrderType.LIMIT, timeInForce,
+                    orderId);
+                orderIds.add(id);
+            }
+        }
+
+        List<Backtest.SymbolResult> serial = new Backtest(config, journalDir, null).run(1);
+        List<Backtest.SymbolResult> parallel = new Backtest(config, journalDir, null).run(4);
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            Backtest.SymbolResult result = serial.get(i);
+            assertEquals(SYMBOLS[i], result.symbol());
+            assertEquals(trades[i], result.trades());
+            assertEquals(volumes[i], result.volume());
+            assertEquals(books[i].restingOrderCount(), result.restingOrders());
+            assertEquals(result.tradeHash(), parallel.get(i).tradeHash());
+            assertEquals(result.bookHash(), parallel.get(i).bookHash());
+        }
+    }
+
+    @Test
+    void convertsCsvAndWritesTradesAndBooks() throws IOException {
+        EngineConfig config = new EngineConfig();
+        Path csv = dir.resolve("orders.csv");
+        Files.writeString(csv, String.join("\n",
+            "timestamp,type,orderId,symbol,side,price,quantity,userId,clientOrderId,orderType,timeInForce",
+            "1000,NEW,1,EUR_USD,SELL,110002,100,7,11,,",
+            "2000,NEW,2,EUR_USD,SELL,110003,100,7,12,LIMIT,GTC",
+            "3000,NEW,3,EUR_USD,BUY,110003,150,8,13,LIMIT,IOC",
+            "4000,MODIFY,2,EUR_USD,,110004,40,,,,",
+            "5000,NEW,4,GBP_USD,BUY,125000,10,9,14,,",
+            "6000,CANCEL,4,GBP_USD,,,,,,,"));
+        Path journalDir = dir.resolve("journal");
+        assertEquals(6, Backtest.convertCsv(csv, journalDir, config));
+
+        Path outputDir = Files.createDirectories(dir.resolve("out"));
+        List<Backtest.SymbolResult> results = new Backtest(config, journalDir, outputDir).run(2);
+        assertEquals(2, results.get(0).trades());
+        assertEquals(150, results.get(0).volume());
+        assertEquals(1, results.get(0).restingOrders());
+        assertEquals(4, results.get(0).commands());
+        assertEquals(0, results.get(1).restingOrders());
+        assertEquals(List.of("timestamp,takerOrderId,makerOrderId,price,quantity,buyUserId,sellUserId",
+                "3000,3,1,110002,100,8,7", "3000,3,2,110003,50,8,7"),
+            Files.readAllLines(outputDir.resolve("trades-EUR_USD.csv")));
+        assertEquals(List.of("side,orderId,clientOrderId,price,remainingQuantity,originalQuantity,userId,timestamp",
+                "SELL,2,12,110004,40,40,7,4000"),
+            Files.readAllLines(outputDir.resolve("book-EUR_USD.csv")));
+    }
+}
@@ -0,0 +1,163 @@
+package com.saqib.fxengine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Failover drill for the clustered engine: three {@link ClusterNode}s on localhost, a stream of crossing orders, the
+ * leader killed part way through, and the killed member restarted from its snapshot at the end.
+ * <p>
+ * Reports how long the election took, then checks every member ended with the same books - each resting order with
+ * its id, timestamp and remaining quantity - and the same risk positions. Throws if any differ.
+ * </p>
+ */
+public class ClusterFailoverTest {
+    private static final int MEMBERS = 3;
+    private static final int ORDERS_PER_PHASE = 20_000;
+    private static final int BATCH_SIZE = 64;
+    private static final long TIMEOUT_NS = TimeUnit.SECONDS.toNanos(30);
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path baseDir = Files.createTempDirectory("fxengine-cluster");
+        EngineConfig[] configs = new EngineConfig[MEMBERS];
+        ClusterNode[] nodes = new ClusterNode[MEMBERS];
+        for (int id = 0; id < MEMBERS; id++) {
+            configs[id] = new EngineConfig()
+                .clusterHosts(List.of("localhost", "localhost", "localhost"))
+                .clusterMemberId(id)
+                .clusterDir(baseDir.resolve("node-" + id).toString());
+            nodes[id] = ClusterNode.launch(configs[id]);
+        }
+        int leader = awaitLeader(nodes, -1);
+        System.out.println("Member " + leader + " leads");
+
+        AtomicLong reports = new AtomicLong();
+        SplittableRandom random = new SplittableRandom(42);
+        try (ClusterClient client = new ClusterClient(configs[0], report -> reports.incrementAndGet())) {
+            submit(client, random, 1);
+            awaitProcessed(client, nodes, ORDERS_PER_PHASE);
+            if (!nodes[leader].requestSnapshot()) {
+                throw new IllegalStateException("Snapshot request refused");
+            }
+            Thread.sleep(1000);  // Every member writes it at the same log position
+
+            long killedNs = System.nanoTime();
+            nodes[leader].close();
+            nodes[leader] = null;
+            int newLeader = awaitLeader(nodes, leader);
+            System.out.printf("Killed member %d; member %d took over in %.1f ms%n", leader, newLeader,
+                (System.nanoTime() - killedNs) / 1_000_000.0);
+
+            submit(client, random, ORDERS_PER_PHASE + 1);
+            awaitProcessed(client, nodes, 2 * ORDERS_PER_PHASE);
+
+            // Back from its snapshot plus the log written since, some of it while it was down
+            nodes[leader] = ClusterNode.launch(configs[leader]);
+            awaitStable(client, nodes[leader]);
+            System.out.printf("Member %d rejoined; client saw %d reports%n", leader, reports.get());
+        }
+
+        for (ClusterNode node : nodes) {
+            node.close();
+        }
+        List<String> expected = dump(nodes[0].service());
+        for (int id = 1; id < MEMBERS; id++) {
+            List<String> actual = dump(nodes[id].service());
+            if (!expected.equals(actual)) {
+                throw new AssertionError("Member " + id + " diverged from member 0: " + actual.size() + " vs " +
+                    expected.size() + " lines, first difference at " + firstDifference(expected, actual));
+            }
+        }
+        System.out.printf("All %d members agree on %d resting orders and positions%n", MEMBERS, expected.size());
+    }
+
+    // Crossing buys and sells around one mid, so orders fill, rest and build positions
+    private static void submit(ClusterClient client, SplittableRandom random, long firstClientOrderId) {
+        OrderBatch batch = client.newBatch();
+        for (int i = 0; i < ORDERS_PER_PHASE; i++) {
+            byte side = random.nextBoolean() ? Constants.BUY : Constants.SELL;
+            long price = 110_000 + random.nextInt(-10, 11);
+            batch.newOrder(CurrencyPair.EUR_USD, side, price, 1 + random.nextInt(100), 1 + random.nextInt(4),
+                firstClientOrderId + i);
+            if (batch.size() == BATCH_SIZE) {
+                client.submitBatch(batch);
+                client.poll();
+            }
+        }
+        client.submitBatch(batch);
+    }
+
+    private static int awaitLeader(ClusterNode[] nodes, int notMember) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT_NS;
+        while (System.nanoTime() < deadline) {
+            for (ClusterNode node : nodes) {
+                if (node != null && node.memberId() != notMember && node.isLeader()) {
+                    return node.memberId();
+                }
+            }
+            Thread.sleep(1);
+        }
+        throw new IllegalStateException("No leader elected");
+    }
+
+    private static void awaitProcessed(ClusterClient client, ClusterNode[] nodes, int orders)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT_NS;
+        for (ClusterNode node : nodes) {
+            while (node != null && node.service().processedOrders() < orders) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Member " + node.memberId() + " applied " +
+                        node.service().processedOrders() + " of " + orders + " orders");
+                }
+                client.poll();
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    // A restarted member counts only what it replays after its snapshot, so wait for the count to settle instead
+    private static void awaitStable(ClusterClient client, ClusterNode node) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT_NS;
+        long last = -1;
+        long count;
+        while ((count = node.service().processedOrders()) != last || count == 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Member " + node.memberId() + " still catching up at " + count);
+            }
+            last = count;
+            client.poll();
+            Thread.sleep(2000);
+        }
+    }
+
+    // Read once the member has stopped, so its books are no longer changing
+    private static List<String> dump(MatchingService service) {
+        List<String> lines = new ArrayList<>();
+        for (OrderBook book : service.orderBookManager().getAllOrderBooks()) {
+            for (byte side : new byte[] { Constants.BUY, Constants.SELL }) {
+                book.forEachOrder(side, order -> lines.add(book.getSymbol() + " " + order.side() + " " +
+                    order.orderId() + " " + order.clientOrderId() + " " + order.price() + " " +
+                    order.remainingQuantity() + "/" + order.originalQuantity() + " " + order.userId() + " " +
+                    order.timestamp()));
+            }
+        }
+        service.risk().forEachPosition((userId, currency, scaledPosition) ->
+            lines.add("position " + userId + " " + currency + " " + scaledPosition));
+        return lines;
+    }
+
+    private static String firstDifference(List<String> expected, List<String> actual) {
+        for (int i = 0; i < Math.min(expected.size(), actual.size()); i++) {
+            if (!expected.get(i).equals(actual.get(i))) {
+                return "line " + i + ": " + expected.get(i) + " vs " + actual.get(i);
+            }
+        }
+        return "line " + Math.min(expected.size(), actual.size());
+    }
+}
@@ -0,0 +1,106 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.CommandBatchEncoder;
+import com.saqib.fxengine.codec.ExecType;
+import com.saqib.fxengine.codec.ExecutionReportDecoder;
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import com.saqib.fxengine.codec.RejectReason;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CommandProcessorTest {
+    private static final long TRADER = 1;
+    private static final long PRICE = 110_000;
+
+    private final EngineConfig config = new EngineConfig();
+    private final OrderIdSequence orderIds = new OrderIdSequence(0);
+    private final List<String> reports = new ArrayList<>();
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final ExecutionReportDecoder reportDecoder = new ExecutionReportDecoder();
+    private final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(256);
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final NewOrderEncoder newOrder = new NewOrderEncoder();
+    private final CommandProcessor processor;
+    private long clock;
+
+    @TempDir
+    Path dir;
+
+    CommandProcessorTest() {
+        ExecutionReportPublisher executionReports = new ExecutionReportPublisher(this::onReport);
+        RiskEngine risk = new RiskEngine(new RiskConfig(new RiskLimits())
+            .user(TRADER, new RiskLimits().maxOrderQuantity(100)), executionReports);
+        OrderBookManager orderBookManager = new OrderBookManager(config, risk, 0);
+        CommandApplier commandApplier = new CommandApplier(orderBookManager, executionReports, orderIds);
+        processor = new CommandProcessor(orderBookManager, risk, executionReports, orderIds, commandApplier,
+            () -> ++clock, null);
+    }
+
+    @Test
+    void riskRejectsTakeNoOrderIdSoRecoveryCannotReuseOne() {
+        try (Journal journal = Journal.open(dir, 1024 * 1024, JournalForcePolicy.NONE, 0)) {
+            processor.journal(journal);
+            submit(Constants.BUY, 50, 11);
+            submit(Constants.BUY, 500, 12);  // Over the limit
+        }
+        assertEquals(List.of("NEW 1 11", "REJECTED 0 12 " + RejectReason.ORDER_SIZE_LIMIT), reports);
+
+        OrderIdSequence recovered = new OrderIdSequence(0);
+        OrderBookManager replica = new OrderBookManager(config, ExecutionListener.NO_OP, 0);
+        try (JournalReader reader = new JournalReader(dir, 1)) {
+            assertEquals(1, reader.replay(new CommandApplier(replica, null, recovered)));
+        }
+        assertEquals(orderIds.lastOrderId(), recovered.lastOrderId());
+        assertEquals(orderIds.next(), recovered.next());
+    }
+
+    @Test
+    void dropsACommandWhoseBlockIsShorterThanItsTemplate() {
+        new CommandBatchEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder).count(2);
+        int position = CommandBatchEncoder.encodedLength();
+        encode(position, Constants.BUY, 50, 21);
+        position += NewOrderEncoder.encodedLength();
+        encode(position, Constants.SELL, 50, 22);
+        headerEncoder.blockLength(0);  // The order's block would be read from the one after it
+        position += MessageHeaderEncoder.ENCODED_LENGTH;
+        encode(position, Constants.SELL, 50, 23);
+        processor.onMessage(buffer, 0, position + NewOrderEncoder.encodedLength(), 0);
+
+        assertEquals(List.of("NEW 1 21"), reports);
+        assertEquals(1, orderIds.lastOrderId());
+    }
+
+    private void submit(byte side, int quantity, long clientOrderId) {
+        encode(0, side, quantity, clientOrderId);
+        processor.onMessage(buffer, 0, NewOrderEncoder.encodedLength(), 0);
+    }
+
+    private void encode(int offset, byte side, int quantity, long clientOrderId) {
+        newOrder.wrapAndApplyHeader(buffer, offset, headerEncoder)
+            .price(PRICE)
+            .userId(TRADER)
+            .symbol(CurrencyPair.EUR_USD.id())
+            .quantity(quantity)
+            .side(side)
+            .clientOrderId(clientOrderId);
+    }
+
+    private void onReport(DirectBuffer report, int offset, int length) {
+        headerDecoder.wrap(report, offset);
+        reportDecoder.wrap(report, offset + MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength(),
+            headerDecoder.version());
+        ExecType execType = reportDecoder.execType();
+        reports.add(execType + " " + reportDecoder.orderId() + " " + reportDecoder.clientOrderId() +
+            (execType == ExecType.REJECTED ? " " + reportDecoder.rejectReason() : ""));
+    }
+}
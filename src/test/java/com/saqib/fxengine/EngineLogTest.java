@@ -0,0 +1,85 @@
+package com.saqib.fxengine;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineLogTest {
+    private static final int BUFFER_SIZE = 1024;
+    private static final int RECORDS_PER_BUFFER = BUFFER_SIZE / (EngineLog.RECORD_LENGTH + 8);  // 8 byte record header
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesFormattedRecordsInOrder() throws IOException {
+        EngineLog log = newLog();
+        log.log(LogEvent.UNKNOWN_MESSAGE_TYPE, 7);
+        log.log(LogEvent.MALFORMED_MESSAGE, 99, 1);
+        LogWriter writer = new LogWriter(log, dir, 1 << 20, 3);
+        writer.onStart();
+        assertEquals(2, writer.doWork());
+        log.log(LogEvent.NESTED_BATCH_DROPPED, 3, 10);
+        writer.onClose();
+
+        List<String> lines = Files.readAllLines(dir.resolve(LogWriter.FILE_NAME));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).matches("\\d{4}-\\d\\d-\\d\\dT\\S+Z UNKNOWN_MESSAGE_TYPE Unknown message type: 7"),
+            lines.get(0));
+        assertTrue(lines.get(1).endsWith(" MALFORMED_MESSAGE Malformed message: schema 99, template 1"));
+        assertTrue(lines.get(2).endsWith(" NESTED_BATCH_DROPPED Nested batch dropped at command 3 of 10"));
+    }
+
+    @Test
+    void dropsAndCountsRecordsWhenTheBufferIsFull() throws IOException {
+        EngineLog log = newLog();
+        for (int i = 0; i < 100; i++) {
+            log.log(LogEvent.TRUNCATED_MESSAGE, i);
+        }
+        assertEquals(100 - RECORDS_PER_BUFFER, log.dropped());
+
+        LogWriter writer = new LogWriter(log, dir, 1 << 20, 3);
+        writer.onStart();
+        writer.onClose();
+        List<String> lines = Files.readAllLines(dir.resolve(LogWriter.FILE_NAME));
+        assertEquals(RECORDS_PER_BUFFER + 1, lines.size());
+        assertTrue(lines.get(RECORDS_PER_BUFFER - 1).endsWith(": " + (RECORDS_PER_BUFFER - 1) + " bytes"));
+        assertTrue(lines.get(RECORDS_PER_BUFFER).endsWith(" LOG_DROPPED " + (100 - RECORDS_PER_BUFFER) +
+            " log records dropped on a full buffer"));
+    }
+
+    @Test
+    void rollsFilesAndKeepsTheNewest() throws IOException {
+        EngineLog log = newLog();
+        LogWriter writer = new LogWriter(log, dir, 500, 3);
+        writer.onStart();
+        for (int i = 0; i < 100; i++) {
+            log.log(LogEvent.MARKET_DATA_TOO_LARGE, i, 64);
+            writer.doWork();
+        }
+        writer.onClose();
+
+        assertTrue(Files.size(dir.resolve(LogWriter.FILE_NAME)) <= 500);
+        assertTrue(Files.size(dir.resolve(LogWriter.FILE_NAME + ".2")) <= 500);
+        assertFalse(Files.exists(dir.resolve(LogWriter.FILE_NAME + ".3")));
+        List<String> newest = Files.readAllLines(dir.resolve(LogWriter.FILE_NAME));
+        assertTrue(newest.get(newest.size() - 1).endsWith("Market data message of 99 bytes exceeds 64"));
+        List<String> older = Files.readAllLines(dir.resolve(LogWriter.FILE_NAME + ".1"));
+        assertTrue(older.get(older.size() - 1).endsWith("Market data message of " + (99 - newest.size()) +
+            " bytes exceeds 64"));
+    }
+
+    private static EngineLog newLog() {
+        return new EngineLog(BUFFER_SIZE, new AtomicCounter(new UnsafeBuffer(new byte[64]), 0));
+    }
+}
@@ -0,0 +1,60 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures what journalling adds per command on the matching thread, for each {@link JournalForcePolicy}.
+ * <p>
+ * Appends NewOrder commands in polls of {@code POLL_SIZE} - the shard's default fragment limit - calling
+ * {@link Journal#commit} after each, as the duty cycle does. Segments are small enough that rollover is included. The
+ * journal goes to the temp directory unless a path is given as the first argument; point it at the production disk,
+ * since force costs depend entirely on the device.
+ * </p>
+ */
+public class JournalBenchmark {
+    private static final int COMMANDS = 2_000_000;
+    private static final int FORCED_COMMANDS = 20_000;  // COMMAND policy forces every append, so fewer of them
+    private static final int POLL_SIZE = 10;
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        Path base = args.length > 0 ? Path.of(args[0]) : Files.createTempDirectory("fxengine-journal");
+        UnsafeBuffer command = new UnsafeBuffer(ByteBuffer.allocateDirect(64));
+        new NewOrderEncoder().wrapAndApplyHeader(command, 0, new MessageHeaderEncoder())
+            .price(123450)
+            .userId(1)
+            .symbol(CurrencyPair.EUR_USD.id())
+            .quantity(100)
+            .side(Constants.BUY);
+        int length = NewOrderEncoder.encodedLength();
+
+        for (int round = 0; round < ROUNDS; round++) {  // Early rounds double as JIT warmup
+            for (JournalForcePolicy policy : JournalForcePolicy.values()) {
+                Path directory = base.resolve(policy + "-" + round);
+                int commands = policy == JournalForcePolicy.COMMAND ? FORCED_COMMANDS : COMMANDS;
+                long start = System.nanoTime();
+                try (Journal journal = Journal.open(directory, SEGMENT_SIZE, policy, 1_000_000)) {
+                    for (int i = 0; i < commands; i++) {
+                        journal.append(System.nanoTime(), i + 1, command, 0, length);
+                        if (i % POLL_SIZE == POLL_SIZE - 1) {
+                            journal.commit(System.nanoTime());
+                        }
+                    }
+                }
+                long elapsed = System.nanoTime() - start;
+                System.out.printf("%-8s round %d: %,10.1f ns/command (%,d commands)%n", policy, round,
+                    (double) elapsed / commands, commands);
+                IoUtil.delete(directory.toFile(), true);
+            }
+        }
+    }
+}
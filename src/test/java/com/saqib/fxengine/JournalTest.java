@@ -0,0 +1,178 @@
+package com.saqib.fxengine;
+
+import org.agrona.BitUtil;
+import org.agrona.ExpandableArrayBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalTest {
+    private static final int SEGMENT_SIZE = 256;
+
+    private final ExpandableArrayBuffer command = new ExpandableArrayBuffer(64);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rollsOverSegmentsAndReplaysEveryRecordOnce() throws IOException {
+        try (Journal journal = open()) {
+            for (int i = 1; i <= 100; i++) {
+                assertEquals(i, append(journal, i, 1 + i % 40));
+            }
+            assertEquals(100, journal.lastSeqNo());
+        }
+        assertTrue(Journal.lastSegment(dir) > 1);
+
+        assertEquals(range(1, 100), replay(1));
+        assertEquals(range(37, 100), replay(37));  // From the middle of a segment
+    }
+
+    @Test
+    void handsOverAtTheEndOfSegmentMarkerAndAtAnExactlyFullSegment() throws IOException {
+        try (Journal journal = open()) {
+            for (int i = 1; i <= 6; i++) {
+                append(journal, i, 16);  // 48 byte records: the sixth doesn't fit after five, so the segment is marked
+            }
+            for (int i = 7; i <= 13; i++) {
+                append(journal, i, 32);  // 64 byte records: four fill a segment exactly, with no room for a marker
+            }
+        }
+        assertEquals(range(1, 13), replay(1));
+        assertEquals(10, Journal.lastSegment(dir));  // Started at 6 after the marker, then at 10 after a second one
+
+        try (Journal journal = open()) {  // Reopened on the full segment, so the next append rolls over
+            assertEquals(13, journal.lastSeqNo());
+            append(journal, 14, 16);
+            append(journal, 15, 16);
+        }
+        assertTrue(Journal.segmentFile(dir, 14).toFile().exists());
+        assertEquals(range(1, 15), replay(1));
+    }
+
+    @Test
+    void reopeningDropsATornTailAndAppendsAfterTheLastCompleteRecord() throws IOException {
+        try (Journal journal = open()) {
+            for (int i = 1; i <= 3; i++) {
+                append(journal, i, 16);
+            }
+        }
+        // A crash mid-append: the next record's header and command written, its length not yet
+        try (FileChannel channel = FileChannel.open(Journal.segmentFile(dir, 1), StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(SEGMENT_SIZE - 3 * 48 - Journal.SEQ_NO_OFFSET);
+            while (torn.hasRemaining()) {
+                torn.put((byte) 0x5A);
+            }
+            torn.flip();
+            channel.write(torn, 3 * 48 + Journal.SEQ_NO_OFFSET);
+        }
+        assertEquals(range(1, 3), replay(1));
+
+        try (Journal journal = open()) {
+            assertEquals(3, journal.lastSeqNo());
+            append(journal, 4, 8);  // Shorter than the torn record, which would leave its bytes where a length goes
+            append(journal, 5, 16);
+        }
+        assertEquals(range(1, 5), replay(1));
+    }
+
+    @Test
+    void readerTailsTheJournalAsItIsWritten() {
+        List<Long> seqNos = new ArrayList<>();
+        try (Journal journal = open(); JournalReader reader = new JournalReader(dir, 1)) {
+            JournalHandler handler = checking(seqNos);
+            assertEquals(0, reader.poll(handler, 10));
+            for (int i = 1; i <= 3; i++) {
+                append(journal, i, 16);
+            }
+            assertEquals(2, reader.poll(handler, 2));
+            assertEquals(1, reader.poll(handler, 10));
+            assertEquals(0, reader.poll(handler, 10));
+            for (int i = 4; i <= 40; i++) {  // Across several segments
+                append(journal, i, 24);
+            }
+            assertEquals(37, reader.replay(handler));
+            assertEquals(40, reader.lastSeqNo());
+        }
+        assertEquals(range(1, 40), seqNos);
+    }
+
+    @Test
+    void retiresOnlySegmentsThatEndBeforeTheGivenSeqNo() throws IOException {
+        try (Journal journal = open()) {
+            for (int i = 1; i <= 20; i++) {
+                append(journal, i, 32);  // Four to a segment, starting at 1, 5, 9, 13 and 17
+            }
+        }
+        Path archive = dir.resolve("archive");
+        assertEquals(0, Journal.retire(dir, 4, archive));
+        assertEquals(2, Journal.retire(dir, 9, archive));  // The segment starting at 9 holds it
+        assertEquals(List.of(1L, 5L), Journal.segments(archive));
+        assertEquals(List.of(9L, 13L, 17L), Journal.segments(dir));
+        assertEquals(range(9, 20), replay(9));
+        assertThrows(IllegalStateException.class, () -> new JournalReader(dir, 8));  // Its segment is gone
+
+        assertEquals(1, Journal.retire(dir, 16, null));
+        assertEquals(List.of(13L, 17L), Journal.segments(dir));
+        assertEquals(2, Journal.segments(archive).size());
+        assertEquals(1, Journal.retire(dir, 100, null));  // Never the newest, which the journal appends to
+        assertEquals(List.of(17L), Journal.segments(dir));
+
+        try (Journal journal = open()) {
+            assertEquals(20, journal.lastSeqNo());
+            append(journal, 21, 16);
+        }
+        assertEquals(range(17, 21), replay(17));
+    }
+
+    private Journal open() {
+        return Journal.open(dir, SEGMENT_SIZE, JournalForcePolicy.NONE, 0);
+    }
+
+    // The command is length bytes derived from seqNo, so a replayed record can be checked against what was appended
+    private long append(Journal journal, long seqNo, int length) {
+        for (int i = 0; i < length; i++) {
+            command.putByte(i, (byte) (seqNo + i));
+        }
+        return journal.append(seqNo * 1_000, seqNo * 7, command, 0, length);
+    }
+
+    private List<Long> replay(long fromSeqNo) {
+        List<Long> seqNos = new ArrayList<>();
+        try (JournalReader reader = new JournalReader(dir, fromSeqNo)) {
+            reader.replay(checking(seqNos));
+        }
+        return seqNos;
+    }
+
+    private static JournalHandler checking(List<Long> seqNos) {
+        return (seqNo, timestamp, orderId, buffer, offset, length) -> {
+            assertEquals(seqNo * 1_000, timestamp);
+            assertEquals(seqNo * 7, orderId);
+            assertTrue(offset % BitUtil.SIZE_OF_LONG == 0);
+            for (int i = 0; i < length; i++) {
+                assertEquals((byte) (seqNo + i), buffer.getByte(offset + i), "seqNo " + seqNo + " byte " + i);
+            }
+            seqNos.add(seqNo);
+        };
+    }
+
+    private static List<Long> range(long from, long to) {
+        List<Long> seqNos = new ArrayList<>();
+        for (long seqNo = from; seqNo <= to; seqNo++) {
+            seqNos.add(seqNo);
+        }
+        return seqNos;
+    }
+}
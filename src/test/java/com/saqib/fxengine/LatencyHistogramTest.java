@@ -0,0 +1,58 @@
+package com.saqib.fxengine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void smallValuesAreExact() {
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.count());
+        assertEquals(50, histogram.valueAtPercentile(50));
+        assertEquals(99, histogram.valueAtPercentile(99));
+        assertEquals(100, histogram.maxValue());
+    }
+
+    @Test
+    void largeValuesAreWithinBucketPrecision() {
+        long[] values = {1_000, 12_345, 987_654, 5_000_000_000L, LatencyHistogram.MAX_VALUE};
+        for (long value : values) {
+            histogram.reset();
+            histogram.record(value);
+            long reported = histogram.maxValue();
+            assertTrue(reported >= value && reported <= value + value / 64, value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.valueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.maxValue());
+    }
+
+    @Test
+    void subtractLeavesTheInterval() {
+        histogram.record(100);
+        LatencyHistogram earlier = new LatencyHistogram();
+        earlier.copyFrom(histogram);
+        histogram.record(1_000_000);
+        histogram.subtract(earlier);
+        assertEquals(1, histogram.count());
+        assertTrue(histogram.valueAtPercentile(0) >= 1_000_000);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.valueAtPercentile(99.9));
+        assertEquals(0, histogram.maxValue());
+    }
+}
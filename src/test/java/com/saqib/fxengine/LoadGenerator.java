@@ -0,0 +1,280 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.ExecType;
+import com.saqib.fxengine.codec.ExecutionReportDecoder;
+
+import java.util.SplittableRandom;
+
+/**
+ * Open-loop load generator for {@link LowLatencyMatchingEngine}: latency at a given offered rate, rather than how fast
+ * a burst can be pushed in.
+ * <p>
+ * Commands go out on a fixed schedule - command i is due at {@code start + i / rate} - whatever the engine is doing.
+ * Latency is taken from that intended send time to the execution report, so time spent queued behind a stalled engine
+ * counts against it, as it would for a real client (no coordinated omission). The flow is a mix of passive quotes
+ * around mid, aggressive takers, cancels and amends of earlier quotes across every {@link CurrencyPair}, in the ratios
+ * set by the {@code loadgen.*} system properties.
+ * </p>
+ * <p>
+ * Each rate in the sweep runs for {@code loadgen.seconds} and prints one row: achieved send rate, ack latency for
+ * every command and first-fill latency for aggressive orders. The sweep ends by naming the saturation knee: the first
+ * rate the engine couldn't keep up with. Usage: {@code LoadGenerator [rate ...]}.
+ * </p>
+ */
+public class LoadGenerator {
+    private static final int[] DEFAULT_RATES = {25_000, 50_000, 100_000, 200_000, 400_000, 800_000};
+    private static final int SECONDS = Integer.getInteger("loadgen.seconds", 5);
+    private static final int PASSIVE_PERCENT = Integer.getInteger("loadgen.passive", 50);
+    private static final int AGGRESSIVE_PERCENT = Integer.getInteger("loadgen.aggressive", 15);
+    private static final int CANCEL_PERCENT = Integer.getInteger("loadgen.cancel", 25);
+    private static final int AMEND_PERCENT = Integer.getInteger("loadgen.amend", 10);
+    private static final long DRAIN_TIMEOUT_NS = 5_000_000_000L;
+    private static final double KNEE_P99_FACTOR = 10;  // Saturated once p99 is this many times the first rate's
+
+    private static final long BASE_MID = 100_000;
+    private static final int MAX_PASSIVE_DISTANCE = 20;  // Ticks behind mid
+    private static final int AGGRESSIVE_DISTANCE = 3;  // Ticks through mid
+    private static final int STEP_SHIFT = 40;  // clientOrderId = step << STEP_SHIFT | command, so reports map to it
+    private static final int USERS = 100;
+
+    private static final byte PASSIVE = 0;
+    private static final byte AGGRESSIVE = 1;
+    private static final byte CANCEL = 2;
+    private static final byte AMEND = 3;
+
+    private final LowLatencyMatchingEngine engine;
+    private final CurrencyPair[] symbols;
+    private final ExecutionReportAdapter reports;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final LatencyHistogram ackLatency = new LatencyHistogram();
+    private final LatencyHistogram fillLatency = new LatencyHistogram();
+    // Per command of the current step
+    private final long[] intendedNs;
+    private final byte[] kinds;
+    private final boolean[] filled;
+    // Acked passive orders available to cancel or amend - removed once targeted, so each has one request in flight
+    private final long[] liveIds;
+    private final CurrencyPair[] liveSymbols;
+    private final byte[] liveSides;
+    private int liveCount;
+    private OrderIndex pending;  // Order id -> the cancel or amend command awaiting its report; fresh each step
+    private long step;
+    private int sent;
+    private int acked;
+    private int rejected;
+
+    private LoadGenerator(LowLatencyMatchingEngine engine, int maxCommands) {
+        this.engine = engine;
+        this.symbols = engine.symbols().symbols().toArray(new CurrencyPair[0]);
+        this.reports = engine.newExecutionReportAdapter(this::onReport);
+        this.intendedNs = new long[maxCommands];
+        this.kinds = new byte[maxCommands];
+        this.filled = new boolean[maxCommands];
+        this.liveIds = new long[maxCommands];
+        this.liveSymbols = new CurrencyPair[maxCommands];
+        this.liveSides = new byte[maxCommands];
+    }
+
+    public static void main(String[] args) {
+        int[] rates = DEFAULT_RATES;
+        if (args.length > 0) {
+            rates = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                rates[i] = Integer.parseInt(args[i]);
+            }
+        }
+        int maxRate = 0;
+        for (int rate : rates) {
+            maxRate = Math.max(maxRate, rate);
+        }
+        LowLatencyMatchingEngine engine = LowLatencyMatchingEngine.getInstance();
+        engine.warmUp(100_000, CurrencyPair.EUR_USD, 1);
+        LoadGenerator generator = new LoadGenerator(engine, maxRate * SECONDS);
+
+        System.out.printf("Mix: %d%% passive, %d%% aggressive, %d%% cancel, %d%% amend; %d s per rate%n",
+            PASSIVE_PERCENT, AGGRESSIVE_PERCENT, CANCEL_PERCENT, AMEND_PERCENT, SECONDS);
+        generator.runStep(rates[0], Math.min(2, SECONDS));  // Warmup at the lowest rate, not reported
+        System.out.printf("%10s %10s | %-37s | %-37s | %8s %8s%n", "rate", "achieved",
+            "ack us: p50 p99 p99.9 max", "first fill us: p50 p99 p99.9 max", "rejects", "missing");
+        long baselineP99 = 0;
+        int knee = -1;
+        for (int rate : rates) {
+            double achieved = generator.runStep(rate, SECONDS);
+            int missing = generator.sent - generator.acked;
+            LatencyHistogram ack = generator.ackLatency;
+            LatencyHistogram fill = generator.fillLatency;
+            System.out.printf("%,10d %,10.0f | %8.1f %8.1f %8.1f %8.1f | %8.1f %8.1f %8.1f %8.1f | %,8d %,8d%n",
+                rate, achieved,
+                micros(ack.valueAtPercentile(50)), micros(ack.valueAtPercentile(99)),
+                micros(ack.valueAtPercentile(99.9)), micros(ack.maxValue()),
+                micros(fill.valueAtPercentile(50)), micros(fill.valueAtPercentile(99)),
+                micros(fill.valueAtPercentile(99.9)), micros(fill.maxValue()),
+                generator.rejected, missing);
+            long p99 = ack.valueAtPercentile(99);
+            baselineP99 = baselineP99 == 0 ? p99 : baselineP99;
+            if (knee < 0 && (achieved < rate * 0.95 || missing > 0 || p99 > baselineP99 * KNEE_P99_FACTOR)) {
+                knee = rate;
+            }
+        }
+        System.out.println(knee < 0 ? "No saturation up to " + rates[rates.length - 1] + " orders/sec" :
+            "Saturation knee at " + knee + " orders/sec - latency or send rate broke down here");
+        System.exit(0);
+    }
+
+    // Sends rate * seconds commands on schedule, waits for their reports and returns the achieved send rate
+    private double runStep(int rate, int seconds) {
+        int commands = rate * seconds;
+        step++;
+        pending = new OrderIndex(1 << 16);
+        sent = 0;
+        acked = 0;
+        rejected = 0;
+        ackLatency.reset();
+        fillLatency.reset();
+        long start = System.nanoTime() + 10_000_000;
+        for (int i = 0; i < commands; i++) {
+            long intended = start + i * 1_000_000_000L / rate;
+            while (System.nanoTime() < intended) {
+                reports.poll(16);
+            }
+            send(i, intended);
+            if ((i & 15) == 0) {
+                reports.poll(16);  // Keep up with reports while running behind schedule
+            }
+        }
+        double achieved = commands * 1_000_000_000.0 / (System.nanoTime() - start);
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NS;
+        while (acked < sent && System.nanoTime() < deadline) {
+            reports.poll(256);
+        }
+        cancelLive();
+        return achieved;
+    }
+
+    private void send(int command, long intended) {
+        intendedNs[command] = intended;
+        filled[command] = false;
+        int roll = random.nextInt(PASSIVE_PERCENT + AGGRESSIVE_PERCENT + CANCEL_PERCENT + AMEND_PERCENT);
+        CurrencyPair symbol = symbols[random.nextInt(symbols.length)];
+        byte side = random.nextBoolean() ? Constants.BUY : Constants.SELL;
+        int quantity = 100 * (1 + random.nextInt(10));
+        long clientOrderId = step << STEP_SHIFT | command;
+        long userId = 1 + command % USERS;
+        sent++;
+        if (roll >= PASSIVE_PERCENT + AGGRESSIVE_PERCENT && liveCount > 0) {
+            int live = random.nextInt(liveCount);
+            long orderId = liveIds[live];
+            symbol = liveSymbols[live];
+            side = liveSides[live];
+            removeLive(live);
+            pending.put(orderId, command);
+            if (roll < PASSIVE_PERCENT + AGGRESSIVE_PERCENT + CANCEL_PERCENT) {
+                kinds[command] = CANCEL;
+                engine.cancelOrder(symbol, orderId);
+            } else {
+                kinds[command] = AMEND;
+                engine.modifyOrder(symbol, orderId, passivePrice(symbol, side), quantity);
+            }
+        } else if (roll >= PASSIVE_PERCENT && roll < PASSIVE_PERCENT + AGGRESSIVE_PERCENT) {
+            kinds[command] = AGGRESSIVE;
+            long mid = mid(symbol);
+            long distance = AGGRESSIVE_DISTANCE * symbol.tickSize();
+            engine.submitOrder(symbol, side, side == Constants.BUY ? mid + distance : mid - distance, quantity, userId,
+                clientOrderId);
+        } else {
+            kinds[command] = PASSIVE;  // Also stands in for a cancel or amend while nothing is live
+            engine.submitOrder(symbol, side, passivePrice(symbol, side), quantity, userId, clientOrderId);
+        }
+    }
+
+    private void onReport(ExecutionReportDecoder report) {
+        long now = System.nanoTime();
+        long clientOrderId = report.clientOrderId();
+        int command = (clientOrderId >>> STEP_SHIFT) == step ? (int) (clientOrderId & ((1L << STEP_SHIFT) - 1)) : -1;
+        ExecType execType = report.execType();
+        switch (execType) {
+            case NEW:
+                if (command >= 0) {
+                    ack(command, now);
+                    if (kinds[command] == PASSIVE) {
+                        addLive(report);
+                    }
+                }
+                break;
+            case PARTIAL_FILL:
+            case FILL:
+                if (command >= 0 && kinds[command] == AGGRESSIVE && !filled[command]) {
+                    filled[command] = true;
+                    fillLatency.record(now - intendedNs[command]);
+                }
+                break;
+            case CANCELED:
+            case REPLACED:
+            case REJECTED:
+                int target = pending.remove(report.orderId());
+                if (target != OrderStore.NULL_SLOT) {
+                    ack(target, now);
+                    if (execType == ExecType.REPLACED) {
+                        addLive(report);
+                    }
+                } else if (execType == ExecType.REJECTED && command >= 0) {
+                    ack(command, now);
+                }
+                if (execType == ExecType.REJECTED) {
+                    rejected++;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void ack(int command, long now) {
+        ackLatency.record(now - intendedNs[command]);
+        acked++;
+    }
+
+    // Clears the step's resting quotes so every rate starts from a similar book; not measured
+    private void cancelLive() {
+        for (int i = 0; i < liveCount; i++) {
+            engine.cancelOrder(liveSymbols[i], liveIds[i]);
+        }
+        liveCount = 0;
+        step++;  // Reports for the cancels above, and anything still in flight, no longer match a command
+        long deadline = System.nanoTime() + 500_000_000L;
+        while (System.nanoTime() < deadline) {
+            reports.poll(256);
+        }
+    }
+
+    private void addLive(ExecutionReportDecoder report) {
+        if (liveCount == liveIds.length) {
+            return;
+        }
+        liveIds[liveCount] = report.orderId();
+        liveSymbols[liveCount] = engine.symbols().get(report.symbol());
+        liveSides[liveCount] = report.side();
+        liveCount++;
+    }
+
+    private void removeLive(int live) {
+        liveCount--;
+        liveIds[live] = liveIds[liveCount];
+        liveSymbols[live] = liveSymbols[liveCount];
+        liveSides[live] = liveSides[liveCount];
+    }
+
+    private long passivePrice(CurrencyPair symbol, byte side) {
+        long distance = (1 + random.nextInt(MAX_PASSIVE_DISTANCE)) * symbol.tickSize();
+        return side == Constants.BUY ? mid(symbol) - distance : mid(symbol) + distance;
+    }
+
+    // Synthetic mids on tick, far enough apart that pairs never share a price
+    private static long mid(CurrencyPair symbol) {
+        return (BASE_MID + symbol.id() * 10_000L) / symbol.tickSize() * symbol.tickSize();
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
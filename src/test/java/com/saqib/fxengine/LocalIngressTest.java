@@ -0,0 +1,118 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.MessageHeaderDecoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.NewOrderDecoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalIngressTest {
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final NewOrderEncoder newOrderEncoder = new NewOrderEncoder();
+    private final NewOrderDecoder newOrderDecoder = new NewOrderDecoder();
+
+    @Test
+    void deliversCommandsWithTheirSendTimes() {
+        LocalIngress ingress = new LocalIngress(1024);
+        submit(ingress, newOrderEncoder, headerEncoder, 11, 5_000);
+        submit(ingress, newOrderEncoder, headerEncoder, 12, 0);
+
+        List<long[]> received = new ArrayList<>();
+        assertEquals(1, ingress.poll((buffer, offset, length, sentNs) -> {
+            assertEquals(NewOrderEncoder.encodedLength(), length);
+            headerDecoder.wrap(buffer, offset);
+            assertEquals(NewOrderDecoder.TEMPLATE_ID, headerDecoder.templateId());
+            newOrderDecoder.wrap(buffer, offset + MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength(),
+                headerDecoder.version());
+            received.add(new long[] { newOrderDecoder.clientOrderId(), sentNs });
+        }, 1));
+        assertEquals(1, ingress.poll((buffer, offset, length, sentNs) -> {
+            newOrderDecoder.wrap(buffer, offset + MessageHeaderDecoder.ENCODED_LENGTH, NewOrderEncoder.BLOCK_LENGTH,
+                MessageHeaderEncoder.SCHEMA_VERSION);
+            received.add(new long[] { newOrderDecoder.clientOrderId(), sentNs });
+        }, 10));
+        assertArrayEquals(new long[] { 11, 5_000 }, received.get(0));
+        assertArrayEquals(new long[] { 12, 0 }, received.get(1));
+        assertEquals(0, ingress.poll((buffer, offset, length, sentNs) -> { }, 10));
+    }
+
+    @Test
+    void refusesClaimsWhenFullUntilPolled() {
+        LocalIngress ingress = new LocalIngress(1024);
+        int submitted = 0;
+        while (ingress.tryClaim(NewOrderEncoder.encodedLength()) >= 0) {
+            submitted++;
+        }
+        assertEquals(0, ingress.poll((buffer, offset, length, sentNs) -> { }, 100));  // Claimed but not committed
+        assertEquals(1024 / align(Long.BYTES * 2 + NewOrderEncoder.encodedLength()), submitted);
+    }
+
+    @Test
+    void keepsEachProducersOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        LocalIngress ingress = new LocalIngress(4096);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                NewOrderEncoder encoder = new NewOrderEncoder();
+                MessageHeaderEncoder header = new MessageHeaderEncoder();
+                for (int i = 0; i < perProducer; i++) {
+                    submit(ingress, encoder, header, (long) producer * perProducer + i, 0);
+                }
+            });
+            thread.setDaemon(true);  // So a failed assertion can't leave the test waiting on producers
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] next = new long[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            received += ingress.poll((buffer, offset, length, sentNs) -> {
+                newOrderDecoder.wrap(buffer, offset + MessageHeaderDecoder.ENCODED_LENGTH, NewOrderEncoder.BLOCK_LENGTH,
+                    MessageHeaderEncoder.SCHEMA_VERSION);
+                long clientOrderId = newOrderDecoder.clientOrderId();
+                int producer = (int) (clientOrderId / perProducer);
+                assertEquals(next[producer]++, clientOrderId % perProducer);
+            }, 10);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (long count : next) {
+            assertEquals(perProducer, count);
+        }
+    }
+
+    // As AeronMessaging does: spin on a full buffer, encode in place, then commit
+    private static void submit(LocalIngress ingress, NewOrderEncoder encoder, MessageHeaderEncoder header,
+                               long clientOrderId, long sentNs) {
+        int offset;
+        while ((offset = ingress.tryClaim(NewOrderEncoder.encodedLength())) < 0) {
+            Thread.onSpinWait();
+        }
+        ingress.sentNs(offset, sentNs);
+        encoder.wrapAndApplyHeader(ingress.buffer(), offset, header)
+            .price(110_000)
+            .userId(1)
+            .symbol(0)
+            .quantity(100)
+            .side(Constants.BUY)
+            .clientOrderId(clientOrderId);
+        ingress.commit(offset);
+    }
+
+    // Ring buffer records, header included, take a multiple of 8 bytes
+    private static int align(int length) {
+        return (length + 7) & ~7;
+    }
+}
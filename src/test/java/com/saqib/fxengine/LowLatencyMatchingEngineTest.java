@@ -56,5 +56,54 @@ public class LowLatencyMatchingEngineTest {
         double ms = (end - start) / 1_000_000.0;  // Convert ns to ms
         double ordersPerSec = totalOrders * 1000.0 / ms;  // Orders/sec
         System.out.printf("Processed %d orders in %.2f ms (%.0f orders/sec)%n", totalOrders, ms, ordersPerSec);
+        awaitProcessed(engine, start, totalOrders);
+
+        // Same flow, submitted in bursts through the batch API
+        int batchSize = 64;
+        engine.getCounter().reset();
+        System.out.println("Starting batched run...");
+        start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final int threadId = t;
+            workers[t] = new Thread(() -> {
+                LowLatencyMatchingEngine threadEngine = LowLatencyMatchingEngine.getInstance();
+                OrderBatch batch = threadEngine.newBatch();  // One per thread, reused
+                long basePrice = 123450 + threadId * 250;
+                for (int i = 0; i < ordersPerThread; i++) {
+                    byte side = (i % 2 == 0) ? Constants.BUY : Constants.SELL;
+                    batch.newOrder(CurrencyPair.EUR_USD, side, basePrice + i, 100, 1);
+                    if (batch.size() == batchSize) {
+                        threadEngine.submitBatch(batch);
+                    }
+                }
+                threadEngine.submitBatch(batch);
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) w.join();
+        ms = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("Submitted %d orders in batches of %d in %.2f ms (%.0f orders/sec)%n", totalOrders, batchSize,
+            ms, totalOrders * 1000.0 / ms);
+        awaitProcessed(engine, start, totalOrders);
+        
+        // Per-stage tails, with latencyTracking on in the engine config
+        for (LatencyStage stage : LatencyStage.values()) {
+            LatencyHistogram latency = engine.latencySnapshot(stage);
+            if (latency.count() > 0) {
+                System.out.printf("%-10s %s%n", stage, latency.summary());
+            }
+        }
+    }
+
+    // Submission returns once orders are in the log; this reports when the matching threads have caught up
+    private static void awaitProcessed(LowLatencyMatchingEngine engine, long start, int totalOrders) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (engine.getCounter().getProcessedOrders() < totalOrders && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        long ns = System.nanoTime() - start;
+        long processed = engine.getCounter().getProcessedOrders();
+        System.out.printf("Matched %d orders in %.2f ms (%.1f ns/order)%n", processed, ns / 1_000_000.0,
+            (double) ns / Math.max(1, processed));
     }
 }
\ No newline at end of file
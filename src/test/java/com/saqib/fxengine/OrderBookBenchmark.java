@@ -0,0 +1,63 @@
+package com.saqib.fxengine;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the {@link BookType} implementations on a single-threaded FX-style order flow.
+ * <p>
+ * Each run pre-fills both sides with passive orders around mid, then times a mix of passive adds, aggressive orders
+ * that sweep the touch and cancels. The op stream is generated up front from a fixed seed so every book type sees
+ * exactly the same flow. Bytes allocated per op are reported alongside latency.
+ * </p>
+ */
+public class OrderBookBenchmark {
+    private static final long MID = 123450;
+    private static final int OPS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    private static final byte PASSIVE = 0;
+    private static final byte AGGRESSIVE = 1;
+    private static final byte CANCEL = 2;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(42);
+        byte[] ops = new byte[OPS];
+        byte[] sides = new byte[OPS];
+        long[] prices = new long[OPS];
+        int[] quantities = new int[OPS];
+        long[] cancelIds = new long[OPS];
+        for (int i = 0; i < OPS; i++) {
+            int roll = random.nextInt(100);
+            ops[i] = roll < 45 ? PASSIVE : roll < 75 ? AGGRESSIVE : CANCEL;
+            sides[i] = random.nextBoolean() ? Constants.BUY : Constants.SELL;
+            int distance = ops[i] == AGGRESSIVE ? -random.nextInt(3) : 1 + random.nextInt(50);  // Pips through / away from mid
+            prices[i] = sides[i] == Constants.BUY ? MID - distance : MID + distance;
+            quantities[i] = 100 * (1 + random.nextInt(10));
+            cancelIds[i] = 1 + random.nextInt(i + 1);
+        }
+
+        for (BookType bookType : BookType.values()) {
+            for (int round = 0; round < ROUNDS; round++) {  // Early rounds double as JIT warmup
+                OrderBook book = new OrderBook(CurrencyPair.EUR_USD, bookType, new EngineConfig());
+                long orderId = 1;
+                long startBytes = THREADS.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                for (int i = 0; i < OPS; i++) {
+                    if (ops[i] == CANCEL) {
+                        book.cancelOrder(cancelIds[i]);
+                    } else {
+                        book.addOrder(orderId++, sides[i], prices[i], quantities[i], 1, 0);
+                    }
+                }
+                long elapsed = System.nanoTime() - start;
+                long bytes = THREADS.getCurrentThreadAllocatedBytes() - startBytes;
+                System.out.printf("%-12s round %d: %.1f ns/op (%.0f ops/sec), %.1f bytes/op%n",
+                    bookType, round, (double) elapsed / OPS, OPS * 1_000_000_000.0 / elapsed, (double) bytes / OPS);
+            }
+        }
+    }
+}
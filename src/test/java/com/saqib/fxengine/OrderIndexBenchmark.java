@@ -0,0 +1,79 @@
+package com.saqib.fxengine;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compares {@link OrderIndex} with the {@code ConcurrentHashMap<Long, Order>} it replaced in {@link OrderBook}.
+ * <p>
+ * Keeps a sliding window of live orders - every op inserts a new id, looks up a random live one (cancel/modify) and
+ * removes the oldest (fill) - and reports time, bytes allocated and GC activity per run. Map values are created up
+ * front so only the index's own garbage is measured.
+ * </p>
+ */
+public class OrderIndexBenchmark {
+    private static final int LIVE_ORDERS = 100_000;
+    private static final int OPS = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Object[] orders = new Object[LIVE_ORDERS];  // Stand-ins for the on-heap orders the map used to hold
+        for (int i = 0; i < LIVE_ORDERS; i++) {
+            orders[i] = new Object();
+        }
+        int[] lookups = new SplittableRandom(42).ints(OPS, 0, LIVE_ORDERS).toArray();
+
+        for (int round = 0; round < ROUNDS; round++) {  // Early rounds double as JIT warmup
+            ConcurrentHashMap<Long, Object> map = new ConcurrentHashMap<>(LIVE_ORDERS * 2);
+            long hits = 0;
+            Stats stats = new Stats();
+            for (long id = 0; id < OPS; id++) {
+                map.put(id, orders[(int) (id % LIVE_ORDERS)]);
+                if (map.get(id - lookups[(int) id]) != null) hits++;
+                if (id >= LIVE_ORDERS) map.remove(id - LIVE_ORDERS);
+            }
+            stats.print("ConcurrentHashMap", round, hits);
+
+            OrderIndex index = new OrderIndex(LIVE_ORDERS);
+            hits = 0;
+            stats = new Stats();
+            for (long id = 0; id < OPS; id++) {
+                index.put(id, (int) (id % LIVE_ORDERS));
+                if (index.get(id - lookups[(int) id]) != OrderStore.NULL_SLOT) hits++;
+                if (id >= LIVE_ORDERS) index.remove(id - LIVE_ORDERS);
+            }
+            stats.print("OrderIndex", round, hits);
+        }
+    }
+
+    private static class Stats {
+        private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final long startBytes = threads.getCurrentThreadAllocatedBytes();
+        private final long startCollections = collections();
+        private final long startGcMillis = gcMillis();
+        private final long start = System.nanoTime();
+
+        void print(String name, int round, long hits) {
+            long elapsed = System.nanoTime() - start;
+            long bytes = threads.getCurrentThreadAllocatedBytes() - startBytes;
+            System.out.printf("%-17s round %d: %.1f ns/op, %.1f bytes/op, %d GCs (%d ms) [hits %d]%n",
+                name, round, (double) elapsed / OPS, (double) bytes / OPS,
+                collections() - startCollections, gcMillis() - startGcMillis, hits);
+        }
+
+        private static long collections() {
+            long total = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) total += gc.getCollectionCount();
+            return total;
+        }
+
+        private static long gcMillis() {
+            long total = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) total += gc.getCollectionTime();
+            return total;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.saqib.fxengine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderIndexTest {
+
+    @Test
+    void removingFromAChainThatWrapsPullsTheRestBackIntoReach() {
+        OrderIndex index = new OrderIndex(4);  // 8 entries, so at most 4 keys before a resize
+        assertEquals(8, index.capacity());
+        long[] lastHome = idsWithHome(7, 3, 8);
+        long firstHome = idsWithHome(0, 1, 8)[0];
+        for (int i = 0; i < lastHome.length; i++) {
+            index.put(lastHome[i], i);  // Entries 7, 0 and 1
+        }
+        index.put(firstHome, 3);  // Displaced to entry 2
+        assertEquals(4, index.size());
+
+        assertEquals(0, index.remove(lastHome[0]));  // Every later entry shifts back across the wrap
+        assertEquals(OrderStore.NULL_SLOT, index.get(lastHome[0]));
+        assertEquals(1, index.get(lastHome[1]));
+        assertEquals(2, index.get(lastHome[2]));
+        assertEquals(3, index.get(firstHome));
+
+        assertEquals(2, index.remove(lastHome[2]));  // From the middle of the chain
+        assertEquals(1, index.get(lastHome[1]));
+        assertEquals(3, index.get(firstHome));
+        assertEquals(OrderStore.NULL_SLOT, index.remove(lastHome[2]));
+        assertEquals(2, index.size());
+        assertEquals(8, index.capacity());
+    }
+
+    @Test
+    void doublesWhenTheEstimateIsExceededAndKeepsEveryKey() {
+        OrderIndex index = new OrderIndex(4);
+        for (int slot = 0; slot < 100; slot++) {
+            index.put(1_000 + slot * 16L, slot);  // Strided ids, as one shard of several hands out
+        }
+        assertEquals(100, index.size());
+        assertEquals(256, index.capacity());
+        for (int slot = 0; slot < 100; slot++) {
+            assertEquals(slot, index.get(1_000 + slot * 16L));
+        }
+        index.put(1_000, 500);  // Replaces rather than adds
+        assertEquals(500, index.get(1_000));
+        assertEquals(100, index.size());
+    }
+
+    @Test
+    void matchesAMapUnderChurn() {
+        OrderIndex index = new OrderIndex(16);
+        Map<Long, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 200_000; i++) {
+            long orderId = random.nextInt(64);  // Few keys in a small table, so chains collide and wrap constantly
+            if (random.nextBoolean()) {
+                index.put(orderId, i);
+                expected.put(orderId, i);
+            } else {
+                assertEquals(expected.getOrDefault(orderId, OrderStore.NULL_SLOT), index.remove(orderId));
+                expected.remove(orderId);
+            }
+            assertEquals(expected.size(), index.size());
+        }
+        for (long orderId = 0; orderId < 64; orderId++) {
+            assertEquals(expected.getOrDefault(orderId, OrderStore.NULL_SLOT), index.get(orderId));
+        }
+    }
+
+    // The first count ids whose home entry in a table of the given capacity is home
+    private static long[] idsWithHome(int home, int count, int capacity) {
+        long[] ids = new long[count];
+        int found = 0;
+        for (long id = 1; found < count; id++) {
+            if ((OrderIndex.hash(id) & (capacity - 1)) == home) {
+                ids[found++] = id;
+            }
+        }
+        return ids;
+    }
+}
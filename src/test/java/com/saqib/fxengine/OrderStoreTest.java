@@ -0,0 +1,79 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStoreTest {
+    private static final int CAPACITY = 8;
+
+    private final OrderStore store = new OrderStore(CAPACITY, SymbolRegistry.DEFAULT);
+
+    @Test
+    void handsOutEverySlotOnceThenReportsFull() {
+        Set<Integer> slots = new HashSet<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            int slot = store.allocate();
+            assertTrue(slot >= 0 && slot < CAPACITY);
+            assertTrue(slots.add(slot));
+        }
+        assertEquals(CAPACITY, store.size());
+        assertEquals(OrderStore.NULL_SLOT, store.allocate());
+        assertEquals(CAPACITY, store.size());
+    }
+
+    @Test
+    void reusesFreedSlotsBeforeReportingFullAgain() {
+        for (int i = 0; i < CAPACITY; i++) {
+            store.allocate();
+        }
+        store.free(2);
+        store.free(5);
+        assertEquals(CAPACITY - 2, store.size());
+
+        assertEquals(5, store.allocate());  // Most recently freed first
+        assertEquals(2, store.allocate());
+        assertEquals(OrderStore.NULL_SLOT, store.allocate());
+        assertEquals(CAPACITY, store.size());
+    }
+
+    @Test
+    void initOverwritesEveryFieldOfAReusedSlot() {
+        int slot = store.allocate();
+        store.init(slot, 7, CurrencyPair.GBP_USD, Constants.SELL, 127_000, 900, 3, 1_000,
+            OrderType.LIMIT, TimeInForce.IOC, 55);
+        store.prev(slot, 4);
+        store.remainingQuantity(slot, 100);
+        store.free(slot);
+
+        assertEquals(slot, store.allocate());
+        store.init(slot, 8, CurrencyPair.EUR_USD, Constants.BUY, 110_000, 500, 4, 2_000);
+        assertEquals(8, store.orderId(slot));
+        assertEquals(CurrencyPair.EUR_USD, store.symbol(slot));
+        assertEquals(Constants.BUY, store.side(slot));
+        assertEquals(110_000, store.price(slot));
+        assertEquals(500, store.originalQuantity(slot));
+        assertEquals(500, store.remainingQuantity(slot));
+        assertEquals(4, store.userId(slot));
+        assertEquals(2_000, store.timestamp(slot));
+        assertEquals(OrderType.LIMIT, store.orderType(slot));
+        assertEquals(TimeInForce.GTC, store.timeInForce(slot));
+        assertEquals(0, store.clientOrderId(slot));
+        assertEquals(OrderStore.NULL_SLOT, store.prev(slot));
+        assertEquals(OrderStore.NULL_SLOT, store.next(slot));
+    }
+
+    @Test
+    void rejectsCapacitiesOutsideTheAddressableRange() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderStore(0, SymbolRegistry.DEFAULT));
+        assertThrows(IllegalArgumentException.class,
+            () -> new OrderStore(OrderStore.MAX_CAPACITY + 1, SymbolRegistry.DEFAULT));
+    }
+}
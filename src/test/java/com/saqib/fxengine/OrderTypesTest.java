@@ -0,0 +1,148 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.RejectReason;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderTypesTest {
+    private static final long PRICE = 110_000;
+
+    private final OrderBook book = new OrderBook(CurrencyPair.EUR_USD);
+    private final List<String> events = new ArrayList<>();
+    private long nextOrderId = 1;
+
+    OrderTypesTest() {
+        book.setExecutionListener(new ExecutionListener() {
+            @Override
+            public void onNew(Order order) {
+                events.add("NEW " + order.orderId());
+            }
+
+            @Override
+            public void onTrade(Trade trade, Order taker, Order maker) {
+                events.add("TRADE " + trade.quantity() + "@" + trade.price());
+            }
+
+            @Override
+            public void onExpired(Order order) {
+                events.add("EXPIRED " + order.orderId() + " " + order.remainingQuantity());
+            }
+
+            @Override
+            public void onRejected(long orderId, long clientOrderId, long userId, CurrencyPair symbol, byte side,
+                                   long price, int quantity, RejectReason reason) {
+                events.add("REJECTED " + orderId + " " + reason);
+            }
+        });
+    }
+
+    @Test
+    void iocRemainderExpiresWithoutResting() {
+        rest(Constants.SELL, PRICE, 300);
+        events.clear();
+        long orderId = add(Constants.BUY, PRICE, 500, OrderType.LIMIT, TimeInForce.IOC);
+        assertEquals(List.of("NEW " + orderId, "TRADE 300@" + PRICE, "EXPIRED " + orderId + " 200"), events);
+        assertEquals(0, quantity(Constants.BUY));
+        assertEquals(0, quantity(Constants.SELL));
+        assertFalse(book.getOrder(orderId, new Order()));
+    }
+
+    @Test
+    void fokShortOfLiquidityLeavesTheBookUntouched() {
+        long resting = rest(Constants.SELL, PRICE, 300);
+        rest(Constants.SELL, PRICE + 1, 300);
+        rest(Constants.SELL, PRICE + 2, 300);
+        events.clear();
+        long orderId = add(Constants.BUY, PRICE + 1, 601, OrderType.LIMIT, TimeInForce.FOK);
+        assertEquals(List.of("NEW " + orderId, "EXPIRED " + orderId + " 601"), events);
+        Order order = new Order();
+        assertTrue(book.getOrder(resting, order));
+        assertEquals(300, order.remainingQuantity());
+        assertEquals(900, quantity(Constants.SELL));
+    }
+
+    @Test
+    void fokFillsAcrossLevels() {
+        rest(Constants.SELL, PRICE, 300);
+        rest(Constants.SELL, PRICE + 1, 300);
+        events.clear();
+        long orderId = add(Constants.BUY, PRICE + 1, 600, OrderType.LIMIT, TimeInForce.FOK);
+        assertEquals(List.of("NEW " + orderId, "TRADE 300@" + PRICE, "TRADE 300@" + (PRICE + 1)), events);
+        assertEquals(0, quantity(Constants.SELL));
+    }
+
+    @Test
+    void marketOrderStopsAtTheBand() {
+        book.addOrder(nextOrderId++, Constants.BUY, PRICE, 100, 2, 0);
+        book.addOrder(nextOrderId++, Constants.BUY, PRICE - 551, 100, 2, 0);  // Just beyond 50 bps of the touch
+        events.clear();
+        long orderId = add(Constants.SELL, 0, 300, OrderType.MARKET, TimeInForce.GTC);
+        assertEquals(List.of("NEW " + orderId, "TRADE 100@" + PRICE, "EXPIRED " + orderId + " 200"), events);
+        assertEquals(100, quantity(Constants.BUY));
+        assertEquals(0, quantity(Constants.SELL));
+    }
+
+    @Test
+    void marketOrderWithoutLiquidityIsRejected() {
+        long orderId = add(Constants.BUY, 0, 100, OrderType.MARKET, TimeInForce.IOC);
+        assertEquals(List.of("REJECTED " + orderId + " " + RejectReason.NO_LIQUIDITY), events);
+    }
+
+    @Test
+    void clientOrderIdSurvivesARepricedAmendment() {
+        book.addOrder(nextOrderId, Constants.BUY, PRICE, 100, 1, 0, OrderType.LIMIT, TimeInForce.GTC, 77);
+        long orderId = nextOrderId++;
+        assertTrue(book.modifyOrder(orderId, PRICE - 1, 50));
+        Order order = new Order();
+        assertTrue(book.getOrder(orderId, order));
+        assertEquals(77, order.clientOrderId());
+    }
+
+    @Test
+    void nonPositivePricesAreRejectedOnEveryBookType() {
+        for (BookType bookType : BookType.values()) {
+            OrderBook book = new OrderBook(CurrencyPair.EUR_USD, bookType, new EngineConfig());
+            List<RejectReason> rejects = new ArrayList<>();
+            book.setExecutionListener(new ExecutionListener() {
+                @Override
+                public void onRejected(long orderId, long clientOrderId, long userId, CurrencyPair symbol, byte side,
+                                       long price, int quantity, RejectReason reason) {
+                    rejects.add(reason);
+                }
+            });
+            assertFalse(book.addOrder(1, Constants.BUY, 0, 100, 1, 0));
+            assertFalse(book.addOrder(2, Constants.SELL, -PRICE, 100, 1, 0));
+            assertFalse(book.addOrder(3, Constants.BUY, -PRICE, 100, 1, 0, OrderType.LIMIT, TimeInForce.IOC));
+            assertTrue(book.addOrder(4, Constants.BUY, PRICE, 100, 1, 0));
+            assertFalse(book.modifyOrder(4, 0, 100, 0));
+            assertFalse(book.modifyOrder(4, -PRICE, 100, 0));
+            assertEquals(List.of(RejectReason.INVALID_PRICE, RejectReason.INVALID_PRICE, RejectReason.INVALID_PRICE,
+                RejectReason.INVALID_PRICE, RejectReason.INVALID_PRICE), rejects, bookType.name());
+            assertEquals(PRICE, book.bestBid(), bookType.name());
+        }
+    }
+
+    private int quantity(byte side) {
+        int[] total = new int[1];
+        book.forEachLevel(side, (levelSide, price, quantity, orderCount) -> total[0] += quantity);
+        return total[0];
+    }
+
+    private long rest(byte side, long price, int quantity) {
+        return add(side, price, quantity, OrderType.LIMIT, TimeInForce.GTC);
+    }
+
+    private long add(byte side, long price, int quantity, OrderType orderType, TimeInForce timeInForce) {
+        long orderId = nextOrderId++;
+        book.addOrder(orderId, side, price, quantity, 1, 0, orderType, timeInForce);
+        return orderId;
+    }
+}
@@ -0,0 +1,179 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.RejectReason;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceLadderBookSideTest {
+    private static final long TICK = 10;
+
+    @Test
+    void growsTheRingWhileLevelsRestAndRefusesASpanPastMaxLevels() {
+        Sides bids = new Sides(Constants.BUY, 4, 16);
+        for (long tick = 100; tick <= 103; tick++) {
+            bids.add(tick * TICK);  // Fills the ring of 4
+        }
+        bids.add(104 * TICK);  // Grows to 8
+        bids.add(108 * TICK);  // Grows to 16, with an empty tick between
+        bids.check(95 * TICK, 120 * TICK);
+        assertEquals(108 * TICK, bids.ladder.best().getPrice());
+
+        assertFalse(bids.ladder.accepts(116 * TICK));  // 17 ticks from 100
+        assertTrue(bids.ladder.accepts(115 * TICK));  // Exactly 16
+        assertFalse(bids.ladder.accepts(92 * TICK));  // 17 ticks to 108
+        assertTrue(bids.ladder.accepts(93 * TICK));
+        assertFalse(bids.ladder.accepts(115 * TICK + 1));  // Off tick
+        bids.add(115 * TICK);
+        assertFalse(bids.ladder.accepts(99 * TICK));
+        bids.check(95 * TICK, 120 * TICK);
+
+        while (!bids.resting.isEmpty()) {
+            bids.removeOldest();  // Low end first, so the span shrinks from below
+            bids.check(95 * TICK, 120 * TICK);
+        }
+        assertTrue(bids.ladder.accepts(200 * TICK));  // Anything goes once empty
+    }
+
+    @Test
+    void matchesTheSortedMapBookAsPricesDriftAroundTheRing() {
+        for (byte side : new byte[] { Constants.BUY, Constants.SELL }) {
+            Sides sides = new Sides(side, 4, 64);
+            SplittableRandom random = new SplittableRandom(side);
+            long mid = 1_000;
+            int refused = 0;
+            for (int i = 0; i < 20_000; i++) {
+                mid += random.nextInt(-1, 3);  // Drifts up about 10,000 ticks, over 150 laps of the largest ring
+                if (random.nextInt(10) < 5 || sides.resting.isEmpty()) {
+                    long price = (mid + random.nextInt(-8, 9)) * TICK;
+                    if (sides.ladder.accepts(price)) {
+                        sides.add(price);
+                    } else {
+                        refused++;
+                    }
+                } else if (random.nextBoolean()) {
+                    sides.removeOldest();
+                } else {
+                    sides.remove(random.nextInt(sides.resting.size()));
+                }
+                sides.check((mid - 80) * TICK, (mid + 80) * TICK);
+            }
+            assertTrue(refused > 0, "no order widened the span to maxLevels");
+        }
+    }
+
+    @Test
+    void theBookRejectsAnOrderWideningTheLadderToMaxLevels() {
+        EngineConfig config = new EngineConfig().ladderInitialLevels(4).ladderMaxLevels(16);
+        OrderBook book = new OrderBook(CurrencyPair.EUR_USD, BookType.PRICE_LADDER, config);
+        List<RejectReason> rejects = new ArrayList<>();
+        book.setExecutionListener(new ExecutionListener() {
+            @Override
+            public void onRejected(long orderId, long clientOrderId, long userId, CurrencyPair symbol, byte side,
+                                   long price, int quantity, RejectReason reason) {
+                rejects.add(reason);
+            }
+        });
+        assertTrue(book.addOrder(1, Constants.BUY, 110_000, 100, 1, 0));
+        assertTrue(book.addOrder(2, Constants.BUY, 110_015, 100, 1, 0));  // Span of 16, grown from 4
+        assertFalse(book.addOrder(3, Constants.BUY, 109_999, 100, 1, 0));
+        assertFalse(book.modifyOrder(1, 110_016, 100, 0));
+        assertEquals(List.of(RejectReason.INVALID_PRICE, RejectReason.INVALID_PRICE), rejects);
+
+        assertTrue(book.addOrder(4, Constants.SELL, 120_000, 100, 1, 0));  // The other side has its own span
+        assertTrue(book.cancelOrder(1));
+        assertTrue(book.addOrder(5, Constants.BUY, 110_016, 100, 1, 0));
+        assertEquals(110_016, book.bestBid());
+    }
+
+    // The same levels on a ladder and on the sorted map, each with its own store; every resting order is one lot
+    private static final class Sides {
+        final OrderStore ladderStore = new OrderStore(1024, SymbolRegistry.DEFAULT);
+        final OrderStore mapStore = new OrderStore(1024, SymbolRegistry.DEFAULT);
+        final PriceLadderBookSide ladder;
+        final SortedMapBookSide map;
+        final byte side;
+        final Deque<long[]> resting = new ArrayDeque<>();  // Price and slot in each store, oldest first
+        long nextOrderId = 1;
+
+        Sides(byte side, int initialLevels, int maxLevels) {
+            this.side = side;
+            this.ladder = new PriceLadderBookSide(side, TICK, initialLevels, maxLevels, ladderStore);
+            this.map = new SortedMapBookSide(side, mapStore);
+        }
+
+        void add(long price) {
+            assertTrue(ladder.accepts(price));
+            long orderId = nextOrderId++;
+            resting.add(new long[] { price, add(ladder, ladderStore, orderId, price), add(map, mapStore, orderId,
+                price) });
+        }
+
+        private int add(BookSide levels, OrderStore store, long orderId, long price) {
+            int slot = store.allocate();
+            store.init(slot, orderId, CurrencyPair.EUR_USD, side, price, 1, 1, orderId);
+            levels.getOrCreate(price).addOrder(slot);
+            return slot;
+        }
+
+        void removeOldest() {
+            remove(resting.removeFirst());
+        }
+
+        void remove(int index) {
+            List<long[]> orders = new ArrayList<>(resting);
+            long[] order = orders.remove(index);
+            resting.clear();
+            resting.addAll(orders);
+            remove(order);
+        }
+
+        private void remove(long[] order) {
+            remove(ladder, ladderStore, order[0], (int) order[1]);
+            remove(map, mapStore, order[0], (int) order[2]);
+        }
+
+        private static void remove(BookSide levels, OrderStore store, long price, int slot) {
+            PriceLevel level = levels.get(price);
+            level.removeOrder(slot);
+            store.free(slot);
+            if (level.isEmpty()) {
+                levels.remove(level);
+            }
+        }
+
+        // Same best, same levels walking from it, and the same answer from get at every tick in the range
+        void check(long from, long to) {
+            assertEquals(levels(map), levels(ladder));
+            assertEquals(map.size(), ladder.size());
+            assertEquals(map.isEmpty(), ladder.isEmpty());
+            for (long price = from; price <= to; price += TICK) {
+                PriceLevel expected = map.get(price);
+                PriceLevel actual = ladder.get(price);
+                if (expected == null) {
+                    assertNull(actual, "level at " + price);
+                } else {
+                    assertEquals(expected.getOrderCount(), actual.getOrderCount(), "level at " + price);
+                    assertEquals(price, actual.getPrice());
+                }
+            }
+        }
+
+        private static List<String> levels(BookSide levels) {
+            List<String> prices = new ArrayList<>();
+            for (PriceLevel level = levels.best(); level != null; level = levels.next(level)) {
+                prices.add(level.getPrice() + "x" + level.getOrderCount());
+            }
+            return prices;
+        }
+    }
+}
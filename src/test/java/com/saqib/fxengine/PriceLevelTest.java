@@ -0,0 +1,92 @@
+package com.saqib.fxengine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceLevelTest {
+    private static final long PRICE = 110_000;
+
+    private final OrderStore store = new OrderStore(16, SymbolRegistry.DEFAULT);
+    private final PriceLevel level = new PriceLevel(PRICE, store);
+
+    @Test
+    void unlinksTheHeadTheMiddleAndTheTailKeepingTimePriority() {
+        int[] slots = new int[5];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = add(i + 1, 100 * (i + 1));
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), orderIds());
+        assertEquals(1_500, level.getTotalQuantity());
+
+        level.removeOrder(slots[2]);  // Middle
+        assertEquals(List.of(1L, 2L, 4L, 5L), orderIds());
+        level.removeOrder(slots[0]);  // Head
+        assertEquals(List.of(2L, 4L, 5L), orderIds());
+        level.removeOrder(slots[4]);  // Tail
+        assertEquals(List.of(2L, 4L), orderIds());
+        assertEquals(2, level.getOrderCount());
+        assertEquals(600, level.getTotalQuantity());
+
+        add(6, 50);  // Appends after the new tail
+        assertEquals(List.of(2L, 4L, 6L), orderIds());
+        assertEquals(650, level.getTotalQuantity());
+    }
+
+    @Test
+    void removingTheOnlyOrderEmptiesTheLevel() {
+        int slot = add(1, 100);
+        level.removeOrder(slot);
+        assertTrue(level.isEmpty());
+        assertEquals(OrderStore.NULL_SLOT, level.getFirstOrderSlot());
+        assertEquals(0, level.getOrderCount());
+        assertEquals(0, level.getTotalQuantity());
+
+        level.removeOrder(slot);  // No longer resting, so ignored
+        assertEquals(0, level.getOrderCount());
+
+        add(2, 300);
+        assertEquals(List.of(2L), orderIds());
+        assertEquals(300, level.getTotalQuantity());
+    }
+
+    @Test
+    void totalQuantityFollowsPartialFillsAndAmends() {
+        int first = add(1, 500);
+        int second = add(2, 200);
+        level.updateQuantity(first, 350);  // Partial fill
+        assertEquals(550, level.getTotalQuantity());
+        level.updateQuantity(second, 400);  // Amended up
+        assertEquals(750, level.getTotalQuantity());
+        assertEquals(400, store.remainingQuantity(second));
+
+        level.removeOrder(first);  // Takes its remaining quantity, not its original
+        assertEquals(400, level.getTotalQuantity());
+        level.updateQuantity(second, 0);
+        assertEquals(0, level.getTotalQuantity());
+    }
+
+    private int add(long orderId, int quantity) {
+        int slot = store.allocate();
+        store.init(slot, orderId, CurrencyPair.EUR_USD, Constants.BUY, PRICE, quantity, 1, orderId);
+        level.addOrder(slot);
+        return slot;
+    }
+
+    // Walks the FIFO from the head, checking the back links on the way
+    private List<Long> orderIds() {
+        List<Long> orderIds = new ArrayList<>();
+        int prev = OrderStore.NULL_SLOT;
+        for (int slot = level.getFirstOrderSlot(); slot != OrderStore.NULL_SLOT; slot = store.next(slot)) {
+            assertEquals(prev, store.prev(slot));
+            orderIds.add(store.orderId(slot));
+            prev = slot;
+        }
+        assertEquals(orderIds.size(), level.getOrderCount());
+        return orderIds;
+    }
+}
@@ -0,0 +1,137 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.RejectReason;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RiskEngineTest {
+    private static final long TRADER = 1;
+    private static final long OTHER = 2;
+    private static final long PRICE = 110_000;  // 1.10000
+
+    private final RiskLimits limits = new RiskLimits();
+    private final RiskEngine risk = new RiskEngine(new RiskConfig(new RiskLimits()).user(TRADER, limits),
+        ExecutionListener.NO_OP);
+    private final OrderBook book = new OrderBook(CurrencyPair.EUR_USD);
+    private long nextOrderId = 1;
+
+    RiskEngineTest() {
+        book.setExecutionListener(risk);
+    }
+
+    @Test
+    void rejectsOversizedOrders() {
+        limits.maxOrderQuantity(1_000);
+        assertEquals(RejectReason.NONE, check(Constants.BUY, PRICE, 1_000));
+        assertEquals(RejectReason.ORDER_SIZE_LIMIT, check(Constants.BUY, PRICE, 1_001));
+        assertEquals(RejectReason.NONE,
+            risk.checkNewOrder(OTHER, CurrencyPair.EUR_USD, Constants.BUY, PRICE, 1_001, 0));
+    }
+
+    @Test
+    void openNotionalFollowsRestingOrders() {
+        limits.maxOpenNotional(1_100);
+        long orderId = add(TRADER, Constants.BUY, PRICE, 600);
+        assertEquals(660, risk.openNotional(TRADER));
+        assertEquals(RejectReason.NONE, check(Constants.SELL, PRICE, 400));
+        assertEquals(RejectReason.OPEN_NOTIONAL_LIMIT, check(Constants.SELL, PRICE, 401));
+        book.modifyOrder(orderId, PRICE, 200);
+        assertEquals(220, risk.openNotional(TRADER));
+        assertEquals(RejectReason.NONE, check(Constants.SELL, PRICE, 800));
+        book.cancelOrder(orderId);
+        assertEquals(0, risk.openNotional(TRADER));
+    }
+
+    @Test
+    void openNotionalIsInUsdAcrossPairs() {
+        CurrencyPair eurGbp = new CurrencyPair(3, "EUR_GBP", Constants.PRICE_SCALE, 1, 1, Integer.MAX_VALUE, 1, 1.25);
+        limits.maxOpenNotional(2_000);
+        add(TRADER, Constants.BUY, PRICE, 1_000);  // 1,100 USD
+        assertEquals(RejectReason.NONE,
+            risk.checkNewOrder(TRADER, CurrencyPair.USD_JPY, Constants.SELL, 150_000, 900, 0));
+        assertEquals(RejectReason.OPEN_NOTIONAL_LIMIT,
+            risk.checkNewOrder(TRADER, CurrencyPair.USD_JPY, Constants.SELL, 150_000, 901, 0));
+        assertEquals(RejectReason.NONE, risk.checkNewOrder(TRADER, eurGbp, Constants.BUY, 85_000, 847, 0));  // 899.94
+        assertEquals(RejectReason.OPEN_NOTIONAL_LIMIT,
+            risk.checkNewOrder(TRADER, eurGbp, Constants.BUY, 85_000, 848, 0));
+    }
+
+    @Test
+    void fillsMoveBothCurrencies() {
+        add(TRADER, Constants.BUY, PRICE, 1_000);
+        add(OTHER, Constants.SELL, PRICE, 400);
+        assertEquals(400, risk.position(TRADER, Currency.EUR));
+        assertEquals(-440, risk.position(TRADER, Currency.USD));
+        assertEquals(-400, risk.position(OTHER, Currency.EUR));
+        assertEquals(440, risk.position(OTHER, Currency.USD));
+        assertEquals(660, risk.openNotional(TRADER));
+        assertEquals(0, risk.openNotional(OTHER));
+    }
+
+    @Test
+    void positionLimitCountsLiveOrdersAsFilled() {
+        limits.maxPosition(Currency.EUR, 1_000);
+        add(TRADER, Constants.BUY, PRICE, 600);
+        add(OTHER, Constants.SELL, PRICE, 300);  // TRADER is long 300 with 300 more bid
+        assertEquals(RejectReason.POSITION_LIMIT, check(Constants.BUY, PRICE, 401));
+        assertEquals(RejectReason.NONE, check(Constants.BUY, PRICE, 400));
+        assertEquals(RejectReason.NONE, check(Constants.SELL, PRICE + 10, 1_300));  // Short 1,000 at worst
+        assertEquals(RejectReason.POSITION_LIMIT, check(Constants.SELL, PRICE + 10, 1_301));
+    }
+
+    @Test
+    void quoteCurrencyIsLimitedAtTheLimitPrice() {
+        limits.maxPosition(Currency.USD, 1_100);
+        assertEquals(RejectReason.NONE, check(Constants.BUY, PRICE, 1_000));  // Pays 1,100 USD
+        assertEquals(RejectReason.POSITION_LIMIT, check(Constants.BUY, PRICE + 1, 1_000));
+    }
+
+    @Test
+    void amendmentsAreCheckedAgainstTheReplacement() {
+        limits.maxOrderQuantity(1_000).maxOpenNotional(1_700);
+        long orderId = add(TRADER, Constants.BUY, PRICE, 800);
+        add(TRADER, Constants.SELL, PRICE + 10, 600);
+        Order order = new Order();
+        book.getOrder(orderId, order);
+        assertEquals(RejectReason.NONE, risk.checkModify(order, PRICE - 10, 900, 0));
+        assertEquals(RejectReason.OPEN_NOTIONAL_LIMIT, risk.checkModify(order, PRICE, 1_000, 0));
+        assertEquals(RejectReason.ORDER_SIZE_LIMIT, risk.checkModify(order, PRICE, 1_001, 0));
+        assertEquals(RejectReason.NONE, risk.checkModify(order, PRICE, 0, 0));
+        assertEquals(1_540, risk.openNotional(TRADER));  // 880 + 660.06
+    }
+
+    @Test
+    void orderRateAllowsOneSecondBurstThenSustainedRate() {
+        limits.maxOrdersPerSecond(10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(RejectReason.NONE, check(Constants.BUY, PRICE, 1, 0));
+        }
+        assertEquals(RejectReason.ORDER_RATE_LIMIT, check(Constants.BUY, PRICE, 1, 0));
+        assertEquals(RejectReason.ORDER_RATE_LIMIT, check(Constants.BUY, PRICE, 1, 99_000_000));
+        assertEquals(RejectReason.NONE, check(Constants.BUY, PRICE, 1, 100_000_000));
+        assertEquals(RejectReason.ORDER_RATE_LIMIT, check(Constants.BUY, PRICE, 1, 100_000_000));
+    }
+
+    @Test
+    void newLimitsApplyFromTheNextCheck() {
+        add(TRADER, Constants.BUY, PRICE, 500);
+        risk.config(new RiskConfig(new RiskLimits().maxOpenNotional(660)));
+        assertEquals(RejectReason.OPEN_NOTIONAL_LIMIT, check(Constants.BUY, PRICE, 101));
+        assertEquals(550, risk.openNotional(TRADER));
+    }
+
+    private RejectReason check(byte side, long price, int quantity) {
+        return check(side, price, quantity, 0);
+    }
+
+    private RejectReason check(byte side, long price, int quantity, long nowNs) {
+        return risk.checkNewOrder(TRADER, CurrencyPair.EUR_USD, side, price, quantity, nowNs);
+    }
+
+    private long add(long userId, byte side, long price, int quantity) {
+        long orderId = nextOrderId++;
+        book.addOrder(orderId, side, price, quantity, userId, 0);
+        return orderId;
+    }
+}
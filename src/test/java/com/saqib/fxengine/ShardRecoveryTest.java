@@ -0,0 +1,175 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.CancelOrderEncoder;
+import com.saqib.fxengine.codec.MessageHeaderEncoder;
+import com.saqib.fxengine.codec.ModifyOrderEncoder;
+import com.saqib.fxengine.codec.NewOrderEncoder;
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.agrona.ExpandableArrayBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRecoveryTest {
+    private static final CurrencyPair[] SYMBOLS = { CurrencyPair.EUR_USD, CurrencyPair.GBP_USD };
+    private static final int USERS = 4;
+    private static final long PRICE = 110_000;
+
+    private final EngineConfig config = new EngineConfig().snapshotIntervalSeconds(0);  // Snapshot on every poll
+    private final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(128);
+    private final MessageHeaderEncoder header = new MessageHeaderEncoder();
+    private final NewOrderEncoder newOrder = new NewOrderEncoder();
+    private final CancelOrderEncoder cancelOrder = new CancelOrderEncoder();
+    private final ModifyOrderEncoder modifyOrder = new ModifyOrderEncoder();
+    private final SplittableRandom random = new SplittableRandom(7);
+    private final List<long[]> sent = new ArrayList<>();  // Order id and symbol of every new order
+    private long clock;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void snapshotPlusJournalTailMatchesAShardThatNeverRestarted() {
+        Shard live = new Shard();
+        long[] snapshotSeqNos = run(live);
+
+        Shard recovered = new Shard();
+        assertEquals(snapshotSeqNos[1], recovered.recover());
+        assertEquals(live.state(), recovered.state());
+    }
+
+    @Test
+    void retiresJournalSegmentsBeforeTheOldestSnapshotKept() throws IOException {
+        config.journalArchiveDir(dir.resolve("archive").toString());
+        long[] snapshotSeqNos = run(new Shard());
+        List<Long> segments = Journal.segments(dir);
+        assertTrue(segments.get(0) > 1);
+        assertTrue(segments.get(0) <= snapshotSeqNos[0] + 1);  // Falling back to the older snapshot can still replay
+        List<Long> archived = Journal.segments(dir.resolve("archive").resolve("shard-0"));
+        assertEquals(1, archived.get(0));
+        assertTrue(archived.get(archived.size() - 1) < segments.get(0));
+    }
+
+    @Test
+    void fallsBackToTheSnapshotBeforeWhenTheNewestIsDamaged() throws IOException {
+        Shard live = new Shard();
+        long[] snapshotSeqNos = run(live);
+        Path newest = ShardSnapshot.file(dir, snapshotSeqNos[1]);
+        byte[] bytes = Files.readAllBytes(newest);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(newest, bytes);
+
+        Shard recovered = new Shard();
+        assertEquals(snapshotSeqNos[0], recovered.recover());  // Then a longer journal tail
+        assertEquals(live.state(), recovered.state());
+
+        Path older = ShardSnapshot.file(dir, snapshotSeqNos[0]);
+        Files.write(older, new byte[] { 1, 2, 3 });
+        assertThrows(IllegalStateException.class, () -> new Shard().recover());
+    }
+
+    // Three rounds of flow with a snapshot after each of the first two, so recovery has a journal tail to replay
+    private long[] run(Shard live) {
+        long[] snapshotSeqNos = new long[2];
+        Snapshotter snapshotter = new Snapshotter(0, dir, config);
+        try (Journal journal = Journal.open(dir, 16 * 1024, JournalForcePolicy.NONE, 0)) {  // Several per round
+            live.processor.journal(journal);
+            snapshotter.onStart();
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < 500; i++) {
+                    submit(live);
+                }
+                if (round < 2) {
+                    assertTrue(snapshotter.doWork() > 0);
+                    snapshotSeqNos[round] = journal.lastSeqNo();
+                }
+            }
+        } finally {
+            snapshotter.onClose();
+        }
+        assertTrue(Files.exists(ShardSnapshot.file(dir, snapshotSeqNos[0])));
+        assertTrue(Files.exists(ShardSnapshot.file(dir, snapshotSeqNos[1])));
+        return snapshotSeqNos;
+    }
+
+    // Mostly limit orders near the touch from several users, so positions move, with cancels, amends and some IOCs
+    private void submit(Shard shard) {
+        int action = random.nextInt(10);
+        if (action < 2 && !sent.isEmpty()) {
+            long[] order = sent.get(random.nextInt(sent.size()));
+            cancelOrder.wrapAndApplyHeader(buffer, 0, header).orderId(order[0]).symbol((int) order[1]);
+            shard.processor.onMessage(buffer, 0, CancelOrderEncoder.encodedLength(), 0);
+        } else if (action < 3 && !sent.isEmpty()) {
+            long[] order = sent.get(random.nextInt(sent.size()));
+            modifyOrder.wrapAndApplyHeader(buffer, 0, header)
+                .orderId(order[0])
+                .symbol((int) order[1])
+                .newPrice(PRICE + random.nextInt(-5, 6))
+                .newQuantity(100 * random.nextInt(1, 10));
+            shard.processor.onMessage(buffer, 0, ModifyOrderEncoder.encodedLength(), 0);
+        } else {
+            int symbol = SYMBOLS[random.nextInt(SYMBOLS.length)].id();
+            newOrder.wrapAndApplyHeader(buffer, 0, header)
+                .price(PRICE + random.nextInt(-5, 6))
+                .userId(1 + random.nextInt(USERS))
+                .symbol(symbol)
+                .quantity(100 * random.nextInt(1, 10))
+                .side(random.nextBoolean() ? Constants.BUY : Constants.SELL)
+                .orderType(OrderType.LIMIT)
+                .timeInForce(action == 9 ? TimeInForce.IOC : TimeInForce.GTC)
+                .clientOrderId(sent.size());
+            shard.processor.onMessage(buffer, 0, NewOrderEncoder.encodedLength(), 0);
+            sent.add(new long[] { shard.orderIds.lastOrderId(), symbol });
+        }
+    }
+
+    private class Shard {
+        final RiskEngine risk = new RiskEngine(RiskConfig.UNLIMITED, ExecutionListener.NO_OP);
+        final OrderBookManager books = new OrderBookManager(config, risk, 0);
+        final OrderIdSequence orderIds = new OrderIdSequence(0);
+        final CommandProcessor processor = new CommandProcessor(books, risk,
+            new ExecutionReportPublisher((reportBuffer, offset, length) -> { }), orderIds,
+            new CommandApplier(books, null, orderIds), () -> ++clock, null);
+
+        // As MatchingShard.recover does, returning the snapshot it started from
+        long recover() {
+            long snapshotSeqNo = ShardSnapshot.loadLatest(dir, books, risk, orderIds);
+            try (JournalReader reader = new JournalReader(dir, snapshotSeqNo + 1)) {
+                reader.replay(new CommandApplier(books, null, orderIds));
+            }
+            return snapshotSeqNo;
+        }
+
+        // Every resting order in queue order, the order id high-water mark and every user's risk
+        List<String> state() {
+            List<String> state = new ArrayList<>();
+            for (OrderBook book : books.getAllOrderBooks()) {
+                OrderHandler orderEntry = order -> state.add(book.getSymbol() + " " + order.orderId() + " " +
+                    order.side() + " " + order.price() + " " + order.originalQuantity() + "/" +
+                    order.remainingQuantity() + " user " + order.userId() + " at " + order.timestamp() + " client " +
+                    order.clientOrderId());
+                book.forEachOrder(Constants.BUY, orderEntry);
+                book.forEachOrder(Constants.SELL, orderEntry);
+            }
+            state.add("last order id " + orderIds.lastOrderId());
+            for (long userId = 1; userId <= USERS; userId++) {
+                state.add("user " + userId + " open notional " + risk.openNotional(userId));
+                for (Currency currency : Currency.values()) {
+                    state.add("user " + userId + " " + currency + " " + risk.position(userId, currency));
+                }
+            }
+            return state;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.RejectReason;
+import org.json.JSONArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SymbolRegistryTest {
+    private static final SymbolRegistry SYMBOLS = SymbolRegistry.fromJson(new JSONArray("[" +
+        "{ \"id\": 0, \"name\": \"EUR_USD\" }," +
+        "{ \"id\": 3, \"name\": \"USD_JPY\", \"priceScale\": 1000, \"tickSize\": 5, \"minQuantity\": 1000," +
+        "  \"maxQuantity\": 1000000, \"lotSize\": 1000 }," +
+        "{ \"id\": 4, \"name\": \"AUD_NZD\", \"quoteUsdRate\": 0.6 }]"));
+
+    @Test
+    void loadsReferenceData() {
+        CurrencyPair usdJpy = SYMBOLS.get("USD_JPY");
+        assertSame(usdJpy, SYMBOLS.get(3));
+        assertEquals(Currency.USD, usdJpy.base());
+        assertEquals(Currency.JPY, usdJpy.quote());
+        assertEquals(1000, usdJpy.priceScale());
+        assertEquals(5, usdJpy.tickSize());
+        assertEquals(Constants.PRICE_SCALE, SYMBOLS.get(0).priceScale());
+        assertNull(SYMBOLS.get(1));
+        assertNull(SYMBOLS.get(-1));
+        assertEquals(5, SYMBOLS.idLimit());
+    }
+
+    @Test
+    void rejectsDuplicateIds() {
+        assertThrows(IllegalArgumentException.class, () -> SymbolRegistry.fromJson(new JSONArray(
+            "[{ \"id\": 1, \"name\": \"EUR_USD\" }, { \"id\": 1, \"name\": \"GBP_USD\" }]")));
+    }
+
+    @Test
+    void crossesNeedAUsdRateForTheirQuoteCurrency() {
+        assertThrows(IllegalArgumentException.class, () -> SymbolRegistry.fromJson(new JSONArray(
+            "[{ \"id\": 0, \"name\": \"EUR_GBP\" }]")));
+        assertEquals(Constants.PRICE_SCALE, SYMBOLS.get("USD_JPY").usdNotional(150_000));
+        assertEquals(110_000, SYMBOLS.get("EUR_USD").usdNotional(110_000));
+        assertEquals(66_000, SYMBOLS.get("AUD_NZD").usdNotional(110_000));
+    }
+
+    @Test
+    void booksAreCreatedForTheShardsSymbolsOnly() {
+        EngineConfig config = new EngineConfig().symbols(SYMBOLS).shards(2);
+        OrderBookManager shard0 = new OrderBookManager(config, ExecutionListener.NO_OP, 0);
+        assertEquals(SYMBOLS.get(0), shard0.orderBook(0).getSymbol());
+        assertEquals(SYMBOLS.get(4), shard0.orderBook(4).getSymbol());
+        assertNull(shard0.orderBook(3));
+        assertNull(shard0.orderBook(5));
+        assertEquals(SYMBOLS.get(3), new OrderBookManager(config, ExecutionListener.NO_OP, 1).orderBook(3).getSymbol());
+    }
+
+    @Test
+    void ordersMustBeOnTickAndInWholeLots() {
+        EngineConfig config = new EngineConfig().symbols(SYMBOLS);
+        OrderBook book = new OrderBook(SYMBOLS.get("USD_JPY"), BookType.PRICE_LADDER, config);
+        List<RejectReason> rejects = new ArrayList<>();
+        book.setExecutionListener(new ExecutionListener() {
+            @Override
+            public void onRejected(long orderId, long clientOrderId, long userId, CurrencyPair symbol, byte side,
+                                   long price, int quantity, RejectReason reason) {
+                rejects.add(reason);
+            }
+        });
+        assertFalse(book.addOrder(1, Constants.BUY, 150_002, 1_000, 1, 0));
+        assertFalse(book.addOrder(2, Constants.BUY, 150_000, 1_500, 1, 0));
+        assertFalse(book.addOrder(3, Constants.BUY, 150_000, 2_000_000, 1, 0));
+        assertTrue(book.addOrder(4, Constants.BUY, 150_005, 2_000, 1, 0));
+        assertFalse(book.modifyOrder(4, 150_001, 2_000));
+        assertEquals(List.of(RejectReason.INVALID_PRICE, RejectReason.INVALID_QUANTITY, RejectReason.INVALID_QUANTITY,
+            RejectReason.INVALID_PRICE), rejects);
+    }
+
+    @Test
+    void riskCountsQuoteAmountsAtThePairsPriceScale() {
+        EngineConfig config = new EngineConfig().symbols(SYMBOLS);
+        RiskEngine risk = new RiskEngine(RiskConfig.UNLIMITED, ExecutionListener.NO_OP);
+        OrderBook book = new OrderBook(SYMBOLS.get("USD_JPY"), BookType.SORTED_MAP, config);
+        book.setExecutionListener(risk);
+        book.addOrder(1, Constants.SELL, 150_000, 2_000, 1, 0);  // 150.000
+        book.addOrder(2, Constants.BUY, 150_000, 1_000, 2, 0);
+        assertEquals(1_000, risk.position(2, Currency.USD));
+        assertEquals(-150_000, risk.position(2, Currency.JPY));
+        assertEquals(150_000, risk.position(1, Currency.JPY));
+    }
+}
@@ -0,0 +1,95 @@
+package com.saqib.fxengine;
+
+import com.saqib.fxengine.codec.OrderType;
+import com.saqib.fxengine.codec.TimeInForce;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopOfBookTest {
+    private static final int DEPTH = 3;
+
+    @Test
+    void bestPricesFollowTheBook() {
+        OrderBook book = new OrderBook(CurrencyPair.EUR_USD);
+        assertEquals(OrderBook.NO_PRICE, book.bestBid());
+        assertEquals(OrderBook.NO_PRICE, book.bestAsk());
+        book.addOrder(1, Constants.BUY, 110_000, 100, 1, 0);
+        book.addOrder(2, Constants.SELL, 110_003, 100, 1, 0);
+        book.addOrder(3, Constants.SELL, 110_002, 100, 1, 0);
+        assertEquals(110_000, book.bestBid());
+        assertEquals(110_002, book.bestAsk());
+        book.addOrder(4, Constants.BUY, 110_002, 150, 2, 0);
+        assertEquals(110_003, book.bestAsk());
+        assertEquals(110_002, book.bestBid());
+        book.cancelOrder(4);
+        assertEquals(110_000, book.bestBid());
+    }
+
+    @Test
+    void matchesAWalkOfTheSortedMapBook() {
+        checkAgainstWalk(BookType.SORTED_MAP);
+    }
+
+    @Test
+    void matchesAWalkOfThePriceLadderBook() {
+        checkAgainstWalk(BookType.PRICE_LADDER);
+    }
+
+    // Random adds, takes, cancels and amends around a mid; after each the cached top must equal the walked one
+    private static void checkAgainstWalk(BookType bookType) {
+        EngineConfig config = new EngineConfig().topOfBookDepth(DEPTH);
+        OrderBook book = new OrderBook(CurrencyPair.EUR_USD, bookType, config);
+        TopOfBook top = new TopOfBook(DEPTH);
+        SplittableRandom random = new SplittableRandom(7);
+        List<Long> orderIds = new ArrayList<>();
+        for (long orderId = 1; orderId <= 20_000; orderId++) {
+            int op = random.nextInt(10);
+            if (op < 6 || orderIds.isEmpty()) {
+                byte side = random.nextBoolean() ? Constants.BUY : Constants.SELL;
+                long price = 110_000 + (side == Constants.BUY ? -1 : 1) * random.nextInt(-2, 12);
+                TimeInForce timeInForce = random.nextInt(5) == 0 ? TimeInForce.IOC : TimeInForce.GTC;
+                book.addOrder(orderId, side, price, 1 + random.nextInt(300), 1, 0, OrderType.LIMIT, timeInForce);
+                orderIds.add(orderId);
+            } else if (op < 8) {
+                book.cancelOrder(orderIds.remove(random.nextInt(orderIds.size())));
+            } else {
+                long id = orderIds.get(random.nextInt(orderIds.size()));
+                Order order = new Order();
+                if (book.getOrder(id, order)) {
+                    long price = random.nextBoolean() ? order.price() : order.price() + random.nextInt(-3, 4);
+                    book.modifyOrder(id, price, 1 + random.nextInt(300));
+                }
+            }
+            book.readTopOfBook(top);
+            assertEquals(walk(book, Constants.BUY), read(top, Constants.BUY), "bids after order " + orderId);
+            assertEquals(walk(book, Constants.SELL), read(top, Constants.SELL), "asks after order " + orderId);
+            assertEquals(book.forEachLevel(Constants.BUY, (side, price, quantity, count) -> { }),
+                book.levelCount(Constants.BUY), "bid levels after order " + orderId);
+            assertEquals(book.forEachLevel(Constants.SELL, (side, price, quantity, count) -> { }),
+                book.levelCount(Constants.SELL), "ask levels after order " + orderId);
+        }
+    }
+
+    private static List<String> walk(OrderBook book, byte side) {
+        List<String> levels = new ArrayList<>();
+        book.forEachLevel(side, (levelSide, price, quantity, orderCount) -> {
+            if (levels.size() < DEPTH) {
+                levels.add(quantity + "@" + price + "/" + orderCount);
+            }
+        });
+        return levels;
+    }
+
+    private static List<String> read(TopOfBook top, byte side) {
+        List<String> levels = new ArrayList<>();
+        for (int i = 0; i < top.levelCount(side); i++) {
+            levels.add(top.quantity(side, i) + "@" + top.price(side, i) + "/" + top.orderCount(side, i));
+        }
+        return levels;
+    }
+}
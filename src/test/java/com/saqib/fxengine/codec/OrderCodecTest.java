@@ -0,0 +1,204 @@
+package com.saqib.fxengine.codec;
+
+import com.saqib.fxengine.Constants;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderCodecTest {
+    private static final int OFFSET = 16;  // Encode away from zero to catch offset bugs
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(128));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+
+    @Test
+    void newOrderRoundTrip() {
+        new NewOrderEncoder().wrapAndApplyHeader(buffer, OFFSET, headerEncoder)
+            .price(123450)
+            .userId(Long.MAX_VALUE)
+            .symbol(2)
+            .quantity(1_000_000)
+            .side(Constants.SELL)
+            .orderType(OrderType.MARKET)
+            .timeInForce(TimeInForce.FOK)
+            .clientOrderId(-5);
+
+        assertHeader(NewOrderDecoder.TEMPLATE_ID, NewOrderEncoder.BLOCK_LENGTH);
+        NewOrderDecoder decoder = new NewOrderDecoder().wrap(buffer, OFFSET + MessageHeaderDecoder.ENCODED_LENGTH,
+            headerDecoder.blockLength(), headerDecoder.version());
+        assertEquals(123450, decoder.price());
+        assertEquals(Long.MAX_VALUE, decoder.userId());
+        assertEquals(2, decoder.symbol());
+        assertEquals(1_000_000, decoder.quantity());
+        assertEquals(Constants.SELL, decoder.side());
+        assertEquals(OrderType.MARKET, decoder.orderType());
+        assertEquals(TimeInForce.FOK, decoder.timeInForce());
+        assertEquals(-5, decoder.clientOrderId());
+        assertEquals(MessageHeaderDecoder.ENCODED_LENGTH + NewOrderEncoder.BLOCK_LENGTH, NewOrderEncoder.encodedLength());
+    }
+
+    @Test
+    void cancelOrderRoundTrip() {
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, OFFSET, headerEncoder)
+            .orderId(987654321L)
+            .symbol(1);
+
+        assertHeader(CancelOrderDecoder.TEMPLATE_ID, CancelOrderEncoder.BLOCK_LENGTH);
+        CancelOrderDecoder decoder = new CancelOrderDecoder().wrap(buffer, OFFSET + MessageHeaderDecoder.ENCODED_LENGTH,
+            headerDecoder.blockLength(), headerDecoder.version());
+        assertEquals(987654321L, decoder.orderId());
+        assertEquals(1, decoder.symbol());
+    }
+
+    @Test
+    void modifyOrderRoundTrip() {
+        new ModifyOrderEncoder().wrapAndApplyHeader(buffer, OFFSET, headerEncoder)
+            .orderId(42)
+            .newPrice(123470)
+            .symbol(0)
+            .newQuantity(250);
+
+        assertHeader(ModifyOrderDecoder.TEMPLATE_ID, ModifyOrderEncoder.BLOCK_LENGTH);
+        ModifyOrderDecoder decoder = new ModifyOrderDecoder().wrap(buffer, OFFSET + MessageHeaderDecoder.ENCODED_LENGTH,
+            headerDecoder.blockLength(), headerDecoder.version());
+        assertEquals(42, decoder.orderId());
+        assertEquals(123470, decoder.newPrice());
+        assertEquals(0, decoder.symbol());
+        assertEquals(250, decoder.newQuantity());
+    }
+
+    @Test
+    void commandBatchRoundTrip() {
+        new CommandBatchEncoder().wrapAndApplyHeader(buffer, OFFSET, headerEncoder).count(2);
+        int position = OFFSET + CommandBatchEncoder.encodedLength();
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, position, headerEncoder).orderId(7).symbol(3);
+        position += CancelOrderEncoder.encodedLength();
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, position, headerEncoder).orderId(8).symbol(4);
+
+        assertHeader(CommandBatchDecoder.TEMPLATE_ID, CommandBatchEncoder.BLOCK_LENGTH);
+        CommandBatchDecoder batch = new CommandBatchDecoder().wrap(buffer, OFFSET + MessageHeaderDecoder.ENCODED_LENGTH,
+            headerDecoder.blockLength(), headerDecoder.version());
+        assertEquals(2, batch.count());
+
+        // Walk the embedded commands by their own headers
+        CancelOrderDecoder decoder = new CancelOrderDecoder();
+        position = OFFSET + MessageHeaderDecoder.ENCODED_LENGTH + headerDecoder.blockLength();
+        for (int i = 0; i < batch.count(); i++) {
+            headerDecoder.wrap(buffer, position);
+            assertEquals(CancelOrderDecoder.TEMPLATE_ID, headerDecoder.templateId());
+            decoder.wrap(buffer, position + MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength(),
+                headerDecoder.version());
+            assertEquals(7 + i, decoder.orderId());
+            assertEquals(3 + i, decoder.symbol());
+            position += MessageHeaderDecoder.ENCODED_LENGTH + headerDecoder.blockLength();
+        }
+    }
+
+    @Test
+    void executionReportRoundTrip() {
+        new ExecutionReportEncoder().wrapAndApplyHeader(buffer, OFFSET, headerEncoder)
+            .orderId(11)
+            .contraOrderId(12)
+            .userId(13)
+            .price(123455)
+            .timestamp(Long.MIN_VALUE)
+            .symbol(1)
+            .lastQuantity(40)
+            .leavesQuantity(60)
+            .execType(ExecType.PARTIAL_FILL)
+            .side(Constants.BUY)
+            .rejectReason(RejectReason.NONE)
+            .clientOrderId(14);
+
+        assertHeader(ExecutionReportDecoder.TEMPLATE_ID, ExecutionReportEncoder.BLOCK_LENGTH);
+        ExecutionReportDecoder decoder = new ExecutionReportDecoder().wrap(buffer,
+            OFFSET + MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength(), headerDecoder.version());
+        assertEquals(11, decoder.orderId());
+        assertEquals(12, decoder.contraOrderId());
+        assertEquals(13, decoder.userId());
+        assertEquals(123455, decoder.price());
+        assertEquals(Long.MIN_VALUE, decoder.timestamp());
+        assertEquals(1, decoder.symbol());
+        assertEquals(40, decoder.lastQuantity());
+        assertEquals(60, decoder.leavesQuantity());
+        assertEquals(ExecType.PARTIAL_FILL, decoder.execType());
+        assertEquals(Constants.BUY, decoder.side());
+        assertEquals(RejectReason.NONE, decoder.rejectReason());
+        assertEquals(14, decoder.clientOrderId());
+    }
+
+    @Test
+    void bookUpdateRoundTrip() {
+        BookUpdateEncoder encoder = new BookUpdateEncoder().wrapAndApplyHeader(buffer, OFFSET, headerEncoder);
+        encoder.entry(0).price(123450).quantity(300).orderCount(3).side(Constants.BUY).action(LevelAction.SET);
+        encoder.entry(1).price(123460).quantity(0).orderCount(0).side(Constants.SELL).action(LevelAction.DELETE);
+        encoder.seqNo(77).timestamp(5).symbol(2).count(2);
+
+        assertHeader(BookUpdateDecoder.TEMPLATE_ID, BookUpdateEncoder.BLOCK_LENGTH);
+        BookUpdateDecoder decoder = new BookUpdateDecoder().wrap(buffer, OFFSET + MessageHeaderDecoder.ENCODED_LENGTH,
+            headerDecoder.blockLength(), headerDecoder.version());
+        assertEquals(77, decoder.seqNo());
+        assertEquals(5, decoder.timestamp());
+        assertEquals(2, decoder.symbol());
+        assertEquals(2, decoder.count());
+        decoder.entry(0);
+        assertEquals(123450, decoder.price());
+        assertEquals(300, decoder.quantity());
+        assertEquals(3, decoder.orderCount());
+        assertEquals(Constants.BUY, decoder.side());
+        assertEquals(LevelAction.SET, decoder.action());
+        decoder.entry(1);
+        assertEquals(123460, decoder.price());
+        assertEquals(Constants.SELL, decoder.side());
+        assertEquals(LevelAction.DELETE, decoder.action());
+        assertEquals(MessageHeaderDecoder.ENCODED_LENGTH + BookUpdateEncoder.BLOCK_LENGTH + 2 * BookUpdateEncoder.ENTRY_LENGTH,
+            BookUpdateEncoder.encodedLength(2));
+    }
+
+    @Test
+    void bookSnapshotRoundTrip() {
+        BookSnapshotEncoder encoder = new BookSnapshotEncoder().wrapAndApplyHeader(buffer, OFFSET, headerEncoder);
+        encoder.entry(0).price(123440).quantity(100).orderCount(1).side(Constants.BUY);
+        encoder.seqNo(78).timestamp(6).symbol(0).count(1);
+
+        assertHeader(BookSnapshotDecoder.TEMPLATE_ID, BookSnapshotEncoder.BLOCK_LENGTH);
+        BookSnapshotDecoder decoder = new BookSnapshotDecoder().wrap(buffer, OFFSET + MessageHeaderDecoder.ENCODED_LENGTH,
+            headerDecoder.blockLength(), headerDecoder.version());
+        assertEquals(78, decoder.seqNo());
+        assertEquals(1, decoder.count());
+        decoder.entry(0);
+        assertEquals(123440, decoder.price());
+        assertEquals(100, decoder.quantity());
+        assertEquals(1, decoder.orderCount());
+        assertEquals(Constants.BUY, decoder.side());
+    }
+
+    @Test
+    void unknownEnumValuesDecodeAsNull() {
+        assertEquals(ExecType.NULL_VAL, ExecType.get((byte) 100));
+        assertEquals(RejectReason.NULL_VAL, RejectReason.get((byte) -1));
+        assertEquals(RejectReason.UNKNOWN_ORDER, RejectReason.get(RejectReason.UNKNOWN_ORDER.value()));
+    }
+
+    @Test
+    void headerFieldsAreUnsigned() {
+        headerEncoder.wrap(buffer, OFFSET).blockLength(65535).templateId(40000).schemaId(1).version(65535);
+
+        headerDecoder.wrap(buffer, OFFSET);
+        assertEquals(65535, headerDecoder.blockLength());
+        assertEquals(40000, headerDecoder.templateId());
+        assertEquals(65535, headerDecoder.version());
+    }
+
+    private void assertHeader(int templateId, int blockLength) {
+        headerDecoder.wrap(buffer, OFFSET);
+        assertEquals(blockLength, headerDecoder.blockLength());
+        assertEquals(templateId, headerDecoder.templateId());
+        assertEquals(MessageHeaderEncoder.SCHEMA_ID, headerDecoder.schemaId());
+        assertEquals(MessageHeaderEncoder.SCHEMA_VERSION, headerDecoder.version());
+    }
+}